@@ -1,13 +1,14 @@
 @echo off
 echo Building BubbleLog plugin...
-call gradlew.bat clean shadowJar
+call gradlew.bat clean shadowJar :paper-agent:jar
 
 if %ERRORLEVEL% EQU 0 (
     echo.
     echo Build successful!
-    echo Plugin JAR: build\libs\BubbleLog-1.0.0.jar
+    echo Plugin JAR: velocity\build\libs\BubbleLog-2.0.2.jar
+    echo Backend agent JAR: paper-agent\build\libs\BubbleLogAgent-2.0.2.jar
     echo.
-    echo Copy this file to your Velocity plugins folder.
+    echo Copy the plugin JAR to your Velocity plugins folder and the agent JAR to each Paper backend.
 ) else (
     echo.
     echo Build failed! Check the output above for errors.
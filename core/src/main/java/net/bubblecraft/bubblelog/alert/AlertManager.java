@@ -0,0 +1,640 @@
+package net.bubblecraft.bubblelog.alert;
+
+import net.bubblecraft.bubblelog.alert.sink.AlertEvent;
+import net.bubblecraft.bubblelog.alert.sink.AlertSink;
+import net.bubblecraft.bubblelog.alert.sink.JmxAlertSink;
+import net.bubblecraft.bubblelog.alert.sink.JsonLinesFileSink;
+import net.bubblecraft.bubblelog.alert.sink.UnixSocketAlertSink;
+import net.bubblecraft.bubblelog.alert.sink.WebhookAlertSink;
+import net.bubblecraft.bubblelog.config.ConfigManager;
+import net.bubblecraft.bubblelog.util.JsonWriter;
+import net.bubblecraft.bubblelog.util.FramedLogWriter;
+import net.bubblecraft.bubblelog.util.LogFiles;
+import net.bubblecraft.bubblelog.monitor.CpuCollector;
+import net.bubblecraft.bubblelog.monitor.DiskIoCollector;
+import net.bubblecraft.bubblelog.monitor.NetworkIoCollector;
+import net.bubblecraft.bubblelog.monitor.PressureCollector;
+import net.bubblecraft.bubblelog.monitor.ProcessCollector;
+import net.bubblecraft.bubblelog.monitor.SystemMonitor;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+public class AlertManager {
+    
+    private final Path dataDirectory;
+    private final Logger logger;
+    private final ConfigManager config;
+    private final HttpClient httpClient;
+    private final DateTimeFormatter dateFormatter;
+    
+    // Every alert destination has its own queue and thread so a slow one can't hold up the others
+    private final List<AlertSink> sinks;
+    private final JmxAlertSink jmxSink;
+    private final WebhookDispatcher discordDispatcher;
+    private final WebhookPayloads payloads = new WebhookPayloads();
+    private final JsonWriter eventWriter = new JsonWriter(1024);
+    private final FramedLogWriter alertWriter;
+    
+    // Track last alert times to implement cooldown
+    private final Map<AlertType, Long> lastAlertTimes = new HashMap<>();
+    
+    // When each resource's pressure first went over the threshold, 0 while below it (cpu, memory, io)
+    private final long[] pressureSince = new long[3];
+    
+    public enum AlertType {
+        CPU_HIGH("High CPU Usage"),
+        CPU_STEAL_HIGH("High CPU Steal"),
+        CORE_SATURATED("CPU Core Saturated"),
+        RAM_HIGH("High RAM Usage"),
+        DISK_HIGH("High Disk Usage"),
+        PRESSURE_HIGH("Sustained Resource Pressure"),
+        IO_SATURATED("Disk I/O Saturated"),
+        NETWORK_SATURATED("Network Interface Saturated"),
+        TCP_DEGRADED("TCP Health Degraded"),
+        FD_EXHAUSTION("File Descriptors Running Out"),
+        SYSTEM_CRITICAL("Critical System State");
+        
+        private final String displayName;
+        
+        AlertType(String displayName) {
+            this.displayName = displayName;
+        }
+        
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+    
+    public AlertManager(Path dataDirectory, Logger logger, ConfigManager config) {
+        this.dataDirectory = dataDirectory;
+        this.logger = logger;
+        this.config = config;
+        this.httpClient = HttpClient.newHttpClient();
+        this.dateFormatter = DateTimeFormatter.ofPattern(config.getDateFormat());
+        this.alertWriter = new FramedLogWriter("alert log", logger, config::getLogFsyncPolicy,
+            () -> config.getLogFsyncInterval() * 1000L);
+        
+        Duration sinkTimeout = Duration.ofMillis(config.getAlertSinkTimeout());
+        
+        // Discord accepts up to 10 embeds per message
+        this.discordDispatcher = new WebhookDispatcher("Discord", logger, httpClient,
+            config::getDiscordWebhookUrl, WebhookPayloads.DISCORD_ENVELOPE,
+            10, config.getWebhookQueueSize(), config.getWebhookBatchWindow(), config.getWebhookMaxRetries(),
+            sinkTimeout, createOutbox("Discord"));
+        WebhookDispatcher slackDispatcher = new WebhookDispatcher("Slack", logger, httpClient,
+            config::getSlackWebhookUrl, WebhookPayloads.SLACK_ENVELOPE,
+            20, config.getWebhookQueueSize(), config.getWebhookBatchWindow(), config.getWebhookMaxRetries(),
+            sinkTimeout, createOutbox("Slack"));
+        WebhookDispatcher genericDispatcher = new WebhookDispatcher("Webhook", logger, httpClient,
+            config::getGenericWebhookUrl, WebhookDispatcher.envelope("{\"alerts\":[", "]}"),
+            50, config.getWebhookQueueSize(), config.getWebhookBatchWindow(), config.getWebhookMaxRetries(),
+            sinkTimeout, createOutbox("Webhook"));
+        
+        this.jmxSink = new JmxAlertSink(config::isJmxEnabled, logger, config.getWebhookQueueSize(),
+            config.getAlertSinkTimeout());
+        this.sinks = List.of(
+            new WebhookAlertSink(discordDispatcher,
+                () -> config.isDiscordWebhookEnabled() && !config.getDiscordWebhookUrl().isEmpty(),
+                event -> encode(event, payloads::discordAlert)),
+            new WebhookAlertSink(slackDispatcher,
+                () -> config.isSlackWebhookEnabled() && !config.getSlackWebhookUrl().isEmpty(),
+                event -> encode(event, payloads::slackAlert)),
+            new WebhookAlertSink(genericDispatcher,
+                () -> config.isGenericWebhookEnabled() && !config.getGenericWebhookUrl().isEmpty(),
+                this::encodeEvent),
+            new JsonLinesFileSink(dataDirectory.resolve(config.getFileAlertSinkPath()),
+                config::isFileAlertSinkEnabled, logger, config.getWebhookQueueSize(), config.getAlertSinkTimeout()),
+            new UnixSocketAlertSink(Path.of(config.getSocketAlertSinkPath()),
+                config::isSocketAlertSinkEnabled, logger, config.getWebhookQueueSize(), config.getAlertSinkTimeout()),
+            jmxSink
+        );
+        for (AlertSink sink : sinks) {
+            sink.start();
+        }
+    }
+    
+    private AlertOutbox createOutbox(String sinkName) {
+        if (!config.isWebhookOutboxEnabled()) {
+            return null;
+        }
+        return new AlertOutbox(dataDirectory.resolve("outbox"), sinkName, logger);
+    }
+    
+    public void checkAndSendAlerts(SystemMonitor.MemoryUsage memUsage, double cpuUsage, 
+                                 java.util.List<SystemMonitor.DiskUsage> diskUsages) {
+        
+        try {
+            if (!config.isPerformanceAlertsEnabled()) {
+                return;
+            }
+            
+            // Validate input parameters
+            if (memUsage == null) {
+                logger.debug("MemoryUsage is null, skipping memory alerts");
+                memUsage = new SystemMonitor.MemoryUsage(0, 0, 0, 0.0);
+            }
+            
+            if (diskUsages == null) {
+                logger.debug("DiskUsages is null, using empty list");
+                diskUsages = java.util.Collections.emptyList();
+            }
+            
+            // Validate CPU usage value
+            if (Double.isNaN(cpuUsage) || Double.isInfinite(cpuUsage) || cpuUsage < 0) {
+                logger.debug("Invalid CPU usage value: {}, skipping CPU alerts", cpuUsage);
+                cpuUsage = 0.0;
+            }
+        
+            // Check CPU alerts
+            try {
+                if (config.isCpuMonitoringEnabled() && cpuUsage * 100 > config.getCpuThreshold()) {
+                    sendAlert(AlertType.CPU_HIGH,
+                        "CPU usage is %.2f%% (threshold: %.1f%%)".formatted(
+                            cpuUsage * 100, config.getCpuThreshold()));
+                }
+            } catch (Exception e) {
+                logger.debug("Error checking CPU alerts", e);
+            }
+            
+            // Check RAM alerts
+            try {
+                if (config.isRamMonitoringEnabled() && memUsage.getUsagePercent() > config.getRamThreshold()) {
+                    sendAlert(AlertType.RAM_HIGH,
+                        "RAM usage is %.2f%% (threshold: %.1f%%) - %s/%s".formatted(
+                            memUsage.getUsagePercent(), config.getRamThreshold(),
+                            formatBytes(memUsage.getUsed()), formatBytes(memUsage.getTotal())));
+                }
+            } catch (Exception e) {
+                logger.debug("Error checking RAM alerts", e);
+            }
+            
+            // Check disk alerts
+            try {
+                if (config.isDiskMonitoringEnabled()) {
+                    for (SystemMonitor.DiskUsage disk : diskUsages) {
+                        try {
+                            if (disk != null && disk.getUsagePercent() > config.getDiskThreshold()) {
+                                sendAlert(AlertType.DISK_HIGH,
+                                    "Disk %s usage is %.2f%% (threshold: %.1f%%) - %s/%s".formatted(
+                                        disk.getName(), disk.getUsagePercent(), config.getDiskThreshold(),
+                                        formatBytes(disk.getUsed()), formatBytes(disk.getTotal())));
+                            }
+                        } catch (Exception e) {
+                            logger.debug("Error checking individual disk alert", e);
+                        }
+                    }
+                }
+            } catch (Exception e) {
+                logger.debug("Error checking disk alerts", e);
+            }
+            
+            // Check for critical system state (multiple thresholds exceeded)
+            try {
+                int criticalCount = 0;
+                if (cpuUsage * 100 > config.getCpuThreshold()) criticalCount++;
+                if (memUsage.getUsagePercent() > config.getRamThreshold()) criticalCount++;
+                
+                long criticalDisks = diskUsages.stream()
+                    .filter(disk -> disk != null)
+                    .mapToLong(disk -> {
+                        try {
+                            return disk.getUsagePercent() > config.getDiskThreshold() ? 1 : 0;
+                        } catch (Exception e) {
+                            logger.debug("Error checking disk in critical state", e);
+                            return 0;
+                        }
+                    })
+                    .sum();
+                
+                if (criticalCount >= 2 || (criticalCount >= 1 && criticalDisks > 0)) {
+                    sendAlert(AlertType.SYSTEM_CRITICAL,
+                        "Multiple system resources are under stress! CPU: %.2f%%, RAM: %.2f%%, Disks with issues: %d".formatted(
+                            cpuUsage * 100, memUsage.getUsagePercent(), criticalDisks));
+                }
+            } catch (Exception e) {
+                logger.debug("Error checking critical system state", e);
+            }
+            
+        } catch (Exception e) {
+            logger.warn("Critical error in alert checking - alerts will continue", e);
+        }
+    }
+    
+    /**
+     * Alert when CPU, memory or I/O stalls stay above the pressure threshold for the configured
+     * duration; a single spike between two ticks doesn't count
+     */
+    public void checkPressureAlerts(PressureCollector.PressureData pressure) {
+        try {
+            if (!config.isPerformanceAlertsEnabled() || !config.isPressureMonitoringEnabled()) {
+                return;
+            }
+            long now = System.currentTimeMillis();
+            checkPressure(0, "CPU", pressure.getCpu(), now);
+            checkPressure(1, "Memory", pressure.getMemory(), now);
+            checkPressure(2, "I/O", pressure.getIo(), now);
+        } catch (Exception e) {
+            logger.debug("Error checking pressure alerts", e);
+        }
+    }
+    
+    private void checkPressure(int index, String resource, PressureCollector.Stall stall, long now) {
+        if (stall == null || stall.getSomeAvg10() <= config.getPressureThreshold()) {
+            pressureSince[index] = 0;
+            return;
+        }
+        if (pressureSince[index] == 0) {
+            pressureSince[index] = now;
+        }
+        long sustainedSeconds = (now - pressureSince[index]) / 1000;
+        if (sustainedSeconds >= config.getPressureDuration()) {
+            StringBuilder message = new StringBuilder("%s pressure: tasks stalled %.2f%% of the time (threshold: %.1f%%) for %ds"
+                .formatted(resource, stall.getSomeAvg10(), config.getPressureThreshold(), sustainedSeconds));
+            if (stall.getFullAvg10() > 0) {
+                message.append(", fully stalled %.2f%%".formatted(stall.getFullAvg10()));
+            }
+            sendAlert(AlertType.PRESSURE_HIGH, message.toString());
+        }
+    }
+    
+    /**
+     * Alert when a device was busy for most of the last interval or its requests queued for too long
+     */
+    public void checkDiskIoAlerts(List<DiskIoCollector.DiskIo> diskIo) {
+        try {
+            if (!config.isPerformanceAlertsEnabled() || !config.isDiskIoMonitoringEnabled()) {
+                return;
+            }
+            for (DiskIoCollector.DiskIo disk : diskIo) {
+                boolean busy = disk.getUtilization() > config.getIoUtilizationThreshold();
+                boolean slow = config.getIoAwaitThreshold() > 0 && disk.getAwaitMs() > config.getIoAwaitThreshold();
+                if (busy || slow) {
+                    sendAlert(AlertType.IO_SATURATED,
+                        "Disk %s (%s) I/O is saturated: %.1f%% busy (threshold: %.1f%%), %.1fms await (threshold: %.0fms), %.0f IOPS".formatted(
+                            disk.getName(), disk.getDevice(), disk.getUtilization(), config.getIoUtilizationThreshold(),
+                            disk.getAwaitMs(), config.getIoAwaitThreshold(), disk.getReadsPerSecond() + disk.getWritesPerSecond()));
+                }
+            }
+        } catch (Exception e) {
+            logger.debug("Error checking disk I/O alerts", e);
+        }
+    }
+    
+    /**
+     * Alert when an interface nears its link speed or drops packets, and when TCP retransmits
+     * climb or the accept queue turns connections away
+     */
+    public void checkNetworkIoAlerts(NetworkIoCollector.NetworkIoData networkIo) {
+        try {
+            if (!config.isPerformanceAlertsEnabled() || !config.isNetworkIoMonitoringEnabled()) {
+                return;
+            }
+            for (NetworkIoCollector.InterfaceIo networkInterface : networkIo.getInterfaces()) {
+                double problems = networkInterface.getDropsPerSecond() + networkInterface.getErrorsPerSecond();
+                if (networkInterface.getUtilization() > config.getNetworkUtilizationThreshold()) {
+                    sendAlert(AlertType.NETWORK_SATURATED,
+                        "Interface %s is at %.1f%% of its %d Mbit/s link (threshold: %.1f%%) - rx %s/s, tx %s/s".formatted(
+                            networkInterface.getName(), networkInterface.getUtilization(), networkInterface.getSpeedMbps(),
+                            config.getNetworkUtilizationThreshold(), formatBytes((long) networkInterface.getRxBytesPerSecond()),
+                            formatBytes((long) networkInterface.getTxBytesPerSecond())));
+                } else if (config.getNetworkErrorsThreshold() > 0 && problems > config.getNetworkErrorsThreshold()) {
+                    sendAlert(AlertType.NETWORK_SATURATED,
+                        "Interface %s is dropping packets: %.1f drops/s, %.1f errors/s (threshold: %.1f/s)".formatted(
+                            networkInterface.getName(), networkInterface.getDropsPerSecond(),
+                            networkInterface.getErrorsPerSecond(), config.getNetworkErrorsThreshold()));
+                }
+            }
+
+            NetworkIoCollector.TcpHealth tcp = networkIo.getTcp();
+            if (tcp == null) {
+                return;
+            }
+            if (config.getListenOverflowThreshold() > 0 && tcp.getListenOverflows() >= config.getListenOverflowThreshold()) {
+                sendAlert(AlertType.TCP_DEGRADED,
+                    "Accept queue overflowed %d time(s) this interval (threshold: %d) - connections are being turned away".formatted(
+                        tcp.getListenOverflows(), config.getListenOverflowThreshold()));
+            } else if (config.getTcpRetransmitThreshold() > 0 && tcp.getRetransmitPercent() > config.getTcpRetransmitThreshold()) {
+                sendAlert(AlertType.TCP_DEGRADED,
+                    "TCP retransmits are %.2f%% of sent segments (threshold: %.1f%%) - %.1f/s across %d connections".formatted(
+                        tcp.getRetransmitPercent(), config.getTcpRetransmitThreshold(), tcp.getRetransmitsPerSecond(),
+                        tcp.getEstablished()));
+            }
+        } catch (Exception e) {
+            logger.debug("Error checking network I/O alerts", e);
+        }
+    }
+    
+    /**
+     * Alert on CPU trouble the average hides: time stolen by the hypervisor, and a single pinned core
+     */
+    public void checkCpuBreakdownAlerts(CpuCollector.CpuBreakdown cpu) {
+        try {
+            if (!config.isPerformanceAlertsEnabled() || !config.isCpuMonitoringEnabled()) {
+                return;
+            }
+            if (config.getCpuStealThreshold() > 0 && cpu.getSteal() > config.getCpuStealThreshold()) {
+                sendAlert(AlertType.CPU_STEAL_HIGH,
+                    "CPU steal is %.1f%% (threshold: %.1f%%) - the host is oversold and the proxy is waiting for CPU time".formatted(
+                        cpu.getSteal(), config.getCpuStealThreshold()));
+            }
+            if (config.getCpuCoreThreshold() > 0 && cpu.getMaxCoreLoad() > config.getCpuCoreThreshold()) {
+                sendAlert(AlertType.CORE_SATURATED,
+                    "CPU core %d is at %.1f%% (threshold: %.1f%%) while the average is %.1f%%".formatted(
+                        cpu.getBusiestCore(), cpu.getMaxCoreLoad(), config.getCpuCoreThreshold(), cpu.getBusy()));
+            }
+        } catch (Exception e) {
+            logger.debug("Error checking CPU breakdown alerts", e);
+        }
+    }
+    
+    /**
+     * Alert when the proxy nears its open file limit, after which every new connection fails
+     */
+    public void checkProcessAlerts(ProcessCollector.ProcessData process) {
+        try {
+            if (!config.isPerformanceAlertsEnabled() || !config.isProcessMonitoringEnabled()) {
+                return;
+            }
+            if (config.getFileDescriptorThreshold() > 0 && process.getFdUtilization() > config.getFileDescriptorThreshold()) {
+                sendAlert(AlertType.FD_EXHAUSTION,
+                    "Proxy has %d of %d file descriptors open (%.1f%%, threshold: %.1f%%) - raise the limit (ulimit -n) before connections start failing".formatted(
+                        process.getOpenFiles(), process.getMaxOpenFiles(), process.getFdUtilization(),
+                        config.getFileDescriptorThreshold()));
+            }
+        } catch (Exception e) {
+            logger.debug("Error checking process alerts", e);
+        }
+    }
+    
+    private void sendAlert(AlertType alertType, String message) {
+        // Check cooldown
+        long currentTime = System.currentTimeMillis();
+        Long lastAlertTime = lastAlertTimes.get(alertType);
+        
+        if (lastAlertTime != null && 
+            (currentTime - lastAlertTime) < config.getAlertCooldown() * 1000L) {
+            return; // Still in cooldown
+        }
+        
+        lastAlertTimes.put(alertType, currentTime);
+        
+        String timestamp = LocalDateTime.now().format(dateFormatter);
+        String fullMessage = "[%s] ALERT - %s: %s".formatted(
+            timestamp, alertType.getDisplayName(), message);
+        
+        // Log to console
+        if (config.isAlertToConsoleEnabled()) {
+            logger.warn("🚨 PERFORMANCE ALERT: {}", message);
+        }
+        
+        // Log to file
+        if (config.isAlertToFileEnabled()) {
+            try {
+                writeAlertToFile(fullMessage);
+            } catch (IOException e) {
+                logger.error("Failed to write alert to file", e);
+            }
+        }
+        
+        // Fan out to every enabled sink - each one only queues, delivery happens on the sink threads
+        publish(new AlertEvent(alertType, message, Instant.now(), false));
+    }
+    
+    /**
+     * Hand an alert to every enabled sink
+     * @return number of sinks that accepted it
+     */
+    private int publish(AlertEvent event) {
+        int accepted = 0;
+        for (AlertSink sink : sinks) {
+            try {
+                if (!sink.isEnabled()) {
+                    continue;
+                }
+                if (sink.publish(event)) {
+                    accepted++;
+                } else {
+                    logger.debug("{} alert sink dropped {} alert", sink.getName(), event.getType());
+                }
+            } catch (Exception e) {
+                logger.warn("Failed to queue alert for {} sink", sink.getName(), e);
+            }
+        }
+        return accepted;
+    }
+    
+    @FunctionalInterface
+    private interface PayloadEncoder {
+        byte[] encode(AlertType type, String message, Instant timestamp);
+    }
+    
+    private byte[] encode(AlertEvent event, PayloadEncoder encoder) {
+        synchronized (payloads) {
+            return encoder.encode(event.getType(), event.getMessage(), event.getTimestamp());
+        }
+    }
+    
+    private byte[] encodeEvent(AlertEvent event) {
+        synchronized (eventWriter) {
+            eventWriter.reset();
+            event.writeJson(eventWriter);
+            return eventWriter.toByteArray();
+        }
+    }
+    
+    private void writeAlertToFile(String alertMessage) throws IOException {
+        Path alertFile = dataDirectory.resolve("logs").resolve(LogFiles.ALERT_LOG_NAME);
+        
+        // Multi-line alerts are one record; the writer reopens the file once it has been rotated
+        alertWriter.append(alertFile, alertMessage);
+    }
+    
+    /**
+     * Writer of alerts.log, for its integrity and data-loss counters
+     */
+    public FramedLogWriter getAlertWriter() {
+        return alertWriter;
+    }
+    
+    private String formatBytes(long bytes) {
+        if (bytes < 1024) return bytes + " B";
+        if (bytes < 1024 * 1024) return "%.2f KB".formatted(bytes / 1024.0);
+        if (bytes < 1024 * 1024 * 1024) return "%.2f MB".formatted(bytes / (1024.0 * 1024));
+        return "%.2f GB".formatted(bytes / (1024.0 * 1024 * 1024));
+    }
+    
+    public List<AlertSink> getSinks() {
+        return sinks;
+    }
+    
+    /**
+     * Sink that emits alerts as JMX notifications; registered as the Alerts MBean
+     */
+    public JmxAlertSink getJmxSink() {
+        return jmxSink;
+    }
+    
+    public void shutdown() {
+        for (AlertSink sink : sinks) {
+            sink.shutdown();
+        }
+        alertWriter.close();
+        logger.info("Alert manager shutdown completed");
+    }
+
+    // Enhanced Discord Integration - System Status Reports
+    public boolean sendDiscordStatusReport(StatusReporter.StatusReport report) {
+        try {
+            if (!config.isDiscordWebhookEnabled() || config.getDiscordWebhookUrl().isEmpty()) {
+                return false;
+            }
+            
+            // Judge health on the window's p95 rather than a single sample
+            double cpuPercent = report.getCpu() != null ? report.getCpu().getP95() : 0.0;
+            double ramPercent = report.getRam() != null ? report.getRam().getP95() : 0.0;
+            String healthStatus = determineSystemHealth(ramPercent, cpuPercent, report.getDisks());
+            
+            byte[] embed;
+            synchronized (payloads) {
+                embed = payloads.discordStatusReport(healthStatus, report, Instant.now());
+            }
+            
+            return discordDispatcher.submit(embed);
+            
+        } catch (Exception e) {
+            logger.debug("Failed to send Discord status report: {}", e.getMessage());
+            return false;
+        }
+    }
+    
+    private String determineSystemHealth(double ramPercent, double cpuPercent, java.util.List<StatusReporter.DiskTrend> disks) {
+        // Determine overall system health based on thresholds
+        boolean cpuHigh = cpuPercent > config.getCpuThreshold();
+        boolean ramHigh = ramPercent > config.getRamThreshold();
+        boolean diskHigh = disks.stream().anyMatch(disk -> disk.getEndPercent() > config.getDiskThreshold());
+        
+        if (cpuHigh && ramHigh) {
+            return "Critical";
+        } else if (cpuHigh || ramHigh || diskHigh) {
+            return "Warning";
+        } else if (cpuPercent > config.getCpuThreshold() * 0.8 || 
+                   ramPercent > config.getRamThreshold() * 0.8) {
+            return "Caution";
+        } else {
+            return "Healthy";
+        }
+    }
+    
+    /**
+     * Send a test webhook to verify Discord integration
+     */
+    public CompletableFuture<Void> sendTestWebhook(String senderName) {
+        if (!config.isDiscordWebhookEnabled()) {
+            return CompletableFuture.failedFuture(new RuntimeException("Discord webhook is not enabled"));
+        }
+        
+        if (config.getDiscordWebhookUrl().isEmpty()) {
+            return CompletableFuture.failedFuture(new RuntimeException("Discord webhook URL is not configured"));
+        }
+        
+        byte[] jsonPayload;
+        synchronized (payloads) {
+            jsonPayload = payloads.discordTestMessage(senderName, Instant.now());
+        }
+        
+        HttpRequest request = HttpRequest.newBuilder()
+            .uri(URI.create(config.getDiscordWebhookUrl()))
+            .header("Content-Type", "application/json")
+            .header("User-Agent", "BubbleLog/1.0.0 (System Monitor)")
+            .timeout(java.time.Duration.ofSeconds(10))
+            .POST(HttpRequest.BodyPublishers.ofByteArray(jsonPayload))
+            .build();
+        
+        // sendAsync so the caller's thread (and the common pool) never blocks on the network
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+            .handle((response, throwable) -> {
+                if (throwable != null) {
+                    Throwable cause = throwable instanceof java.util.concurrent.CompletionException && throwable.getCause() != null
+                        ? throwable.getCause() : throwable;
+                    if (cause instanceof java.net.http.HttpTimeoutException) {
+                        logger.warn("Test Discord webhook timed out - network may be slow");
+                        throw new RuntimeException("Discord webhook timeout", cause);
+                    }
+                    logger.warn("Test Discord webhook network error: {}", cause.getMessage());
+                    throw new RuntimeException("Discord webhook network error", cause);
+                }
+                
+                if (response.statusCode() >= 400) {
+                    logger.warn("Test Discord webhook returned error status: {} - {}", response.statusCode(), response.body());
+                    throw new RuntimeException("Discord webhook returned error status: " + response.statusCode());
+                }
+                
+                logger.info("Test Discord webhook sent successfully by {}", senderName);
+                return null;
+            });
+    }
+    
+    /**
+     * Send a test alert with simulated high resource usage
+     */
+    public void sendTestAlert(SystemMonitor.MemoryUsage testMemUsage, double testCpuUsage, String senderName) {
+        try {
+            if (!config.isPerformanceAlertsEnabled()) {
+                throw new RuntimeException("Performance alerts are not enabled");
+            }
+            
+            // Override cooldown for test alerts
+            long currentTime = System.currentTimeMillis();
+            for (AlertType type : AlertType.values()) {
+                lastAlertTimes.put(type, currentTime - config.getAlertCooldown() * 1000L - 1000L);
+            }
+            
+            String testMessage = (
+                """
+                TEST ALERT - Simulated high resource usage (initiated by %s):
+                • CPU Usage: %.1f%% (threshold: %.1f%%)
+                • RAM Usage: %.1f%% (threshold: %.1f%%)
+                • Used Memory: %s / %s
+                • Available Memory: %s
+                
+                This is a test alert to verify that your alert system is working correctly.""").formatted(
+                senderName,
+                testCpuUsage * 100, config.getCpuThreshold(),
+                testMemUsage.getUsagePercent(), config.getRamThreshold(),
+                formatBytes(testMemUsage.getUsed()), formatBytes(testMemUsage.getTotal()),
+                formatBytes(testMemUsage.getAvailable())
+            );
+            
+            // Send alert through configured sinks
+            publish(new AlertEvent(AlertType.SYSTEM_CRITICAL, testMessage, Instant.now(), true));
+            
+            // Write to file
+            try {
+                writeAlertToFile("[%s] TEST ALERT: %s".formatted(
+                    LocalDateTime.now().format(dateFormatter), testMessage));
+            } catch (IOException e) {
+                logger.warn("Failed to write test alert to file", e);
+            }
+            
+            logger.info("Test alert sent by {}", senderName);
+            
+        } catch (Exception e) {
+            logger.error("Failed to send test alert", e);
+            throw new RuntimeException("Failed to send test alert: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,333 @@
+package net.bubblecraft.bubblelog.alert;
+
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only on-disk outbox for webhook payloads.
+ *
+ * Every queued payload is written as an ENTRY record before delivery and an ACK record is
+ * appended once the endpoint returns 2xx. On startup the segments are scanned and entries
+ * without an ACK are handed back to the dispatcher in their original order. Segments are
+ * deleted once every entry in them has been acknowledged.
+ *
+ * Writes are group-committed: the dispatcher appends a whole batch and calls {@link #sync}
+ * once before delivering it, so a batch is durable before it can be acknowledged. ACKs are
+ * forced once per batch as well.
+ *
+ * Record layout: [int bodyLength][int crc32c(body)][body], body = [byte type][long seq][payload]
+ */
+public class AlertOutbox {
+
+    private static final byte TYPE_ENTRY = 1;
+    private static final byte TYPE_ACK = 2;
+    private static final int HEADER_SIZE = 8;
+    private static final int BODY_PREFIX = 9;
+    private static final long SEGMENT_MAX_BYTES = 1024 * 1024;
+    private static final long COMPACT_MIN_BYTES = 64 * 1024;
+
+    private final Path directory;
+    private final String name;
+    private final Logger logger;
+
+    // Segment index -> number of entries in it that are not yet acknowledged
+    private final TreeMap<Long, Integer> unackedPerSegment = new TreeMap<>();
+    // Entry sequence -> segment index holding it
+    private final Map<Long, Long> segmentOfEntry = new HashMap<>();
+
+    private FileChannel active;
+    private long activeIndex;
+    private long activeSize;
+    private long nextSeq = 1;
+    // Records written since the last force
+    private boolean dirty;
+
+    public record Entry(long seq, byte[] payload) {}
+
+    public AlertOutbox(Path directory, String name, Logger logger) {
+        this.directory = directory;
+        this.name = name;
+        this.logger = logger;
+    }
+
+    /**
+     * Scan existing segments, truncate any torn tail and open a segment for appending
+     * @return entries that were never acknowledged, oldest first
+     */
+    public synchronized List<Entry> open() throws IOException {
+        Files.createDirectories(directory);
+
+        List<Long> indexes = listSegments();
+        Map<Long, Entry> pending = new LinkedHashMap<>();
+
+        for (long index : indexes) {
+            unackedPerSegment.put(index, 0);
+            scanSegment(index, pending);
+        }
+
+        // Drop fully acknowledged segments left over from the previous run
+        compact();
+
+        activeIndex = unackedPerSegment.isEmpty() ? 1 : unackedPerSegment.lastKey();
+        openActive(activeIndex);
+
+        if (!pending.isEmpty()) {
+            logger.info("{} outbox: {} undelivered webhook message(s) will be replayed", name, pending.size());
+        }
+        return new ArrayList<>(pending.values());
+    }
+
+    private void scanSegment(long index, Map<Long, Entry> pending) throws IOException {
+        Path file = segmentPath(index);
+        byte[] data = Files.readAllBytes(file);
+
+        int validEnd = readRecords(data, (type, seq, payload) -> {
+            nextSeq = Math.max(nextSeq, seq + 1);
+            if (type == TYPE_ENTRY) {
+                pending.put(seq, new Entry(seq, payload));
+                segmentOfEntry.put(seq, index);
+                unackedPerSegment.merge(index, 1, Integer::sum);
+            } else if (type == TYPE_ACK && pending.remove(seq) != null) {
+                releaseEntry(seq);
+            }
+        });
+
+        if (validEnd < data.length) {
+            logger.warn("{} outbox: truncating {} corrupt or incomplete byte(s) from {}",
+                name, data.length - validEnd, file.getFileName());
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.truncate(validEnd);
+                channel.force(true);
+            }
+        }
+    }
+
+    /**
+     * Re-read every entry that is still waiting for an ACK, oldest first. Used by the
+     * dispatcher to pick up entries it parked on disk while the endpoint was down.
+     */
+    public synchronized List<Entry> readPending() throws IOException {
+        Map<Long, Entry> pending = new LinkedHashMap<>();
+        for (long index : unackedPerSegment.keySet()) {
+            Path file = segmentPath(index);
+            if (!Files.exists(file)) continue;
+            readRecords(Files.readAllBytes(file), (type, seq, payload) -> {
+                if (type == TYPE_ENTRY && segmentOfEntry.containsKey(seq)) {
+                    pending.put(seq, new Entry(seq, payload));
+                }
+            });
+        }
+        return new ArrayList<>(pending.values());
+    }
+
+    @FunctionalInterface
+    private interface RecordVisitor {
+        void visit(byte type, long seq, byte[] payload);
+    }
+
+    // Returns the offset just past the last intact record
+    private int readRecords(byte[] data, RecordVisitor visitor) {
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        CRC32C crc = new CRC32C();
+        int validEnd = 0;
+
+        while (buffer.remaining() >= HEADER_SIZE) {
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+            if (length < BODY_PREFIX || length > buffer.remaining()) {
+                break;
+            }
+
+            crc.reset();
+            crc.update(data, buffer.position(), length);
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+
+            byte type = buffer.get();
+            long seq = buffer.getLong();
+            byte[] payload = new byte[length - BODY_PREFIX];
+            buffer.get(payload);
+            visitor.visit(type, seq, payload);
+            validEnd = buffer.position();
+        }
+        return validEnd;
+    }
+
+    /**
+     * Write a payload ahead of delivery. Not durable until the next {@link #sync}.
+     * @return sequence number used to acknowledge it
+     */
+    public synchronized long append(byte[] payload) throws IOException {
+        long seq = nextSeq++;
+        writeRecord(TYPE_ENTRY, seq, payload);
+        segmentOfEntry.put(seq, activeIndex);
+        unackedPerSegment.merge(activeIndex, 1, Integer::sum);
+        return seq;
+    }
+
+    /**
+     * Force everything appended so far to disk, once for the whole batch
+     */
+    public synchronized void sync() throws IOException {
+        if (active != null && dirty) {
+            active.force(false);
+            dirty = false;
+        }
+    }
+
+    /**
+     * Mark entries as delivered and compact segments that no longer hold pending entries
+     */
+    public synchronized void ack(long[] seqs, int count) throws IOException {
+        boolean written = false;
+        for (int i = 0; i < count; i++) {
+            long seq = seqs[i];
+            if (segmentOfEntry.containsKey(seq)) {
+                writeRecord(TYPE_ACK, seq, new byte[0]);
+                releaseEntry(seq);
+                written = true;
+            }
+        }
+        if (written) {
+            // A lost ACK only means a duplicate delivery after a crash, but don't leave it to chance
+            active.force(false);
+            dirty = false;
+        }
+        compact();
+    }
+
+    public synchronized int getPendingCount() {
+        return segmentOfEntry.size();
+    }
+
+    private void releaseEntry(long seq) {
+        Long index = segmentOfEntry.remove(seq);
+        if (index != null) {
+            unackedPerSegment.computeIfPresent(index, (key, count) -> count - 1);
+        }
+    }
+
+    private void writeRecord(byte type, long seq, byte[] payload) throws IOException {
+        if (active == null) {
+            throw new IOException(name + " outbox is not open");
+        }
+        if (activeSize >= SEGMENT_MAX_BYTES) {
+            rollSegment();
+        }
+
+        int bodyLength = BODY_PREFIX + payload.length;
+        ByteBuffer record = ByteBuffer.allocate(HEADER_SIZE + bodyLength);
+        record.position(HEADER_SIZE);
+        record.put(type).putLong(seq).put(payload);
+
+        CRC32C crc = new CRC32C();
+        crc.update(record.array(), HEADER_SIZE, bodyLength);
+        record.putInt(0, bodyLength).putInt(4, (int) crc.getValue());
+        record.rewind();
+
+        while (record.hasRemaining()) {
+            activeSize += active.write(record);
+        }
+        dirty = true;
+    }
+
+    private void compact() throws IOException {
+        // Only a prefix of segments may be removed - ACKs for an entry always live at or after it
+        while (!unackedPerSegment.isEmpty()) {
+            Map.Entry<Long, Integer> oldest = unackedPerSegment.firstEntry();
+            if (oldest.getValue() > 0 || (active != null && oldest.getKey() == activeIndex)) {
+                break;
+            }
+            unackedPerSegment.pollFirstEntry();
+            Files.deleteIfExists(segmentPath(oldest.getKey()));
+        }
+
+        // Everything delivered: start a fresh segment rather than letting the active one grow
+        if (active != null && segmentOfEntry.isEmpty() && activeSize >= COMPACT_MIN_BYTES) {
+            long oldIndex = activeIndex;
+            rollSegment();
+            unackedPerSegment.remove(oldIndex);
+            Files.deleteIfExists(segmentPath(oldIndex));
+        }
+    }
+
+    private void rollSegment() throws IOException {
+        // Everything in the old segment must be durable before entries go to the new one
+        active.force(false);
+        active.close();
+        dirty = false;
+        openActive(activeIndex + 1);
+    }
+
+    private void openActive(long index) throws IOException {
+        activeIndex = index;
+        Path file = segmentPath(index);
+        boolean created = !Files.exists(file);
+        active = FileChannel.open(file,
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        activeSize = active.size();
+        unackedPerSegment.putIfAbsent(index, 0);
+        if (created) {
+            syncDirectory();
+        }
+    }
+
+    // Makes a new segment's directory entry durable, so synced records can't vanish with the file
+    private void syncDirectory() {
+        try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException e) {
+            // Not supported everywhere (e.g. Windows); the file contents are still synced
+            logger.debug("Could not sync {} outbox directory: {}", name, e.getMessage());
+        }
+    }
+
+    private List<Long> listSegments() throws IOException {
+        String prefix = name.toLowerCase() + "-";
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                .filter(file -> file.startsWith(prefix) && file.endsWith(".seg"))
+                .map(file -> {
+                    try {
+                        return Long.parseLong(file.substring(prefix.length(), file.length() - 4));
+                    } catch (NumberFormatException e) {
+                        return -1L;
+                    }
+                })
+                .filter(index -> index >= 0)
+                .sorted()
+                .toList();
+        }
+    }
+
+    private Path segmentPath(long index) {
+        return directory.resolve("%s-%08d.seg".formatted(name.toLowerCase(), index));
+    }
+
+    public synchronized void close() {
+        try {
+            if (active != null) {
+                active.force(false);
+                active.close();
+                active = null;
+            }
+        } catch (IOException e) {
+            logger.debug("Failed to close {} outbox", name, e);
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package net.bubblecraft.bubblelog.alert;
+
+import net.bubblecraft.bubblelog.config.ConfigManager;
+import net.bubblecraft.bubblelog.monitor.MetricsSnapshot;
+import net.bubblecraft.bubblelog.monitor.SnapshotListener;
+import net.bubblecraft.bubblelog.monitor.SystemMonitor;
+import net.bubblecraft.bubblelog.stats.PercentHistogram;
+import net.bubblecraft.bubblelog.stats.RunningStats;
+import org.slf4j.Logger;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the periodic Discord status report from every monitoring tick in the report window.
+ *
+ * Each snapshot is folded into running min/max/sum accumulators and fixed-bin histograms, so
+ * recording is constant-time and producing a report never rescans the window. The window is
+ * reset whenever a report is built.
+ */
+public class StatusReporter implements SnapshotListener {
+
+    private final Logger logger;
+    private final ConfigManager config;
+    private final AlertManager alertManager;
+
+    private final RunningStats cpu = new RunningStats();
+    private final PercentHistogram cpuHistogram = new PercentHistogram();
+    private final RunningStats ram = new RunningStats();
+    private final PercentHistogram ramHistogram = new PercentHistogram();
+    private final RunningStats players = new RunningStats();
+    // Disk name -> usage percent over the window; keyed by mount so the set stays tiny
+    private final Map<String, RunningStats> disks = new LinkedHashMap<>();
+    private final Map<String, Long> diskFree = new LinkedHashMap<>();
+
+    private SystemMonitor.MemoryUsage lastMemory;
+    private int maxPlayers;
+    private long samples;
+    private long windowStart;
+    private long windowGcTime;
+
+    public StatusReporter(Logger logger, ConfigManager config, AlertManager alertManager) {
+        this.logger = logger;
+        this.config = config;
+        this.alertManager = alertManager;
+        this.windowStart = System.currentTimeMillis();
+        this.windowGcTime = getTotalGcTime();
+    }
+
+    @Override
+    public synchronized void onSnapshot(MetricsSnapshot snapshot) {
+        if (snapshot.hasCpu()) {
+            double cpuPercent = snapshot.getCpuUsage() * 100;
+            cpu.add(cpuPercent);
+            cpuHistogram.add(cpuPercent);
+        }
+
+        SystemMonitor.MemoryUsage memory = snapshot.getMemoryUsage();
+        if (memory != null) {
+            ram.add(memory.getUsagePercent());
+            ramHistogram.add(memory.getUsagePercent());
+            lastMemory = memory;
+        }
+
+        SystemMonitor.NetworkData network = snapshot.getNetworkData();
+        if (network != null) {
+            players.add(network.getCurrentPlayers());
+            maxPlayers = network.getMaxPlayers();
+        }
+
+        for (SystemMonitor.DiskUsage disk : snapshot.getDiskUsages()) {
+            disks.computeIfAbsent(disk.getName(), name -> new RunningStats()).add(disk.getUsagePercent());
+            diskFree.put(disk.getName(), disk.getFree());
+        }
+
+        samples++;
+    }
+
+    /**
+     * Close the current window and send it as a status report. Does nothing when reports
+     * are disabled or no samples arrived since the last report.
+     */
+    public void sendReport() {
+        if (!config.isDiscordStatusReportsEnabled()) {
+            return;
+        }
+
+        StatusReport report = takeReport();
+        if (report == null) {
+            logger.debug("Skipping status report - no monitoring samples in the last window");
+            return;
+        }
+
+        if (!alertManager.sendDiscordStatusReport(report)) {
+            logger.debug("Status report was not queued for delivery");
+        }
+    }
+
+    /**
+     * Snapshot the aggregates for the current window and start a new one
+     * @return the finished window, or {@code null} if it holds no samples
+     */
+    public synchronized StatusReport takeReport() {
+        long now = System.currentTimeMillis();
+        long gcTime = getTotalGcTime();
+
+        StatusReport report = null;
+        if (samples > 0) {
+            List<DiskTrend> diskTrends = new ArrayList<>(disks.size());
+            for (Map.Entry<String, RunningStats> entry : disks.entrySet()) {
+                RunningStats stats = entry.getValue();
+                diskTrends.add(new DiskTrend(entry.getKey(), stats.getFirst(), stats.getLast(),
+                    diskFree.getOrDefault(entry.getKey(), 0L)));
+            }
+
+            report = new StatusReport(
+                windowStart, now, samples,
+                summarize(cpu, cpuHistogram), summarize(ram, ramHistogram),
+                lastMemory,
+                players.getCount() > 0 ? (int) players.getMax() : -1,
+                players.getCount() > 0 ? (int) players.getLast() : -1,
+                maxPlayers,
+                diskTrends,
+                gcTime >= 0 && windowGcTime >= 0 ? gcTime - windowGcTime : -1
+            );
+        }
+
+        cpu.reset();
+        cpuHistogram.reset();
+        ram.reset();
+        ramHistogram.reset();
+        players.reset();
+        disks.clear();
+        diskFree.clear();
+        lastMemory = null;
+        samples = 0;
+        windowStart = now;
+        windowGcTime = gcTime;
+        return report;
+    }
+
+    private static UsageSummary summarize(RunningStats stats, PercentHistogram histogram) {
+        if (stats.getCount() == 0) {
+            return null;
+        }
+        return new UsageSummary(stats.getMin(), stats.getAverage(), stats.getMax(), histogram.quantile(0.95));
+    }
+
+    // Cumulative collection time across all collectors, or -1 if the JVM doesn't report it
+    private long getTotalGcTime() {
+        try {
+            long total = 0;
+            boolean reported = false;
+            for (GarbageCollectorMXBean gcBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+                long time = gcBean.getCollectionTime();
+                if (time >= 0) {
+                    total += time;
+                    reported = true;
+                }
+            }
+            return reported ? total : -1;
+        } catch (Exception e) {
+            logger.debug("Failed to read GC time", e);
+            return -1;
+        }
+    }
+
+    public static class UsageSummary {
+        private final double min;
+        private final double average;
+        private final double max;
+        private final double p95;
+
+        public UsageSummary(double min, double average, double max, double p95) {
+            this.min = min;
+            this.average = average;
+            this.max = max;
+            this.p95 = p95;
+        }
+
+        public double getMin() { return min; }
+        public double getAverage() { return average; }
+        public double getMax() { return max; }
+        public double getP95() { return p95; }
+    }
+
+    public static class DiskTrend {
+        private final String name;
+        private final double startPercent;
+        private final double endPercent;
+        private final long free;
+
+        public DiskTrend(String name, double startPercent, double endPercent, long free) {
+            this.name = name;
+            this.startPercent = startPercent;
+            this.endPercent = endPercent;
+            this.free = free;
+        }
+
+        public String getName() { return name; }
+        public double getStartPercent() { return startPercent; }
+        public double getEndPercent() { return endPercent; }
+        public long getFree() { return free; }
+        public double getChange() { return endPercent - startPercent; }
+    }
+
+    public static class StatusReport {
+        private final long windowStart;
+        private final long windowEnd;
+        private final long samples;
+        private final UsageSummary cpu;
+        private final UsageSummary ram;
+        private final SystemMonitor.MemoryUsage lastMemory;
+        private final int peakPlayers;
+        private final int currentPlayers;
+        private final int maxPlayers;
+        private final List<DiskTrend> disks;
+        private final long gcTimeMs;
+
+        public StatusReport(long windowStart, long windowEnd, long samples, UsageSummary cpu, UsageSummary ram,
+                            SystemMonitor.MemoryUsage lastMemory, int peakPlayers, int currentPlayers, int maxPlayers,
+                            List<DiskTrend> disks, long gcTimeMs) {
+            this.windowStart = windowStart;
+            this.windowEnd = windowEnd;
+            this.samples = samples;
+            this.cpu = cpu;
+            this.ram = ram;
+            this.lastMemory = lastMemory;
+            this.peakPlayers = peakPlayers;
+            this.currentPlayers = currentPlayers;
+            this.maxPlayers = maxPlayers;
+            this.disks = disks;
+            this.gcTimeMs = gcTimeMs;
+        }
+
+        public long getWindowStart() { return windowStart; }
+        public long getWindowEnd() { return windowEnd; }
+        public long getSamples() { return samples; }
+        /** CPU percent summary, or {@code null} if CPU monitoring is off */
+        public UsageSummary getCpu() { return cpu; }
+        /** RAM percent summary, or {@code null} if RAM monitoring is off */
+        public UsageSummary getRam() { return ram; }
+        public SystemMonitor.MemoryUsage getLastMemory() { return lastMemory; }
+        /** Highest player count seen in the window, or -1 if network monitoring is off */
+        public int getPeakPlayers() { return peakPlayers; }
+        public int getCurrentPlayers() { return currentPlayers; }
+        public int getMaxPlayers() { return maxPlayers; }
+        public List<DiskTrend> getDisks() { return disks; }
+        /** Milliseconds spent in GC during the window, or -1 if unavailable */
+        public long getGcTimeMs() { return gcTimeMs; }
+        public long getWindowMillis() { return windowEnd - windowStart; }
+    }
+}
@@ -0,0 +1,423 @@
+package net.bubblecraft.bubblelog.alert;
+
+import net.bubblecraft.bubblelog.alert.sink.SinkMetrics;
+import net.bubblecraft.bubblelog.util.JsonWriter;
+import org.slf4j.Logger;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Delivers webhook messages for a single sink (Discord, Slack, ...) from a bounded queue.
+ *
+ * Each dispatcher owns one virtual thread, so a slow or rate-limited endpoint never
+ * blocks the common pool or the other sinks. Parts submitted within the batch window
+ * are coalesced into one request by the {@link PayloadFormatter}.
+ *
+ * {@link #submit} only touches the bounded in-memory queue. With an {@link AlertOutbox}
+ * attached, the dispatcher thread writes each batch to it and syncs once before delivery;
+ * entries are acknowledged on 2xx and replayed in order after an outage or restart. Parts
+ * still in the memory queue are written out on shutdown, but not on a crash.
+ */
+public class WebhookDispatcher {
+
+    private static final long BASE_BACKOFF_MS = 1000;
+    private static final long MAX_BACKOFF_MS = 60_000;
+    private static final long SHUTDOWN_WAIT_MS = 2000;
+
+    private final String name;
+    private final Logger logger;
+    private final HttpClient httpClient;
+    private final Supplier<String> urlSupplier;
+    private final PayloadFormatter formatter;
+    private final int maxBatchSize;
+    private final long batchWindowMs;
+    private final int maxRetries;
+    private final Duration requestTimeout;
+    private final BlockingQueue<byte[]> queue;
+    private final AlertOutbox outbox;
+
+    // Request bodies are built here and handed to the HttpClient without copying (worker thread only)
+    private final JsonWriter payloadWriter = new JsonWriter(4096);
+    private final List<byte[]> partsScratch = new ArrayList<>();
+
+    // Replayed or re-queued messages, delivered before anything new (worker thread only)
+    private final Deque<Message> backlog = new ArrayDeque<>();
+    // Parts moved to the outbox during an outage and not yet back in the backlog (worker thread only)
+    private boolean parkedOnDisk;
+
+    private final SinkMetrics metrics = new SinkMetrics();
+    private final AtomicLong retryCount = new AtomicLong();
+
+    // Earliest time (nanoTime) the next request may be sent, driven by rate-limit headers
+    private long nextAllowedNanos = System.nanoTime();
+
+    private volatile boolean running;
+    private Thread worker;
+
+    private record Message(long seq, byte[] part) {}
+
+    private enum Outcome { DELIVERED, REJECTED, FAILED }
+
+    /**
+     * Writes the request body for a batch of queued parts
+     */
+    @FunctionalInterface
+    public interface PayloadFormatter {
+        void format(List<byte[]> parts, JsonWriter out);
+    }
+
+    /**
+     * Formatter that joins parts with commas between a fixed prefix and suffix,
+     * e.g. Discord's {"embeds":[ ... ]} envelope
+     */
+    public static PayloadFormatter envelope(String prefix, String suffix) {
+        byte[] head = JsonWriter.fragment(prefix);
+        byte[] tail = JsonWriter.fragment(suffix);
+        return (parts, out) -> {
+            out.raw(head);
+            for (int i = 0; i < parts.size(); i++) {
+                if (i > 0) out.raw(',');
+                out.raw(parts.get(i));
+            }
+            out.raw(tail);
+        };
+    }
+
+    public WebhookDispatcher(String name, Logger logger, HttpClient httpClient, Supplier<String> urlSupplier,
+                             PayloadFormatter formatter, int maxBatchSize, int queueSize,
+                             long batchWindowMs, int maxRetries, Duration requestTimeout, AlertOutbox outbox) {
+        this.name = name;
+        this.logger = logger;
+        this.httpClient = httpClient;
+        this.urlSupplier = urlSupplier;
+        this.formatter = formatter;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.batchWindowMs = Math.max(0, batchWindowMs);
+        this.maxRetries = Math.max(0, maxRetries);
+        this.requestTimeout = requestTimeout;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueSize));
+        this.outbox = outbox;
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+
+        if (outbox != null) {
+            try {
+                for (AlertOutbox.Entry entry : outbox.open()) {
+                    backlog.add(new Message(entry.seq(), entry.payload()));
+                }
+            } catch (Exception e) {
+                logger.warn("Failed to open {} webhook outbox - undelivered alerts from the last run are lost", name, e);
+            }
+        }
+
+        worker = Thread.ofVirtual().name("BubbleLog-" + name + "-webhook").start(this::runLoop);
+    }
+
+    /**
+     * Queue a payload part for delivery. Only touches the in-memory queue, so it is safe to
+     * call from the monitoring tick; the outbox write happens on the dispatcher thread.
+     * @return false if the queue is full and the part was dropped
+     */
+    public boolean submit(byte[] part) {
+        if (!running || !queue.offer(part)) {
+            metrics.recordDropped(1);
+            logger.debug("{} webhook queue full - dropping message", name);
+            return false;
+        }
+        return true;
+    }
+
+    private void runLoop() {
+        List<Message> batch = new ArrayList<>(maxBatchSize);
+        long[] seqs = new long[maxBatchSize];
+        while (running) {
+            try {
+                if (backlog.isEmpty() && parkedOnDisk) {
+                    reloadParked();
+                }
+
+                Message first = backlog.poll();
+                batch.add(first != null ? first : persist(queue.take()));
+
+                // Coalesce anything that arrives within the batch window
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(batchWindowMs);
+                while (batch.size() < maxBatchSize) {
+                    if (!backlog.isEmpty()) {
+                        batch.add(backlog.poll());
+                        continue;
+                    }
+                    if (parkedOnDisk) break; // Older parts on disk go first
+                    long remaining = deadline - System.nanoTime();
+                    byte[] next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) break;
+                    batch.add(persist(next));
+                }
+
+                // One fsync for the whole batch, before anything can be acknowledged
+                syncOutbox();
+
+                Outcome outcome = deliver(batch);
+                if (outcome == Outcome.FAILED && outbox != null) {
+                    // Endpoint is down - keep order and try the same batch again after a pause
+                    for (int i = batch.size() - 1; i >= 0; i--) {
+                        backlog.addFirst(batch.get(i));
+                    }
+                    parkQueued(MAX_BACKOFF_MS);
+                } else if (outbox != null) {
+                    int count = 0;
+                    for (Message message : batch) {
+                        if (message.seq() > 0) seqs[count++] = message.seq();
+                    }
+                    if (count > 0) outbox.ack(seqs, count);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                logger.warn("{} webhook dispatcher error: {}", name, e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // Writes a freshly queued part to the outbox; the caller syncs once per batch
+    private Message persist(byte[] part) {
+        long seq = 0;
+        if (outbox != null) {
+            try {
+                seq = outbox.append(part);
+            } catch (Exception e) {
+                logger.debug("{} outbox write failed - message will not survive a restart: {}", name, e.getMessage());
+            }
+        }
+        return new Message(seq, part);
+    }
+
+    private void syncOutbox() {
+        if (outbox == null) {
+            return;
+        }
+        try {
+            outbox.sync();
+        } catch (Exception e) {
+            logger.debug("{} outbox sync failed: {}", name, e.getMessage());
+        }
+    }
+
+    // While the endpoint is down, move new parts from memory to disk so the queue keeps accepting them
+    private void parkQueued(long millis) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            byte[] part = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (part == null) break;
+            if (persist(part).seq() > 0) {
+                parkedOnDisk = true;
+            } else {
+                metrics.recordDropped(1);
+            }
+            // Sync per drained burst rather than per part
+            if (queue.isEmpty()) syncOutbox();
+        }
+        syncOutbox();
+    }
+
+    // Everything in flight has been acknowledged by now, so every pending entry was parked
+    private void reloadParked() {
+        parkedOnDisk = false;
+        try {
+            for (AlertOutbox.Entry entry : outbox.readPending()) {
+                backlog.add(new Message(entry.seq(), entry.payload()));
+            }
+        } catch (Exception e) {
+            logger.debug("Failed to reload {} outbox entries: {}", name, e.getMessage());
+        }
+    }
+
+    private Outcome deliver(List<Message> batch) throws InterruptedException {
+        String url = urlSupplier.get();
+        if (url == null || url.isEmpty()) {
+            metrics.recordDropped(batch.size());
+            return Outcome.REJECTED;
+        }
+
+        partsScratch.clear();
+        for (Message message : batch) {
+            partsScratch.add(message.part());
+        }
+        payloadWriter.reset();
+        formatter.format(partsScratch, payloadWriter);
+
+        HttpRequest request = HttpRequest.newBuilder()
+            .uri(URI.create(url))
+            .header("Content-Type", "application/json")
+            .header("User-Agent", "BubbleLog/1.0.0 (System Monitor)")
+            .timeout(requestTimeout)
+            .POST(HttpRequest.BodyPublishers.ofByteArray(payloadWriter.buffer(), 0, payloadWriter.size()))
+            .build();
+
+        for (int attempt = 0; attempt <= maxRetries; attempt++) {
+            if (attempt > 0) {
+                retryCount.incrementAndGet();
+            }
+            waitForRateLimit();
+
+            long retryDelayMs;
+            long start = System.nanoTime();
+            try {
+                HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+                int status = response.statusCode();
+                updateRateLimit(response);
+
+                if (status < 300) {
+                    metrics.recordDelivered(batch.size(), System.nanoTime() - start);
+                    logger.debug("{} webhook delivered {} message(s)", name, batch.size());
+                    return Outcome.DELIVERED;
+                }
+
+                if (status == 429) {
+                    retryDelayMs = parseRetryAfter(response).orElse(backoff(attempt));
+                    nextAllowedNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(retryDelayMs);
+                    logger.debug("{} webhook rate limited - retrying in {}ms", name, retryDelayMs);
+                    continue;
+                } else if (status < 500) {
+                    // Client errors won't succeed on retry (bad URL, malformed payload, deleted webhook)
+                    logger.warn("{} webhook returned error status: {} - {}", name, status, response.body());
+                    metrics.recordFailed(batch.size());
+                    return Outcome.REJECTED;
+                }
+
+                logger.debug("{} webhook returned server error: {}", name, status);
+                retryDelayMs = backoff(attempt);
+            } catch (java.net.http.HttpTimeoutException e) {
+                logger.debug("{} webhook timed out after {}ms", name, requestTimeout.toMillis());
+                retryDelayMs = backoff(attempt);
+            } catch (java.io.IOException e) {
+                logger.debug("{} webhook network error: {}", name, e.getMessage());
+                retryDelayMs = backoff(attempt);
+            }
+
+            if (attempt < maxRetries) {
+                Thread.sleep(retryDelayMs);
+            }
+        }
+
+        if (outbox != null) {
+            logger.warn("{} webhook failed after {} attempts - {} message(s) kept in outbox for retry",
+                name, maxRetries + 1, batch.size());
+        } else {
+            logger.warn("{} webhook failed after {} attempts - dropping {} message(s)", name, maxRetries + 1, batch.size());
+            metrics.recordFailed(batch.size());
+        }
+        return Outcome.FAILED;
+    }
+
+    private void waitForRateLimit() throws InterruptedException {
+        long waitNanos = nextAllowedNanos - System.nanoTime();
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    // Discord sends X-RateLimit-Remaining / X-RateLimit-Reset-After on every response
+    private void updateRateLimit(HttpResponse<?> response) {
+        Optional<String> remaining = response.headers().firstValue("X-RateLimit-Remaining");
+        Optional<String> resetAfter = response.headers().firstValue("X-RateLimit-Reset-After");
+        if (remaining.isPresent() && resetAfter.isPresent() && "0".equals(remaining.get().trim())) {
+            long delayMs = parseSeconds(resetAfter.get());
+            if (delayMs > 0) {
+                nextAllowedNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMs);
+            }
+        }
+    }
+
+    private Optional<Long> parseRetryAfter(HttpResponse<?> response) {
+        return response.headers().firstValue("Retry-After")
+            .map(this::parseSeconds)
+            .filter(delay -> delay > 0);
+    }
+
+    private long parseSeconds(String value) {
+        try {
+            // Discord may send fractional seconds
+            return (long) Math.ceil(Double.parseDouble(value.trim()) * 1000);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    // Exponential backoff with jitter so several proxies don't retry in lockstep
+    private long backoff(int attempt) {
+        long delay = Math.min(MAX_BACKOFF_MS, BASE_BACKOFF_MS << Math.min(attempt, 16));
+        return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getQueuedCount() {
+        return queue.size();
+    }
+
+    public SinkMetrics getMetrics() {
+        return metrics;
+    }
+
+    public long getRetryCount() {
+        return retryCount.get();
+    }
+
+    public int getOutboxPendingCount() {
+        return outbox != null ? outbox.getPendingCount() : 0;
+    }
+
+    public synchronized void shutdown() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+            try {
+                // An ACK or retry in flight must finish before the outbox is closed under it
+                worker.join(SHUTDOWN_WAIT_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            worker = null;
+        }
+        if (outbox != null) {
+            // Whatever the worker never picked up still gets a chance on next startup
+            byte[] part;
+            while ((part = queue.poll()) != null) {
+                persist(part);
+            }
+            outbox.close();
+        }
+        int pending = outbox != null ? outbox.getPendingCount() : queue.size();
+        if (pending > 0) {
+            logger.info("{} webhook dispatcher stopped with {} undelivered message(s){}", name, pending,
+                outbox != null ? " - they will be sent on next startup" : "");
+        }
+        queue.clear();
+    }
+}
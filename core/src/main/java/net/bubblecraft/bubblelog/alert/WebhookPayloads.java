@@ -0,0 +1,279 @@
+package net.bubblecraft.bubblelog.alert;
+
+import net.bubblecraft.bubblelog.monitor.SystemMonitor;
+import net.bubblecraft.bubblelog.util.JsonWriter;
+
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Precompiled Discord and Slack payload templates.
+ *
+ * Everything that doesn't change between messages (titles, colours, field names, footers)
+ * is encoded once into byte fragments; only the message text, numbers and timestamps are
+ * written per alert. Not thread-safe - callers share one instance under a lock.
+ */
+final class WebhookPayloads {
+
+    static final WebhookDispatcher.PayloadFormatter DISCORD_ENVELOPE =
+        WebhookDispatcher.envelope("{\"content\":null,\"embeds\":[", "],\"attachments\":[]}");
+    static final WebhookDispatcher.PayloadFormatter SLACK_ENVELOPE =
+        WebhookDispatcher.envelope("{\"attachments\":[", "]}");
+
+    // Discord alert embed: {"title":"<static>","description":"<message>","color":<static>,"timestamp":"<iso>",...}
+    private static final Map<AlertManager.AlertType, byte[]> DISCORD_ALERT_HEAD = new EnumMap<>(AlertManager.AlertType.class);
+    private static final Map<AlertManager.AlertType, byte[]> DISCORD_ALERT_COLOR = new EnumMap<>(AlertManager.AlertType.class);
+    private static final Map<AlertManager.AlertType, byte[]> DISCORD_ALERT_FIELDS = new EnumMap<>(AlertManager.AlertType.class);
+    private static final byte[] DISCORD_ALERT_TAIL = JsonWriter.fragment(
+        ":F>\",\"inline\":false}],"
+            + "\"footer\":{\"text\":\"BubbleLog System Monitor • Automatic Alert\",\"icon_url\":\"https://i.imgur.com/rNNH9lq.png\"}}");
+
+    // Slack attachment: {"fallback":"<static>","pretext":"<static>","color":"<static>","fields":[{"title":"Details","value":"<message>",...
+    private static final Map<AlertManager.AlertType, byte[]> SLACK_ALERT_HEAD = new EnumMap<>(AlertManager.AlertType.class);
+    private static final byte[] SLACK_ALERT_TAIL = JsonWriter.fragment(
+        "\",\"short\":false}],\"footer\":\"BubbleLog System Monitor\",\"ts\":");
+
+    static {
+        for (AlertManager.AlertType type : AlertManager.AlertType.values()) {
+            String title = getAlertEmoji(type) + " " + type.getDisplayName();
+            DISCORD_ALERT_HEAD.put(type, JsonWriter.fragment("{\"title\":" + quote(title) + ",\"description\":\""));
+            DISCORD_ALERT_COLOR.put(type, JsonWriter.fragment("\",\"color\":" + getAlertColor(type) + ",\"timestamp\":\""));
+            DISCORD_ALERT_FIELDS.put(type, JsonWriter.fragment(
+                "\",\"thumbnail\":{\"url\":\"https://i.imgur.com/FTpCNyQ.png\"},\"fields\":["
+                    + "{\"name\":\"Alert Type\",\"value\":" + quote(type.getDisplayName()) + ",\"inline\":true},"
+                    + "{\"name\":\"Severity\",\"value\":" + quote(getSeverityLevel(type)) + ",\"inline\":true},"
+                    + "{\"name\":\"Server\",\"value\":\"Velocity Proxy\",\"inline\":true},"
+                    + "{\"name\":\"Timestamp\",\"value\":\"<t:"));
+            SLACK_ALERT_HEAD.put(type, JsonWriter.fragment(
+                "{\"fallback\":" + quote(title) + ",\"pretext\":" + quote(getAlertEmoji(type) + " *" + type.getDisplayName() + "*")
+                    + ",\"color\":" + quote(getSlackColor(type)) + ",\"fields\":[{\"title\":\"Details\",\"value\":\""));
+        }
+    }
+
+    // Status report embed
+    private static final byte[] REPORT_TITLE = JsonWriter.fragment("{\"title\":\"");
+    private static final byte[] REPORT_DESCRIPTION = JsonWriter.fragment(" System Status Report\",\"description\":\"Summary of the last ");
+    private static final byte[] REPORT_COLOR = JsonWriter.fragment(" sample(s))\",\"color\":");
+    private static final byte[] REPORT_TIMESTAMP = JsonWriter.fragment(",\"timestamp\":\"");
+    private static final byte[] REPORT_FIELDS = JsonWriter.fragment(
+        "\",\"thumbnail\":{\"url\":\"https://i.imgur.com/chart-icon.png\"},\"fields\":[");
+    private static final byte[] REPORT_CPU = JsonWriter.fragment("{\"name\":\"🖥️ CPU Usage\",\"value\":\"");
+    private static final byte[] REPORT_MEMORY = JsonWriter.fragment(",{\"name\":\"🧠 Memory Usage\",\"value\":\"");
+    private static final byte[] REPORT_PLAYERS = JsonWriter.fragment(",{\"name\":\"👥 Players\",\"value\":\"");
+    private static final byte[] REPORT_GC = JsonWriter.fragment(",{\"name\":\"♻️ GC Time\",\"value\":\"");
+    private static final byte[] REPORT_DISKS = JsonWriter.fragment(",{\"name\":\"💾 Disk Usage\",\"value\":\"");
+    private static final byte[] REPORT_HEALTH = JsonWriter.fragment(",{\"name\":\"🏥 Overall Health\",\"value\":\"");
+    private static final byte[] FIELD_INLINE = JsonWriter.fragment("\",\"inline\":true}");
+    private static final byte[] FIELD_BLOCK = JsonWriter.fragment("\",\"inline\":false}");
+    private static final byte[] REPORT_TAIL = JsonWriter.fragment(
+        "],\"footer\":{\"text\":\"BubbleLog System Monitor • Status Report\",\"icon_url\":\"https://i.imgur.com/rNNH9lq.png\"}}");
+    private static final byte[] NOT_MONITORED = JsonWriter.fragment("Not monitored");
+    private static final byte[] NO_DISK_DATA = JsonWriter.fragment("No disk data available");
+
+    // Test message (a complete payload, sent directly rather than through the dispatcher)
+    private static final byte[] TEST_HEAD = JsonWriter.fragment(
+        "{\"content\":null,\"embeds\":[{\"title\":\"🧪 Test Webhook\","
+            + "\"description\":\"This is a test message to verify that Discord webhook integration is working correctly.\","
+            + "\"color\":3447003,\"timestamp\":\"");
+    private static final byte[] TEST_SENDER = JsonWriter.fragment(
+        "\",\"thumbnail\":{\"url\":\"https://i.imgur.com/FTpCNyQ.png\"},\"fields\":["
+            + "{\"name\":\"Initiated by\",\"value\":\"");
+    private static final byte[] TEST_TAIL = JsonWriter.fragment(
+        "\",\"inline\":true},"
+            + "{\"name\":\"Test Status\",\"value\":\"✅ Connection Successful\",\"inline\":true},"
+            + "{\"name\":\"Server\",\"value\":\"Velocity Proxy\",\"inline\":true},"
+            + "{\"name\":\"Note\",\"value\":\"If you can see this message, your Discord webhook is configured correctly!\",\"inline\":false}],"
+            + "\"footer\":{\"text\":\"BubbleLog System Monitor • Test Message\",\"icon_url\":\"https://i.imgur.com/rNNH9lq.png\"}}],"
+            + "\"attachments\":[]}");
+
+    private static final double GB = 1024.0 * 1024 * 1024;
+
+    private final JsonWriter writer = new JsonWriter(2048);
+
+    byte[] discordAlert(AlertManager.AlertType type, String message, Instant now) {
+        writer.reset()
+            .raw(DISCORD_ALERT_HEAD.get(type))
+            .escaped(message)
+            .raw(DISCORD_ALERT_COLOR.get(type))
+            .escaped(now.toString())
+            .raw(DISCORD_ALERT_FIELDS.get(type))
+            .number(now.getEpochSecond())
+            .raw(DISCORD_ALERT_TAIL);
+        return writer.toByteArray();
+    }
+
+    byte[] slackAlert(AlertManager.AlertType type, String message, Instant now) {
+        writer.reset()
+            .raw(SLACK_ALERT_HEAD.get(type))
+            .escaped(message)
+            .raw(SLACK_ALERT_TAIL)
+            .number(now.getEpochSecond())
+            .raw('}');
+        return writer.toByteArray();
+    }
+
+    byte[] discordStatusReport(String healthStatus, StatusReporter.StatusReport report, Instant now) {
+        String healthEmoji = getHealthEmoji(healthStatus);
+
+        writer.reset()
+            .raw(REPORT_TITLE).escaped(healthEmoji)
+            .raw(REPORT_DESCRIPTION);
+        writeDuration(report.getWindowMillis());
+        writer.escaped(" (").number(report.getSamples())
+            .raw(REPORT_COLOR).escaped(getHealthColor(healthStatus))
+            .raw(REPORT_TIMESTAMP).escaped(now.toString())
+            .raw(REPORT_FIELDS);
+
+        writer.raw(REPORT_CPU);
+        writeUsage(report.getCpu());
+        writer.raw(FIELD_INLINE);
+
+        writer.raw(REPORT_MEMORY);
+        writeUsage(report.getRam());
+        SystemMonitor.MemoryUsage memory = report.getLastMemory();
+        if (memory != null) {
+            writer.escaped("\nNow ").number(memory.getUsed() / GB, 1)
+                .escaped(" / ").number(memory.getTotal() / GB, 1).escaped(" GB");
+        }
+        writer.raw(FIELD_INLINE);
+
+        writer.raw(REPORT_PLAYERS);
+        if (report.getPeakPlayers() < 0) {
+            writer.raw(NOT_MONITORED);
+        } else {
+            writer.escaped("Peak **").number(report.getPeakPlayers()).escaped("** / ").number(report.getMaxPlayers())
+                .escaped("\nNow ").number(report.getCurrentPlayers());
+        }
+        writer.raw(FIELD_INLINE);
+
+        writer.raw(REPORT_GC);
+        if (report.getGcTimeMs() < 0) {
+            writer.escaped("N/A");
+        } else {
+            long windowMillis = Math.max(1, report.getWindowMillis());
+            writer.number(report.getGcTimeMs()).escaped(" ms (")
+                .number((double) report.getGcTimeMs() / windowMillis * 100, 2).escaped("% of window)");
+        }
+        writer.raw(FIELD_INLINE);
+
+        writer.raw(REPORT_DISKS);
+        List<StatusReporter.DiskTrend> disks = report.getDisks();
+        if (disks.isEmpty()) {
+            writer.raw(NO_DISK_DATA);
+        }
+        for (int i = 0; i < disks.size(); i++) {
+            StatusReporter.DiskTrend disk = disks.get(i);
+            if (i > 0) writer.escaped("\n");
+            double change = disk.getChange();
+            writer.escaped("**").escaped(disk.getName()).escaped("**: ")
+                .number(disk.getStartPercent(), 1).escaped("% → ")
+                .number(disk.getEndPercent(), 1).escaped("% (").escaped(change >= 0 ? "+" : "")
+                .number(change, 1).escaped("%, ")
+                .number(disk.getFree() / GB, 1).escaped(" GB free)");
+        }
+        writer.raw(FIELD_BLOCK);
+
+        writer.raw(REPORT_HEALTH).escaped(healthEmoji).raw(' ').escaped(healthStatus)
+            .escaped(" (based on p95)")
+            .raw(FIELD_BLOCK)
+            .raw(REPORT_TAIL);
+        return writer.toByteArray();
+    }
+
+    // "avg 12.3% · p95 20.1% · max 31.0%" plus the window minimum on a second line
+    private void writeUsage(StatusReporter.UsageSummary usage) {
+        if (usage == null) {
+            writer.raw(NOT_MONITORED);
+            return;
+        }
+        writer.escaped("avg ").number(usage.getAverage(), 1)
+            .escaped("% · p95 ").number(usage.getP95(), 1)
+            .escaped("% · max ").number(usage.getMax(), 1)
+            .escaped("%\nmin ").number(usage.getMin(), 1).raw('%');
+    }
+
+    private void writeDuration(long millis) {
+        long minutes = Math.max(1, Math.round(millis / 60000.0));
+        long hours = minutes / 60;
+        if (hours > 0) {
+            writer.number(hours).raw('h');
+            if (minutes % 60 > 0) {
+                writer.raw(' ');
+            }
+        }
+        if (minutes % 60 > 0) {
+            writer.number(minutes % 60).raw('m');
+        }
+    }
+
+    byte[] discordTestMessage(String senderName, Instant now) {
+        writer.reset()
+            .raw(TEST_HEAD).escaped(now.toString())
+            .raw(TEST_SENDER).escaped(senderName)
+            .raw(TEST_TAIL);
+        return writer.toByteArray();
+    }
+
+    private static String quote(String text) {
+        return new JsonWriter(text.length() + 8).string(text).toString();
+    }
+
+    static String getSeverityLevel(AlertManager.AlertType alertType) {
+        return switch (alertType) {
+            case CPU_HIGH, CPU_STEAL_HIGH, CORE_SATURATED, RAM_HIGH, DISK_HIGH, PRESSURE_HIGH, IO_SATURATED, NETWORK_SATURATED, TCP_DEGRADED, FD_EXHAUSTION -> "⚠️ Warning";
+            case SYSTEM_CRITICAL -> "🚨 Critical";
+        };
+    }
+
+    static String getAlertEmoji(AlertManager.AlertType alertType) {
+        return switch (alertType) {
+            case CPU_HIGH -> "⚡";
+            case CPU_STEAL_HIGH -> "🥷";
+            case CORE_SATURATED -> "🔥";
+            case RAM_HIGH -> "🧠";
+            case DISK_HIGH -> "💾";
+            case PRESSURE_HIGH -> "⏳";
+            case IO_SATURATED -> "🐢";
+            case NETWORK_SATURATED -> "📶";
+            case TCP_DEGRADED -> "🔁";
+            case FD_EXHAUSTION -> "📂";
+            case SYSTEM_CRITICAL -> "🚨";
+        };
+    }
+
+    static String getAlertColor(AlertManager.AlertType alertType) {
+        return switch (alertType) {
+            case CPU_HIGH, CPU_STEAL_HIGH, CORE_SATURATED, RAM_HIGH, DISK_HIGH, PRESSURE_HIGH, IO_SATURATED, NETWORK_SATURATED, TCP_DEGRADED, FD_EXHAUSTION -> "16753920"; // Orange
+            case SYSTEM_CRITICAL -> "16711680"; // Red
+        };
+    }
+
+    static String getSlackColor(AlertManager.AlertType alertType) {
+        return switch (alertType) {
+            case CPU_HIGH, CPU_STEAL_HIGH, CORE_SATURATED, RAM_HIGH, DISK_HIGH, PRESSURE_HIGH, IO_SATURATED, NETWORK_SATURATED, TCP_DEGRADED, FD_EXHAUSTION -> "warning";
+            case SYSTEM_CRITICAL -> "danger";
+        };
+    }
+
+    static String getHealthEmoji(String health) {
+        return switch (health) {
+            case "Healthy" -> "✅";
+            case "Caution" -> "⚠️";
+            case "Warning" -> "🟠";
+            case "Critical" -> "🔴";
+            default -> "❓";
+        };
+    }
+
+    static String getHealthColor(String health) {
+        return switch (health) {
+            case "Healthy" -> "5763719";   // Green
+            case "Caution" -> "16776960";  // Yellow
+            case "Warning" -> "16753920";  // Orange
+            case "Critical" -> "16711680"; // Red
+            default -> "9807270";          // Gray
+        };
+    }
+}
@@ -0,0 +1,58 @@
+package net.bubblecraft.bubblelog.alert.sink;
+
+import net.bubblecraft.bubblelog.alert.AlertManager;
+import net.bubblecraft.bubblelog.util.JsonWriter;
+
+import java.time.Instant;
+
+/**
+ * One alert as handed to every {@link AlertSink}
+ */
+public class AlertEvent {
+
+    private static final byte[] TYPE = JsonWriter.fragment("{\"source\":\"bubblelog\",\"type\":\"");
+    private static final byte[] TITLE = JsonWriter.fragment("\",\"title\":\"");
+    private static final byte[] SEVERITY = JsonWriter.fragment("\",\"severity\":\"");
+    private static final byte[] MESSAGE = JsonWriter.fragment("\",\"message\":\"");
+    private static final byte[] TIMESTAMP = JsonWriter.fragment("\",\"timestamp\":\"");
+    private static final byte[] EPOCH = JsonWriter.fragment("\",\"epoch_ms\":");
+    private static final byte[] TEST = JsonWriter.fragment(",\"test\":");
+
+    private final AlertManager.AlertType type;
+    private final String message;
+    private final Instant timestamp;
+    private final boolean test;
+
+    public AlertEvent(AlertManager.AlertType type, String message, Instant timestamp, boolean test) {
+        this.type = type;
+        this.message = message;
+        this.timestamp = timestamp;
+        this.test = test;
+    }
+
+    public AlertManager.AlertType getType() { return type; }
+    public String getMessage() { return message; }
+    public Instant getTimestamp() { return timestamp; }
+    /** True for alerts raised by /bubblelog testalert */
+    public boolean isTest() { return test; }
+
+    public String getSeverity() {
+        return type == AlertManager.AlertType.SYSTEM_CRITICAL ? "critical" : "warning";
+    }
+
+    /**
+     * Write the generic JSON form used by the file, socket and webhook sinks:
+     * {"source":"bubblelog","type":"CPU_HIGH","title":"...","severity":"warning","message":"...",
+     * "timestamp":"2024-01-01T00:00:00Z","epoch_ms":1704067200000,"test":false}
+     */
+    public void writeJson(JsonWriter out) {
+        out.raw(TYPE).escaped(type.name())
+            .raw(TITLE).escaped(type.getDisplayName())
+            .raw(SEVERITY).escaped(getSeverity())
+            .raw(MESSAGE).escaped(message)
+            .raw(TIMESTAMP).escaped(timestamp.toString())
+            .raw(EPOCH).number(timestamp.toEpochMilli())
+            .raw(TEST).bool(test)
+            .raw('}');
+    }
+}
@@ -0,0 +1,32 @@
+package net.bubblecraft.bubblelog.alert.sink;
+
+/**
+ * Destination for performance alerts (Discord, Slack, a local file, an agent socket, ...).
+ *
+ * {@link #publish(AlertEvent)} is called on the monitoring thread for every sink and must
+ * never block: implementations queue the event and deliver it on their own thread, so a
+ * slow or broken sink can only ever drop its own alerts.
+ */
+public interface AlertSink {
+
+    String getName();
+
+    /**
+     * Whether the sink should receive alerts right now; checked per alert so config reloads apply
+     */
+    boolean isEnabled();
+
+    /**
+     * Queue an alert for delivery without blocking
+     * @return false if the alert was dropped
+     */
+    boolean publish(AlertEvent event);
+
+    int getQueuedCount();
+
+    SinkMetrics getMetrics();
+
+    void start();
+
+    void shutdown();
+}
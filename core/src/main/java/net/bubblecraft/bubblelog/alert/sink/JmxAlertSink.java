@@ -0,0 +1,99 @@
+package net.bubblecraft.bubblelog.alert.sink;
+
+import net.bubblecraft.bubblelog.alert.AlertManager;
+import net.bubblecraft.bubblelog.jmx.AlertsMXBean;
+import net.bubblecraft.bubblelog.jmx.JmxRegistry;
+import org.slf4j.Logger;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.MBeanNotificationInfo;
+import javax.management.Notification;
+import javax.management.NotificationBroadcasterSupport;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationFilter;
+import javax.management.NotificationListener;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Emits alerts as JMX notifications from the {@code type=Alerts} MBean, so JConsole, a JMX
+ * exporter or any other JMX client can subscribe to them.
+ *
+ * Listeners are called on the sink thread; a slow one holds up only this sink.
+ */
+public class JmxAlertSink extends QueuedAlertSink implements AlertsMXBean, NotificationEmitter {
+
+    public static final String NOTIFICATION_PREFIX = "bubblelog.alert.";
+
+    private final BooleanSupplier enabled;
+    private final NotificationBroadcasterSupport broadcaster;
+    private final AtomicLong sequence = new AtomicLong();
+
+    public JmxAlertSink(BooleanSupplier enabled, Logger logger, int queueSize, long timeoutMs) {
+        super("JMX", logger, queueSize, timeoutMs);
+        this.enabled = enabled;
+        String[] types = Arrays.stream(AlertManager.AlertType.values())
+            .map(JmxAlertSink::notificationType)
+            .toArray(String[]::new);
+        this.broadcaster = new NotificationBroadcasterSupport(new MBeanNotificationInfo(types,
+            Notification.class.getName(), "BubbleLog performance alert"));
+    }
+
+    public static String notificationType(AlertManager.AlertType type) {
+        return NOTIFICATION_PREFIX + type.name().toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled.getAsBoolean();
+    }
+
+    @Override
+    protected void deliver(List<AlertEvent> batch) {
+        for (AlertEvent event : batch) {
+            Notification notification = new Notification(notificationType(event.getType()), JmxRegistry.ALERTS,
+                sequence.incrementAndGet(), event.getTimestamp().toEpochMilli(), event.getMessage());
+            notification.setUserData(Map.of(
+                "type", event.getType().name(),
+                "title", event.getType().getDisplayName(),
+                "severity", event.getSeverity(),
+                "test", event.isTest()));
+            broadcaster.sendNotification(notification);
+        }
+    }
+
+    @Override
+    public long getNotificationsSent() {
+        return getMetrics().getSent();
+    }
+
+    @Override
+    public long getNotificationsDropped() {
+        return getMetrics().getDropped() + getMetrics().getFailed() + getMetrics().getTimedOut();
+    }
+
+    @Override
+    public void addNotificationListener(NotificationListener listener, NotificationFilter filter, Object handback) {
+        broadcaster.addNotificationListener(listener, filter, handback);
+    }
+
+    @Override
+    public void removeNotificationListener(NotificationListener listener) throws ListenerNotFoundException {
+        broadcaster.removeNotificationListener(listener);
+    }
+
+    @Override
+    public void removeNotificationListener(NotificationListener listener, NotificationFilter filter, Object handback)
+            throws ListenerNotFoundException {
+        broadcaster.removeNotificationListener(listener, filter, handback);
+    }
+
+    @Override
+    public MBeanNotificationInfo[] getNotificationInfo() {
+        return broadcaster.getNotificationInfo();
+    }
+}
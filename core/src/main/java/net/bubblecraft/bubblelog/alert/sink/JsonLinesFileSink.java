@@ -0,0 +1,80 @@
+package net.bubblecraft.bubblelog.alert.sink;
+
+import net.bubblecraft.bubblelog.util.JsonWriter;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Appends alerts to a file as JSON Lines, one object per line, for log shippers and jq
+ */
+public class JsonLinesFileSink extends QueuedAlertSink {
+
+    private final Path file;
+    private final BooleanSupplier enabled;
+    private final JsonWriter writer = new JsonWriter(2048);
+    private volatile FileChannel channel;
+
+    public JsonLinesFileSink(Path file, BooleanSupplier enabled, Logger logger, int queueSize, long timeoutMs) {
+        super("File", logger, queueSize, timeoutMs);
+        this.file = file;
+        this.enabled = enabled;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled.getAsBoolean();
+    }
+
+    @Override
+    protected void deliver(List<AlertEvent> batch) throws IOException {
+        writer.reset();
+        for (AlertEvent event : batch) {
+            event.writeJson(writer);
+            writer.raw('\n');
+        }
+
+        try {
+            if (channel == null || !channel.isOpen()) {
+                Path parent = file.getParent();
+                if (parent != null) {
+                    Files.createDirectories(parent);
+                }
+                channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+            }
+            // One write per batch keeps lines whole even if another process appends too
+            ByteBuffer buffer = ByteBuffer.wrap(writer.buffer(), 0, writer.size());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    @Override
+    protected void onTimeout() {
+        close();
+    }
+
+    @Override
+    protected void close() {
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (IOException e) {
+            logger.debug("Failed to close alert file {}", file, e);
+        }
+        channel = null;
+    }
+}
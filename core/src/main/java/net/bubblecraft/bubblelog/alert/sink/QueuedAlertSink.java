@@ -0,0 +1,160 @@
+package net.bubblecraft.bubblelog.alert.sink;
+
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Base for sinks that write alerts themselves (files, sockets).
+ *
+ * Events go into a bounded queue drained by one virtual thread per sink. Each batch is
+ * delivered on a separate virtual thread and abandoned after the configured timeout; the
+ * delivery thread is interrupted, which closes any interruptible channel it was blocked on,
+ * and {@link #onTimeout()} lets the sink reset its connection. Deliveries never overlap, so
+ * subclasses don't need their own locking around {@link #deliver(List)}.
+ */
+public abstract class QueuedAlertSink implements AlertSink {
+
+    private static final int MAX_BATCH_SIZE = 64;
+
+    protected final String name;
+    protected final Logger logger;
+    private final BlockingQueue<AlertEvent> queue;
+    private final long timeoutMs;
+    private final SinkMetrics metrics = new SinkMetrics();
+    // A timed-out delivery may still be unwinding; never let two run against the same resource
+    private final ReentrantLock deliveryLock = new ReentrantLock();
+
+    private volatile boolean running;
+    private Thread worker;
+
+    protected QueuedAlertSink(String name, Logger logger, int queueSize, long timeoutMs) {
+        this.name = name;
+        this.logger = logger;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueSize));
+        this.timeoutMs = Math.max(1, timeoutMs);
+    }
+
+    /**
+     * Write a batch of alerts, blocking until it is done. Runs on a delivery thread that is
+     * interrupted if the sink timeout expires.
+     */
+    protected abstract void deliver(List<AlertEvent> batch) throws Exception;
+
+    /**
+     * Called on the worker thread after a delivery timed out, e.g. to drop a stuck connection
+     */
+    protected void onTimeout() {
+    }
+
+    /**
+     * Release files or connections; called once on shutdown
+     */
+    protected void close() {
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        worker = Thread.ofVirtual().name("BubbleLog-" + name + "-sink").start(this::runLoop);
+    }
+
+    @Override
+    public boolean publish(AlertEvent event) {
+        if (!running || !queue.offer(event)) {
+            metrics.recordDropped(1);
+            logger.debug("{} alert sink queue full - dropping alert", name);
+            return false;
+        }
+        return true;
+    }
+
+    private void runLoop() {
+        List<AlertEvent> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        while (running) {
+            try {
+                batch.add(queue.take());
+                queue.drainTo(batch, MAX_BATCH_SIZE - 1);
+                deliverWithTimeout(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                logger.warn("{} alert sink error: {}", name, e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void deliverWithTimeout(List<AlertEvent> batch) throws InterruptedException {
+        FutureTask<Void> task = new FutureTask<>(() -> {
+            deliveryLock.lockInterruptibly();
+            try {
+                deliver(batch);
+            } finally {
+                deliveryLock.unlock();
+            }
+            return null;
+        });
+        long start = System.nanoTime();
+        Thread.ofVirtual().name("BubbleLog-" + name + "-delivery").start(task);
+
+        try {
+            task.get(timeoutMs, TimeUnit.MILLISECONDS);
+            metrics.recordDelivered(batch.size(), System.nanoTime() - start);
+        } catch (TimeoutException e) {
+            task.cancel(true);
+            metrics.recordTimedOut(batch.size());
+            logger.warn("{} alert sink timed out after {}ms - {} alert(s) lost", name, timeoutMs, batch.size());
+            onTimeout();
+        } catch (ExecutionException e) {
+            metrics.recordFailed(batch.size());
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            logger.warn("{} alert sink failed - {} alert(s) lost: {}", name, batch.size(), cause.getMessage());
+        } catch (InterruptedException e) {
+            task.cancel(true);
+            throw e;
+        }
+    }
+
+    @Override
+    public int getQueuedCount() {
+        return queue.size();
+    }
+
+    @Override
+    public SinkMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public synchronized void shutdown() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+            worker = null;
+        }
+        if (!queue.isEmpty()) {
+            logger.info("{} alert sink stopped with {} undelivered alert(s)", name, queue.size());
+            queue.clear();
+        }
+        close();
+    }
+}
@@ -0,0 +1,107 @@
+package net.bubblecraft.bubblelog.alert.sink;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Delivery counters and a latency histogram for one alert sink.
+ *
+ * Latency is recorded per delivery attempt that succeeded (one request or one write,
+ * which may carry several alerts) into fixed millisecond buckets. All methods are
+ * lock-free and safe to call from any thread.
+ */
+public class SinkMetrics {
+
+    /** Upper bounds (inclusive, milliseconds) of the latency buckets; a final bucket catches the rest */
+    private static final long[] LATENCY_BOUNDS_MS = {1, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000};
+
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong timedOut = new AtomicLong();
+    private final AtomicLongArray latencyBuckets = new AtomicLongArray(LATENCY_BOUNDS_MS.length + 1);
+    private final AtomicLong latencyCount = new AtomicLong();
+    private final AtomicLong latencySumNanos = new AtomicLong();
+
+    /**
+     * @param alerts number of alerts carried by the delivery
+     * @param latencyNanos time from starting the delivery to its acknowledgement
+     */
+    public void recordDelivered(int alerts, long latencyNanos) {
+        sent.addAndGet(alerts);
+        long latencyMs = TimeUnit.NANOSECONDS.toMillis(latencyNanos);
+        int bucket = 0;
+        while (bucket < LATENCY_BOUNDS_MS.length && latencyMs > LATENCY_BOUNDS_MS[bucket]) {
+            bucket++;
+        }
+        latencyBuckets.incrementAndGet(bucket);
+        latencyCount.incrementAndGet();
+        latencySumNanos.addAndGet(latencyNanos);
+    }
+
+    /** Alerts discarded before delivery was attempted (queue full, sink misconfigured) */
+    public void recordDropped(int alerts) {
+        dropped.addAndGet(alerts);
+    }
+
+    /** Alerts whose delivery was attempted and failed */
+    public void recordFailed(int alerts) {
+        failed.addAndGet(alerts);
+    }
+
+    /** Alerts whose delivery exceeded the sink timeout; they are also counted as failed */
+    public void recordTimedOut(int alerts) {
+        timedOut.addAndGet(alerts);
+        failed.addAndGet(alerts);
+    }
+
+    public long getSent() { return sent.get(); }
+    public long getDropped() { return dropped.get(); }
+    public long getFailed() { return failed.get(); }
+    public long getTimedOut() { return timedOut.get(); }
+    public long getLatencyCount() { return latencyCount.get(); }
+
+    public double getLatencySumMillis() {
+        return latencySumNanos.get() / 1_000_000.0;
+    }
+
+    public static long[] getLatencyBoundsMillis() {
+        return LATENCY_BOUNDS_MS.clone();
+    }
+
+    /**
+     * Per-bucket (non-cumulative) counts, one more entry than {@link #getLatencyBoundsMillis()}
+     */
+    public long[] getLatencyBucketCounts() {
+        long[] counts = new long[latencyBuckets.length()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = latencyBuckets.get(i);
+        }
+        return counts;
+    }
+
+    /**
+     * Upper bound of the bucket holding the given quantile, or -1 if nothing was recorded.
+     * Values beyond the last bound are reported as that bound.
+     */
+    public long getLatencyQuantileMillis(double quantile) {
+        long[] counts = getLatencyBucketCounts();
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        if (total == 0) {
+            return -1;
+        }
+        long rank = Math.max(1, (long) Math.ceil(Math.max(0.0, Math.min(1.0, quantile)) * total));
+        long seen = 0;
+        for (int i = 0; i < LATENCY_BOUNDS_MS.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return LATENCY_BOUNDS_MS[i];
+            }
+        }
+        return LATENCY_BOUNDS_MS[LATENCY_BOUNDS_MS.length - 1];
+    }
+}
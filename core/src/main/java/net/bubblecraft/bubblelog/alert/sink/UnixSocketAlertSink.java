@@ -0,0 +1,110 @@
+package net.bubblecraft.bubblelog.alert.sink;
+
+import net.bubblecraft.bubblelog.util.JsonWriter;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Streams alerts as newline-delimited JSON to a local agent listening on a UNIX domain socket.
+ *
+ * The connection is opened lazily and re-established after any error. While the agent is
+ * unreachable, reconnects are attempted at most once per {@link #RECONNECT_INTERVAL_MS} and
+ * alerts in between are counted as failed rather than piling up.
+ */
+public class UnixSocketAlertSink extends QueuedAlertSink {
+
+    private static final long RECONNECT_INTERVAL_MS = 5000;
+
+    private final Path socketPath;
+    private final BooleanSupplier enabled;
+    private final JsonWriter writer = new JsonWriter(2048);
+    private volatile SocketChannel channel;
+    private long nextConnectAttempt;
+    private boolean warnedDisconnected;
+
+    public UnixSocketAlertSink(Path socketPath, BooleanSupplier enabled, Logger logger, int queueSize, long timeoutMs) {
+        super("Socket", logger, queueSize, timeoutMs);
+        this.socketPath = socketPath;
+        this.enabled = enabled;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled.getAsBoolean();
+    }
+
+    @Override
+    protected void deliver(List<AlertEvent> batch) throws IOException {
+        writer.reset();
+        for (AlertEvent event : batch) {
+            event.writeJson(writer);
+            writer.raw('\n');
+        }
+
+        try {
+            SocketChannel socket = connect();
+            ByteBuffer buffer = ByteBuffer.wrap(writer.buffer(), 0, writer.size());
+            while (buffer.hasRemaining()) {
+                socket.write(buffer);
+            }
+        } catch (IOException e) {
+            close();
+            if (!warnedDisconnected) {
+                warnedDisconnected = true;
+                logger.warn("Alert socket {} unavailable - retrying every {}s: {}",
+                    socketPath, RECONNECT_INTERVAL_MS / 1000, e.getMessage());
+            }
+            throw e;
+        }
+    }
+
+    private SocketChannel connect() throws IOException {
+        if (channel != null && channel.isOpen()) {
+            return channel;
+        }
+        long now = System.currentTimeMillis();
+        if (now < nextConnectAttempt) {
+            throw new IOException("waiting to reconnect");
+        }
+        nextConnectAttempt = now + RECONNECT_INTERVAL_MS;
+
+        SocketChannel socket = SocketChannel.open(StandardProtocolFamily.UNIX);
+        try {
+            socket.connect(UnixDomainSocketAddress.of(socketPath));
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+        if (warnedDisconnected) {
+            logger.info("Alert socket {} reconnected", socketPath);
+            warnedDisconnected = false;
+        }
+        channel = socket;
+        return socket;
+    }
+
+    @Override
+    protected void onTimeout() {
+        close();
+    }
+
+    @Override
+    protected void close() {
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (IOException e) {
+            logger.debug("Failed to close alert socket {}", socketPath, e);
+        }
+        channel = null;
+    }
+}
@@ -0,0 +1,63 @@
+package net.bubblecraft.bubblelog.alert.sink;
+
+import net.bubblecraft.bubblelog.alert.WebhookDispatcher;
+
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+/**
+ * Adapts a {@link WebhookDispatcher} (Discord, Slack or a generic JSON endpoint) to the sink
+ * interface. The dispatcher already owns the queue, batching, retries and outbox; this class
+ * only encodes each alert into the dispatcher's payload part.
+ */
+public class WebhookAlertSink implements AlertSink {
+
+    private final WebhookDispatcher dispatcher;
+    private final BooleanSupplier enabled;
+    private final Function<AlertEvent, byte[]> encoder;
+
+    public WebhookAlertSink(WebhookDispatcher dispatcher, BooleanSupplier enabled, Function<AlertEvent, byte[]> encoder) {
+        this.dispatcher = dispatcher;
+        this.enabled = enabled;
+        this.encoder = encoder;
+    }
+
+    @Override
+    public String getName() {
+        return dispatcher.getName();
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled.getAsBoolean();
+    }
+
+    @Override
+    public boolean publish(AlertEvent event) {
+        return dispatcher.submit(encoder.apply(event));
+    }
+
+    @Override
+    public int getQueuedCount() {
+        return dispatcher.getQueuedCount();
+    }
+
+    @Override
+    public SinkMetrics getMetrics() {
+        return dispatcher.getMetrics();
+    }
+
+    public WebhookDispatcher getDispatcher() {
+        return dispatcher;
+    }
+
+    @Override
+    public void start() {
+        dispatcher.start();
+    }
+
+    @Override
+    public void shutdown() {
+        dispatcher.shutdown();
+    }
+}
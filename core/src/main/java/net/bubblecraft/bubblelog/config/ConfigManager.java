@@ -0,0 +1,1166 @@
+package net.bubblecraft.bubblelog.config;
+
+import net.bubblecraft.bubblelog.export.StatsdExporter;
+import net.bubblecraft.bubblelog.util.FramedLogWriter;
+import org.slf4j.Logger;
+import org.spongepowered.configurate.CommentedConfigurationNode;
+import org.spongepowered.configurate.yaml.YamlConfigurationLoader;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class ConfigManager {
+    
+    private final Path dataDirectory;
+    private final Logger logger;
+    private final Path configPath;
+    
+    private CommentedConfigurationNode config;
+    
+    // Default values
+    private int monitoringInterval = 30; // seconds
+    private String logFileName = "system-usage.log";
+    private boolean enableCpuMonitoring = true;
+    private boolean enableRamMonitoring = true;
+    private boolean enableDiskMonitoring = true;
+    private boolean enableNetworkMonitoring = true;
+    private boolean enableJvmMonitoring = true;
+    private boolean enableConnectionQualityMonitoring = true;
+    private boolean enablePressureMonitoring = true;
+    private boolean enableDiskIoMonitoring = true;
+    private boolean enableNetworkIoMonitoring = true;
+    private boolean enableSocketMonitoring = true;
+    private boolean enableProcessMonitoring = true;
+    private boolean enableBackendProcessMonitoring = true;
+    private String backendProcessPatterns = "";
+    private int backendProcessScanInterval = 60; // seconds between searches for unmatched backends
+    private boolean enableBackendTickMonitoring = true;
+    private boolean logToConsole = false;
+    private String dateFormat = "yyyy-MM-dd HH:mm:ss";
+    private int maxLogFiles = 7; // Keep 7 days of logs
+    private boolean enableLogCompression = true;
+    private int logCompressionRate = 1024; // KB per second
+    private String logFsyncPolicy = "interval";
+    private int logFsyncInterval = 5; // seconds
+    private boolean enableHistory = true;
+    private int historyRawRetentionDays = 7;
+    private int historyMinuteRetentionDays = 30;
+    private int historyFiveMinuteRetentionDays = 90;
+    private int historyHourRetentionDays = 730;
+    
+    // Metrics export settings
+    private boolean enablePrometheus = false;
+    private String prometheusBindAddress = "127.0.0.1";
+    private int prometheusPort = 9225;
+    private String prometheusPath = "/metrics";
+    private boolean enableStatsd = false;
+    private String statsdHost = "127.0.0.1";
+    private int statsdPort = 8125;
+    private String statsdFlavor = "dogstatsd";
+    private String statsdPrefix = "bubblelog.";
+    private String statsdTags = "";
+    private int statsdMaxPacketSize = 1432; // bytes
+    private boolean enableLineProtocol = false;
+    private String lineProtocolUrl = "http://127.0.0.1:8086/api/v2/write?org=bubblecraft&bucket=bubblelog&precision=ns";
+    private String lineProtocolToken = "";
+    private String lineProtocolTags = "";
+    private int lineProtocolBatchSize = 256; // KB
+    private int lineProtocolFlushInterval = 10; // seconds
+    private boolean enableLineProtocolCompression = true;
+    private int lineProtocolQueueSize = 100; // samples
+    private int lineProtocolSpillMaxSize = 64; // MB
+    private boolean enableJmx = true;
+    private boolean enableDashboard = false;
+    private String dashboardBindAddress = "127.0.0.1";
+    private int dashboardPort = 9226;
+    private int dashboardHistorySize = 240;
+    private int dashboardMaxClients = 16;
+    private int dashboardClientBuffer = 256; // KB
+    
+    // Performance alert settings
+    private boolean enablePerformanceAlerts = true;
+    private double cpuThreshold = 80.0; // Alert when CPU > 80%
+    private double ramThreshold = 85.0; // Alert when RAM > 85%
+    private double diskThreshold = 90.0; // Alert when Disk > 90%
+    private double pressureThreshold = 25.0; // Alert when some tasks stall > 25% of the time...
+    private int pressureDuration = 60; // ...for at least a minute
+    private double ioUtilizationThreshold = 90.0; // Alert when a device is busy > 90% of an interval...
+    private double ioAwaitThreshold = 100.0; // ...or requests take > 100ms on average
+    private double networkUtilizationThreshold = 80.0; // Alert when a NIC runs at > 80% of link speed...
+    private double networkErrorsThreshold = 10.0; // ...or drops/errors > 10 packets per second
+    private double tcpRetransmitThreshold = 5.0; // Alert when > 5% of sent segments are retransmits...
+    private int listenOverflowThreshold = 1; // ...or the accept queue overflows at all
+    private double fileDescriptorThreshold = 90.0; // Alert when the proxy uses > 90% of its fd limit
+    private double cpuStealThreshold = 10.0; // Alert when the hypervisor steals > 10% of CPU time...
+    private double cpuCoreThreshold = 95.0; // ...or a single core runs at > 95%
+    private boolean alertToConsole = true;
+    private boolean alertToFile = true;
+    private int alertCooldown = 300; // 5 minutes between same alerts
+    private boolean enableDiscordWebhook = false;
+    private String discordWebhookUrl = "";
+    private boolean enableDiscordStatusReports = false;
+    private int discordStatusReportInterval = 3600; // 1 hour in seconds
+    private boolean enableSlackWebhook = false;
+    private String slackWebhookUrl = "";
+    
+    // Webhook delivery settings
+    private int webhookQueueSize = 100;
+    private int webhookBatchWindow = 2000; // milliseconds
+    private int webhookMaxRetries = 5;
+    private boolean enableWebhookOutbox = true;
+    
+    // Additional alert sinks
+    private int alertSinkTimeout = 10000; // milliseconds
+    private boolean enableFileAlertSink = false;
+    private String fileAlertSinkPath = "logs/alerts.jsonl";
+    private boolean enableSocketAlertSink = false;
+    private String socketAlertSinkPath = "/run/bubblelog/alerts.sock";
+    private boolean enableGenericWebhook = false;
+    private String genericWebhookUrl = "";
+    
+    public ConfigManager(Path dataDirectory, Logger logger) {
+        this.dataDirectory = dataDirectory;
+        this.logger = logger;
+        this.configPath = dataDirectory.resolve("config.yml");
+    }
+    
+    public void loadConfig() {
+        try {
+            // Create data directory if it doesn't exist
+            if (!Files.exists(dataDirectory)) {
+                Files.createDirectories(dataDirectory);
+            }
+            
+            // Create config file if it doesn't exist
+            if (!Files.exists(configPath)) {
+                createDefaultConfig();
+            }
+            
+            // Load configuration
+            YamlConfigurationLoader loader = YamlConfigurationLoader.builder()
+                .path(configPath)
+                .build();
+            
+            config = loader.load();
+            
+            // Load values
+            monitoringInterval = config.node("monitoring", "interval").getInt(30);
+            logFileName = config.node("logging", "filename").getString("system-usage.log");
+            enableCpuMonitoring = config.node("monitoring", "cpu", "enabled").getBoolean(true);
+            enableRamMonitoring = config.node("monitoring", "ram", "enabled").getBoolean(true);
+            enableDiskMonitoring = config.node("monitoring", "disk", "enabled").getBoolean(true);
+            enableNetworkMonitoring = config.node("monitoring", "network", "enabled").getBoolean(true);
+            enableJvmMonitoring = config.node("monitoring", "jvm", "enabled").getBoolean(true);
+            enableConnectionQualityMonitoring = config.node("monitoring", "connection-quality", "enabled").getBoolean(true);
+            enablePressureMonitoring = config.node("monitoring", "pressure", "enabled").getBoolean(true);
+            enableDiskIoMonitoring = config.node("monitoring", "disk-io", "enabled").getBoolean(true);
+            enableNetworkIoMonitoring = config.node("monitoring", "network-io", "enabled").getBoolean(true);
+            enableSocketMonitoring = config.node("monitoring", "sockets", "enabled").getBoolean(true);
+            enableProcessMonitoring = config.node("monitoring", "process", "enabled").getBoolean(true);
+            enableBackendProcessMonitoring = config.node("monitoring", "backend-processes", "enabled").getBoolean(true);
+            backendProcessPatterns = config.node("monitoring", "backend-processes", "patterns").getString("");
+            backendProcessScanInterval = config.node("monitoring", "backend-processes", "scan-interval").getInt(60);
+            enableBackendTickMonitoring = config.node("monitoring", "backend-ticks", "enabled").getBoolean(true);
+            logToConsole = config.node("logging", "console").getBoolean(false);
+            dateFormat = config.node("logging", "date-format").getString("yyyy-MM-dd HH:mm:ss");
+            maxLogFiles = config.node("logging", "max-files").getInt(7);
+            enableLogCompression = config.node("logging", "compression", "enabled").getBoolean(true);
+            logCompressionRate = config.node("logging", "compression", "max-rate").getInt(1024);
+            logFsyncPolicy = config.node("logging", "fsync", "policy").getString("interval");
+            logFsyncInterval = config.node("logging", "fsync", "interval").getInt(5);
+            enableHistory = config.node("history", "enabled").getBoolean(true);
+            historyRawRetentionDays = config.node("history", "retention", "raw").getInt(7);
+            historyMinuteRetentionDays = config.node("history", "retention", "1m").getInt(30);
+            historyFiveMinuteRetentionDays = config.node("history", "retention", "5m").getInt(90);
+            historyHourRetentionDays = config.node("history", "retention", "1h").getInt(730);
+            
+            // Load metrics export settings
+            enablePrometheus = config.node("export", "prometheus", "enabled").getBoolean(false);
+            prometheusBindAddress = config.node("export", "prometheus", "bind").getString("127.0.0.1");
+            prometheusPort = config.node("export", "prometheus", "port").getInt(9225);
+            prometheusPath = config.node("export", "prometheus", "path").getString("/metrics");
+            enableStatsd = config.node("export", "statsd", "enabled").getBoolean(false);
+            statsdHost = config.node("export", "statsd", "host").getString("127.0.0.1");
+            statsdPort = config.node("export", "statsd", "port").getInt(8125);
+            statsdFlavor = config.node("export", "statsd", "flavor").getString("dogstatsd");
+            statsdPrefix = config.node("export", "statsd", "prefix").getString("bubblelog.");
+            statsdTags = config.node("export", "statsd", "tags").getString("");
+            statsdMaxPacketSize = config.node("export", "statsd", "max-packet-size").getInt(1432);
+            enableLineProtocol = config.node("export", "line-protocol", "enabled").getBoolean(false);
+            lineProtocolUrl = config.node("export", "line-protocol", "url")
+                .getString("http://127.0.0.1:8086/api/v2/write?org=bubblecraft&bucket=bubblelog&precision=ns");
+            lineProtocolToken = config.node("export", "line-protocol", "token").getString("");
+            lineProtocolTags = config.node("export", "line-protocol", "tags").getString("");
+            lineProtocolBatchSize = config.node("export", "line-protocol", "batch-size").getInt(256);
+            lineProtocolFlushInterval = config.node("export", "line-protocol", "flush-interval").getInt(10);
+            enableLineProtocolCompression = config.node("export", "line-protocol", "compression").getBoolean(true);
+            lineProtocolQueueSize = config.node("export", "line-protocol", "queue-size").getInt(100);
+            lineProtocolSpillMaxSize = config.node("export", "line-protocol", "spill-max-size").getInt(64);
+            enableJmx = config.node("export", "jmx", "enabled").getBoolean(true);
+            enableDashboard = config.node("export", "dashboard", "enabled").getBoolean(false);
+            dashboardBindAddress = config.node("export", "dashboard", "bind").getString("127.0.0.1");
+            dashboardPort = config.node("export", "dashboard", "port").getInt(9226);
+            dashboardHistorySize = config.node("export", "dashboard", "history-size").getInt(240);
+            dashboardMaxClients = config.node("export", "dashboard", "max-clients").getInt(16);
+            dashboardClientBuffer = config.node("export", "dashboard", "client-buffer").getInt(256);
+            
+            // Load alert settings
+            enablePerformanceAlerts = config.node("alerts", "enabled").getBoolean(true);
+            cpuThreshold = config.node("alerts", "thresholds", "cpu").getDouble(80.0);
+            ramThreshold = config.node("alerts", "thresholds", "ram").getDouble(85.0);
+            diskThreshold = config.node("alerts", "thresholds", "disk").getDouble(90.0);
+            pressureThreshold = config.node("alerts", "thresholds", "pressure").getDouble(25.0);
+            pressureDuration = config.node("alerts", "thresholds", "pressure-duration").getInt(60);
+            ioUtilizationThreshold = config.node("alerts", "thresholds", "io-utilization").getDouble(90.0);
+            ioAwaitThreshold = config.node("alerts", "thresholds", "io-await").getDouble(100.0);
+            networkUtilizationThreshold = config.node("alerts", "thresholds", "network-utilization").getDouble(80.0);
+            networkErrorsThreshold = config.node("alerts", "thresholds", "network-errors").getDouble(10.0);
+            tcpRetransmitThreshold = config.node("alerts", "thresholds", "tcp-retransmits").getDouble(5.0);
+            listenOverflowThreshold = config.node("alerts", "thresholds", "listen-overflows").getInt(1);
+            fileDescriptorThreshold = config.node("alerts", "thresholds", "file-descriptors").getDouble(90.0);
+            cpuStealThreshold = config.node("alerts", "thresholds", "cpu-steal").getDouble(10.0);
+            cpuCoreThreshold = config.node("alerts", "thresholds", "cpu-core").getDouble(95.0);
+            alertToConsole = config.node("alerts", "console").getBoolean(true);
+            alertToFile = config.node("alerts", "log-to-file").getBoolean(true);
+            alertCooldown = config.node("alerts", "cooldown").getInt(300);
+            enableDiscordWebhook = config.node("alerts", "discord", "enabled").getBoolean(false);
+            discordWebhookUrl = config.node("alerts", "discord", "webhook-url").getString("");
+            enableDiscordStatusReports = config.node("alerts", "discord", "status-reports", "enabled").getBoolean(false);
+            discordStatusReportInterval = config.node("alerts", "discord", "status-reports", "interval").getInt(3600);
+            enableSlackWebhook = config.node("alerts", "slack", "enabled").getBoolean(false);
+            slackWebhookUrl = config.node("alerts", "slack", "webhook-url").getString("");
+            webhookQueueSize = config.node("alerts", "webhooks", "queue-size").getInt(100);
+            webhookBatchWindow = config.node("alerts", "webhooks", "batch-window").getInt(2000);
+            webhookMaxRetries = config.node("alerts", "webhooks", "max-retries").getInt(5);
+            enableWebhookOutbox = config.node("alerts", "webhooks", "outbox").getBoolean(true);
+            alertSinkTimeout = config.node("alerts", "sinks", "timeout").getInt(10000);
+            enableFileAlertSink = config.node("alerts", "sinks", "file", "enabled").getBoolean(false);
+            fileAlertSinkPath = config.node("alerts", "sinks", "file", "path").getString("logs/alerts.jsonl");
+            enableSocketAlertSink = config.node("alerts", "sinks", "socket", "enabled").getBoolean(false);
+            socketAlertSinkPath = config.node("alerts", "sinks", "socket", "path").getString("/run/bubblelog/alerts.sock");
+            enableGenericWebhook = config.node("alerts", "sinks", "webhook", "enabled").getBoolean(false);
+            genericWebhookUrl = config.node("alerts", "sinks", "webhook", "url").getString("");
+            
+            logger.info("Configuration loaded successfully");
+            
+        } catch (Exception e) {
+            logger.error("Failed to load configuration, using defaults", e);
+        }
+    }
+    
+    private void createDefaultConfig() {
+        try {
+            YamlConfigurationLoader loader = YamlConfigurationLoader.builder()
+                .path(configPath)
+                .build();
+            
+            CommentedConfigurationNode root = loader.createNode();
+            
+            // Monitoring settings
+            root.node("monitoring", "interval").set(30)
+                .comment("How often to log system usage (in seconds)");
+            
+            root.node("monitoring", "cpu", "enabled").set(true)
+                .comment("Enable CPU usage monitoring");
+            
+            root.node("monitoring", "ram", "enabled").set(true)
+                .comment("Enable RAM usage monitoring");
+            
+            root.node("monitoring", "disk", "enabled").set(true)
+                .comment("Enable disk usage monitoring");
+            
+            root.node("monitoring", "network", "enabled").set(true)
+                .comment("Enable network and player monitoring");
+            
+            root.node("monitoring", "jvm", "enabled").set(true)
+                .comment("Enable JVM performance monitoring");
+            
+            root.node("monitoring", "connection-quality", "enabled").set(true)
+                .comment("Enable connection quality monitoring (ping, packet loss)");
+            
+            root.node("monitoring", "pressure", "enabled").set(true)
+                .comment("Enable Linux pressure stall monitoring (CPU, memory and I/O stalls; skipped where unavailable)");
+            
+            root.node("monitoring", "disk-io", "enabled").set(true)
+                .comment("Enable per-disk I/O monitoring (IOPS, throughput, latency, utilisation; Linux only)");
+            
+            root.node("monitoring", "network-io", "enabled").set(true)
+                .comment("Enable network interface throughput and TCP health monitoring (retransmits, listen overflows)");
+            
+            root.node("monitoring", "sockets", "enabled").set(true)
+                .comment("Enable the TCP socket census (sockets by state for the proxy port and each backend; Linux only)");
+            
+            root.node("monitoring", "process", "enabled").set(true)
+                .comment("Enable proxy process monitoring (file descriptors, RSS/PSS, context switches, page faults, CPU time)");
+            
+            root.node("monitoring", "backend-processes", "enabled").set(true)
+                .comment("Enable CPU and memory monitoring of backend servers running on the same machine as the proxy");
+            
+            root.node("monitoring", "backend-processes", "patterns").set("")
+                .comment("Text in a backend's command line or working directory, comma separated (e.g. \"lobby=lobby.jar,survival=/srv/survival\").\n"
+                    + "Backends without a pattern match a Java process running in, or started from, a directory named like the backend");
+            
+            root.node("monitoring", "backend-processes", "scan-interval").set(60)
+                .comment("Seconds between searches for backends that haven't been found yet (processes that exit are searched for right away)");
+            
+            root.node("monitoring", "backend-ticks", "enabled").set(true)
+                .comment("Record TPS, tick times, entities and chunks reported by backends running the BubbleLogAgent plugin");
+            
+            // Logging settings
+            root.node("logging", "filename").set("system-usage.log")
+                .comment("Name of the log file");
+            
+            root.node("logging", "console").set(false)
+                .comment("Also log to console/server log");
+            
+            root.node("logging", "date-format").set("yyyy-MM-dd HH:mm:ss")
+                .comment("Date format for log entries");
+            
+            root.node("logging", "max-files").set(7)
+                .comment("Maximum number of log files to keep (0 = unlimited)");
+            
+            root.node("logging", "compression", "enabled").set(true)
+                .comment("Gzip log files in the background once their day is over");
+            root.node("logging", "compression", "max-rate").set(1024)
+                .comment("Maximum KB per second read while compressing (0 = unlimited)");
+            
+            root.node("logging", "fsync", "policy").set("interval")
+                .comment("When log and alert writes are forced to disk: none, interval or batch (every write)");
+            root.node("logging", "fsync", "interval").set(5)
+                .comment("Seconds between syncs with the interval policy - the most a crash can lose");
+            
+            // Metric history
+            root.node("history", "enabled").set(true)
+                .comment("Store compressed metric history with 1m/5m/1h rollups for queries");
+            root.node("history", "retention", "raw").set(7)
+                .comment("Days to keep raw samples (0 = forever)");
+            root.node("history", "retention", "1m").set(30)
+                .comment("Days to keep 1-minute rollups (0 = forever)");
+            root.node("history", "retention", "5m").set(90)
+                .comment("Days to keep 5-minute rollups (0 = forever)");
+            root.node("history", "retention", "1h").set(730)
+                .comment("Days to keep hourly rollups (0 = forever)");
+            
+            // Metrics export
+            root.node("export", "prometheus", "enabled").set(false)
+                .comment("Serve the latest sample in Prometheus/OpenMetrics format over HTTP (requires restart)");
+            root.node("export", "prometheus", "bind").set("127.0.0.1")
+                .comment("Address the metrics endpoint listens on (0.0.0.0 = all interfaces)");
+            root.node("export", "prometheus", "port").set(9225)
+                .comment("Port of the metrics endpoint");
+            root.node("export", "prometheus", "path").set("/metrics")
+                .comment("HTTP path Prometheus scrapes");
+            root.node("export", "statsd", "enabled").set(false)
+                .comment("Push every sample to a StatsD/DogStatsD agent over UDP (requires restart)");
+            root.node("export", "statsd", "host").set("127.0.0.1")
+                .comment("Host of the StatsD agent");
+            root.node("export", "statsd", "port").set(8125)
+                .comment("UDP port of the StatsD agent");
+            root.node("export", "statsd", "flavor").set("dogstatsd")
+                .comment("dogstatsd (labels sent as tags) or statsd (labels become part of the metric name)");
+            root.node("export", "statsd", "prefix").set("bubblelog.")
+                .comment("Prefix for every metric name");
+            root.node("export", "statsd", "tags").set("")
+                .comment("Tags added to every metric with dogstatsd, comma separated (e.g. \"proxy:eu-1,region:eu\")");
+            root.node("export", "statsd", "max-packet-size").set(1432)
+                .comment("Largest datagram in bytes; keep below the network MTU (8192 is fine for localhost)");
+            root.node("export", "line-protocol", "enabled").set(false)
+                .comment("Push every sample in InfluxDB line protocol to an HTTP write endpoint (requires restart)");
+            root.node("export", "line-protocol", "url").set("http://127.0.0.1:8086/api/v2/write?org=bubblecraft&bucket=bubblelog&precision=ns")
+                .comment("Write endpoint; timestamps are sent in nanoseconds");
+            root.node("export", "line-protocol", "token").set("")
+                .comment("API token sent as 'Authorization: Token ...' (empty = none)");
+            root.node("export", "line-protocol", "tags").set("")
+                .comment("Tags added to every line, comma separated (e.g. \"proxy=eu-1,region=eu\")");
+            root.node("export", "line-protocol", "batch-size").set(256)
+                .comment("Send a batch once it reaches this many KB (before compression)");
+            root.node("export", "line-protocol", "flush-interval").set(10)
+                .comment("...or once its oldest sample has waited this many seconds");
+            root.node("export", "line-protocol", "compression").set(true)
+                .comment("Gzip request bodies");
+            root.node("export", "line-protocol", "queue-size").set(100)
+                .comment("Samples held in memory while the endpoint is slow or down");
+            root.node("export", "line-protocol", "spill-max-size").set(64)
+                .comment("MB of samples kept on disk once the memory queue is full, oldest dropped first (0 = no spill)");
+            root.node("export", "jmx", "enabled").set(true)
+                .comment("Register metrics, control operations and alert notifications as JMX MBeans (requires restart)");
+            root.node("export", "dashboard", "enabled").set(false)
+                .comment("Serve a live dashboard page that streams every sample to the browser (requires restart)");
+            root.node("export", "dashboard", "bind").set("127.0.0.1")
+                .comment("Address to listen on; use 0.0.0.0 to reach it from other machines");
+            root.node("export", "dashboard", "port").set(9226)
+                .comment("HTTP port for the dashboard");
+            root.node("export", "dashboard", "history-size").set(240)
+                .comment("Recent samples shown when the page is opened");
+            root.node("export", "dashboard", "max-clients").set(16)
+                .comment("Most browsers connected at once");
+            root.node("export", "dashboard", "client-buffer").set(256)
+                .comment("KB of unsent samples allowed per browser before it is disconnected as too slow");
+            
+            // Alert settings
+            root.node("alerts", "enabled").set(true)
+                .comment("Enable performance alerts");
+            
+            root.node("alerts", "thresholds", "cpu").set(80.0)
+                .comment("CPU usage threshold for alerts (percentage)");
+            
+            root.node("alerts", "thresholds", "ram").set(85.0)
+                .comment("RAM usage threshold for alerts (percentage)");
+            
+            root.node("alerts", "thresholds", "disk").set(90.0)
+                .comment("Disk usage threshold for alerts (percentage)");
+            
+            root.node("alerts", "thresholds", "pressure").set(25.0)
+                .comment("Pressure stall threshold for alerts (percentage of time some tasks waited, 10s average)");
+            
+            root.node("alerts", "thresholds", "pressure-duration").set(60)
+                .comment("Seconds pressure must stay above the threshold before alerting");
+            
+            root.node("alerts", "thresholds", "io-utilization").set(90.0)
+                .comment("Disk I/O saturation threshold (percentage of the interval a device was busy)");
+            
+            root.node("alerts", "thresholds", "io-await").set(100.0)
+                .comment("Disk I/O latency threshold (average milliseconds per request, 0 to disable)");
+            
+            root.node("alerts", "thresholds", "network-utilization").set(80.0)
+                .comment("Network interface threshold (percentage of link speed, where the interface reports one)");
+            
+            root.node("alerts", "thresholds", "network-errors").set(10.0)
+                .comment("Network interface drops and errors per second before alerting (0 to disable)");
+            
+            root.node("alerts", "thresholds", "tcp-retransmits").set(5.0)
+                .comment("TCP retransmit threshold (percentage of sent segments, 0 to disable)");
+            
+            root.node("alerts", "thresholds", "listen-overflows").set(1)
+                .comment("Connections per interval the accept queue may turn away before alerting (0 to disable)");
+            
+            root.node("alerts", "thresholds", "file-descriptors").set(90.0)
+                .comment("Open file descriptor threshold (percentage of the proxy's limit, 0 to disable)");
+            
+            root.node("alerts", "thresholds", "cpu-steal").set(10.0)
+                .comment("CPU steal threshold (percentage of CPU time taken by the hypervisor, 0 to disable)");
+            
+            root.node("alerts", "thresholds", "cpu-core").set(95.0)
+                .comment("Single core threshold (percentage; catches one pinned core the average hides, 0 to disable)");
+            
+            root.node("alerts", "console").set(true)
+                .comment("Send alerts to server console");
+            
+            root.node("alerts", "log-to-file").set(true)
+                .comment("Log alerts to file");
+            
+            root.node("alerts", "cooldown").set(300)
+                .comment("Cooldown between same alert types (seconds)");
+            
+            root.node("alerts", "discord", "enabled").set(false)
+                .comment("Enable Discord webhook alerts");
+            
+            root.node("alerts", "discord", "webhook-url").set("")
+                .comment("Discord webhook URL for alerts");
+            
+            root.node("alerts", "discord", "status-reports", "enabled").set(false)
+                .comment("Enable periodic Discord status reports");
+            
+            root.node("alerts", "discord", "status-reports", "interval").set(3600)
+                .comment("Discord status report interval in seconds (3600 = 1 hour)");
+            
+            root.node("alerts", "slack", "enabled").set(false)
+                .comment("Enable Slack webhook alerts");
+            
+            root.node("alerts", "slack", "webhook-url").set("")
+                .comment("Slack webhook URL for alerts");
+            
+            root.node("alerts", "webhooks", "queue-size").set(100)
+                .comment("Maximum webhook messages waiting per sink before new ones are dropped");
+            
+            root.node("alerts", "webhooks", "batch-window").set(2000)
+                .comment("Alerts arriving within this window (milliseconds) are sent as one message");
+            
+            root.node("alerts", "webhooks", "max-retries").set(5)
+                .comment("Retries for failed or rate-limited webhook deliveries");
+            
+            root.node("alerts", "webhooks", "outbox").set(true)
+                .comment("Keep undelivered webhook alerts on disk and resend them after outages or restarts");
+            
+            root.node("alerts", "sinks", "timeout").set(10000)
+                .comment("Maximum time (milliseconds) a single alert delivery may take before it is abandoned");
+            
+            root.node("alerts", "sinks", "file", "enabled").set(false)
+                .comment("Append alerts as JSON Lines to a file");
+            
+            root.node("alerts", "sinks", "file", "path").set("logs/alerts.jsonl")
+                .comment("JSON Lines file, relative to the plugin folder");
+            
+            root.node("alerts", "sinks", "socket", "enabled").set(false)
+                .comment("Stream alerts as newline-delimited JSON to a UNIX domain socket");
+            
+            root.node("alerts", "sinks", "socket", "path").set("/run/bubblelog/alerts.sock")
+                .comment("Path of the UNIX domain socket the local agent listens on");
+            
+            root.node("alerts", "sinks", "webhook", "enabled").set(false)
+                .comment("POST alerts as plain JSON to a generic webhook endpoint");
+            
+            root.node("alerts", "sinks", "webhook", "url").set("")
+                .comment("Generic webhook URL for alerts");
+            
+            loader.save(root);
+            logger.info("Created default configuration file");
+            
+        } catch (Exception e) {
+            logger.error("Failed to create default configuration", e);
+        }
+    }
+    
+    // Getters
+    public int getMonitoringInterval() {
+        return monitoringInterval;
+    }
+    
+    public String getLogFileName() {
+        return logFileName;
+    }
+    
+    public boolean isCpuMonitoringEnabled() {
+        return enableCpuMonitoring;
+    }
+    
+    public boolean isRamMonitoringEnabled() {
+        return enableRamMonitoring;
+    }
+    
+    public boolean isDiskMonitoringEnabled() {
+        return enableDiskMonitoring;
+    }
+    
+    public boolean isNetworkMonitoringEnabled() {
+        return enableNetworkMonitoring;
+    }
+    
+    public boolean isJvmMonitoringEnabled() {
+        return enableJvmMonitoring;
+    }
+    
+    public boolean isConnectionQualityMonitoringEnabled() {
+        return enableConnectionQualityMonitoring;
+    }
+    
+    public boolean isPressureMonitoringEnabled() {
+        return enablePressureMonitoring;
+    }
+    
+    public boolean isDiskIoMonitoringEnabled() {
+        return enableDiskIoMonitoring;
+    }
+    
+    public boolean isNetworkIoMonitoringEnabled() {
+        return enableNetworkIoMonitoring;
+    }
+    
+    public boolean isSocketMonitoringEnabled() {
+        return enableSocketMonitoring;
+    }
+    
+    public boolean isProcessMonitoringEnabled() {
+        return enableProcessMonitoring;
+    }
+    
+    public boolean isBackendProcessMonitoringEnabled() {
+        return enableBackendProcessMonitoring;
+    }
+    
+    public String getBackendProcessPatterns() {
+        return backendProcessPatterns;
+    }
+    
+    public int getBackendProcessScanInterval() {
+        return backendProcessScanInterval;
+    }
+    
+    public boolean isBackendTickMonitoringEnabled() {
+        return enableBackendTickMonitoring;
+    }
+    
+    public boolean isConsoleLoggingEnabled() {
+        return logToConsole;
+    }
+    
+    public String getDateFormat() {
+        return dateFormat;
+    }
+    
+    public int getMaxLogFiles() {
+        return maxLogFiles;
+    }
+    
+    public boolean isLogCompressionEnabled() {
+        return enableLogCompression;
+    }
+    
+    public int getLogCompressionRate() {
+        return logCompressionRate;
+    }
+    
+    /**
+     * @return the configured fsync policy, or {@code INTERVAL} if the setting is invalid
+     */
+    public FramedLogWriter.FsyncPolicy getLogFsyncPolicy() {
+        FramedLogWriter.FsyncPolicy policy = FramedLogWriter.FsyncPolicy.parse(logFsyncPolicy);
+        return policy != null ? policy : FramedLogWriter.FsyncPolicy.INTERVAL;
+    }
+    
+    public int getLogFsyncInterval() {
+        return logFsyncInterval;
+    }
+    
+    public boolean isHistoryEnabled() {
+        return enableHistory;
+    }
+    
+    public int getHistoryRawRetentionDays() {
+        return historyRawRetentionDays;
+    }
+    
+    public int getHistoryMinuteRetentionDays() {
+        return historyMinuteRetentionDays;
+    }
+    
+    public int getHistoryFiveMinuteRetentionDays() {
+        return historyFiveMinuteRetentionDays;
+    }
+    
+    public int getHistoryHourRetentionDays() {
+        return historyHourRetentionDays;
+    }
+    
+    // Metrics export getters
+    public boolean isPrometheusEnabled() {
+        return enablePrometheus;
+    }
+    
+    public String getPrometheusBindAddress() {
+        return prometheusBindAddress;
+    }
+    
+    public int getPrometheusPort() {
+        return prometheusPort;
+    }
+    
+    public String getPrometheusPath() {
+        return prometheusPath;
+    }
+    
+    public boolean isStatsdEnabled() {
+        return enableStatsd;
+    }
+    
+    public String getStatsdHost() {
+        return statsdHost;
+    }
+    
+    public int getStatsdPort() {
+        return statsdPort;
+    }
+    
+    /**
+     * @return the configured line format, or {@code DOGSTATSD} if the setting is invalid
+     */
+    public StatsdExporter.Flavor getStatsdFlavor() {
+        StatsdExporter.Flavor flavor = StatsdExporter.Flavor.parse(statsdFlavor);
+        return flavor != null ? flavor : StatsdExporter.Flavor.DOGSTATSD;
+    }
+    
+    public String getStatsdPrefix() {
+        return statsdPrefix;
+    }
+    
+    public String getStatsdTags() {
+        return statsdTags;
+    }
+    
+    public int getStatsdMaxPacketSize() {
+        return statsdMaxPacketSize;
+    }
+    
+    public boolean isLineProtocolEnabled() {
+        return enableLineProtocol;
+    }
+    
+    public String getLineProtocolUrl() {
+        return lineProtocolUrl;
+    }
+    
+    public String getLineProtocolToken() {
+        return lineProtocolToken;
+    }
+    
+    public String getLineProtocolTags() {
+        return lineProtocolTags;
+    }
+    
+    public int getLineProtocolBatchSize() {
+        return lineProtocolBatchSize;
+    }
+    
+    public int getLineProtocolFlushInterval() {
+        return lineProtocolFlushInterval;
+    }
+    
+    public boolean isLineProtocolCompressionEnabled() {
+        return enableLineProtocolCompression;
+    }
+    
+    public int getLineProtocolQueueSize() {
+        return lineProtocolQueueSize;
+    }
+    
+    public int getLineProtocolSpillMaxSize() {
+        return lineProtocolSpillMaxSize;
+    }
+    
+    public boolean isJmxEnabled() {
+        return enableJmx;
+    }
+    
+    public boolean isDashboardEnabled() {
+        return enableDashboard;
+    }
+    
+    public String getDashboardBindAddress() {
+        return dashboardBindAddress;
+    }
+    
+    public int getDashboardPort() {
+        return dashboardPort;
+    }
+    
+    public int getDashboardHistorySize() {
+        return dashboardHistorySize;
+    }
+    
+    public int getDashboardMaxClients() {
+        return dashboardMaxClients;
+    }
+    
+    public int getDashboardClientBuffer() {
+        return dashboardClientBuffer;
+    }
+    
+    // Alert getters
+    public boolean isPerformanceAlertsEnabled() {
+        return enablePerformanceAlerts;
+    }
+    
+    public double getCpuThreshold() {
+        return cpuThreshold;
+    }
+    
+    public double getRamThreshold() {
+        return ramThreshold;
+    }
+    
+    public double getDiskThreshold() {
+        return diskThreshold;
+    }
+    
+    public double getPressureThreshold() {
+        return pressureThreshold;
+    }
+    
+    public int getPressureDuration() {
+        return pressureDuration;
+    }
+    
+    public double getIoUtilizationThreshold() {
+        return ioUtilizationThreshold;
+    }
+    
+    public double getIoAwaitThreshold() {
+        return ioAwaitThreshold;
+    }
+    
+    public double getNetworkUtilizationThreshold() {
+        return networkUtilizationThreshold;
+    }
+    
+    public double getNetworkErrorsThreshold() {
+        return networkErrorsThreshold;
+    }
+    
+    public double getTcpRetransmitThreshold() {
+        return tcpRetransmitThreshold;
+    }
+    
+    public int getListenOverflowThreshold() {
+        return listenOverflowThreshold;
+    }
+    
+    public double getFileDescriptorThreshold() {
+        return fileDescriptorThreshold;
+    }
+    
+    public double getCpuStealThreshold() {
+        return cpuStealThreshold;
+    }
+    
+    public double getCpuCoreThreshold() {
+        return cpuCoreThreshold;
+    }
+    
+    public boolean isAlertToConsoleEnabled() {
+        return alertToConsole;
+    }
+    
+    public boolean isAlertToFileEnabled() {
+        return alertToFile;
+    }
+    
+    public int getAlertCooldown() {
+        return alertCooldown;
+    }
+    
+    public boolean isDiscordWebhookEnabled() {
+        return enableDiscordWebhook;
+    }
+    
+    public String getDiscordWebhookUrl() {
+        return discordWebhookUrl;
+    }
+    
+    public boolean isSlackWebhookEnabled() {
+        return enableSlackWebhook;
+    }
+    
+    public String getSlackWebhookUrl() {
+        return slackWebhookUrl;
+    }
+    
+    public boolean isDiscordStatusReportsEnabled() {
+        return enableDiscordStatusReports;
+    }
+    
+    public int getDiscordStatusReportInterval() {
+        return discordStatusReportInterval;
+    }
+    
+    public int getWebhookQueueSize() {
+        return webhookQueueSize;
+    }
+    
+    public int getWebhookBatchWindow() {
+        return webhookBatchWindow;
+    }
+    
+    public int getWebhookMaxRetries() {
+        return webhookMaxRetries;
+    }
+    
+    public boolean isWebhookOutboxEnabled() {
+        return enableWebhookOutbox;
+    }
+    
+    public int getAlertSinkTimeout() {
+        return alertSinkTimeout;
+    }
+    
+    public boolean isFileAlertSinkEnabled() {
+        return enableFileAlertSink;
+    }
+    
+    public String getFileAlertSinkPath() {
+        return fileAlertSinkPath;
+    }
+    
+    public boolean isSocketAlertSinkEnabled() {
+        return enableSocketAlertSink;
+    }
+    
+    public String getSocketAlertSinkPath() {
+        return socketAlertSinkPath;
+    }
+    
+    public boolean isGenericWebhookEnabled() {
+        return enableGenericWebhook;
+    }
+    
+    public String getGenericWebhookUrl() {
+        return genericWebhookUrl;
+    }
+    
+    /**
+     * Reload configuration from file
+     * @return true if reload was successful, false otherwise
+     */
+    public boolean reloadConfig() {
+        try {
+            logger.info("Reloading configuration...");
+            loadConfig();
+            logger.info("Configuration reloaded successfully");
+            return true;
+        } catch (Exception e) {
+            logger.error("Failed to reload configuration", e);
+            return false;
+        }
+    }
+    
+    /**
+     * Validate configuration values
+     * @return ValidationResult containing validation status and messages
+     */
+    public ValidationResult validateConfig() {
+        ValidationResult result = new ValidationResult();
+
+        validateMonitoringInterval(result);
+        validateThresholds(result);
+        validateWebhooks(result);
+        validateAlertCooldown(result);
+        validateStatusReports(result);
+        validateLogFileSettings(result);
+        validateExport(result);
+
+        return result;
+    }
+
+    private void validateMonitoringInterval(ValidationResult result) {
+        if (monitoringInterval < 5) {
+            result.addWarning("Monitoring interval is very low (" + monitoringInterval + "s) - recommended minimum is 5s");
+        } else if (monitoringInterval > 300) {
+            result.addWarning("Monitoring interval is very high (" + monitoringInterval + "s) - data may be too sparse");
+        }
+        if (backendProcessScanInterval < 1) {
+            result.addError("Backend process scan interval must be at least 1 second (current: " + backendProcessScanInterval + ")");
+        }
+        for (String pattern : backendProcessPatterns.split(",")) {
+            if (!pattern.isBlank() && pattern.indexOf('=') <= 0) {
+                result.addWarning("Backend process pattern '" + pattern.trim() + "' is ignored - use backend=text");
+            }
+        }
+    }
+
+    private void validateThresholds(ValidationResult result) {
+        if (cpuThreshold < 0 || cpuThreshold > 100) {
+            result.addError("CPU threshold must be between 0 and 100 (current: " + cpuThreshold + ")");
+        }
+        if (ramThreshold < 0 || ramThreshold > 100) {
+            result.addError("RAM threshold must be between 0 and 100 (current: " + ramThreshold + ")");
+        }
+        if (diskThreshold < 0 || diskThreshold > 100) {
+            result.addError("Disk threshold must be between 0 and 100 (current: " + diskThreshold + ")");
+        }
+        if (pressureThreshold < 0 || pressureThreshold > 100) {
+            result.addError("Pressure threshold must be between 0 and 100 (current: " + pressureThreshold + ")");
+        }
+        if (pressureDuration < 0) {
+            result.addError("Pressure duration cannot be negative (current: " + pressureDuration + ")");
+        }
+        if (ioUtilizationThreshold < 0 || ioUtilizationThreshold > 100) {
+            result.addError("I/O utilization threshold must be between 0 and 100 (current: " + ioUtilizationThreshold + ")");
+        }
+        if (ioAwaitThreshold < 0) {
+            result.addError("I/O await threshold cannot be negative (current: " + ioAwaitThreshold + ")");
+        }
+        if (networkUtilizationThreshold < 0 || networkUtilizationThreshold > 100) {
+            result.addError("Network utilization threshold must be between 0 and 100 (current: " + networkUtilizationThreshold + ")");
+        }
+        if (networkErrorsThreshold < 0) {
+            result.addError("Network errors threshold cannot be negative (current: " + networkErrorsThreshold + ")");
+        }
+        if (tcpRetransmitThreshold < 0 || tcpRetransmitThreshold > 100) {
+            result.addError("TCP retransmit threshold must be between 0 and 100 (current: " + tcpRetransmitThreshold + ")");
+        }
+        if (listenOverflowThreshold < 0) {
+            result.addError("Listen overflow threshold cannot be negative (current: " + listenOverflowThreshold + ")");
+        }
+        if (fileDescriptorThreshold < 0 || fileDescriptorThreshold > 100) {
+            result.addError("File descriptor threshold must be between 0 and 100 (current: " + fileDescriptorThreshold + ")");
+        }
+        if (cpuStealThreshold < 0 || cpuStealThreshold > 100) {
+            result.addError("CPU steal threshold must be between 0 and 100 (current: " + cpuStealThreshold + ")");
+        }
+        if (cpuCoreThreshold < 0 || cpuCoreThreshold > 100) {
+            result.addError("CPU core threshold must be between 0 and 100 (current: " + cpuCoreThreshold + ")");
+        }
+    }
+
+    private void validateWebhooks(ValidationResult result) {
+        validateWebhookRequiredUrl(result, enableDiscordWebhook, discordWebhookUrl, "Discord");
+        validateWebhookRequiredUrl(result, enableSlackWebhook, slackWebhookUrl, "Slack");
+        validateWebhookRequiredUrl(result, enableGenericWebhook, genericWebhookUrl, "Generic");
+        validateDiscordWebhookUrlFormat(result);
+        validateWebhookDelivery(result);
+    }
+
+    private void validateWebhookRequiredUrl(ValidationResult result, boolean enabled, String url, String serviceName) {
+        if (enabled && isBlank(url)) {
+            result.addError(serviceName + " webhook is enabled but URL is not configured");
+        }
+    }
+
+    private void validateDiscordWebhookUrlFormat(ValidationResult result) {
+        if (!enableDiscordWebhook || isBlank(discordWebhookUrl)) {
+            return;
+        }
+        if (!discordWebhookUrl.startsWith("https://discord.com/api/webhooks/") &&
+            !discordWebhookUrl.startsWith("https://discordapp.com/api/webhooks/")) {
+            result.addError("Invalid Discord webhook URL format");
+        }
+    }
+
+    private void validateWebhookDelivery(ValidationResult result) {
+        if (webhookQueueSize < 1) {
+            result.addError("Webhook queue size must be at least 1 (current: " + webhookQueueSize + ")");
+        }
+        if (webhookBatchWindow < 0) {
+            result.addError("Webhook batch window cannot be negative (current: " + webhookBatchWindow + ")");
+        }
+        if (webhookMaxRetries < 0) {
+            result.addError("Webhook max retries cannot be negative (current: " + webhookMaxRetries + ")");
+        }
+        if (alertSinkTimeout < 100) {
+            result.addError("Alert sink timeout must be at least 100ms (current: " + alertSinkTimeout + ")");
+        }
+        if (enableFileAlertSink && isBlank(fileAlertSinkPath)) {
+            result.addError("File alert sink is enabled but path is not configured");
+        }
+        if (enableSocketAlertSink && isBlank(socketAlertSinkPath)) {
+            result.addError("Socket alert sink is enabled but path is not configured");
+        }
+    }
+
+    private void validateAlertCooldown(ValidationResult result) {
+        if (alertCooldown < 0) {
+            result.addError("Alert cooldown cannot be negative (current: " + alertCooldown + ")");
+        } else if (alertCooldown < 60) {
+            result.addWarning("Alert cooldown is very low (" + alertCooldown + "s) - may spam alerts");
+        }
+    }
+
+    private void validateStatusReports(ValidationResult result) {
+        if (enableDiscordStatusReports && discordStatusReportInterval < 300) {
+            result.addWarning("Discord status report interval is very low - recommended minimum is 300s (5 minutes)");
+        }
+    }
+
+    private void validateLogFileSettings(ValidationResult result) {
+        if (maxLogFiles < 0) {
+            result.addError("Max log files cannot be negative (current: " + maxLogFiles + ")");
+        }
+        if (logCompressionRate < 0) {
+            result.addError("Log compression rate cannot be negative (current: " + logCompressionRate + ")");
+        }
+        if (FramedLogWriter.FsyncPolicy.parse(logFsyncPolicy) == null) {
+            result.addError("Unknown fsync policy '" + logFsyncPolicy + "' - use none, interval or batch");
+        }
+        if (logFsyncInterval < 1) {
+            result.addError("Fsync interval must be at least 1 second (current: " + logFsyncInterval + ")");
+        }
+        if (historyRawRetentionDays < 0 || historyMinuteRetentionDays < 0
+            || historyFiveMinuteRetentionDays < 0 || historyHourRetentionDays < 0) {
+            result.addError("History retention days cannot be negative");
+        }
+        if (historyHourRetentionDays > 0 && historyHourRetentionDays < historyMinuteRetentionDays) {
+            result.addWarning("Hourly history is kept for less time than 1-minute history - long-range queries will have gaps");
+        }
+    }
+
+    private void validateExport(ValidationResult result) {
+        if (prometheusPort < 1 || prometheusPort > 65535) {
+            result.addError("Prometheus port must be between 1 and 65535 (current: " + prometheusPort + ")");
+        }
+        if (prometheusPath == null || !prometheusPath.startsWith("/")) {
+            result.addError("Prometheus path must start with '/' (current: " + prometheusPath + ")");
+        }
+        if (enablePrometheus && isBlank(prometheusBindAddress)) {
+            result.addError("Prometheus endpoint is enabled but bind address is not configured");
+        }
+        if (statsdPort < 1 || statsdPort > 65535) {
+            result.addError("StatsD port must be between 1 and 65535 (current: " + statsdPort + ")");
+        }
+        if (StatsdExporter.Flavor.parse(statsdFlavor) == null) {
+            result.addError("Unknown StatsD flavor '" + statsdFlavor + "' - use statsd or dogstatsd");
+        }
+        if (statsdMaxPacketSize < 512 || statsdMaxPacketSize > 65507) {
+            result.addError("StatsD max packet size must be between 512 and 65507 bytes (current: " + statsdMaxPacketSize + ")");
+        }
+        if (enableStatsd && isBlank(statsdHost)) {
+            result.addError("StatsD export is enabled but host is not configured");
+        }
+        if (!statsdTags.isBlank() && StatsdExporter.Flavor.parse(statsdFlavor) == StatsdExporter.Flavor.STATSD) {
+            result.addWarning("StatsD tags are ignored with the plain statsd flavor");
+        }
+        if (enableLineProtocol && isBlank(lineProtocolUrl)) {
+            result.addError("Line protocol export is enabled but URL is not configured");
+        } else if (enableLineProtocol && !lineProtocolUrl.startsWith("http://") && !lineProtocolUrl.startsWith("https://")) {
+            result.addError("Line protocol URL must start with http:// or https://");
+        }
+        if (lineProtocolBatchSize < 1) {
+            result.addError("Line protocol batch size must be at least 1 KB (current: " + lineProtocolBatchSize + ")");
+        }
+        if (lineProtocolFlushInterval < 1) {
+            result.addError("Line protocol flush interval must be at least 1 second (current: " + lineProtocolFlushInterval + ")");
+        }
+        if (lineProtocolQueueSize < 1) {
+            result.addError("Line protocol queue size must be at least 1 (current: " + lineProtocolQueueSize + ")");
+        }
+        if (lineProtocolSpillMaxSize < 0) {
+            result.addError("Line protocol spill size cannot be negative (current: " + lineProtocolSpillMaxSize + ")");
+        }
+        if (dashboardPort < 1 || dashboardPort > 65535) {
+            result.addError("Dashboard port must be between 1 and 65535 (current: " + dashboardPort + ")");
+        } else if (enableDashboard && enablePrometheus && dashboardPort == prometheusPort) {
+            result.addError("Dashboard and Prometheus endpoint cannot share port " + dashboardPort);
+        }
+        if (enableDashboard && isBlank(dashboardBindAddress)) {
+            result.addError("Dashboard is enabled but bind address is not configured");
+        }
+        if (dashboardHistorySize < 0) {
+            result.addError("Dashboard history size cannot be negative (current: " + dashboardHistorySize + ")");
+        }
+        if (dashboardMaxClients < 1) {
+            result.addError("Dashboard max clients must be at least 1 (current: " + dashboardMaxClients + ")");
+        }
+        if (dashboardClientBuffer < 16) {
+            result.addError("Dashboard client buffer must be at least 16 KB (current: " + dashboardClientBuffer + ")");
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+    
+    /**
+     * Result of configuration validation
+     */
+    public static class ValidationResult {
+        private final java.util.List<String> errors = new java.util.ArrayList<>();
+        private final java.util.List<String> warnings = new java.util.ArrayList<>();
+        
+        public void addError(String error) {
+            errors.add(error);
+        }
+        
+        public void addWarning(String warning) {
+            warnings.add(warning);
+        }
+        
+        public boolean hasErrors() {
+            return !errors.isEmpty();
+        }
+        
+        public boolean hasWarnings() {
+            return !warnings.isEmpty();
+        }
+        
+        public java.util.List<String> getErrors() {
+            return errors;
+        }
+        
+        public java.util.List<String> getWarnings() {
+            return warnings;
+        }
+        
+        public boolean isValid() {
+            return !hasErrors();
+        }
+    }
+}
+
@@ -0,0 +1,508 @@
+package net.bubblecraft.bubblelog.export;
+
+import net.bubblecraft.bubblelog.config.ConfigManager;
+import net.bubblecraft.bubblelog.monitor.MetricsSnapshot;
+import net.bubblecraft.bubblelog.monitor.SnapshotListener;
+import net.bubblecraft.bubblelog.monitor.SystemMonitor;
+import net.bubblecraft.bubblelog.util.JsonWriter;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Built-in live dashboard ({@code export.dashboard}): a single page that loads the recent
+ * samples from {@code /history} and then follows {@code /events}, a Server-Sent Events stream
+ * carrying every new snapshot.
+ *
+ * Each snapshot is encoded to JSON once, on the monitoring thread, into one direct buffer that
+ * every client writes from through its own view. All sockets are non-blocking and served by a
+ * single selector thread; a client whose unsent backlog grows past
+ * {@code export.dashboard.client-buffer} is disconnected rather than buffered for.
+ */
+public class DashboardServer implements SnapshotListener {
+
+    private static final String PAGE_RESOURCE = "/dashboard/index.html";
+    private static final int MAX_REQUEST_BYTES = 8192;
+    private static final long HEARTBEAT_MS = 15_000;
+
+    private static final byte[] SNAPSHOT_PREFIX = JsonWriter.fragment("{\"t\":");
+    private static final byte[] CPU = JsonWriter.fragment(",\"cpu\":");
+    private static final byte[] MEMORY = JsonWriter.fragment(",\"mem\":{\"used\":");
+    private static final byte[] MEMORY_TOTAL = JsonWriter.fragment(",\"total\":");
+    private static final byte[] PERCENT = JsonWriter.fragment(",\"pct\":");
+    private static final byte[] DISKS = JsonWriter.fragment(",\"disks\":[");
+    private static final byte[] DISK_NAME = JsonWriter.fragment("{\"name\":");
+    private static final byte[] DISK_FREE = JsonWriter.fragment(",\"free\":");
+    private static final byte[] PLAYERS = JsonWriter.fragment(",\"players\":");
+    private static final byte[] MAX_PLAYERS = JsonWriter.fragment(",\"maxPlayers\":");
+    private static final byte[] SERVERS_ONLINE = JsonWriter.fragment(",\"serversOnline\":");
+    private static final byte[] SERVERS_TOTAL = JsonWriter.fragment(",\"serversTotal\":");
+    private static final byte[] BACKENDS = JsonWriter.fragment(",\"backends\":{");
+    private static final byte[] JVM = JsonWriter.fragment(",\"jvm\":{\"heap\":");
+    private static final byte[] NON_HEAP = JsonWriter.fragment(",\"nonHeapMb\":");
+    private static final byte[] THREADS = JsonWriter.fragment(",\"threads\":");
+    private static final byte[] PING = JsonWriter.fragment(",\"ping\":{\"avg\":");
+    private static final byte[] PING_MAX = JsonWriter.fragment(",\"max\":");
+    private static final byte[] PING_LOSS = JsonWriter.fragment(",\"loss\":");
+
+    private static final ByteBuffer HEARTBEAT = readOnly(": keep-alive\n\n");
+    private static final ByteBuffer STREAM_HEADERS = readOnly("""
+        HTTP/1.1 200 OK\r
+        Content-Type: text/event-stream\r
+        Cache-Control: no-cache\r
+        Connection: keep-alive\r
+        X-Accel-Buffering: no\r
+        \r
+        retry: 5000
+
+        """);
+
+    private final ConfigManager config;
+    private final Logger logger;
+
+    // Monitoring thread only
+    private final JsonWriter json = new JsonWriter(2048);
+    // Encoded snapshots for /history, oldest first
+    private final ArrayDeque<byte[]> history = new ArrayDeque<>();
+    private final Queue<ByteBuffer> broadcasts = new ConcurrentLinkedQueue<>();
+    private volatile ByteBuffer latestEvent;
+
+    private byte[] page;
+    private int historySize;
+    private int maxClients;
+    private long clientBufferBytes;
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private Thread thread;
+    private volatile boolean running;
+
+    // Selector thread only, published for /bubblelog status
+    private volatile int clients;
+    private volatile long eventsSent;
+    private volatile long slowClientsDropped;
+    private volatile long requests;
+
+    private static final class Client {
+        final SocketChannel channel;
+        final ByteBuffer request = ByteBuffer.allocate(MAX_REQUEST_BYTES);
+        final ArrayDeque<ByteBuffer> pending = new ArrayDeque<>();
+        long pendingBytes;
+        boolean streaming;
+        boolean closeWhenFlushed;
+
+        Client(SocketChannel channel) {
+            this.channel = channel;
+        }
+    }
+
+    public DashboardServer(ConfigManager config, Logger logger) {
+        this.config = config;
+        this.logger = logger;
+    }
+
+    private static ByteBuffer readOnly(String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocateDirect(bytes.length).put(bytes).flip().asReadOnlyBuffer();
+    }
+
+    /**
+     * Bind the listening socket and start the selector thread. Settings are read once here, so
+     * changing them needs a restart.
+     */
+    public void start() throws IOException {
+        try (InputStream in = DashboardServer.class.getResourceAsStream(PAGE_RESOURCE)) {
+            if (in == null) {
+                throw new IOException("Dashboard page " + PAGE_RESOURCE + " missing from the plugin jar");
+            }
+            page = in.readAllBytes();
+        }
+        historySize = config.getDashboardHistorySize();
+        maxClients = config.getDashboardMaxClients();
+        clientBufferBytes = config.getDashboardClientBuffer() * 1024L;
+
+        InetSocketAddress address = new InetSocketAddress(config.getDashboardBindAddress(), config.getDashboardPort());
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        try {
+            serverChannel.bind(address);
+            serverChannel.configureBlocking(false);
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            serverChannel.close();
+            selector.close();
+            throw e;
+        }
+        running = true;
+        thread = Thread.ofPlatform().name("BubbleLog-dashboard").daemon(true).start(this::runLoop);
+        logger.info("Live dashboard available at http://{}:{}/", address.getHostString(), address.getPort());
+    }
+
+    @Override
+    public void onSnapshot(MetricsSnapshot snapshot) {
+        json.reset();
+        encode(snapshot);
+        byte[] encoded = json.toByteArray();
+        synchronized (history) {
+            history.addLast(encoded);
+            while (history.size() > historySize) {
+                history.removeFirst();
+            }
+        }
+
+        // "data: {...}\n\n" once, in a direct buffer every client reads through its own duplicate
+        ByteBuffer event = ByteBuffer.allocateDirect(encoded.length + 8);
+        event.put("data: ".getBytes(StandardCharsets.US_ASCII)).put(encoded).put((byte) '\n').put((byte) '\n').flip();
+        ByteBuffer readOnlyEvent = event.asReadOnlyBuffer();
+        latestEvent = readOnlyEvent;
+        broadcasts.offer(readOnlyEvent);
+        Selector current = selector;
+        if (current != null) {
+            current.wakeup();
+        }
+    }
+
+    private void encode(MetricsSnapshot snapshot) {
+        json.raw(SNAPSHOT_PREFIX).number(snapshot.getTimestamp());
+        if (snapshot.hasCpu()) {
+            json.raw(CPU).number(snapshot.getCpuUsage() * 100, 2);
+        }
+
+        SystemMonitor.MemoryUsage memory = snapshot.getMemoryUsage();
+        if (memory != null) {
+            json.raw(MEMORY).number(memory.getUsed())
+                .raw(MEMORY_TOTAL).number(memory.getTotal())
+                .raw(PERCENT).number(memory.getUsagePercent(), 2).raw('}');
+        }
+
+        json.raw(DISKS);
+        boolean first = true;
+        for (SystemMonitor.DiskUsage disk : snapshot.getDiskUsages()) {
+            if (!first) {
+                json.raw(',');
+            }
+            first = false;
+            json.raw(DISK_NAME).string(disk.getName())
+                .raw(PERCENT).number(disk.getUsagePercent(), 2)
+                .raw(DISK_FREE).number(disk.getFree()).raw('}');
+        }
+        json.raw(']');
+
+        SystemMonitor.NetworkData network = snapshot.getNetworkData();
+        if (network != null) {
+            json.raw(PLAYERS).number(network.getCurrentPlayers())
+                .raw(MAX_PLAYERS).number(network.getMaxPlayers())
+                .raw(SERVERS_ONLINE).number(network.getOnlineServers())
+                .raw(SERVERS_TOTAL).number(network.getTotalServers())
+                .raw(BACKENDS);
+            first = true;
+            for (Map.Entry<String, Integer> backend : network.getBackendPlayers().entrySet()) {
+                if (!first) {
+                    json.raw(',');
+                }
+                first = false;
+                json.string(backend.getKey()).raw(':').number(backend.getValue());
+            }
+            json.raw('}');
+        }
+
+        SystemMonitor.JVMData jvm = snapshot.getJvmData();
+        if (jvm != null) {
+            json.raw(JVM).number(jvm.getHeapUtilization(), 2)
+                .raw(NON_HEAP).number(jvm.getNonHeapUsedMB(), 1)
+                .raw(THREADS).number(jvm.getThreadCount()).raw('}');
+        }
+
+        SystemMonitor.ConnectionQualityData connection = snapshot.getConnectionData();
+        if (connection != null && connection.getAveragePing() >= 0) {
+            json.raw(PING).number(connection.getAveragePing(), 1)
+                .raw(PING_MAX).number(connection.getMaxPing(), 1)
+                .raw(PING_LOSS).number(Math.max(0, connection.getPacketLoss()), 1).raw('}');
+        }
+        json.raw('}');
+    }
+
+    private void runLoop() {
+        long nextHeartbeat = System.currentTimeMillis() + HEARTBEAT_MS;
+        while (running) {
+            try {
+                selector.select(HEARTBEAT_MS);
+                ByteBuffer event;
+                while ((event = broadcasts.poll()) != null) {
+                    broadcast(event);
+                    eventsSent++;
+                }
+                long now = System.currentTimeMillis();
+                if (now >= nextHeartbeat) {
+                    // Keeps idle reverse proxies from closing the stream between slow ticks
+                    broadcast(HEARTBEAT);
+                    nextHeartbeat = now + HEARTBEAT_MS;
+                }
+
+                for (SelectionKey key : selector.selectedKeys()) {
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+                    Client client = (Client) key.attachment();
+                    if (key.isReadable()) {
+                        read(key, client);
+                    }
+                    if (key.isValid() && key.isWritable()) {
+                        flush(key, client);
+                    }
+                }
+                selector.selectedKeys().clear();
+            } catch (Exception e) {
+                if (running) {
+                    logger.warn("Dashboard server error: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            Client client = new Client(channel);
+            SelectionKey key = channel.register(selector, SelectionKey.OP_READ, client);
+            clients++;
+            if (clients > maxClients) {
+                respond(key, client, "503 Service Unavailable", "text/plain", "Too many dashboard clients\n".getBytes(StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    private void read(SelectionKey key, Client client) {
+        int read;
+        try {
+            read = client.channel.read(client.request);
+        } catch (IOException e) {
+            close(key, client);
+            return;
+        }
+        if (read < 0) {
+            close(key, client);
+            return;
+        }
+        if (client.streaming || client.closeWhenFlushed) {
+            // Nothing more is expected from the browser on this connection
+            client.request.clear();
+            return;
+        }
+
+        int end = headerEnd(client.request);
+        if (end < 0) {
+            if (!client.request.hasRemaining()) {
+                respond(key, client, "431 Request Header Fields Too Large", "text/plain", new byte[0]);
+            }
+            return;
+        }
+        requests++;
+        String requestLine = new String(client.request.array(), 0, end, StandardCharsets.ISO_8859_1).lines()
+            .findFirst().orElse("");
+        String[] parts = requestLine.split(" ");
+        if (parts.length < 2) {
+            respond(key, client, "400 Bad Request", "text/plain", new byte[0]);
+            return;
+        }
+        if (!parts[0].equals("GET")) {
+            respond(key, client, "405 Method Not Allowed", "text/plain", new byte[0]);
+            return;
+        }
+        String path = parts[1];
+        int query = path.indexOf('?');
+        if (query >= 0) {
+            path = path.substring(0, query);
+        }
+
+        switch (path) {
+            case "/", "/index.html" -> respond(key, client, "200 OK", "text/html; charset=utf-8", page);
+            case "/history" -> respond(key, client, "200 OK", "application/json", historyJson());
+            case "/events" -> {
+                client.streaming = true;
+                send(key, client, STREAM_HEADERS.duplicate());
+                ByteBuffer latest = latestEvent;
+                if (latest != null && key.isValid()) {
+                    send(key, client, latest.duplicate());
+                }
+            }
+            default -> respond(key, client, "404 Not Found", "text/plain", new byte[0]);
+        }
+    }
+
+    private static int headerEnd(ByteBuffer request) {
+        byte[] bytes = request.array();
+        for (int i = 3; i < request.position(); i++) {
+            if (bytes[i - 3] == '\r' && bytes[i - 2] == '\n' && bytes[i - 1] == '\r' && bytes[i] == '\n') {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    private byte[] historyJson() {
+        JsonWriter out = new JsonWriter(4096);
+        out.raw('[');
+        synchronized (history) {
+            boolean first = true;
+            for (byte[] snapshot : history) {
+                if (!first) {
+                    out.raw(',');
+                }
+                first = false;
+                out.raw(snapshot);
+            }
+        }
+        return out.raw(']').toByteArray();
+    }
+
+    private void respond(SelectionKey key, Client client, String status, String contentType, byte[] body) {
+        byte[] headers = ("HTTP/1.1 " + status + "\r\nContent-Type: " + contentType + "\r\nContent-Length: "
+            + body.length + "\r\nCache-Control: no-cache\r\nConnection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+        client.closeWhenFlushed = true;
+        send(key, client, ByteBuffer.wrap(headers));
+        if (key.isValid() && body.length > 0) {
+            send(key, client, ByteBuffer.wrap(body));
+        }
+        if (key.isValid() && client.pending.isEmpty()) {
+            close(key, client);
+        }
+    }
+
+    private void broadcast(ByteBuffer event) {
+        for (SelectionKey key : selector.keys()) {
+            if (key.isValid() && key.attachment() instanceof Client client && client.streaming) {
+                send(key, client, event.duplicate());
+            }
+        }
+    }
+
+    /**
+     * Write what the socket takes now and queue the rest; drop the client once its queue is too large
+     */
+    private void send(SelectionKey key, Client client, ByteBuffer buffer) {
+        if (client.pending.isEmpty()) {
+            try {
+                client.channel.write(buffer);
+            } catch (IOException e) {
+                close(key, client);
+                return;
+            }
+            if (!buffer.hasRemaining()) {
+                return;
+            }
+            key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+        }
+        client.pending.addLast(buffer);
+        client.pendingBytes += buffer.remaining();
+        if (client.pendingBytes > clientBufferBytes) {
+            slowClientsDropped++;
+            logger.debug("Disconnecting slow dashboard client {} ({} bytes behind)", remoteAddress(client), client.pendingBytes);
+            close(key, client);
+        }
+    }
+
+    private void flush(SelectionKey key, Client client) {
+        try {
+            while (!client.pending.isEmpty()) {
+                ByteBuffer buffer = client.pending.peekFirst();
+                int written = client.channel.write(buffer);
+                client.pendingBytes -= written;
+                if (buffer.hasRemaining()) {
+                    return;
+                }
+                client.pending.removeFirst();
+            }
+        } catch (IOException e) {
+            close(key, client);
+            return;
+        }
+        if (client.closeWhenFlushed) {
+            close(key, client);
+        } else {
+            key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+        }
+    }
+
+    private static String remoteAddress(Client client) {
+        try {
+            return String.valueOf(client.channel.getRemoteAddress());
+        } catch (IOException e) {
+            return "?";
+        }
+    }
+
+    private void close(SelectionKey key, Client client) {
+        if (!key.isValid()) {
+            return;
+        }
+        key.cancel();
+        clients--;
+        client.pending.clear();
+        try {
+            client.channel.close();
+        } catch (IOException e) {
+            logger.debug("Failed to close dashboard client", e);
+        }
+    }
+
+    /**
+     * @return connected clients, including ones still sending their request
+     */
+    public int getClients() {
+        return clients;
+    }
+
+    public long getEventsSent() {
+        return eventsSent;
+    }
+
+    public long getSlowClientsDropped() {
+        return slowClientsDropped;
+    }
+
+    public long getRequests() {
+        return requests;
+    }
+
+    public void shutdown() {
+        running = false;
+        if (selector == null) {
+            return;
+        }
+        selector.wakeup();
+        if (thread != null) {
+            try {
+                thread.join(2000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            for (SelectionKey key : selector.keys()) {
+                key.channel().close();
+            }
+            selector.close();
+        } catch (Exception e) {
+            logger.debug("Error closing dashboard server", e);
+        }
+    }
+}
@@ -0,0 +1,757 @@
+package net.bubblecraft.bubblelog.export;
+
+import net.bubblecraft.bubblelog.config.ConfigManager;
+import net.bubblecraft.bubblelog.monitor.BackendProcessCollector;
+import net.bubblecraft.bubblelog.monitor.BackendTickCollector;
+import net.bubblecraft.bubblelog.monitor.CpuCollector;
+import net.bubblecraft.bubblelog.monitor.DiskIoCollector;
+import net.bubblecraft.bubblelog.monitor.MetricsSnapshot;
+import net.bubblecraft.bubblelog.monitor.NetworkIoCollector;
+import net.bubblecraft.bubblelog.monitor.PressureCollector;
+import net.bubblecraft.bubblelog.monitor.ProcessCollector;
+import net.bubblecraft.bubblelog.monitor.SnapshotListener;
+import net.bubblecraft.bubblelog.monitor.SocketCensusCollector;
+import net.bubblecraft.bubblelog.monitor.SystemMonitor;
+import org.slf4j.Logger;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Pushes every snapshot in InfluxDB line protocol to an HTTP write endpoint
+ * ({@code export.line-protocol}).
+ *
+ * The monitoring tick only formats the lines and offers them to a bounded memory queue. One
+ * virtual thread batches queued samples until {@code batch-size} or {@code flush-interval} is
+ * reached, gzips the body and POSTs it, retrying with backoff while the endpoint is down or
+ * answers 5xx/429. Samples that don't fit the memory queue are handed to a second virtual
+ * thread that writes them to a bounded {@link SpillBuffer} on disk, so the tick never waits on
+ * the disk or the sender; they are sent once the queue has drained. A sample is only lost
+ * when the spill limit is reached (oldest first) or the endpoint rejects it with a 4xx.
+ * Spilled data may be resent after a crash, which the endpoint treats as an overwrite of the
+ * same points.
+ */
+public class LineProtocolExporter implements SnapshotListener {
+
+    private static final String MEASUREMENT_PREFIX = "bubblelog_";
+    private static final long BASE_BACKOFF_MS = 1000;
+    private static final long MAX_BACKOFF_MS = 60_000;
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+    private static final long SHUTDOWN_WAIT_MS = 2000;
+    // Samples waiting for the spill thread; only fills up if the disk stalls too
+    private static final int OVERFLOW_QUEUE_SIZE = 64;
+
+    private final ConfigManager config;
+    private final Logger logger;
+    private final HttpClient httpClient;
+    private final SpillBuffer spill;
+
+    private BlockingQueue<byte[]> queue;
+    private BlockingQueue<byte[]> overflow;
+    private URI endpoint;
+    private String token;
+    private String tags;
+    private int maxBatchBytes;
+    private long flushIntervalNanos;
+    private boolean compress;
+
+    // Formatting buffer, used on the monitoring tick and guarded by itself
+    private final StringBuilder line = new StringBuilder(2048);
+
+    // Sender thread only
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream(64 * 1024);
+    private final ByteArrayOutputStream compressed = new ByteArrayOutputStream(16 * 1024);
+    private final List<byte[]> inFlight = new ArrayList<>();
+    private volatile boolean endpointDown;
+
+    private final AtomicLong queuedBytes = new AtomicLong();
+    private final AtomicLong linesSent = new AtomicLong();
+    private final AtomicLong linesSpilled = new AtomicLong();
+    private final AtomicLong linesDropped = new AtomicLong();
+    private final AtomicLong requestsSent = new AtomicLong();
+    private final AtomicLong requestsFailed = new AtomicLong();
+    private volatile long lastLagMillis = -1;
+
+    private volatile boolean running;
+    private Thread worker;
+    private Thread spillWorker;
+
+    /**
+     * @param spillDirectory where samples the memory queue can't hold are kept
+     */
+    public LineProtocolExporter(ConfigManager config, Logger logger, Path spillDirectory) {
+        this.config = config;
+        this.logger = logger;
+        this.httpClient = HttpClient.newBuilder().connectTimeout(REQUEST_TIMEOUT).build();
+        long spillBytes = config.getLineProtocolSpillMaxSize() * 1024L * 1024;
+        this.spill = spillBytes > 0 ? new SpillBuffer(spillDirectory, "line-protocol", spillBytes, logger) : null;
+    }
+
+    /**
+     * Read the settings and start the sender. Settings are read once here, so changing them
+     * needs a restart.
+     */
+    public synchronized void start() throws IOException {
+        if (running) {
+            return;
+        }
+        endpoint = URI.create(config.getLineProtocolUrl());
+        token = config.getLineProtocolToken();
+        tags = formatTags(config.getLineProtocolTags());
+        maxBatchBytes = config.getLineProtocolBatchSize() * 1024;
+        flushIntervalNanos = TimeUnit.SECONDS.toNanos(config.getLineProtocolFlushInterval());
+        compress = config.isLineProtocolCompressionEnabled();
+        queue = new ArrayBlockingQueue<>(config.getLineProtocolQueueSize());
+        overflow = new ArrayBlockingQueue<>(OVERFLOW_QUEUE_SIZE);
+        if (spill != null) {
+            spill.open();
+        }
+
+        running = true;
+        worker = Thread.ofVirtual().name("BubbleLog-line-protocol").start(this::runLoop);
+        if (spill != null) {
+            spillWorker = Thread.ofVirtual().name("BubbleLog-line-protocol-spill").start(this::spillLoop);
+        }
+        logger.info("Sending metrics in line protocol to {}", endpoint.getHost() + endpoint.getPath());
+    }
+
+    // "region=eu, proxy=eu-1" -> ",proxy=eu-1,region=eu"; sorted as the line protocol docs recommend
+    private static String formatTags(String configured) {
+        String[] parts = configured.split(",");
+        List<String> sorted = new ArrayList<>();
+        for (String part : parts) {
+            String tag = part.trim();
+            if (!tag.isEmpty()) {
+                sorted.add(tag);
+            }
+        }
+        sorted.sort(null);
+        StringBuilder formatted = new StringBuilder();
+        for (String tag : sorted) {
+            formatted.append(',').append(tag.replace(" ", "\\ "));
+        }
+        return formatted.toString();
+    }
+
+    @Override
+    public void onSnapshot(MetricsSnapshot snapshot) {
+        if (!running) {
+            return;
+        }
+        byte[] lines = format(snapshot);
+        if (lines.length == 0) {
+            return;
+        }
+        if (queue.offer(lines)) {
+            queuedBytes.addAndGet(lines.length);
+            return;
+        }
+        if (spill == null || !overflow.offer(lines)) {
+            linesDropped.addAndGet(SpillBuffer.countLines(lines, lines.length));
+        }
+    }
+
+    // Not interrupted on shutdown: an interrupt during a write would close the spill's channel
+    private void spillLoop() {
+        try {
+            while (running) {
+                byte[] lines = overflow.poll(1, TimeUnit.SECONDS);
+                if (lines != null) {
+                    spillOrDrop(lines);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void spillOrDrop(byte[] lines) {
+        int count = SpillBuffer.countLines(lines, lines.length);
+        if (spill == null) {
+            linesDropped.addAndGet(count);
+            return;
+        }
+        try {
+            long evicted = spill.append(lines, count);
+            linesSpilled.addAndGet(count);
+            if (evicted > 0) {
+                linesDropped.addAndGet(evicted);
+                logger.debug("Line protocol spill is full - dropped {} of the oldest line(s)", evicted);
+            }
+        } catch (IOException e) {
+            linesDropped.addAndGet(count);
+            logger.debug("Failed to spill {} line(s) to disk: {}", count, e.getMessage());
+        }
+    }
+
+    byte[] format(MetricsSnapshot snapshot) {
+        synchronized (line) {
+            line.setLength(0);
+            String timestamp = " " + snapshot.getTimestamp() * 1_000_000;
+
+            if (snapshot.hasCpu()) {
+                measurement("cpu", null, null);
+                char separator = appendFloat(' ', "usage", snapshot.getCpuUsage() * 100);
+                CpuCollector.CpuBreakdown cpu = snapshot.getCpuBreakdown();
+                if (cpu != null) {
+                    separator = appendFloat(separator, "user", cpu.getUser());
+                    separator = appendFloat(separator, "system", cpu.getSystem());
+                    separator = appendFloat(separator, "iowait", cpu.getIowait());
+                    separator = appendFloat(separator, "irq", cpu.getIrq());
+                    separator = appendFloat(separator, "steal", cpu.getSteal());
+                    if (cpu.getMaxCoreLoad() >= 0) {
+                        separator = appendFloat(separator, "max_core", cpu.getMaxCoreLoad());
+                    }
+                }
+                endLine(separator, timestamp);
+                if (cpu != null) {
+                    double[] coreLoads = cpu.getCoreLoads();
+                    for (int core = 0; core < coreLoads.length; core++) {
+                        if (coreLoads[core] >= 0) {
+                            measurement("cpu_core", "core", Integer.toString(core));
+                            endLine(appendFloat(' ', "usage", coreLoads[core]), timestamp);
+                        }
+                    }
+                }
+            }
+
+            SystemMonitor.MemoryUsage memory = snapshot.getMemoryUsage();
+            if (memory != null) {
+                measurement("memory", null, null);
+                line.append(" total=").append(memory.getTotal()).append('i')
+                    .append(",used=").append(memory.getUsed()).append('i')
+                    .append(",available=").append(memory.getAvailable()).append('i');
+                appendFloat(',', "usage", memory.getUsagePercent());
+                endLine(',', timestamp);
+            }
+
+            for (SystemMonitor.DiskUsage disk : snapshot.getDiskUsages()) {
+                measurement("disk", "disk", disk.getName());
+                line.append(" total=").append(disk.getTotal()).append('i')
+                    .append(",used=").append(disk.getUsed()).append('i')
+                    .append(",free=").append(disk.getFree()).append('i');
+                appendFloat(',', "usage", disk.getUsagePercent());
+                endLine(',', timestamp);
+            }
+
+            for (DiskIoCollector.DiskIo disk : snapshot.getDiskIo()) {
+                measurement("disk_io", "disk", disk.getName());
+                char separator = appendFloat(' ', "utilization", disk.getUtilization());
+                separator = appendFloat(separator, "await_ms", disk.getAwaitMs());
+                separator = appendFloat(separator, "reads_per_second", disk.getReadsPerSecond());
+                separator = appendFloat(separator, "writes_per_second", disk.getWritesPerSecond());
+                separator = appendFloat(separator, "read_bytes_per_second", disk.getReadBytesPerSecond());
+                separator = appendFloat(separator, "write_bytes_per_second", disk.getWriteBytesPerSecond());
+                endLine(separator, timestamp);
+            }
+
+            NetworkIoCollector.NetworkIoData networkIo = snapshot.getNetworkIo();
+            if (networkIo != null) {
+                for (NetworkIoCollector.InterfaceIo networkInterface : networkIo.getInterfaces()) {
+                    measurement("net", "interface", networkInterface.getName());
+                    char separator = appendFloat(' ', "rx_bytes_per_second", networkInterface.getRxBytesPerSecond());
+                    separator = appendFloat(separator, "tx_bytes_per_second", networkInterface.getTxBytesPerSecond());
+                    separator = appendFloat(separator, "rx_packets_per_second", networkInterface.getRxPacketsPerSecond());
+                    separator = appendFloat(separator, "tx_packets_per_second", networkInterface.getTxPacketsPerSecond());
+                    separator = appendFloat(separator, "drops_per_second", networkInterface.getDropsPerSecond());
+                    separator = appendFloat(separator, "errors_per_second", networkInterface.getErrorsPerSecond());
+                    endLine(separator, timestamp);
+                }
+                NetworkIoCollector.TcpHealth tcp = networkIo.getTcp();
+                if (tcp != null) {
+                    measurement("tcp", null, null);
+                    line.append(" established=").append(tcp.getEstablished()).append('i');
+                    appendFloat(',', "retransmits_per_second", tcp.getRetransmitsPerSecond());
+                    appendFloat(',', "resets_per_second", tcp.getResetsPerSecond());
+                    if (tcp.getRetransmitPercent() >= 0) {
+                        appendFloat(',', "retransmit_percent", tcp.getRetransmitPercent());
+                    }
+                    if (tcp.getListenOverflows() >= 0) {
+                        line.append(",listen_overflows=").append(tcp.getListenOverflows()).append('i')
+                            .append(",listen_drops=").append(tcp.getListenDrops()).append('i');
+                    }
+                    endLine(',', timestamp);
+                }
+            }
+
+            ProcessCollector.ProcessData process = snapshot.getProcess();
+            if (process != null) {
+                measurement("process", null, null);
+                char separator = ' ';
+                separator = appendField(separator, "open_fds", process.getOpenFiles());
+                separator = appendField(separator, "max_fds", process.getMaxOpenFiles());
+                separator = appendField(separator, "rss_bytes", process.getRssBytes());
+                separator = appendField(separator, "pss_bytes", process.getPssBytes());
+                separator = appendField(separator, "threads", process.getThreads());
+                if (process.getCpuPercent() >= 0) {
+                    separator = appendFloat(separator, "cpu_percent", process.getCpuPercent());
+                }
+                if (process.getContextSwitchesPerSecond() >= 0) {
+                    separator = appendFloat(separator, "context_switches_per_second", process.getContextSwitchesPerSecond());
+                }
+                if (process.getMinorFaultsPerSecond() >= 0) {
+                    separator = appendFloat(separator, "minor_faults_per_second", process.getMinorFaultsPerSecond());
+                    separator = appendFloat(separator, "major_faults_per_second", process.getMajorFaultsPerSecond());
+                }
+                endLine(separator, timestamp);
+            }
+
+            SocketCensusCollector.SocketCensus sockets = snapshot.getSockets();
+            if (sockets != null) {
+                measurement("sockets", "scope", "host");
+                appendSocketCounts(sockets.getAll(), timestamp);
+                if (sockets.getProxy() != null) {
+                    measurement("sockets", "scope", "proxy");
+                    appendSocketCounts(sockets.getProxy(), timestamp);
+                }
+                for (Map.Entry<String, SocketCensusCollector.SocketCounts> backend : sockets.getBackends().entrySet()) {
+                    measurement("backend_sockets", "backend", backend.getKey());
+                    appendSocketCounts(backend.getValue(), timestamp);
+                }
+            }
+
+            SystemMonitor.NetworkData network = snapshot.getNetworkData();
+            if (network != null) {
+                measurement("proxy", null, null);
+                line.append(" players=").append(network.getCurrentPlayers()).append('i')
+                    .append(",max_players=").append(network.getMaxPlayers()).append('i')
+                    .append(",servers_online=").append(network.getOnlineServers()).append('i')
+                    .append(",servers_total=").append(network.getTotalServers()).append('i')
+                    .append(timestamp).append('\n');
+                for (Map.Entry<String, Integer> backend : network.getBackendPlayers().entrySet()) {
+                    measurement("backend", "backend", backend.getKey());
+                    line.append(" players=").append(backend.getValue()).append('i').append(timestamp).append('\n');
+                }
+            }
+
+            for (BackendProcessCollector.BackendProcess backend : snapshot.getBackendProcesses()) {
+                measurement("backend_process", "backend", backend.getBackend());
+                line.append(" pid=").append(backend.getPid()).append('i');
+                appendFloat(',', "cpu_seconds", backend.getCpuSeconds());
+                if (backend.getCpuPercent() >= 0) {
+                    appendFloat(',', "cpu_percent", backend.getCpuPercent());
+                }
+                appendField(',', "rss_bytes", backend.getRssBytes());
+                endLine(',', timestamp);
+            }
+
+            for (BackendTickCollector.BackendTick tick : snapshot.getBackendTicks()) {
+                measurement("backend_tick", "backend", tick.getBackend());
+                line.append(" entities=").append(tick.getEntities()).append('i')
+                    .append(",chunks=").append(tick.getChunks()).append('i')
+                    .append(",players=").append(tick.getPlayers()).append('i');
+                appendFloat(',', "tps", tick.getTps());
+                appendFloat(',', "tps_min", tick.getMinTps());
+                appendFloat(',', "mspt_avg", tick.getMsptAvg());
+                appendFloat(',', "mspt_p50", tick.getMsptP50());
+                appendFloat(',', "mspt_p95", tick.getMsptP95());
+                appendFloat(',', "mspt_p99", tick.getMsptP99());
+                appendFloat(',', "mspt_max", tick.getMsptMax());
+                endLine(',', timestamp);
+            }
+
+            SystemMonitor.JVMData jvm = snapshot.getJvmData();
+            if (jvm != null) {
+                measurement("jvm", null, null);
+                line.append(" threads=").append(jvm.getThreadCount()).append('i')
+                    .append(",classes_loaded=").append(jvm.getLoadedClassCount()).append('i')
+                    .append(",gc_time_ms=").append(jvm.getTotalGCTime()).append('i');
+                appendFloat(',', "heap_usage", jvm.getHeapUtilization());
+                appendFloat(',', "nonheap_used_mb", jvm.getNonHeapUsedMB());
+                endLine(',', timestamp);
+            }
+
+            SystemMonitor.ConnectionQualityData connection = snapshot.getConnectionData();
+            if (connection != null && (connection.getAveragePing() >= 0 || connection.getPacketLoss() >= 0)) {
+                measurement("ping", null, null);
+                char separator = ' ';
+                if (connection.getAveragePing() >= 0) {
+                    separator = appendFloat(separator, "avg_ms", connection.getAveragePing());
+                    separator = appendFloat(separator, "max_ms", connection.getMaxPing());
+                }
+                if (connection.getPacketLoss() >= 0) {
+                    separator = appendFloat(separator, "failures", connection.getPacketLoss());
+                }
+                endLine(separator, timestamp);
+            }
+
+            PressureCollector.PressureData pressure = snapshot.getPressureData();
+            if (pressure != null) {
+                for (Map.Entry<String, PressureCollector.Stall> stall : pressure.getStalls().entrySet()) {
+                    measurement("pressure", "resource", stall.getKey());
+                    line.append(" some_total_us=").append(stall.getValue().getSomeTotalMicros()).append('i');
+                    appendFloat(',', "some_avg10", stall.getValue().getSomeAvg10());
+                    if (stall.getValue().getFullTotalMicros() >= 0) {
+                        line.append(",full_total_us=").append(stall.getValue().getFullTotalMicros()).append('i');
+                        appendFloat(',', "full_avg10", stall.getValue().getFullAvg10());
+                    }
+                    endLine(',', timestamp);
+                }
+            }
+
+            return line.toString().getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    // Integer field, skipped when the platform couldn't provide it (-1)
+    private char appendField(char separator, String name, long value) {
+        if (value < 0) {
+            return separator;
+        }
+        line.append(separator).append(name).append('=').append(value).append('i');
+        return ',';
+    }
+
+    // Float field, skipped when NaN or infinite - the endpoint rejects the whole batch for one
+    private char appendFloat(char separator, String name, double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return separator;
+        }
+        line.append(separator).append(name).append('=').append(value);
+        return ',';
+    }
+
+    // Finish the current line, or drop its measurement if no field made it in
+    private void endLine(char separator, String timestamp) {
+        if (separator == ',') {
+            line.append(timestamp).append('\n');
+        } else {
+            line.setLength(line.lastIndexOf("\n") + 1);
+        }
+    }
+
+    // " established=12i,syn_sent=0i,... <timestamp>"
+    private void appendSocketCounts(SocketCensusCollector.SocketCounts counts, String timestamp) {
+        char separator = ' ';
+        for (SocketCensusCollector.TcpState state : SocketCensusCollector.TcpState.values()) {
+            line.append(separator).append(state.getLabel()).append('=').append(counts.get(state)).append('i');
+            separator = ',';
+        }
+        line.append(timestamp).append('\n');
+    }
+
+    private void measurement(String name, String tagName, String tagValue) {
+        line.append(MEASUREMENT_PREFIX).append(name).append(tags);
+        if (tagName != null) {
+            line.append(',').append(tagName).append('=');
+            for (int i = 0; i < tagValue.length(); i++) {
+                char c = tagValue.charAt(i);
+                if (c == ',' || c == '=' || c == ' ' || c == '\\') {
+                    line.append('\\');
+                }
+                line.append(c == '\n' ? ' ' : c);
+            }
+        }
+    }
+
+    private void runLoop() {
+        boolean interrupted = false;
+        int failures = 0;
+        try {
+            while (running) {
+                try {
+                    sendNext();
+                    failures = 0;
+                } catch (IOException | RuntimeException e) {
+                    // Keep what was taken off the queue for a later attempt and carry on
+                    for (byte[] lines : inFlight) {
+                        spillOrDrop(lines);
+                    }
+                    inFlight.clear();
+                    if (failures == 0) {
+                        logger.warn("Line protocol exporter error - retrying", e);
+                    } else {
+                        logger.debug("Line protocol exporter error: {}", e.getMessage());
+                    }
+                    Thread.sleep(backoff(failures++));
+                }
+            }
+        } catch (InterruptedException e) {
+            interrupted = true;
+        } finally {
+            // Keep whatever was taken off the queue but not delivered for the next run; the
+            // interrupt is restored only afterwards so it can't abort these writes
+            for (byte[] lines : inFlight) {
+                spillOrDrop(lines);
+            }
+            inFlight.clear();
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // One batch from the memory queue or, when it is empty, one spilled segment
+    private void sendNext() throws IOException, InterruptedException {
+        byte[] first = queue.poll(1, TimeUnit.SECONDS);
+        if (first == null) {
+            // Memory queue is drained; work through anything that spilled to disk
+            if (spill != null) {
+                sendSpilled();
+            }
+            return;
+        }
+        dequeued(first);
+
+        // Batch until the size limit or the flush interval, whichever comes first
+        long size = first.length;
+        long deadline = System.nanoTime() + flushIntervalNanos;
+        while (size < maxBatchBytes) {
+            long remaining = deadline - System.nanoTime();
+            byte[] next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+            if (next == null) {
+                break;
+            }
+            dequeued(next);
+            size += next.length;
+        }
+
+        body.reset();
+        for (byte[] lines : inFlight) {
+            body.write(lines);
+        }
+        send(body.toByteArray(), body.size());
+        inFlight.clear();
+    }
+
+    private void dequeued(byte[] lines) {
+        queuedBytes.addAndGet(-lines.length);
+        inFlight.add(lines);
+    }
+
+    private void sendSpilled() throws IOException, InterruptedException {
+        SpillBuffer.Taken taken = spill.takeOldest();
+        if (taken == null) {
+            return;
+        }
+        byte[] data = null;
+        int start = 0;
+        int end = 0;
+        try {
+            data = Files.readAllBytes(taken.path());
+            end = data.length;
+            while (end > 0 && data[end - 1] != '\n') {
+                end--; // torn by a crash
+            }
+            while (start < end) {
+                int chunkEnd = Math.min(end, start + maxBatchBytes);
+                while (chunkEnd > start && chunkEnd < end && data[chunkEnd - 1] != '\n') {
+                    chunkEnd--;
+                }
+                if (chunkEnd == start) {
+                    // One line longer than a batch; send it alone
+                    while (data[chunkEnd++] != '\n') {
+                        // scan to the end of the line
+                    }
+                }
+                byte[] chunk = Arrays.copyOfRange(data, start, chunkEnd);
+                send(chunk, chunk.length);
+                start = chunkEnd;
+                if (!queue.isEmpty()) {
+                    // Fresh samples go first; the rest of this segment is kept on disk
+                    break;
+                }
+            }
+        } finally {
+            if (data != null && start >= end) {
+                spill.release(taken);
+            } else {
+                // Back at the head of the spill, so the oldest samples still go out first
+                spill.putBack(taken, data, start, end);
+            }
+        }
+    }
+
+    /**
+     * POST one batch, retrying until it is delivered, rejected or the exporter stops
+     */
+    private void send(byte[] data, int length) throws InterruptedException, IOException {
+        int lines = SpillBuffer.countLines(data, length);
+        HttpRequest.Builder request = HttpRequest.newBuilder()
+            .uri(endpoint)
+            .header("Content-Type", "text/plain; charset=utf-8")
+            .header("User-Agent", "BubbleLog/1.0.0 (System Monitor)")
+            .timeout(REQUEST_TIMEOUT);
+        if (token != null && !token.isEmpty()) {
+            request.header("Authorization", "Token " + token);
+        }
+        if (compress) {
+            compressed.reset();
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(data, 0, length);
+            }
+            request.header("Content-Encoding", "gzip")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(compressed.toByteArray()));
+        } else {
+            request.POST(HttpRequest.BodyPublishers.ofByteArray(data, 0, length));
+        }
+        HttpRequest built = request.build();
+
+        for (int attempt = 0; ; attempt++) {
+            try {
+                HttpResponse<String> response = httpClient.send(built, HttpResponse.BodyHandlers.ofString());
+                int status = response.statusCode();
+                if (status < 300) {
+                    requestsSent.incrementAndGet();
+                    linesSent.addAndGet(lines);
+                    lastLagMillis = lagOf(data, length);
+                    if (endpointDown) {
+                        endpointDown = false;
+                        logger.info("Line protocol endpoint is reachable again - sending buffered samples");
+                    }
+                    return;
+                }
+                if (status != 429 && status < 500) {
+                    // Malformed data or bad credentials; resending won't help
+                    requestsFailed.incrementAndGet();
+                    linesDropped.addAndGet(lines);
+                    logger.warn("Line protocol endpoint rejected {} line(s) with status {} - {}", lines, status, response.body());
+                    return;
+                }
+                logger.debug("Line protocol endpoint returned {}", status);
+            } catch (HttpTimeoutException e) {
+                logger.debug("Line protocol request timed out after {}s", REQUEST_TIMEOUT.toSeconds());
+            } catch (IOException e) {
+                logger.debug("Line protocol request failed: {}", e.getMessage());
+            }
+            requestsFailed.incrementAndGet();
+            if (!endpointDown) {
+                endpointDown = true;
+                logger.warn("Line protocol endpoint {} is not accepting writes - buffering samples until it recovers",
+                    endpoint.getHost());
+            }
+            Thread.sleep(backoff(attempt));
+        }
+    }
+
+    // Time between the first sample of a batch being taken and its delivery
+    private static long lagOf(byte[] data, int length) {
+        int lineEnd = 0;
+        while (lineEnd < length && data[lineEnd] != '\n') {
+            lineEnd++;
+        }
+        int space = lineEnd - 1;
+        while (space >= 0 && data[space] != ' ') {
+            space--;
+        }
+        try {
+            long nanos = Long.parseLong(new String(data, space + 1, lineEnd - space - 1, StandardCharsets.US_ASCII));
+            return Math.max(0, System.currentTimeMillis() - nanos / 1_000_000);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    // Exponential backoff with jitter so several proxies don't retry in lockstep
+    private static long backoff(int attempt) {
+        long delay = Math.min(MAX_BACKOFF_MS, BASE_BACKOFF_MS << Math.min(attempt, 16));
+        return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+
+    public long getLinesSent() {
+        return linesSent.get();
+    }
+
+    public long getLinesSpilled() {
+        return linesSpilled.get();
+    }
+
+    public long getLinesDropped() {
+        return linesDropped.get();
+    }
+
+    public long getRequestsSent() {
+        return requestsSent.get();
+    }
+
+    public long getRequestsFailed() {
+        return requestsFailed.get();
+    }
+
+    /**
+     * @return bytes waiting in the memory queue
+     */
+    public long getQueuedBytes() {
+        return queuedBytes.get();
+    }
+
+    /**
+     * @return bytes waiting on disk
+     */
+    public long getSpilledBytes() {
+        return spill != null ? spill.getBytes() : 0;
+    }
+
+    /**
+     * @return age of the oldest sample in the last delivered batch when it was delivered, in
+     *         milliseconds, or -1 before the first delivery
+     */
+    public long getLastLagMillis() {
+        return lastLagMillis;
+    }
+
+    public boolean isEndpointDown() {
+        return endpointDown;
+    }
+
+    /**
+     * Stop sending and move everything still in memory to the spill so it is sent on next startup
+     */
+    public synchronized void shutdown() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+            try {
+                worker.join(SHUTDOWN_WAIT_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            worker = null;
+        }
+        if (spillWorker != null) {
+            try {
+                spillWorker.join(SHUTDOWN_WAIT_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            spillWorker = null;
+        }
+        byte[] lines;
+        while ((lines = overflow.poll()) != null) {
+            spillOrDrop(lines);
+        }
+        while ((lines = queue.poll()) != null) {
+            queuedBytes.addAndGet(-lines.length);
+            spillOrDrop(lines);
+        }
+        if (spill != null) {
+            if (spill.getLines() > 0) {
+                logger.info("Line protocol exporter stopped with {} unsent line(s) - they will be sent on next startup",
+                    spill.getLines());
+            }
+            spill.close();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package net.bubblecraft.bubblelog.export;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Builds an OpenMetrics text exposition. Each metric family is declared once with
+ * {@link #family} and followed directly by all of its samples.
+ */
+final class OpenMetricsWriter {
+
+    static final String CONTENT_TYPE = "application/openmetrics-text; version=1.0.0; charset=utf-8";
+
+    private final StringBuilder out = new StringBuilder(8192);
+
+    OpenMetricsWriter family(String name, String type, String help) {
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        return this;
+    }
+
+    OpenMetricsWriter sample(String name, double value) {
+        out.append(name).append(' ');
+        appendValue(value);
+        return this;
+    }
+
+    /**
+     * @param labels alternating label names and values
+     */
+    OpenMetricsWriter sample(String name, double value, String... labels) {
+        out.append(name).append('{');
+        for (int i = 0; i < labels.length; i += 2) {
+            if (i > 0) {
+                out.append(',');
+            }
+            out.append(labels[i]).append("=\"");
+            escape(labels[i + 1]);
+            out.append('"');
+        }
+        out.append("} ");
+        appendValue(value);
+        return this;
+    }
+
+    private void appendValue(double value) {
+        if (Double.isNaN(value)) {
+            out.append("NaN");
+        } else if (Double.isInfinite(value)) {
+            out.append(value > 0 ? "+Inf" : "-Inf");
+        } else if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            out.append((long) value);
+        } else {
+            out.append(value);
+        }
+        out.append('\n');
+    }
+
+    private void escape(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> out.append("\\\\");
+                case '"' -> out.append("\\\"");
+                case '\n' -> out.append("\\n");
+                default -> out.append(c);
+            }
+        }
+    }
+
+    /**
+     * Terminate the exposition and encode it
+     */
+    byte[] finish() {
+        out.append("# EOF\n");
+        return out.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
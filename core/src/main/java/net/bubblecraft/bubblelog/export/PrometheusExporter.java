@@ -0,0 +1,595 @@
+package net.bubblecraft.bubblelog.export;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import net.bubblecraft.bubblelog.alert.AlertManager;
+import net.bubblecraft.bubblelog.alert.sink.AlertSink;
+import net.bubblecraft.bubblelog.alert.sink.SinkMetrics;
+import net.bubblecraft.bubblelog.config.ConfigManager;
+import net.bubblecraft.bubblelog.monitor.BackendProcessCollector;
+import net.bubblecraft.bubblelog.monitor.BackendTickCollector;
+import net.bubblecraft.bubblelog.monitor.CpuCollector;
+import net.bubblecraft.bubblelog.monitor.DiskIoCollector;
+import net.bubblecraft.bubblelog.monitor.MetricsSnapshot;
+import net.bubblecraft.bubblelog.monitor.NetworkIoCollector;
+import net.bubblecraft.bubblelog.monitor.PressureCollector;
+import net.bubblecraft.bubblelog.monitor.ProcessCollector;
+import net.bubblecraft.bubblelog.monitor.SnapshotListener;
+import net.bubblecraft.bubblelog.monitor.SocketCensusCollector;
+import net.bubblecraft.bubblelog.monitor.SystemMonitor;
+import net.bubblecraft.bubblelog.util.FramedLogWriter;
+import org.slf4j.Logger;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serves the latest snapshot to Prometheus in OpenMetrics text format from an embedded HTTP
+ * server ({@code metrics.prometheus}).
+ *
+ * The exposition is rendered once per monitoring tick into a byte array (and gzipped at most
+ * once, on the first scrape that asks for it); every scrape just writes those bytes, so the
+ * cost of scraping doesn't depend on how many scrapers there are or how often they come.
+ * Requests are handled on virtual threads.
+ */
+public class PrometheusExporter implements SnapshotListener {
+
+    private final ConfigManager config;
+    private final Logger logger;
+    private final SystemMonitor systemMonitor;
+    private final AlertManager alertManager;
+
+    private final AtomicLong scrapes = new AtomicLong();
+    private volatile Exposition exposition;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    /**
+     * @param alertManager may be {@code null} when alerting failed to initialize
+     */
+    public PrometheusExporter(ConfigManager config, Logger logger, SystemMonitor systemMonitor, AlertManager alertManager) {
+        this.config = config;
+        this.logger = logger;
+        this.systemMonitor = systemMonitor;
+        this.alertManager = alertManager;
+    }
+
+    /**
+     * Bind the HTTP server
+     */
+    public void start() throws IOException {
+        InetSocketAddress address = new InetSocketAddress(config.getPrometheusBindAddress(), config.getPrometheusPort());
+        server = HttpServer.create(address, 0);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext(config.getPrometheusPath(), this::handle);
+        server.start();
+        logger.info("Prometheus metrics available at http://{}:{}{}", address.getHostString(), address.getPort(),
+            config.getPrometheusPath());
+    }
+
+    @Override
+    public void onSnapshot(MetricsSnapshot snapshot) {
+        exposition = new Exposition(render(snapshot));
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String method = exchange.getRequestMethod();
+            if (!method.equals("GET") && !method.equals("HEAD")) {
+                exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            Exposition current = exposition;
+            if (current == null) {
+                // Nothing sampled yet; Prometheus records the scrape as failed until the first tick
+                exchange.sendResponseHeaders(503, -1);
+                return;
+            }
+            scrapes.incrementAndGet();
+
+            byte[] body = current.body;
+            String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+            if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+                body = current.gzipped();
+                exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+            }
+            exchange.getResponseHeaders().set("Content-Type", OpenMetricsWriter.CONTENT_TYPE);
+            if (method.equals("HEAD")) {
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    byte[] render(MetricsSnapshot snapshot) {
+        OpenMetricsWriter out = new OpenMetricsWriter();
+        out.family("bubblelog_snapshot_timestamp_seconds", "gauge", "When the exported sample was taken")
+            .sample("bubblelog_snapshot_timestamp_seconds", snapshot.getTimestamp() / 1000.0);
+
+        if (snapshot.hasCpu()) {
+            out.family("bubblelog_cpu_usage_ratio", "gauge", "System CPU load (JVM process load where restricted)")
+                .sample("bubblelog_cpu_usage_ratio", snapshot.getCpuUsage());
+        }
+
+        if (snapshot.getCpuBreakdown() != null) {
+            renderCpuBreakdown(out, snapshot.getCpuBreakdown());
+        }
+
+        SystemMonitor.MemoryUsage memory = snapshot.getMemoryUsage();
+        if (memory != null) {
+            out.family("bubblelog_memory_total_bytes", "gauge", "Total memory")
+                .sample("bubblelog_memory_total_bytes", memory.getTotal());
+            out.family("bubblelog_memory_used_bytes", "gauge", "Used memory")
+                .sample("bubblelog_memory_used_bytes", memory.getUsed());
+            out.family("bubblelog_memory_available_bytes", "gauge", "Available memory")
+                .sample("bubblelog_memory_available_bytes", memory.getAvailable());
+            out.family("bubblelog_memory_usage_ratio", "gauge", "Used share of total memory")
+                .sample("bubblelog_memory_usage_ratio", memory.getUsagePercent() / 100);
+        }
+
+        if (!snapshot.getDiskUsages().isEmpty()) {
+            out.family("bubblelog_disk_total_bytes", "gauge", "Disk size");
+            for (SystemMonitor.DiskUsage disk : snapshot.getDiskUsages()) {
+                out.sample("bubblelog_disk_total_bytes", disk.getTotal(), "disk", disk.getName());
+            }
+            out.family("bubblelog_disk_used_bytes", "gauge", "Used disk space");
+            for (SystemMonitor.DiskUsage disk : snapshot.getDiskUsages()) {
+                out.sample("bubblelog_disk_used_bytes", disk.getUsed(), "disk", disk.getName());
+            }
+            out.family("bubblelog_disk_free_bytes", "gauge", "Free disk space");
+            for (SystemMonitor.DiskUsage disk : snapshot.getDiskUsages()) {
+                out.sample("bubblelog_disk_free_bytes", disk.getFree(), "disk", disk.getName());
+            }
+            out.family("bubblelog_disk_usage_ratio", "gauge", "Used share of disk space");
+            for (SystemMonitor.DiskUsage disk : snapshot.getDiskUsages()) {
+                out.sample("bubblelog_disk_usage_ratio", disk.getUsagePercent() / 100, "disk", disk.getName());
+            }
+        }
+
+        if (!snapshot.getDiskIo().isEmpty()) {
+            renderDiskIo(out, snapshot.getDiskIo());
+        }
+
+        if (snapshot.getNetworkIo() != null) {
+            renderNetworkIo(out, snapshot.getNetworkIo());
+        }
+
+        if (snapshot.getSockets() != null) {
+            renderSockets(out, snapshot.getSockets());
+        }
+
+        if (snapshot.getProcess() != null) {
+            renderProcess(out, snapshot.getProcess());
+        }
+
+        SystemMonitor.NetworkData network = snapshot.getNetworkData();
+        if (network != null) {
+            out.family("bubblelog_players", "gauge", "Players connected to the proxy")
+                .sample("bubblelog_players", network.getCurrentPlayers());
+            out.family("bubblelog_players_max", "gauge", "Player limit shown to clients")
+                .sample("bubblelog_players_max", network.getMaxPlayers());
+            out.family("bubblelog_servers_online", "gauge", "Backend servers considered online")
+                .sample("bubblelog_servers_online", network.getOnlineServers());
+            out.family("bubblelog_servers", "gauge", "Registered backend servers")
+                .sample("bubblelog_servers", network.getTotalServers());
+            if (!network.getBackendPlayers().isEmpty()) {
+                out.family("bubblelog_backend_players", "gauge", "Players connected to each backend server");
+                for (Map.Entry<String, Integer> backend : network.getBackendPlayers().entrySet()) {
+                    out.sample("bubblelog_backend_players", backend.getValue(), "backend", backend.getKey());
+                }
+            }
+        }
+
+        if (!snapshot.getBackendProcesses().isEmpty()) {
+            renderBackendProcesses(out, snapshot.getBackendProcesses());
+        }
+        if (!snapshot.getBackendTicks().isEmpty()) {
+            renderBackendTicks(out, snapshot.getBackendTicks());
+        }
+
+        SystemMonitor.JVMData jvm = snapshot.getJvmData();
+        if (jvm != null) {
+            out.family("bubblelog_jvm_heap_usage_ratio", "gauge", "Used share of the maximum heap")
+                .sample("bubblelog_jvm_heap_usage_ratio", jvm.getHeapUtilization() / 100);
+            out.family("bubblelog_jvm_nonheap_used_bytes", "gauge", "Used non-heap memory")
+                .sample("bubblelog_jvm_nonheap_used_bytes", Math.round(jvm.getNonHeapUsedMB() * 1024 * 1024));
+            out.family("bubblelog_jvm_threads", "gauge", "Live JVM threads")
+                .sample("bubblelog_jvm_threads", jvm.getThreadCount());
+            out.family("bubblelog_jvm_classes_loaded", "gauge", "Currently loaded classes")
+                .sample("bubblelog_jvm_classes_loaded", jvm.getLoadedClassCount());
+            out.family("bubblelog_jvm_gc_seconds", "counter", "Time spent in garbage collection")
+                .sample("bubblelog_jvm_gc_seconds_total", jvm.getTotalGCTime() / 1000.0);
+        }
+
+        SystemMonitor.ConnectionQualityData connection = snapshot.getConnectionData();
+        if (connection != null && connection.getAveragePing() >= 0) {
+            out.family("bubblelog_backend_ping_avg_seconds", "gauge", "Average status ping to sampled backends")
+                .sample("bubblelog_backend_ping_avg_seconds", connection.getAveragePing() / 1000);
+            out.family("bubblelog_backend_ping_max_seconds", "gauge", "Slowest status ping to sampled backends")
+                .sample("bubblelog_backend_ping_max_seconds", connection.getMaxPing() / 1000);
+        }
+        if (connection != null && connection.getPacketLoss() >= 0) {
+            out.family("bubblelog_backend_ping_failure_ratio", "gauge", "Share of sampled backend pings that failed")
+                .sample("bubblelog_backend_ping_failure_ratio", connection.getPacketLoss() / 100);
+        }
+
+        PressureCollector.PressureData pressure = snapshot.getPressureData();
+        if (pressure != null) {
+            renderPressure(out, pressure);
+        }
+
+        renderLogWriters(out);
+        renderAlertSinks(out);
+
+        out.family("bubblelog_scrapes", "counter", "Scrapes served by this endpoint")
+            .sample("bubblelog_scrapes_total", scrapes.get());
+        return out.finish();
+    }
+
+    private void renderBackendProcesses(OpenMetricsWriter out, List<BackendProcessCollector.BackendProcess> processes) {
+        out.family("bubblelog_backend_process_cpu_seconds", "counter", "CPU time used by each backend running on this machine");
+        for (BackendProcessCollector.BackendProcess process : processes) {
+            out.sample("bubblelog_backend_process_cpu_seconds_total", process.getCpuSeconds(), "backend", process.getBackend());
+        }
+        out.family("bubblelog_backend_process_resident_memory_bytes", "gauge", "Resident memory of each backend running on this machine");
+        for (BackendProcessCollector.BackendProcess process : processes) {
+            if (process.getRssBytes() >= 0) {
+                out.sample("bubblelog_backend_process_resident_memory_bytes", process.getRssBytes(), "backend", process.getBackend());
+            }
+        }
+    }
+
+    private void renderBackendTicks(OpenMetricsWriter out, List<BackendTickCollector.BackendTick> ticks) {
+        out.family("bubblelog_backend_tps", "gauge", "Average ticks per second reported by each backend over the last interval");
+        for (BackendTickCollector.BackendTick tick : ticks) {
+            out.sample("bubblelog_backend_tps", tick.getTps(), "backend", tick.getBackend());
+        }
+        out.family("bubblelog_backend_tps_min", "gauge", "Lowest ticks per second reported by each backend over the last interval");
+        for (BackendTickCollector.BackendTick tick : ticks) {
+            out.sample("bubblelog_backend_tps_min", tick.getMinTps(), "backend", tick.getBackend());
+        }
+        out.family("bubblelog_backend_tick_duration_seconds", "gauge", "Tick duration of each backend over the last interval");
+        for (BackendTickCollector.BackendTick tick : ticks) {
+            out.sample("bubblelog_backend_tick_duration_seconds", tick.getMsptAvg() / 1000, "backend", tick.getBackend(), "stat", "avg");
+            out.sample("bubblelog_backend_tick_duration_seconds", tick.getMsptP50() / 1000, "backend", tick.getBackend(), "stat", "p50");
+            out.sample("bubblelog_backend_tick_duration_seconds", tick.getMsptP95() / 1000, "backend", tick.getBackend(), "stat", "p95");
+            out.sample("bubblelog_backend_tick_duration_seconds", tick.getMsptP99() / 1000, "backend", tick.getBackend(), "stat", "p99");
+            out.sample("bubblelog_backend_tick_duration_seconds", tick.getMsptMax() / 1000, "backend", tick.getBackend(), "stat", "max");
+        }
+        out.family("bubblelog_backend_entities", "gauge", "Entities across all worlds of each backend");
+        for (BackendTickCollector.BackendTick tick : ticks) {
+            out.sample("bubblelog_backend_entities", tick.getEntities(), "backend", tick.getBackend());
+        }
+        out.family("bubblelog_backend_loaded_chunks", "gauge", "Loaded chunks across all worlds of each backend");
+        for (BackendTickCollector.BackendTick tick : ticks) {
+            out.sample("bubblelog_backend_loaded_chunks", tick.getChunks(), "backend", tick.getBackend());
+        }
+    }
+
+    private void renderCpuBreakdown(OpenMetricsWriter out, CpuCollector.CpuBreakdown cpu) {
+        out.family("bubblelog_cpu_mode_ratio", "gauge", "Share of CPU time spent in each mode over the last interval");
+        out.sample("bubblelog_cpu_mode_ratio", cpu.getUser() / 100, "mode", "user");
+        out.sample("bubblelog_cpu_mode_ratio", cpu.getSystem() / 100, "mode", "system");
+        out.sample("bubblelog_cpu_mode_ratio", cpu.getIowait() / 100, "mode", "iowait");
+        out.sample("bubblelog_cpu_mode_ratio", cpu.getIrq() / 100, "mode", "irq");
+        out.sample("bubblelog_cpu_mode_ratio", cpu.getSteal() / 100, "mode", "steal");
+        out.sample("bubblelog_cpu_mode_ratio", cpu.getIdle() / 100, "mode", "idle");
+        if (cpu.getMaxCoreLoad() >= 0) {
+            out.family("bubblelog_cpu_core_usage_ratio", "gauge", "Busy share of each core over the last interval");
+            double[] coreLoads = cpu.getCoreLoads();
+            for (int core = 0; core < coreLoads.length; core++) {
+                if (coreLoads[core] >= 0) {
+                    out.sample("bubblelog_cpu_core_usage_ratio", coreLoads[core] / 100, "core", Integer.toString(core));
+                }
+            }
+            out.family("bubblelog_cpu_max_core_usage_ratio", "gauge", "Busy share of the busiest core")
+                .sample("bubblelog_cpu_max_core_usage_ratio", cpu.getMaxCoreLoad() / 100);
+        }
+    }
+
+    private void renderDiskIo(OpenMetricsWriter out, List<DiskIoCollector.DiskIo> diskIo) {
+        out.family("bubblelog_disk_io_utilization_ratio", "gauge", "Share of the last interval the device was busy");
+        for (DiskIoCollector.DiskIo disk : diskIo) {
+            out.sample("bubblelog_disk_io_utilization_ratio", disk.getUtilization() / 100,
+                "disk", disk.getName(), "device", disk.getDevice());
+        }
+        out.family("bubblelog_disk_io_await_seconds", "gauge", "Average time an I/O request took including queueing");
+        for (DiskIoCollector.DiskIo disk : diskIo) {
+            out.sample("bubblelog_disk_io_await_seconds", disk.getAwaitMs() / 1000,
+                "disk", disk.getName(), "device", disk.getDevice());
+        }
+        out.family("bubblelog_disk_io_operations_per_second", "gauge", "Completed I/O requests per second");
+        for (DiskIoCollector.DiskIo disk : diskIo) {
+            out.sample("bubblelog_disk_io_operations_per_second", disk.getReadsPerSecond(),
+                "disk", disk.getName(), "device", disk.getDevice(), "direction", "read");
+            out.sample("bubblelog_disk_io_operations_per_second", disk.getWritesPerSecond(),
+                "disk", disk.getName(), "device", disk.getDevice(), "direction", "write");
+        }
+        out.family("bubblelog_disk_io_bytes_per_second", "gauge", "Bytes transferred per second");
+        for (DiskIoCollector.DiskIo disk : diskIo) {
+            out.sample("bubblelog_disk_io_bytes_per_second", disk.getReadBytesPerSecond(),
+                "disk", disk.getName(), "device", disk.getDevice(), "direction", "read");
+            out.sample("bubblelog_disk_io_bytes_per_second", disk.getWriteBytesPerSecond(),
+                "disk", disk.getName(), "device", disk.getDevice(), "direction", "write");
+        }
+    }
+
+    private void renderNetworkIo(OpenMetricsWriter out, NetworkIoCollector.NetworkIoData networkIo) {
+        List<NetworkIoCollector.InterfaceIo> interfaces = networkIo.getInterfaces();
+        if (!interfaces.isEmpty()) {
+            out.family("bubblelog_network_bytes_per_second", "gauge", "Bytes per second through the interface");
+            for (NetworkIoCollector.InterfaceIo networkInterface : interfaces) {
+                out.sample("bubblelog_network_bytes_per_second", networkInterface.getRxBytesPerSecond(),
+                    "interface", networkInterface.getName(), "direction", "rx");
+                out.sample("bubblelog_network_bytes_per_second", networkInterface.getTxBytesPerSecond(),
+                    "interface", networkInterface.getName(), "direction", "tx");
+            }
+            out.family("bubblelog_network_packets_per_second", "gauge", "Packets per second through the interface");
+            for (NetworkIoCollector.InterfaceIo networkInterface : interfaces) {
+                out.sample("bubblelog_network_packets_per_second", networkInterface.getRxPacketsPerSecond(),
+                    "interface", networkInterface.getName(), "direction", "rx");
+                out.sample("bubblelog_network_packets_per_second", networkInterface.getTxPacketsPerSecond(),
+                    "interface", networkInterface.getName(), "direction", "tx");
+            }
+            out.family("bubblelog_network_drops_per_second", "gauge", "Packets dropped per second by the interface");
+            for (NetworkIoCollector.InterfaceIo networkInterface : interfaces) {
+                out.sample("bubblelog_network_drops_per_second", networkInterface.getDropsPerSecond(),
+                    "interface", networkInterface.getName());
+            }
+            out.family("bubblelog_network_errors_per_second", "gauge", "Receive and transmit errors per second");
+            for (NetworkIoCollector.InterfaceIo networkInterface : interfaces) {
+                out.sample("bubblelog_network_errors_per_second", networkInterface.getErrorsPerSecond(),
+                    "interface", networkInterface.getName());
+            }
+            out.family("bubblelog_network_utilization_ratio", "gauge", "Busier direction as a share of link speed");
+            for (NetworkIoCollector.InterfaceIo networkInterface : interfaces) {
+                if (networkInterface.getUtilization() >= 0) {
+                    out.sample("bubblelog_network_utilization_ratio", networkInterface.getUtilization() / 100,
+                        "interface", networkInterface.getName());
+                }
+            }
+        }
+
+        NetworkIoCollector.TcpHealth tcp = networkIo.getTcp();
+        if (tcp != null) {
+            out.family("bubblelog_tcp_retransmits_per_second", "gauge", "TCP segments retransmitted per second")
+                .sample("bubblelog_tcp_retransmits_per_second", tcp.getRetransmitsPerSecond());
+            if (tcp.getRetransmitPercent() >= 0) {
+                out.family("bubblelog_tcp_retransmit_ratio", "gauge", "Share of sent TCP segments that were retransmits")
+                    .sample("bubblelog_tcp_retransmit_ratio", tcp.getRetransmitPercent() / 100);
+            }
+            out.family("bubblelog_tcp_resets_per_second", "gauge", "TCP resets sent per second")
+                .sample("bubblelog_tcp_resets_per_second", tcp.getResetsPerSecond());
+            if (tcp.getListenOverflows() >= 0) {
+                out.family("bubblelog_tcp_listen_overflows", "gauge", "Connections the accept queue had no room for in the last interval")
+                    .sample("bubblelog_tcp_listen_overflows", tcp.getListenOverflows());
+                out.family("bubblelog_tcp_listen_drops", "gauge", "Incoming connections dropped before accept in the last interval")
+                    .sample("bubblelog_tcp_listen_drops", tcp.getListenDrops());
+            }
+            out.family("bubblelog_tcp_established", "gauge", "Established TCP connections")
+                .sample("bubblelog_tcp_established", tcp.getEstablished());
+        }
+    }
+
+    private void renderSockets(OpenMetricsWriter out, SocketCensusCollector.SocketCensus sockets) {
+        out.family("bubblelog_tcp_sockets", "gauge", "TCP sockets in the proxy's network namespace by state");
+        for (SocketCensusCollector.TcpState state : SocketCensusCollector.TcpState.values()) {
+            out.sample("bubblelog_tcp_sockets", sockets.getAll().get(state), "state", state.getLabel());
+        }
+        if (sockets.getProxy() != null) {
+            out.family("bubblelog_proxy_sockets", "gauge", "TCP sockets on the proxy's listening port by state");
+            for (SocketCensusCollector.TcpState state : SocketCensusCollector.TcpState.values()) {
+                out.sample("bubblelog_proxy_sockets", sockets.getProxy().get(state), "state", state.getLabel());
+            }
+        }
+        if (!sockets.getBackends().isEmpty()) {
+            out.family("bubblelog_backend_sockets", "gauge", "TCP sockets to each backend server by state");
+            for (Map.Entry<String, SocketCensusCollector.SocketCounts> backend : sockets.getBackends().entrySet()) {
+                for (SocketCensusCollector.TcpState state : SocketCensusCollector.TcpState.values()) {
+                    out.sample("bubblelog_backend_sockets", backend.getValue().get(state),
+                        "server", backend.getKey(), "state", state.getLabel());
+                }
+            }
+        }
+    }
+
+    private void renderProcess(OpenMetricsWriter out, ProcessCollector.ProcessData process) {
+        if (process.getOpenFiles() >= 0) {
+            out.family("bubblelog_process_open_fds", "gauge", "File descriptors the proxy has open")
+                .sample("bubblelog_process_open_fds", process.getOpenFiles());
+        }
+        if (process.getMaxOpenFiles() > 0) {
+            out.family("bubblelog_process_max_fds", "gauge", "Limit on file descriptors the proxy may open")
+                .sample("bubblelog_process_max_fds", process.getMaxOpenFiles());
+        }
+        if (process.getRssBytes() >= 0) {
+            out.family("bubblelog_process_resident_memory_bytes", "gauge", "Resident memory of the proxy process")
+                .sample("bubblelog_process_resident_memory_bytes", process.getRssBytes());
+        }
+        if (process.getPssBytes() >= 0) {
+            out.family("bubblelog_process_proportional_memory_bytes", "gauge", "Resident memory with shared pages split between their users")
+                .sample("bubblelog_process_proportional_memory_bytes", process.getPssBytes());
+        }
+        if (process.getThreads() >= 0) {
+            out.family("bubblelog_process_threads", "gauge", "OS threads of the proxy process")
+                .sample("bubblelog_process_threads", process.getThreads());
+        }
+        if (process.getCpuSeconds() >= 0) {
+            out.family("bubblelog_process_cpu_seconds", "counter", "CPU time used by the proxy process")
+                .sample("bubblelog_process_cpu_seconds_total", process.getCpuSeconds());
+        }
+        if (process.getContextSwitchesPerSecond() >= 0) {
+            out.family("bubblelog_process_context_switches_per_second", "gauge", "Context switches of the proxy's threads per second")
+                .sample("bubblelog_process_context_switches_per_second", process.getContextSwitchesPerSecond());
+            if (process.getInvoluntarySwitchesPerSecond() >= 0) {
+                out.family("bubblelog_process_involuntary_switches_per_second", "gauge", "Context switches forced by the scheduler per second")
+                    .sample("bubblelog_process_involuntary_switches_per_second", process.getInvoluntarySwitchesPerSecond());
+            }
+        }
+        if (process.getMinorFaultsPerSecond() >= 0) {
+            out.family("bubblelog_process_page_faults_per_second", "gauge", "Page faults of the proxy process per second");
+            out.sample("bubblelog_process_page_faults_per_second", process.getMinorFaultsPerSecond(), "kind", "minor");
+            out.sample("bubblelog_process_page_faults_per_second", process.getMajorFaultsPerSecond(), "kind", "major");
+        }
+    }
+
+    private void renderPressure(OpenMetricsWriter out, PressureCollector.PressureData pressure) {
+        Map<String, PressureCollector.Stall> stalls = pressure.getStalls();
+        String scope = pressure.isCgroupScoped() ? "cgroup" : "host";
+        out.family("bubblelog_pressure_some_ratio", "gauge", "Share of the last 10s some tasks were stalled on the resource");
+        for (Map.Entry<String, PressureCollector.Stall> stall : stalls.entrySet()) {
+            out.sample("bubblelog_pressure_some_ratio", stall.getValue().getSomeAvg10() / 100,
+                "resource", stall.getKey(), "scope", scope);
+        }
+        out.family("bubblelog_pressure_full_ratio", "gauge", "Share of the last 10s all tasks were stalled on the resource");
+        for (Map.Entry<String, PressureCollector.Stall> stall : stalls.entrySet()) {
+            if (stall.getValue().getFullAvg10() >= 0) {
+                out.sample("bubblelog_pressure_full_ratio", stall.getValue().getFullAvg10() / 100,
+                    "resource", stall.getKey(), "scope", scope);
+            }
+        }
+        out.family("bubblelog_pressure_stalled_seconds", "counter", "Total time tasks were stalled on the resource");
+        for (Map.Entry<String, PressureCollector.Stall> stall : stalls.entrySet()) {
+            out.sample("bubblelog_pressure_stalled_seconds_total", stall.getValue().getSomeTotalMicros() / 1e6,
+                "resource", stall.getKey(), "scope", scope, "kind", "some");
+            if (stall.getValue().getFullTotalMicros() >= 0) {
+                out.sample("bubblelog_pressure_stalled_seconds_total", stall.getValue().getFullTotalMicros() / 1e6,
+                    "resource", stall.getKey(), "scope", scope, "kind", "full");
+            }
+        }
+    }
+
+    private void renderLogWriters(OpenMetricsWriter out) {
+        FramedLogWriter usage = systemMonitor.getLogWriter();
+        FramedLogWriter alerts = alertManager != null ? alertManager.getAlertWriter() : null;
+        FramedLogWriter[] writers = alerts != null ? new FramedLogWriter[] {usage, alerts} : new FramedLogWriter[] {usage};
+        String[] names = {"usage", "alerts"};
+
+        out.family("bubblelog_log_records", "counter", "Records appended to the log since startup");
+        for (int i = 0; i < writers.length; i++) {
+            out.sample("bubblelog_log_records_total", writers[i].getRecordsWritten(), "log", names[i]);
+        }
+        out.family("bubblelog_log_syncs", "counter", "Times the log was forced to disk");
+        for (int i = 0; i < writers.length; i++) {
+            out.sample("bubblelog_log_syncs_total", writers[i].getSyncs(), "log", names[i]);
+        }
+        out.family("bubblelog_log_unsynced_bytes", "gauge", "Bytes written but not yet forced to disk");
+        for (int i = 0; i < writers.length; i++) {
+            out.sample("bubblelog_log_unsynced_bytes", writers[i].getUnsyncedBytes(), "log", names[i]);
+        }
+        out.family("bubblelog_log_records_dropped", "counter", "Torn or corrupt records removed after a crash");
+        for (int i = 0; i < writers.length; i++) {
+            out.sample("bubblelog_log_records_dropped_total", writers[i].getRecordsDropped(), "log", names[i]);
+        }
+        out.family("bubblelog_log_truncated_bytes", "counter", "Bytes removed from log tails after a crash");
+        for (int i = 0; i < writers.length; i++) {
+            out.sample("bubblelog_log_truncated_bytes_total", writers[i].getBytesTruncated(), "log", names[i]);
+        }
+        out.family("bubblelog_log_gap_seconds", "gauge", "Time nothing was logged before the last restart");
+        for (int i = 0; i < writers.length; i++) {
+            if (writers[i].getLastGapSeconds() >= 0) {
+                out.sample("bubblelog_log_gap_seconds", writers[i].getLastGapSeconds(), "log", names[i]);
+            }
+        }
+    }
+
+    private void renderAlertSinks(OpenMetricsWriter out) {
+        if (alertManager == null) {
+            return;
+        }
+        // Same rule as /bubblelog status: sinks that are off and never sent anything are left out
+        List<AlertSink> sinks = new ArrayList<>();
+        for (AlertSink sink : alertManager.getSinks()) {
+            if (sink.isEnabled() || sink.getMetrics().getSent() > 0) {
+                sinks.add(sink);
+            }
+        }
+        if (sinks.isEmpty()) {
+            return;
+        }
+        out.family("bubblelog_alert_sink_sent", "counter", "Alerts delivered");
+        for (AlertSink sink : sinks) {
+            out.sample("bubblelog_alert_sink_sent_total", sink.getMetrics().getSent(), "sink", sink.getName());
+        }
+        out.family("bubblelog_alert_sink_dropped", "counter", "Alerts discarded before delivery");
+        for (AlertSink sink : sinks) {
+            out.sample("bubblelog_alert_sink_dropped_total", sink.getMetrics().getDropped(), "sink", sink.getName());
+        }
+        out.family("bubblelog_alert_sink_failed", "counter", "Alerts whose delivery failed");
+        for (AlertSink sink : sinks) {
+            out.sample("bubblelog_alert_sink_failed_total", sink.getMetrics().getFailed(), "sink", sink.getName());
+        }
+        out.family("bubblelog_alert_sink_timed_out", "counter", "Alerts whose delivery timed out");
+        for (AlertSink sink : sinks) {
+            out.sample("bubblelog_alert_sink_timed_out_total", sink.getMetrics().getTimedOut(), "sink", sink.getName());
+        }
+
+        long[] bounds = SinkMetrics.getLatencyBoundsMillis();
+        out.family("bubblelog_alert_sink_latency_seconds", "histogram", "Delivery latency");
+        for (AlertSink sink : sinks) {
+            SinkMetrics metrics = sink.getMetrics();
+            long[] counts = metrics.getLatencyBucketCounts();
+            long cumulative = 0;
+            for (int i = 0; i < bounds.length; i++) {
+                cumulative += counts[i];
+                out.sample("bubblelog_alert_sink_latency_seconds_bucket", cumulative,
+                    "sink", sink.getName(), "le", Double.toString(bounds[i] / 1000.0));
+            }
+            cumulative += counts[bounds.length];
+            out.sample("bubblelog_alert_sink_latency_seconds_bucket", cumulative, "sink", sink.getName(), "le", "+Inf");
+            out.sample("bubblelog_alert_sink_latency_seconds_count", cumulative, "sink", sink.getName());
+            out.sample("bubblelog_alert_sink_latency_seconds_sum", metrics.getLatencySumMillis() / 1000, "sink", sink.getName());
+        }
+    }
+
+    public long getScrapes() {
+        return scrapes.get();
+    }
+
+    public void shutdown() {
+        if (server != null) {
+            server.stop(0);
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * One rendered sample; the gzip form is made by the first scrape that accepts it
+     */
+    private static final class Exposition {
+        final byte[] body;
+        private byte[] gzipped;
+
+        Exposition(byte[] body) {
+            this.body = body;
+        }
+
+        synchronized byte[] gzipped() throws IOException {
+            if (gzipped == null) {
+                ByteArrayOutputStream buffer = new ByteArrayOutputStream(body.length / 4);
+                try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+                    gzip.write(body);
+                }
+                gzipped = buffer.toByteArray();
+            }
+            return gzipped;
+        }
+    }
+}
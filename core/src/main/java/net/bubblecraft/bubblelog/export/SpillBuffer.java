@@ -0,0 +1,225 @@
+package net.bubblecraft.bubblelog.export;
+
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Bounded on-disk overflow for an exporter whose endpoint can't keep up.
+ *
+ * Newline-terminated lines are appended to numbered segment files ({@code <name>-00000001.lp})
+ * that the sender takes whole, oldest first, and releases once delivered. When the total
+ * exceeds the limit the oldest segments are deleted, so an outage costs the oldest data rather
+ * than the newest. Segments survive a restart; a line torn by a crash is cut off when read.
+ */
+final class SpillBuffer {
+
+    private static final long SEGMENT_MAX_BYTES = 1024 * 1024;
+    private static final long SEGMENT_MIN_BYTES = 64 * 1024;
+    private static final String SUFFIX = ".lp";
+
+    private final Path directory;
+    private final String name;
+    private final long maxBytes;
+    private final long segmentBytes;
+    private final Logger logger;
+
+    // Segments waiting to be taken, oldest first, including the active one
+    private final TreeMap<Long, Segment> segments = new TreeMap<>();
+    private FileChannel active;
+    private long activeIndex;
+    private long totalBytes;
+    private long totalLines;
+
+    private static final class Segment {
+        long bytes;
+        long lines;
+    }
+
+    /**
+     * A segment handed to the sender
+     */
+    record Taken(long index, Path path, long bytes, long lines) {}
+
+    SpillBuffer(Path directory, String name, long maxBytes, Logger logger) {
+        this.directory = directory;
+        this.name = name;
+        this.maxBytes = maxBytes;
+        // Small enough that evicting one segment only loses a fraction of the buffer
+        this.segmentBytes = Math.max(SEGMENT_MIN_BYTES, Math.min(SEGMENT_MAX_BYTES, maxBytes / 16));
+        this.logger = logger;
+    }
+
+    /**
+     * Pick up segments left by the previous run
+     */
+    synchronized void open() throws IOException {
+        Files.createDirectories(directory);
+        String prefix = name + "-";
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                String fileName = file.getFileName().toString();
+                if (!fileName.startsWith(prefix) || !fileName.endsWith(SUFFIX)) {
+                    continue;
+                }
+                long index;
+                try {
+                    index = Long.parseLong(fileName.substring(prefix.length(), fileName.length() - SUFFIX.length()));
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+                Segment segment = new Segment();
+                byte[] data = Files.readAllBytes(file);
+                segment.bytes = data.length;
+                segment.lines = countLines(data, data.length);
+                segments.put(index, segment);
+                totalBytes += segment.bytes;
+                totalLines += segment.lines;
+            }
+        }
+        activeIndex = segments.isEmpty() ? 0 : segments.lastKey();
+        if (totalLines > 0) {
+            logger.info("{} export: {} buffered line(s) from the last run will be sent", name, totalLines);
+        }
+    }
+
+    /**
+     * Append complete lines, evicting the oldest segments if the buffer is over its limit
+     * @return number of lines evicted
+     */
+    synchronized long append(byte[] lines, int lineCount) throws IOException {
+        Segment current = segments.get(activeIndex);
+        // A channel closed under us (e.g. by an interrupt) just starts the next segment
+        if (active == null || !active.isOpen() || current == null || current.bytes >= segmentBytes) {
+            current = roll();
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(lines);
+        while (buffer.hasRemaining()) {
+            active.write(buffer);
+        }
+        current.bytes += lines.length;
+        current.lines += lineCount;
+        totalBytes += lines.length;
+        totalLines += lineCount;
+
+        long evicted = 0;
+        while (totalBytes > maxBytes && segments.firstKey() != activeIndex) {
+            Map.Entry<Long, Segment> oldest = segments.pollFirstEntry();
+            Files.deleteIfExists(segmentPath(oldest.getKey()));
+            totalBytes -= oldest.getValue().bytes;
+            totalLines -= oldest.getValue().lines;
+            evicted += oldest.getValue().lines;
+        }
+        return evicted;
+    }
+
+    private Segment roll() throws IOException {
+        closeActive();
+        activeIndex++;
+        active = FileChannel.open(segmentPath(activeIndex),
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        Segment segment = new Segment();
+        segments.put(activeIndex, segment);
+        return segment;
+    }
+
+    /**
+     * Hand the oldest segment to the sender; the active one is closed first if it's all that's left
+     * @return the segment, or {@code null} if nothing is buffered
+     */
+    synchronized Taken takeOldest() throws IOException {
+        Map.Entry<Long, Segment> oldest = segments.firstEntry();
+        if (oldest == null || oldest.getValue().bytes == 0) {
+            return null;
+        }
+        if (oldest.getKey() == activeIndex) {
+            closeActive();
+        }
+        segments.pollFirstEntry();
+        return new Taken(oldest.getKey(), segmentPath(oldest.getKey()), oldest.getValue().bytes, oldest.getValue().lines);
+    }
+
+    /**
+     * Delete a taken segment once its lines were delivered
+     */
+    synchronized void release(Taken taken) throws IOException {
+        Files.deleteIfExists(taken.path());
+        totalBytes -= taken.bytes();
+        totalLines -= taken.lines();
+    }
+
+    /**
+     * Return the unsent part [start, end) of a taken segment to the head of the buffer. With
+     * {@code data == null}, or if it can't be rewritten, the whole segment goes back.
+     */
+    synchronized void putBack(Taken taken, byte[] data, int start, int end) throws IOException {
+        Segment segment = new Segment();
+        segment.bytes = taken.bytes();
+        segment.lines = taken.lines();
+        // Its index is older than any segment appended since, so it is taken first again
+        segments.put(taken.index(), segment);
+        if (data == null) {
+            return;
+        }
+
+        Path temp = taken.path().resolveSibling(taken.path().getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp,
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(data, start, end - start);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        Files.move(temp, taken.path(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        segment.bytes = end - start;
+        segment.lines = countLines(data, end) - countLines(data, start);
+        totalBytes -= taken.bytes() - segment.bytes;
+        totalLines -= taken.lines() - segment.lines;
+    }
+
+    synchronized long getBytes() {
+        return totalBytes;
+    }
+
+    synchronized long getLines() {
+        return totalLines;
+    }
+
+    private void closeActive() throws IOException {
+        if (active != null) {
+            active.close();
+            active = null;
+        }
+    }
+
+    private Path segmentPath(long index) {
+        return directory.resolve("%s-%08d%s".formatted(name, index, SUFFIX));
+    }
+
+    synchronized void close() {
+        try {
+            closeActive();
+        } catch (IOException e) {
+            logger.debug("Failed to close {} spill segment", name, e);
+        }
+    }
+
+    static int countLines(byte[] data, int length) {
+        int lines = 0;
+        for (int i = 0; i < length; i++) {
+            if (data[i] == '\n') {
+                lines++;
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,440 @@
+package net.bubblecraft.bubblelog.export;
+
+import net.bubblecraft.bubblelog.config.ConfigManager;
+import net.bubblecraft.bubblelog.monitor.BackendProcessCollector;
+import net.bubblecraft.bubblelog.monitor.BackendTickCollector;
+import net.bubblecraft.bubblelog.monitor.CpuCollector;
+import net.bubblecraft.bubblelog.monitor.DiskIoCollector;
+import net.bubblecraft.bubblelog.monitor.MetricsSnapshot;
+import net.bubblecraft.bubblelog.monitor.NetworkIoCollector;
+import net.bubblecraft.bubblelog.monitor.PressureCollector;
+import net.bubblecraft.bubblelog.monitor.ProcessCollector;
+import net.bubblecraft.bubblelog.monitor.SnapshotListener;
+import net.bubblecraft.bubblelog.monitor.SocketCensusCollector;
+import net.bubblecraft.bubblelog.monitor.SystemMonitor;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Pushes every snapshot to a StatsD or DogStatsD agent over UDP ({@code export.statsd}).
+ *
+ * Metric lines are packed into as few datagrams as possible, each up to
+ * {@code export.statsd.max-packet-size}, in one reusable direct buffer and sent on a connected,
+ * non-blocking channel. Sending never waits: a datagram the socket can't take right away is
+ * dropped and counted, so the monitoring tick only pays for formatting a few dozen lines.
+ */
+public class StatsdExporter implements SnapshotListener {
+
+    /**
+     * Line format. DogStatsD carries labels as tags ({@code |#backend:lobby}); plain StatsD has no
+     * tags, so labels become part of the metric name ({@code backend.players.lobby}).
+     */
+    public enum Flavor {
+        STATSD,
+        DOGSTATSD;
+
+        /**
+         * @return the flavor with this name (case-insensitive), or {@code null} if there is none
+         */
+        public static Flavor parse(String name) {
+            if (name == null) {
+                return null;
+            }
+            try {
+                return valueOf(name.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+
+    private final ConfigManager config;
+    private final Logger logger;
+
+    private final StringBuilder line = new StringBuilder(128);
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private ByteBuffer packet;
+    private ByteBuffer lineBuffer;
+    private DatagramChannel channel;
+    private String prefix;
+    private String commonTags;
+    private Flavor flavor;
+
+    private volatile long datagramsSent;
+    private volatile long datagramsDropped;
+    private volatile long linesSent;
+    private volatile long linesDropped;
+    private volatile long lastSendNanos;
+
+    public StatsdExporter(ConfigManager config, Logger logger) {
+        this.config = config;
+        this.logger = logger;
+    }
+
+    /**
+     * Resolve the agent address and open the channel. Settings are read once here, so changing
+     * them needs a restart.
+     */
+    public synchronized void start() throws IOException {
+        InetSocketAddress address = new InetSocketAddress(config.getStatsdHost(), config.getStatsdPort());
+        if (address.isUnresolved()) {
+            throw new IOException("Cannot resolve StatsD host " + config.getStatsdHost());
+        }
+        prefix = config.getStatsdPrefix();
+        flavor = config.getStatsdFlavor();
+        commonTags = normalizeTags(config.getStatsdTags());
+        packet = ByteBuffer.allocateDirect(config.getStatsdMaxPacketSize());
+        lineBuffer = ByteBuffer.allocateDirect(config.getStatsdMaxPacketSize());
+
+        channel = DatagramChannel.open();
+        channel.configureBlocking(false);
+        channel.connect(address);
+        logger.info("Sending metrics to {} agent at {}:{}", flavor == Flavor.DOGSTATSD ? "DogStatsD" : "StatsD",
+            address.getHostString(), address.getPort());
+    }
+
+    // "proxy: eu-1, ,region:eu" -> "proxy:eu-1,region:eu"
+    private static String normalizeTags(String tags) {
+        StringBuilder normalized = new StringBuilder();
+        for (String tag : tags.split(",")) {
+            String trimmed = tag.trim().replace(" ", "");
+            if (!trimmed.isEmpty()) {
+                if (!normalized.isEmpty()) {
+                    normalized.append(',');
+                }
+                normalized.append(trimmed);
+            }
+        }
+        return normalized.toString();
+    }
+
+    @Override
+    public synchronized void onSnapshot(MetricsSnapshot snapshot) {
+        if (channel == null || !channel.isOpen()) {
+            return;
+        }
+        long startNanos = System.nanoTime();
+        packet.clear();
+
+        if (snapshot.hasCpu()) {
+            gauge("cpu.usage", snapshot.getCpuUsage() * 100);
+        }
+
+        CpuCollector.CpuBreakdown cpu = snapshot.getCpuBreakdown();
+        if (cpu != null) {
+            gauge("cpu.user", cpu.getUser());
+            gauge("cpu.system", cpu.getSystem());
+            gauge("cpu.iowait", cpu.getIowait());
+            gauge("cpu.irq", cpu.getIrq());
+            gauge("cpu.steal", cpu.getSteal());
+            gaugeIfKnown("cpu.max_core", cpu.getMaxCoreLoad());
+            double[] coreLoads = cpu.getCoreLoads();
+            for (int core = 0; core < coreLoads.length; core++) {
+                if (coreLoads[core] >= 0) {
+                    gauge("cpu.core.usage", coreLoads[core], "core", Integer.toString(core));
+                }
+            }
+        }
+
+        SystemMonitor.MemoryUsage memory = snapshot.getMemoryUsage();
+        if (memory != null) {
+            gauge("memory.total_bytes", memory.getTotal());
+            gauge("memory.used_bytes", memory.getUsed());
+            gauge("memory.available_bytes", memory.getAvailable());
+            gauge("memory.usage", memory.getUsagePercent());
+        }
+
+        for (SystemMonitor.DiskUsage disk : snapshot.getDiskUsages()) {
+            gauge("disk.total_bytes", disk.getTotal(), "disk", disk.getName());
+            gauge("disk.used_bytes", disk.getUsed(), "disk", disk.getName());
+            gauge("disk.free_bytes", disk.getFree(), "disk", disk.getName());
+            gauge("disk.usage", disk.getUsagePercent(), "disk", disk.getName());
+        }
+
+        for (DiskIoCollector.DiskIo disk : snapshot.getDiskIo()) {
+            gauge("disk.io.utilization", disk.getUtilization(), "disk", disk.getName());
+            gauge("disk.io.await_ms", disk.getAwaitMs(), "disk", disk.getName());
+            gauge("disk.io.reads_per_second", disk.getReadsPerSecond(), "disk", disk.getName());
+            gauge("disk.io.writes_per_second", disk.getWritesPerSecond(), "disk", disk.getName());
+            gauge("disk.io.read_bytes_per_second", disk.getReadBytesPerSecond(), "disk", disk.getName());
+            gauge("disk.io.write_bytes_per_second", disk.getWriteBytesPerSecond(), "disk", disk.getName());
+        }
+
+        NetworkIoCollector.NetworkIoData networkIo = snapshot.getNetworkIo();
+        if (networkIo != null) {
+            for (NetworkIoCollector.InterfaceIo networkInterface : networkIo.getInterfaces()) {
+                gauge("net.rx_bytes_per_second", networkInterface.getRxBytesPerSecond(), "interface", networkInterface.getName());
+                gauge("net.tx_bytes_per_second", networkInterface.getTxBytesPerSecond(), "interface", networkInterface.getName());
+                gauge("net.rx_packets_per_second", networkInterface.getRxPacketsPerSecond(), "interface", networkInterface.getName());
+                gauge("net.tx_packets_per_second", networkInterface.getTxPacketsPerSecond(), "interface", networkInterface.getName());
+                gauge("net.drops_per_second", networkInterface.getDropsPerSecond(), "interface", networkInterface.getName());
+                gauge("net.errors_per_second", networkInterface.getErrorsPerSecond(), "interface", networkInterface.getName());
+            }
+            NetworkIoCollector.TcpHealth tcp = networkIo.getTcp();
+            if (tcp != null) {
+                gauge("tcp.retransmits_per_second", tcp.getRetransmitsPerSecond());
+                if (tcp.getRetransmitPercent() >= 0) {
+                    gauge("tcp.retransmit_percent", tcp.getRetransmitPercent());
+                }
+                if (tcp.getListenOverflows() >= 0) {
+                    gauge("tcp.listen_overflows", tcp.getListenOverflows());
+                }
+                gauge("tcp.established", tcp.getEstablished());
+            }
+        }
+
+        ProcessCollector.ProcessData process = snapshot.getProcess();
+        if (process != null) {
+            gaugeIfKnown("process.open_fds", process.getOpenFiles());
+            gaugeIfKnown("process.max_fds", process.getMaxOpenFiles());
+            gaugeIfKnown("process.rss_bytes", process.getRssBytes());
+            gaugeIfKnown("process.pss_bytes", process.getPssBytes());
+            gaugeIfKnown("process.threads", process.getThreads());
+            gaugeIfKnown("process.cpu_percent", process.getCpuPercent());
+            gaugeIfKnown("process.context_switches_per_second", process.getContextSwitchesPerSecond());
+            gaugeIfKnown("process.involuntary_switches_per_second", process.getInvoluntarySwitchesPerSecond());
+            gaugeIfKnown("process.minor_faults_per_second", process.getMinorFaultsPerSecond());
+            gaugeIfKnown("process.major_faults_per_second", process.getMajorFaultsPerSecond());
+        }
+
+        SocketCensusCollector.SocketCensus sockets = snapshot.getSockets();
+        if (sockets != null) {
+            for (SocketCensusCollector.TcpState state : SocketCensusCollector.TcpState.values()) {
+                gauge("sockets." + state.getLabel(), sockets.getAll().get(state));
+                if (sockets.getProxy() != null) {
+                    gauge("proxy.sockets." + state.getLabel(), sockets.getProxy().get(state));
+                }
+                for (Map.Entry<String, SocketCensusCollector.SocketCounts> backend : sockets.getBackends().entrySet()) {
+                    gauge("backend.sockets." + state.getLabel(), backend.getValue().get(state), "backend", backend.getKey());
+                }
+            }
+        }
+
+        SystemMonitor.NetworkData network = snapshot.getNetworkData();
+        if (network != null) {
+            gauge("players", network.getCurrentPlayers());
+            gauge("players.max", network.getMaxPlayers());
+            gauge("servers.online", network.getOnlineServers());
+            gauge("servers.total", network.getTotalServers());
+            for (Map.Entry<String, Integer> backend : network.getBackendPlayers().entrySet()) {
+                gauge("backend.players", backend.getValue(), "backend", backend.getKey());
+            }
+        }
+
+        for (BackendProcessCollector.BackendProcess backend : snapshot.getBackendProcesses()) {
+            if (backend.getCpuPercent() >= 0) {
+                gauge("backend.cpu_percent", backend.getCpuPercent(), "backend", backend.getBackend());
+            }
+            if (backend.getRssBytes() >= 0) {
+                gauge("backend.rss_bytes", backend.getRssBytes(), "backend", backend.getBackend());
+            }
+        }
+
+        for (BackendTickCollector.BackendTick tick : snapshot.getBackendTicks()) {
+            gauge("backend.tps", tick.getTps(), "backend", tick.getBackend());
+            gauge("backend.tps.min", tick.getMinTps(), "backend", tick.getBackend());
+            gauge("backend.mspt.avg", tick.getMsptAvg(), "backend", tick.getBackend());
+            gauge("backend.mspt.p50", tick.getMsptP50(), "backend", tick.getBackend());
+            gauge("backend.mspt.p95", tick.getMsptP95(), "backend", tick.getBackend());
+            gauge("backend.mspt.p99", tick.getMsptP99(), "backend", tick.getBackend());
+            gauge("backend.mspt.max", tick.getMsptMax(), "backend", tick.getBackend());
+            gauge("backend.entities", tick.getEntities(), "backend", tick.getBackend());
+            gauge("backend.chunks", tick.getChunks(), "backend", tick.getBackend());
+        }
+
+        SystemMonitor.JVMData jvm = snapshot.getJvmData();
+        if (jvm != null) {
+            gauge("jvm.heap.usage", jvm.getHeapUtilization());
+            gauge("jvm.nonheap.used_mb", jvm.getNonHeapUsedMB());
+            gauge("jvm.threads", jvm.getThreadCount());
+            gauge("jvm.classes_loaded", jvm.getLoadedClassCount());
+            gauge("jvm.gc.time_ms", jvm.getTotalGCTime());
+        }
+
+        SystemMonitor.ConnectionQualityData connection = snapshot.getConnectionData();
+        if (connection != null && connection.getAveragePing() >= 0) {
+            gauge("ping.avg_ms", connection.getAveragePing());
+            gauge("ping.max_ms", connection.getMaxPing());
+        }
+        if (connection != null && connection.getPacketLoss() >= 0) {
+            gauge("ping.failures", connection.getPacketLoss());
+        }
+
+        PressureCollector.PressureData pressure = snapshot.getPressureData();
+        if (pressure != null) {
+            for (Map.Entry<String, PressureCollector.Stall> stall : pressure.getStalls().entrySet()) {
+                gauge("pressure.some", stall.getValue().getSomeAvg10(), "resource", stall.getKey());
+                if (stall.getValue().getFullAvg10() >= 0) {
+                    gauge("pressure.full", stall.getValue().getFullAvg10(), "resource", stall.getKey());
+                }
+            }
+        }
+
+        flush();
+        lastSendNanos = System.nanoTime() - startNanos;
+    }
+
+    private void gauge(String name, double value) {
+        gauge(name, value, null, null);
+    }
+
+    // Skips figures the platform couldn't provide (-1)
+    private void gaugeIfKnown(String name, double value) {
+        if (value >= 0) {
+            gauge(name, value, null, null);
+        }
+    }
+
+    private void gauge(String name, double value, String tagName, String tagValue) {
+        line.setLength(0);
+        line.append(prefix).append(name);
+        if (tagName != null && flavor == Flavor.STATSD) {
+            line.append('.');
+            appendSanitized(tagValue, true);
+        }
+        line.append(':');
+        appendValue(value);
+        line.append("|g");
+        if (flavor == Flavor.DOGSTATSD && (tagName != null || !commonTags.isEmpty())) {
+            line.append("|#").append(commonTags);
+            if (tagName != null) {
+                if (!commonTags.isEmpty()) {
+                    line.append(',');
+                }
+                line.append(tagName).append(':');
+                appendSanitized(tagValue, false);
+            }
+        }
+        append();
+    }
+
+    // Characters that separate fields are replaced; in metric names also path separators,
+    // which Graphite-style backends would turn into extra levels
+    private void appendSanitized(String value, boolean inName) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            boolean separator = c == ':' || c == '|' || c == ',' || c == '#' || c == '@' || Character.isWhitespace(c)
+                || (inName && (c == '.' || c == '/' || c == '\\'));
+            line.append(separator ? '_' : c);
+        }
+    }
+
+    // Fixed-point with up to 4 decimals; StatsD agents don't all accept exponents
+    private void appendValue(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            line.append('0');
+            return;
+        }
+        long scaled = Math.round(value * 10_000);
+        if (scaled < 0) {
+            line.append('-');
+            scaled = -scaled;
+        }
+        line.append(scaled / 10_000);
+        long fraction = scaled % 10_000;
+        if (fraction != 0) {
+            line.append('.');
+            for (long digit = 1000; digit > 0 && fraction != 0; digit /= 10) {
+                line.append((char) ('0' + fraction / digit));
+                fraction %= digit;
+            }
+        }
+    }
+
+    private void append() {
+        lineBuffer.clear();
+        encoder.reset();
+        if (encoder.encode(CharBuffer.wrap(line), lineBuffer, true).isOverflow()) {
+            // Longer than a whole datagram; only possible with absurd tags or names
+            linesDropped++;
+            return;
+        }
+        lineBuffer.flip();
+        int needed = lineBuffer.remaining() + (packet.position() > 0 ? 1 : 0);
+        if (needed > packet.remaining()) {
+            flush();
+        }
+        if (packet.position() > 0) {
+            packet.put((byte) '\n');
+        }
+        packet.put(lineBuffer);
+        linesSent++;
+    }
+
+    private void flush() {
+        if (packet.position() == 0) {
+            return;
+        }
+        packet.flip();
+        int lines = countLines();
+        try {
+            if (channel.write(packet) > 0) {
+                datagramsSent++;
+            } else {
+                // Socket buffer full
+                datagramsDropped++;
+                linesSent -= lines;
+                linesDropped += lines;
+            }
+        } catch (IOException e) {
+            // e.g. PortUnreachableException while the agent is down
+            datagramsDropped++;
+            linesSent -= lines;
+            linesDropped += lines;
+            logger.debug("Failed to send StatsD datagram", e);
+        }
+        packet.clear();
+    }
+
+    private int countLines() {
+        int lines = 1;
+        for (int i = packet.position(); i < packet.limit(); i++) {
+            if (packet.get(i) == '\n') {
+                lines++;
+            }
+        }
+        return lines;
+    }
+
+    public long getDatagramsSent() {
+        return datagramsSent;
+    }
+
+    public long getDatagramsDropped() {
+        return datagramsDropped;
+    }
+
+    public long getLinesSent() {
+        return linesSent;
+    }
+
+    public long getLinesDropped() {
+        return linesDropped;
+    }
+
+    /**
+     * @return time the last snapshot took to format and send, in nanoseconds
+     */
+    public long getLastSendNanos() {
+        return lastSendNanos;
+    }
+
+    public synchronized void shutdown() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.debug("Error closing StatsD channel", e);
+            }
+        }
+    }
+}
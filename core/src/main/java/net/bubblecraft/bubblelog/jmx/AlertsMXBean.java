@@ -0,0 +1,15 @@
+package net.bubblecraft.bubblelog.jmx;
+
+/**
+ * Alert notifications ({@code net.bubblecraft.bubblelog:type=Alerts}). Every alert is emitted as
+ * a JMX notification of type {@code bubblelog.alert.<type>}, e.g. {@code bubblelog.alert.cpu_high};
+ * the user data holds type, title, severity and whether it was a test alert.
+ */
+public interface AlertsMXBean {
+
+    long getNotificationsSent();
+
+    long getNotificationsDropped();
+
+    int getQueuedCount();
+}
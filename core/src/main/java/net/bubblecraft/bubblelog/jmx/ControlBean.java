@@ -0,0 +1,135 @@
+package net.bubblecraft.bubblelog.jmx;
+
+import net.bubblecraft.bubblelog.config.ConfigManager;
+import net.bubblecraft.bubblelog.monitor.ThreadProfiler;
+import net.bubblecraft.bubblelog.storage.HistoryQueryService;
+import org.slf4j.Logger;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * {@link ControlMXBean} operations. Runs on the JMX connector thread; the history dump waits
+ * for the query thread at most {@link #DUMP_TIMEOUT_SECONDS}.
+ */
+public class ControlBean implements ControlMXBean {
+
+    private static final long DUMP_TIMEOUT_SECONDS = 60;
+    private static final DateTimeFormatter FILE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss");
+
+    private final ConfigManager configManager;
+    private final ThreadProfiler profiler;
+    private final HistoryQueryService historyQueryService;
+    private final Path dumpDirectory;
+    private final Logger logger;
+
+    /**
+     * @param historyQueryService history to dump from, or {@code null} if history is disabled
+     */
+    public ControlBean(ConfigManager configManager, ThreadProfiler profiler, HistoryQueryService historyQueryService,
+                       Path dumpDirectory, Logger logger) {
+        this.configManager = configManager;
+        this.profiler = profiler;
+        this.historyQueryService = historyQueryService;
+        this.dumpDirectory = dumpDirectory;
+        this.logger = logger;
+    }
+
+    @Override
+    public String reloadConfig() {
+        if (!configManager.reloadConfig()) {
+            return "Failed to reload configuration - see the proxy log";
+        }
+        logger.info("Configuration reloaded over JMX");
+        ConfigManager.ValidationResult result = configManager.validateConfig();
+        if (!result.hasErrors() && !result.hasWarnings()) {
+            return "Configuration reloaded";
+        }
+        List<String> problems = new ArrayList<>();
+        result.getErrors().forEach(error -> problems.add("error: " + error));
+        result.getWarnings().forEach(warning -> problems.add("warning: " + warning));
+        return "Configuration reloaded with " + String.join("; ", problems);
+    }
+
+    @Override
+    public String startProfiler(int seconds) {
+        if (seconds <= 0) {
+            return "Duration must be positive (max " + ThreadProfiler.MAX_SECONDS + "s)";
+        }
+        Path report = profiler.start(seconds);
+        if (report == null) {
+            return "A profiler run is already in progress";
+        }
+        return "Profiling for " + Math.min(seconds, ThreadProfiler.MAX_SECONDS) + "s, report will be written to "
+            + report.toAbsolutePath();
+    }
+
+    @Override
+    public boolean isProfilerRunning() {
+        return profiler.isRunning();
+    }
+
+    @Override
+    public String dumpHistory(String series, long rangeSeconds) {
+        if (historyQueryService == null) {
+            return "Metric history is disabled (history.enabled in config)";
+        }
+        if (series == null || series.isBlank() || rangeSeconds <= 0) {
+            return "Usage: dumpHistory(<series>, <range in seconds>) - see the HistorySeries attribute";
+        }
+        long to = System.currentTimeMillis() / 1000;
+        String fileName = "history-" + series.replaceAll("[^A-Za-z0-9._-]", "_") + "-"
+            + LocalDateTime.now().format(FILE_TIME_FORMAT) + ".csv";
+        Path file = dumpDirectory.resolve(fileName);
+
+        try {
+            Files.createDirectories(dumpDirectory);
+            try (BufferedWriter out = Files.newBufferedWriter(file)) {
+                out.write("epoch_seconds,value\n");
+                long points = historyQueryService.queryRaw(series, to - rangeSeconds, to, (timestamp, value) -> {
+                    try {
+                        out.write(timestamp + "," + value + "\n");
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }).get(DUMP_TIMEOUT_SECONDS, TimeUnit.SECONDS).getPoints();
+                return "Wrote " + points + " point(s) to " + file.toAbsolutePath();
+            }
+        } catch (TimeoutException e) {
+            return "History dump timed out after " + DUMP_TIMEOUT_SECONDS + "s";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "History dump interrupted";
+        } catch (ExecutionException | IOException e) {
+            Throwable cause = e instanceof ExecutionException && e.getCause() != null ? e.getCause() : e;
+            logger.warn("JMX history dump of {} failed: {}", series, cause.getMessage());
+            return "History dump failed: " + cause.getMessage();
+        }
+    }
+
+    @Override
+    public List<String> getHistorySeries() {
+        if (historyQueryService == null) {
+            return List.of();
+        }
+        try {
+            return new ArrayList<>(historyQueryService.listSeries().get(DUMP_TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return List.of();
+        } catch (ExecutionException | TimeoutException e) {
+            logger.debug("Failed to list history series for JMX", e);
+            return List.of();
+        }
+    }
+}
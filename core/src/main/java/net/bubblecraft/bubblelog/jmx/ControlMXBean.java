@@ -0,0 +1,24 @@
+package net.bubblecraft.bubblelog.jmx;
+
+import java.util.List;
+
+/**
+ * Management operations ({@code net.bubblecraft.bubblelog:type=Control}). Each operation
+ * returns a one-line result for the operator.
+ */
+public interface ControlMXBean {
+
+    /** Reload config.yml and report validation problems */
+    String reloadConfig();
+
+    /** Sample thread stacks for a number of seconds in the background and write a report */
+    String startProfiler(int seconds);
+
+    boolean isProfilerRunning();
+
+    /** Write the raw history of a series over the last {@code rangeSeconds} to a CSV file */
+    String dumpHistory(String series, long rangeSeconds);
+
+    /** Series available to {@link #dumpHistory}; empty if history is disabled */
+    List<String> getHistorySeries();
+}
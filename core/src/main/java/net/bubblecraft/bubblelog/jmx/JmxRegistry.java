@@ -0,0 +1,84 @@
+package net.bubblecraft.bubblelog.jmx;
+
+import org.slf4j.Logger;
+
+import javax.management.InstanceNotFoundException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Registers the BubbleLog MBeans on the platform MBean server under
+ * {@code net.bubblecraft.bubblelog:type=...}. Remote access goes through whatever JMX connector
+ * the proxy JVM was started with ({@code -Dcom.sun.management.jmxremote.*}); BubbleLog doesn't
+ * open a port of its own.
+ */
+public class JmxRegistry {
+
+    public static final ObjectName METRICS = objectName("Metrics");
+    public static final ObjectName CONTROL = objectName("Control");
+    public static final ObjectName ALERTS = objectName("Alerts");
+
+    private final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    private final Map<ObjectName, Object> beans = new LinkedHashMap<>();
+    private final List<ObjectName> registered = new ArrayList<>();
+    private final Logger logger;
+
+    public JmxRegistry(Logger logger) {
+        this.logger = logger;
+    }
+
+    private static ObjectName objectName(String type) {
+        try {
+            return new ObjectName("net.bubblecraft.bubblelog", "type", type);
+        } catch (MalformedObjectNameException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    /**
+     * Add a bean to register; {@code null} beans are skipped
+     */
+    public JmxRegistry add(ObjectName name, Object bean) {
+        if (bean != null) {
+            beans.put(name, bean);
+        }
+        return this;
+    }
+
+    /**
+     * Register every added bean, replacing one left behind by a previous load of the plugin
+     */
+    public synchronized void register() throws Exception {
+        for (Map.Entry<ObjectName, Object> bean : beans.entrySet()) {
+            if (server.isRegistered(bean.getKey())) {
+                server.unregisterMBean(bean.getKey());
+            }
+            server.registerMBean(bean.getValue(), bean.getKey());
+            registered.add(bean.getKey());
+        }
+        logger.info("Registered {} JMX MBean(s) under net.bubblecraft.bubblelog", registered.size());
+    }
+
+    public synchronized List<ObjectName> getRegistered() {
+        return List.copyOf(registered);
+    }
+
+    public synchronized void unregister() {
+        for (ObjectName name : registered) {
+            try {
+                server.unregisterMBean(name);
+            } catch (InstanceNotFoundException e) {
+                // Already gone
+            } catch (Exception e) {
+                logger.debug("Failed to unregister {}", name, e);
+            }
+        }
+        registered.clear();
+    }
+}
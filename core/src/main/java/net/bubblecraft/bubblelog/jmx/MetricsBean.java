@@ -0,0 +1,187 @@
+package net.bubblecraft.bubblelog.jmx;
+
+import net.bubblecraft.bubblelog.monitor.MetricsSnapshot;
+import net.bubblecraft.bubblelog.monitor.SystemMonitor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@link MetricsMXBean} backed by {@link SystemMonitor#getLatestSnapshot()}
+ */
+public class MetricsBean implements MetricsMXBean {
+
+    private final SystemMonitor systemMonitor;
+
+    public MetricsBean(SystemMonitor systemMonitor) {
+        this.systemMonitor = systemMonitor;
+    }
+
+    private MetricsSnapshot snapshot() {
+        return systemMonitor.getLatestSnapshot();
+    }
+
+    private SystemMonitor.MemoryUsage memory() {
+        MetricsSnapshot snapshot = snapshot();
+        return snapshot != null ? snapshot.getMemoryUsage() : null;
+    }
+
+    private SystemMonitor.NetworkData network() {
+        MetricsSnapshot snapshot = snapshot();
+        return snapshot != null ? snapshot.getNetworkData() : null;
+    }
+
+    private SystemMonitor.JVMData jvm() {
+        MetricsSnapshot snapshot = snapshot();
+        return snapshot != null ? snapshot.getJvmData() : null;
+    }
+
+    private SystemMonitor.ConnectionQualityData connection() {
+        MetricsSnapshot snapshot = snapshot();
+        return snapshot != null ? snapshot.getConnectionData() : null;
+    }
+
+    @Override
+    public long getSnapshotTimestamp() {
+        MetricsSnapshot snapshot = snapshot();
+        return snapshot != null ? snapshot.getTimestamp() : 0;
+    }
+
+    @Override
+    public double getSnapshotAgeSeconds() {
+        MetricsSnapshot snapshot = snapshot();
+        return snapshot != null ? (System.currentTimeMillis() - snapshot.getTimestamp()) / 1000.0 : -1;
+    }
+
+    @Override
+    public double getCpuUsagePercent() {
+        MetricsSnapshot snapshot = snapshot();
+        return snapshot != null && snapshot.hasCpu() ? snapshot.getCpuUsage() * 100 : -1;
+    }
+
+    @Override
+    public long getMemoryTotalBytes() {
+        SystemMonitor.MemoryUsage memory = memory();
+        return memory != null ? memory.getTotal() : -1;
+    }
+
+    @Override
+    public long getMemoryUsedBytes() {
+        SystemMonitor.MemoryUsage memory = memory();
+        return memory != null ? memory.getUsed() : -1;
+    }
+
+    @Override
+    public long getMemoryAvailableBytes() {
+        SystemMonitor.MemoryUsage memory = memory();
+        return memory != null ? memory.getAvailable() : -1;
+    }
+
+    @Override
+    public double getMemoryUsagePercent() {
+        SystemMonitor.MemoryUsage memory = memory();
+        return memory != null ? memory.getUsagePercent() : -1;
+    }
+
+    @Override
+    public Map<String, Double> getDiskUsagePercent() {
+        Map<String, Double> disks = new LinkedHashMap<>();
+        MetricsSnapshot snapshot = snapshot();
+        if (snapshot != null) {
+            for (SystemMonitor.DiskUsage disk : snapshot.getDiskUsages()) {
+                disks.put(disk.getName(), disk.getUsagePercent());
+            }
+        }
+        return disks;
+    }
+
+    @Override
+    public Map<String, Long> getDiskFreeBytes() {
+        Map<String, Long> disks = new LinkedHashMap<>();
+        MetricsSnapshot snapshot = snapshot();
+        if (snapshot != null) {
+            for (SystemMonitor.DiskUsage disk : snapshot.getDiskUsages()) {
+                disks.put(disk.getName(), disk.getFree());
+            }
+        }
+        return disks;
+    }
+
+    @Override
+    public int getPlayers() {
+        SystemMonitor.NetworkData network = network();
+        return network != null ? network.getCurrentPlayers() : -1;
+    }
+
+    @Override
+    public int getMaxPlayers() {
+        SystemMonitor.NetworkData network = network();
+        return network != null ? network.getMaxPlayers() : -1;
+    }
+
+    @Override
+    public int getServersOnline() {
+        SystemMonitor.NetworkData network = network();
+        return network != null ? network.getOnlineServers() : -1;
+    }
+
+    @Override
+    public int getServersTotal() {
+        SystemMonitor.NetworkData network = network();
+        return network != null ? network.getTotalServers() : -1;
+    }
+
+    @Override
+    public Map<String, Integer> getBackendPlayers() {
+        SystemMonitor.NetworkData network = network();
+        return network != null ? network.getBackendPlayers() : Map.of();
+    }
+
+    @Override
+    public double getHeapUsagePercent() {
+        SystemMonitor.JVMData jvm = jvm();
+        return jvm != null ? jvm.getHeapUtilization() : -1;
+    }
+
+    @Override
+    public double getNonHeapUsedMB() {
+        SystemMonitor.JVMData jvm = jvm();
+        return jvm != null ? jvm.getNonHeapUsedMB() : -1;
+    }
+
+    @Override
+    public int getThreadCount() {
+        SystemMonitor.JVMData jvm = jvm();
+        return jvm != null ? jvm.getThreadCount() : -1;
+    }
+
+    @Override
+    public int getLoadedClassCount() {
+        SystemMonitor.JVMData jvm = jvm();
+        return jvm != null ? jvm.getLoadedClassCount() : -1;
+    }
+
+    @Override
+    public long getGcTimeMillis() {
+        SystemMonitor.JVMData jvm = jvm();
+        return jvm != null ? jvm.getTotalGCTime() : -1;
+    }
+
+    @Override
+    public double getAveragePingMillis() {
+        SystemMonitor.ConnectionQualityData connection = connection();
+        return connection != null ? connection.getAveragePing() : -1;
+    }
+
+    @Override
+    public double getMaxPingMillis() {
+        SystemMonitor.ConnectionQualityData connection = connection();
+        return connection != null ? connection.getMaxPing() : -1;
+    }
+
+    @Override
+    public double getPingFailurePercent() {
+        SystemMonitor.ConnectionQualityData connection = connection();
+        return connection != null ? connection.getPacketLoss() : -1;
+    }
+}
@@ -0,0 +1,59 @@
+package net.bubblecraft.bubblelog.jmx;
+
+import java.util.Map;
+
+/**
+ * Latest monitoring sample ({@code net.bubblecraft.bubblelog:type=Metrics}). Attributes are read
+ * from the snapshot the monitor last published, so reading them never triggers a collection.
+ * Values that weren't sampled (disabled or restricted by the host) read as -1.
+ */
+public interface MetricsMXBean {
+
+    /** Epoch milliseconds of the sample, 0 before the first one */
+    long getSnapshotTimestamp();
+
+    double getSnapshotAgeSeconds();
+
+    double getCpuUsagePercent();
+
+    long getMemoryTotalBytes();
+
+    long getMemoryUsedBytes();
+
+    long getMemoryAvailableBytes();
+
+    double getMemoryUsagePercent();
+
+    /** Usage percent per disk */
+    Map<String, Double> getDiskUsagePercent();
+
+    /** Free bytes per disk */
+    Map<String, Long> getDiskFreeBytes();
+
+    int getPlayers();
+
+    int getMaxPlayers();
+
+    int getServersOnline();
+
+    int getServersTotal();
+
+    /** Players per backend server */
+    Map<String, Integer> getBackendPlayers();
+
+    double getHeapUsagePercent();
+
+    double getNonHeapUsedMB();
+
+    int getThreadCount();
+
+    int getLoadedClassCount();
+
+    long getGcTimeMillis();
+
+    double getAveragePingMillis();
+
+    double getMaxPingMillis();
+
+    double getPingFailurePercent();
+}
@@ -0,0 +1,450 @@
+package net.bubblecraft.bubblelog.monitor;
+
+import net.bubblecraft.bubblelog.config.ConfigManager;
+import net.bubblecraft.bubblelog.platform.ProxyPlatform;
+import org.slf4j.Logger;
+import oshi.software.os.OSProcess;
+import oshi.software.os.OperatingSystem;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU and resident memory of backend servers running on the same machine as the proxy. When a
+ * backend lags, this tells at a glance whether it is starving the proxy (or its neighbours) of
+ * CPU or memory, without logging into each one.
+ *
+ * Java processes are matched to registered backends once and the PID is kept until the process
+ * exits; only then, or every {@code scan-interval} while a backend is unmatched, is the process
+ * list searched again. On Linux a search only looks at PIDs that are new since the previous one,
+ * reading {@code /proc/<pid>/comm} before anything else and at most {@value #MAX_EXAMINED_PER_SCAN}
+ * per tick, so a host with thousands of processes costs little more than listing {@code /proc}.
+ * Elsewhere OSHI lists the processes.
+ */
+public class BackendProcessCollector {
+
+    private static final Path PROC = Paths.get("/proc");
+    // New processes looked at per scan; the rest wait for the next tick
+    private static final int MAX_EXAMINED_PER_SCAN = 256;
+    // USER_HZ, which the kernel fixes at 100 for /proc regardless of its internal tick rate
+    private static final long MILLIS_PER_TICK = 10;
+    // Fields of /proc/<pid>/stat counted from the one after the command name
+    private static final int STAT_UTIME = 11;
+    private static final int STAT_STIME = 12;
+    private static final int STAT_START_TIME = 19;
+
+    private final Logger logger;
+    private final ProxyPlatform server;
+    private final ConfigManager config;
+    private final OperatingSystem os; // OSHI fallback; null when /proc is scanned
+    private final int selfPid = (int) ProcessHandle.current().pid();
+    private ByteBuffer buffer = ByteBuffer.allocate(4096);
+    private final long[] stat = new long[3]; // utime, stime, starttime in clock ticks
+
+    // Matched processes by backend name
+    private final Map<String, Tracked> tracked = new HashMap<>();
+    private final List<String> backendNames = new ArrayList<>();
+    private String patternSource;
+    private Map<String, String> patterns = Map.of();
+    private long nextScanNanos;
+
+    // PIDs already looked at, sorted; scans skip them
+    private int[] seen = new int[0];
+    private int[] listing = new int[256];
+    private boolean warnedReadFailure;
+
+    /**
+     * @param os OSHI's operating system, used where {@code /proc} can't be scanned; may be {@code null}
+     */
+    public BackendProcessCollector(HostingEnvironment hostingEnv, ProxyPlatform server, OperatingSystem os,
+                                   ConfigManager config, Logger logger) {
+        this.logger = logger;
+        this.server = server;
+        this.config = config;
+        this.os = hostingEnv.hasProcfs() ? null : os;
+    }
+
+    /**
+     * @return the matched backends in registration order
+     */
+    public List<BackendProcess> collect() {
+        refreshBackends();
+        if (backendNames.isEmpty()) {
+            return List.of();
+        }
+
+        long now = System.nanoTime();
+        List<BackendProcess> processes = new ArrayList<>(tracked.size());
+        for (String backend : backendNames) {
+            Tracked process = tracked.get(backend);
+            if (process == null) {
+                continue;
+            }
+            BackendProcess sample = sample(process, now);
+            if (sample != null) {
+                processes.add(sample);
+            } else {
+                // Exited (or the PID was reused): look for its replacement on this tick
+                tracked.remove(backend);
+                forget(process.pid);
+                nextScanNanos = now;
+            }
+        }
+
+        if (tracked.size() < backendNames.size() && now - nextScanNanos >= 0) {
+            nextScanNanos = now + TimeUnit.SECONDS.toNanos(Math.max(1, config.getBackendProcessScanInterval()));
+            try {
+                if (os != null) {
+                    scanOshi();
+                } else {
+                    scanProcfs();
+                }
+            } catch (IOException | RuntimeException e) {
+                if (!warnedReadFailure) {
+                    warnedReadFailure = true;
+                    logger.warn("Failed to list processes - co-located backends won't be found: {}", e.getMessage());
+                }
+            }
+        }
+        return processes;
+    }
+
+    // A backend added (or a pattern changed) may match a process that was already passed over
+    private void refreshBackends() {
+        boolean changed = false;
+        String source = config.getBackendProcessPatterns();
+        if (!source.equals(patternSource)) {
+            patternSource = source;
+            patterns = parsePatterns(source);
+            tracked.clear();
+            changed = true;
+        }
+        int index = 0;
+        for (ProxyPlatform.Backend backend : server.getBackends()) {
+            String name = backend.getName();
+            if (index >= backendNames.size() || !backendNames.get(index).equals(name)) {
+                changed = true;
+                break;
+            }
+            index++;
+        }
+        if (changed || index != backendNames.size()) {
+            backendNames.clear();
+            for (ProxyPlatform.Backend backend : server.getBackends()) {
+                backendNames.add(backend.getName());
+            }
+            tracked.keySet().retainAll(backendNames);
+            seen = new int[0];
+            nextScanNanos = System.nanoTime();
+        }
+    }
+
+    // "lobby=lobby.jar, survival=/srv/survival" -> {lobby: lobby.jar, survival: /srv/survival}
+    private static Map<String, String> parsePatterns(String configured) {
+        Map<String, String> parsed = new HashMap<>();
+        for (String part : configured.split(",")) {
+            int equals = part.indexOf('=');
+            if (equals > 0 && !part.substring(equals + 1).isBlank()) {
+                parsed.put(part.substring(0, equals).trim(), part.substring(equals + 1).trim());
+            }
+        }
+        return parsed;
+    }
+
+    private BackendProcess sample(Tracked process, long now) {
+        long cpuMillis;
+        long rssBytes;
+        if (os != null) {
+            OSProcess current = os.getProcess(process.pid);
+            if (current == null || current.getStartTime() != process.startTime) {
+                return null;
+            }
+            cpuMillis = current.getKernelTime() + current.getUserTime();
+            rssBytes = current.getResidentSetSize();
+        } else {
+            if (!readStat(process.pid) || stat[2] != process.startTime) {
+                return null;
+            }
+            cpuMillis = (stat[0] + stat[1]) * MILLIS_PER_TICK;
+            rssBytes = readRss(process.pid);
+        }
+
+        double cpuPercent = -1;
+        if (process.previousCpuMillis >= 0 && now > process.previousNanos) {
+            double elapsedMillis = (now - process.previousNanos) / 1_000_000.0;
+            cpuPercent = Math.max(0, cpuMillis - process.previousCpuMillis) * 100.0 / elapsedMillis;
+        }
+        process.previousCpuMillis = cpuMillis;
+        process.previousNanos = now;
+        return new BackendProcess(process.backend, process.pid, cpuPercent, cpuMillis / 1000.0, rssBytes);
+    }
+
+    private void scanProcfs() throws IOException {
+        int count = 0;
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(PROC)) {
+            for (Path entry : entries) {
+                int pid = parsePid(entry.getFileName().toString());
+                if (pid > 0) {
+                    if (count == listing.length) {
+                        listing = Arrays.copyOf(listing, count * 2);
+                    }
+                    listing[count++] = pid;
+                }
+            }
+        }
+        Arrays.sort(listing, 0, count);
+
+        // Whatever isn't examined this time stays out of 'seen' and is picked up by the next scan
+        int[] nowSeen = new int[count];
+        int seenCount = 0;
+        int examined = 0;
+        for (int i = 0; i < count && tracked.size() < backendNames.size(); i++) {
+            int pid = listing[i];
+            if (Arrays.binarySearch(seen, pid) >= 0) {
+                nowSeen[seenCount++] = pid;
+            } else if (examined < MAX_EXAMINED_PER_SCAN) {
+                examined++;
+                nowSeen[seenCount++] = pid;
+                if (pid != selfPid && isJava(pid)) {
+                    match(pid, readCommandLine(pid), readWorkingDirectory(pid), -1);
+                }
+            }
+        }
+        seen = Arrays.copyOf(nowSeen, seenCount);
+        if (examined == MAX_EXAMINED_PER_SCAN) {
+            nextScanNanos = System.nanoTime(); // continue on the next tick
+        }
+    }
+
+    // The replacement may come back under the same PID, e.g. as PID 1 of a restarted container
+    private void forget(int pid) {
+        int index = Arrays.binarySearch(seen, pid);
+        if (index >= 0) {
+            int[] remaining = new int[seen.length - 1];
+            System.arraycopy(seen, 0, remaining, 0, index);
+            System.arraycopy(seen, index + 1, remaining, index, remaining.length - index);
+            seen = remaining;
+        }
+    }
+
+    private void scanOshi() {
+        List<OSProcess> javaProcesses = os.getProcesses(
+            process -> process.getProcessID() != selfPid && process.getName().toLowerCase().startsWith("java"), null, 0);
+        for (OSProcess process : javaProcesses) {
+            if (tracked.size() == backendNames.size()) {
+                return;
+            }
+            match(process.getProcessID(), process.getCommandLine(), process.getCurrentWorkingDirectory(),
+                process.getStartTime());
+        }
+    }
+
+    private void match(int pid, String commandLine, String workingDirectory, long startTime) {
+        String backend = matchBackend(commandLine, workingDirectory);
+        if (backend == null || tracked.containsKey(backend)) {
+            return;
+        }
+        if (startTime < 0) {
+            if (!readStat(pid)) {
+                return;
+            }
+            startTime = stat[2];
+        }
+        Tracked process = new Tracked(backend, pid, startTime);
+        tracked.put(backend, process);
+        sample(process, System.nanoTime()); // baseline, so CPU is known from the next tick
+        logger.debug("Backend '{}' runs on this machine as process {}", backend, pid);
+    }
+
+    // A configured pattern anywhere in the command line or working directory; without one, the
+    // backend's name as a directory - "/srv/lobby" or "-jar /srv/lobby/paper.jar"
+    private String matchBackend(String commandLine, String workingDirectory) {
+        String command = commandLine != null ? commandLine : "";
+        String directory = workingDirectory != null ? workingDirectory : "";
+        for (String backend : backendNames) {
+            String pattern = patterns.get(backend);
+            if (pattern != null) {
+                if (command.contains(pattern) || directory.contains(pattern)) {
+                    return backend;
+                }
+            } else if (directory.endsWith("/" + backend) || directory.endsWith("\\" + backend)
+                || command.contains("/" + backend + "/") || command.contains("\\" + backend + "\\")) {
+                return backend;
+            }
+        }
+        return null;
+    }
+
+    private boolean isJava(int pid) {
+        // "java\n"
+        int length = read(PROC.resolve(Integer.toString(pid)).resolve("comm"));
+        byte[] data = buffer.array();
+        return length >= 4 && data[0] == 'j' && data[1] == 'a' && data[2] == 'v' && data[3] == 'a';
+    }
+
+    // Arguments are NUL separated
+    private String readCommandLine(int pid) {
+        int length = read(PROC.resolve(Integer.toString(pid)).resolve("cmdline"));
+        if (length <= 0) {
+            return null;
+        }
+        byte[] data = buffer.array();
+        for (int i = 0; i < length; i++) {
+            if (data[i] == 0) {
+                data[i] = ' ';
+            }
+        }
+        return new String(data, 0, length, StandardCharsets.UTF_8);
+    }
+
+    // Only readable for processes of the same user
+    private static String readWorkingDirectory(int pid) {
+        try {
+            return Files.readSymbolicLink(PROC.resolve(Integer.toString(pid)).resolve("cwd")).toString();
+        } catch (IOException | SecurityException e) {
+            return null;
+        }
+    }
+
+    // Fills 'stat'; false once the process is gone
+    private boolean readStat(int pid) {
+        // "1234 (java) S 1 1234 ... utime stime ... starttime ..." - the command name may contain spaces
+        int length = read(PROC.resolve(Integer.toString(pid)).resolve("stat"));
+        byte[] data = buffer.array();
+        int position = length - 1;
+        while (position > 0 && data[position] != ')') {
+            position--;
+        }
+        if (position <= 0) {
+            return false;
+        }
+        position += 2;
+        int field = 0;
+        for (; position < length && field <= STAT_START_TIME; field++) {
+            if (field == STAT_UTIME) {
+                stat[0] = parseLong(data, position, length);
+            } else if (field == STAT_STIME) {
+                stat[1] = parseLong(data, position, length);
+            } else if (field == STAT_START_TIME) {
+                stat[2] = parseLong(data, position, length);
+            }
+            while (position < length && data[position] != ' ') {
+                position++;
+            }
+            position++;
+        }
+        return field > STAT_START_TIME;
+    }
+
+    // "VmRSS:\t 2097152 kB"
+    private long readRss(int pid) {
+        int length = read(PROC.resolve(Integer.toString(pid)).resolve("status"));
+        byte[] data = buffer.array();
+        int lineStart = 0;
+        while (lineStart < length) {
+            int lineEnd = lineStart;
+            while (lineEnd < length && data[lineEnd] != '\n') {
+                lineEnd++;
+            }
+            if (lineEnd - lineStart > 6 && data[lineStart] == 'V' && data[lineStart + 2] == 'R'
+                && data[lineStart + 3] == 'S' && data[lineStart + 4] == 'S' && data[lineStart + 5] == ':') {
+                int position = lineStart + 6;
+                while (position < lineEnd && (data[position] == ' ' || data[position] == '\t')) {
+                    position++;
+                }
+                return parseLong(data, position, lineEnd) * 1024;
+            }
+            lineStart = lineEnd + 1;
+        }
+        return -1;
+    }
+
+    // Bytes read, or -1 if the process is gone or not ours to read
+    private int read(Path file) {
+        buffer.clear();
+        try (FileChannel channel = FileChannel.open(file)) {
+            while (channel.read(buffer) > 0) {
+                if (!buffer.hasRemaining()) {
+                    buffer = ByteBuffer.allocate(buffer.capacity() * 2).put(buffer.flip());
+                }
+            }
+        } catch (IOException e) {
+            return -1;
+        }
+        return buffer.position();
+    }
+
+    private static int parsePid(String name) {
+        int pid = 0;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c < '0' || c > '9' || i > 9) {
+                return -1;
+            }
+            pid = pid * 10 + (c - '0');
+        }
+        return pid;
+    }
+
+    private static long parseLong(byte[] data, int from, int to) {
+        long value = 0;
+        for (int i = from; i < to && data[i] >= '0' && data[i] <= '9'; i++) {
+            value = value * 10 + (data[i] - '0');
+        }
+        return value;
+    }
+
+    private static final class Tracked {
+        private final String backend;
+        private final int pid;
+        private final long startTime;
+        private long previousCpuMillis = -1;
+        private long previousNanos;
+
+        private Tracked(String backend, int pid, long startTime) {
+            this.backend = backend;
+            this.pid = pid;
+            this.startTime = startTime;
+        }
+    }
+
+    /**
+     * One backend's process for one tick; anything that couldn't be read is -1
+     */
+    public static class BackendProcess {
+        private final String backend;
+        private final int pid;
+        private final double cpuPercent;
+        private final double cpuSeconds;
+        private final long rssBytes;
+
+        public BackendProcess(String backend, int pid, double cpuPercent, double cpuSeconds, long rssBytes) {
+            this.backend = backend;
+            this.pid = pid;
+            this.cpuPercent = cpuPercent;
+            this.cpuSeconds = cpuSeconds;
+            this.rssBytes = rssBytes;
+        }
+
+        /** Registered server name */
+        public String getBackend() { return backend; }
+        public int getPid() { return pid; }
+        /** CPU over the last interval, 100 = one core; -1 right after the process was found */
+        public double getCpuPercent() { return cpuPercent; }
+        /** CPU time used since the process started */
+        public double getCpuSeconds() { return cpuSeconds; }
+        public long getRssBytes() { return rssBytes; }
+    }
+}
@@ -0,0 +1,269 @@
+package net.bubblecraft.bubblelog.monitor;
+
+import net.bubblecraft.bubblelog.config.ConfigManager;
+import net.bubblecraft.bubblelog.platform.ProxyPlatform;
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tick health of each backend - TPS, MSPT percentiles, entities and loaded chunks - as pushed by
+ * the BubbleLog agent plugin ({@code paper-agent}) over the {@code bubblelog:ticks} channel.
+ * The proxy can't see how a backend is ticking any other way.
+ *
+ * The agent batches a sample every few seconds into one message per batch, big-endian:
+ * <pre>
+ * header  u8 version (2), u8 sample count, u8 seconds between samples
+ * sample  u16 TPS x100, u32 MSPT avg, u32 p50, u32 p95, u32 p99, u32 max (all 0.01 ms),
+ *         u32 entities, u32 loaded chunks, u16 players          - 32 bytes, oldest first
+ * </pre>
+ * Version 1 carried tick times as u16, which capped them at 655.35 ms and hid multi-second lag
+ * spikes; messages in any other version are rejected. Messages are decoded straight into per-backend primitive fields, without allocating, and
+ * summarised per monitoring tick. The proxy module passes in what backends send on {@link #CHANNEL},
+ * and swallows anything clients send on it.
+ */
+public class BackendTickCollector {
+
+    public static final String CHANNEL = "bubblelog:ticks";
+
+    static final int VERSION = 2;
+    static final int HEADER_SIZE = 3;
+    static final int SAMPLE_SIZE = 32;
+    // A backend is dropped once three batches in a row are missing (no players to carry them, or stopped)
+    private static final int STALE_BATCHES = 3;
+
+    private final ProxyPlatform server;
+    private final ConfigManager config;
+    private final Logger logger;
+    private final Map<String, BackendState> states = new ConcurrentHashMap<>();
+    private volatile boolean warnedMalformed;
+
+    public BackendTickCollector(ProxyPlatform server, ConfigManager config, Logger logger) {
+        this.server = server;
+        this.config = config;
+        this.logger = logger;
+    }
+
+    /**
+     * Takes one message a backend sent on {@link #CHANNEL}; safe to call from any thread
+     */
+    public void accept(String backend, byte[] data) {
+        if (!config.isBackendTickMonitoringEnabled()) {
+            return;
+        }
+        BackendState state = states.get(backend);
+        if (state == null) {
+            state = states.computeIfAbsent(backend, BackendState::new);
+        }
+        if (!decode(data, state, System.nanoTime()) && !warnedMalformed) {
+            warnedMalformed = true;
+            if (data.length > 0 && data[0] != VERSION) {
+                logger.warn("Ignoring tick reports from backend '{}': its BubbleLog agent sends format {}, this proxy reads {}"
+                    + " - update the agent to the proxy's version", backend, data[0] & 0xff, VERSION);
+            } else {
+                logger.warn("Ignoring a malformed tick report from backend '{}' - is its BubbleLog agent the same version?", backend);
+            }
+        }
+    }
+
+    /**
+     * Reads one batch into the backend's state
+     *
+     * @return false if the message isn't a batch this version understands
+     */
+    static boolean decode(byte[] data, BackendState state, long nowNanos) {
+        if (data.length < HEADER_SIZE || data[0] != VERSION) {
+            return false;
+        }
+        int count = data[1] & 0xff;
+        int intervalSeconds = data[2] & 0xff;
+        if (count == 0 || data.length != HEADER_SIZE + count * SAMPLE_SIZE) {
+            return false;
+        }
+        synchronized (state) {
+            for (int sample = 0; sample < count; sample++) {
+                int offset = HEADER_SIZE + sample * SAMPLE_SIZE;
+                state.add(readShort(data, offset) / 100.0,
+                    readInt(data, offset + 2) / 100.0,
+                    readInt(data, offset + 6) / 100.0,
+                    readInt(data, offset + 10) / 100.0,
+                    readInt(data, offset + 14) / 100.0,
+                    readInt(data, offset + 18) / 100.0,
+                    readInt(data, offset + 22),
+                    readInt(data, offset + 26),
+                    readShort(data, offset + 30));
+            }
+            state.receivedNanos = nowNanos;
+            state.batchNanos = Math.max(1, intervalSeconds) * count * 1_000_000_000L;
+        }
+        return true;
+    }
+
+    /**
+     * @return what each registered backend reported since the previous call, in registration order;
+     * backends without a recent report are left out
+     */
+    public List<BackendTick> collect() {
+        if (states.isEmpty()) {
+            return List.of();
+        }
+        long now = System.nanoTime();
+        List<BackendTick> ticks = new ArrayList<>(states.size());
+        List<? extends ProxyPlatform.Backend> backends = server.getBackends();
+        for (ProxyPlatform.Backend backend : backends) {
+            BackendState state = states.get(backend.getName());
+            if (state == null) {
+                continue;
+            }
+            synchronized (state) {
+                if (now - state.receivedNanos > state.batchNanos * STALE_BATCHES) {
+                    continue;
+                }
+                ticks.add(state.summarise());
+            }
+        }
+        // Backends that were unregistered
+        if (ticks.size() < states.size()) {
+            states.keySet().removeIf(name -> backends.stream().noneMatch(backend -> backend.getName().equals(name)));
+        }
+        return ticks;
+    }
+
+    private static int readShort(byte[] data, int offset) {
+        return (data[offset] & 0xff) << 8 | data[offset + 1] & 0xff;
+    }
+
+    private static long readInt(byte[] data, int offset) {
+        return ((long) (data[offset] & 0xff) << 24 | (data[offset + 1] & 0xff) << 16
+            | (data[offset + 2] & 0xff) << 8 | data[offset + 3] & 0xff);
+    }
+
+    // Latest report of one backend plus aggregates since the last summary; guarded by itself
+    static final class BackendState {
+        private final String backend;
+        private long receivedNanos;
+        private long batchNanos;
+
+        private double tps;
+        private double msptAvg;
+        private double msptP50;
+        private double msptP95;
+        private double msptP99;
+        private double msptMax;
+        private long entities;
+        private long chunks;
+        private int players;
+
+        // Since the last summary
+        private int samples;
+        private double tpsSum;
+        private double minTps;
+        private double msptSum;
+        private double worstP95;
+        private double worstP99;
+        private double worstMax;
+
+        BackendState(String backend) {
+            this.backend = backend;
+        }
+
+        private void add(double tps, double msptAvg, double msptP50, double msptP95, double msptP99, double msptMax,
+                         long entities, long chunks, int players) {
+            this.tps = tps;
+            this.msptAvg = msptAvg;
+            this.msptP50 = msptP50;
+            this.msptP95 = msptP95;
+            this.msptP99 = msptP99;
+            this.msptMax = msptMax;
+            this.entities = entities;
+            this.chunks = chunks;
+            this.players = players;
+            if (samples == 0) {
+                tpsSum = 0;
+                msptSum = 0;
+                minTps = tps;
+                worstP95 = 0;
+                worstP99 = 0;
+                worstMax = 0;
+            }
+            samples++;
+            tpsSum += tps;
+            msptSum += msptAvg;
+            minTps = Math.min(minTps, tps);
+            worstP95 = Math.max(worstP95, msptP95);
+            worstP99 = Math.max(worstP99, msptP99);
+            worstMax = Math.max(worstMax, msptMax);
+        }
+
+        // Without new samples since the last summary the latest report stands
+        private BackendTick summarise() {
+            BackendTick tick = samples == 0
+                ? new BackendTick(backend, tps, tps, msptAvg, msptP50, msptP95, msptP99, msptMax, entities, chunks, players, 0)
+                : new BackendTick(backend, tpsSum / samples, minTps, msptSum / samples, msptP50, worstP95, worstP99,
+                    worstMax, entities, chunks, players, samples);
+            samples = 0;
+            return tick;
+        }
+    }
+
+    /**
+     * One backend's tick health over the last monitoring interval; MSPT in milliseconds
+     */
+    public static class BackendTick {
+        private final String backend;
+        private final double tps;
+        private final double minTps;
+        private final double msptAvg;
+        private final double msptP50;
+        private final double msptP95;
+        private final double msptP99;
+        private final double msptMax;
+        private final long entities;
+        private final long chunks;
+        private final int players;
+        private final int samples;
+
+        public BackendTick(String backend, double tps, double minTps, double msptAvg, double msptP50, double msptP95,
+                           double msptP99, double msptMax, long entities, long chunks, int players, int samples) {
+            this.backend = backend;
+            this.tps = tps;
+            this.minTps = minTps;
+            this.msptAvg = msptAvg;
+            this.msptP50 = msptP50;
+            this.msptP95 = msptP95;
+            this.msptP99 = msptP99;
+            this.msptMax = msptMax;
+            this.entities = entities;
+            this.chunks = chunks;
+            this.players = players;
+            this.samples = samples;
+        }
+
+        /** Registered server name */
+        public String getBackend() { return backend; }
+        /** Average TPS of the samples in the interval */
+        public double getTps() { return tps; }
+        /** Lowest TPS of any sample in the interval */
+        public double getMinTps() { return minTps; }
+        public double getMsptAvg() { return msptAvg; }
+        /** Median tick time of the latest sample */
+        public double getMsptP50() { return msptP50; }
+        /** Worst 95th percentile tick time of any sample in the interval */
+        public double getMsptP95() { return msptP95; }
+        /** Worst 99th percentile tick time of any sample in the interval */
+        public double getMsptP99() { return msptP99; }
+        /** Longest single tick in the interval */
+        public double getMsptMax() { return msptMax; }
+        /** Entities across all worlds, as of the latest sample */
+        public long getEntities() { return entities; }
+        /** Loaded chunks across all worlds, as of the latest sample */
+        public long getChunks() { return chunks; }
+        /** Players on the backend according to the backend itself */
+        public int getPlayers() { return players; }
+        /** Samples received in the interval; 0 when the latest report is repeated */
+        public int getSamples() { return samples; }
+    }
+}
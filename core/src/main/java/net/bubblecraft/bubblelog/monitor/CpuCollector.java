@@ -0,0 +1,281 @@
+package net.bubblecraft.bubblelog.monitor;
+
+import org.slf4j.Logger;
+import oshi.hardware.CentralProcessor;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * Splits CPU time into user, system, iowait, irq and steal, and reports the load of each core.
+ * One busy percentage hides what hurts a proxy most: steal on an oversold VPS, and a single
+ * core pinned by a Netty event loop while the average looks fine.
+ *
+ * On Linux the {@code cpu} lines of {@code /proc/stat} are parsed straight into preallocated
+ * tick arrays - reading stops before the long interrupt lines. Elsewhere OSHI's tick arrays
+ * are copied in. Figures are the difference to the previous call.
+ */
+public class CpuCollector {
+
+    private static final Path PROC_STAT = Paths.get("/proc/stat");
+
+    // Tick columns, in /proc/stat and OSHI TickType order
+    private static final int USER = 0;
+    private static final int NICE = 1;
+    private static final int SYSTEM = 2;
+    private static final int IDLE = 3;
+    private static final int IOWAIT = 4;
+    private static final int IRQ = 5;
+    private static final int SOFTIRQ = 6;
+    private static final int STEAL = 7;
+    private static final int FIELDS = 8;
+
+    private final Logger logger;
+    private final CentralProcessor processor; // OSHI fallback; null when /proc/stat is read
+    private ByteBuffer buffer = ByteBuffer.allocate(16384);
+
+    // Slot 0 is the whole system, slot n + 1 is core n; -1 where a core is offline
+    private int slots;
+    private long[] previous = new long[0];
+    private long[] current = new long[0];
+    private boolean warnedReadFailure;
+
+    /**
+     * @param processor OSHI's processor, used where {@code /proc/stat} isn't readable; may be {@code null}
+     */
+    public CpuCollector(HostingEnvironment hostingEnv, CentralProcessor processor, Logger logger) {
+        this.logger = logger;
+        this.processor = hostingEnv.hasProcStat() ? null : processor;
+    }
+
+    /**
+     * @return time shares since the previous call, or {@code null} on the first call or if the ticks couldn't be read
+     */
+    public CpuBreakdown collect() {
+        if (slots > 0) {
+            Arrays.fill(current, 0, slots * FIELDS, -1);
+        }
+        try {
+            if (processor != null) {
+                readOshi();
+            } else {
+                readProcStat();
+            }
+        } catch (IOException | RuntimeException e) {
+            if (!warnedReadFailure) {
+                warnedReadFailure = true;
+                logger.warn("Failed to read CPU ticks - the CPU breakdown will be missing: {}", e.getMessage());
+            }
+            return null;
+        }
+
+        CpuBreakdown breakdown = breakdown();
+        long[] swap = previous;
+        previous = current;
+        current = swap;
+        return breakdown;
+    }
+
+    private CpuBreakdown breakdown() {
+        long total = total(0);
+        if (total <= 0) {
+            return null;
+        }
+        int cores = slots - 1;
+        double[] coreLoads = new double[cores];
+        double maxCoreLoad = -1;
+        int busiestCore = -1;
+        for (int core = 0; core < cores; core++) {
+            long coreTotal = total(core + 1);
+            coreLoads[core] = coreTotal <= 0 ? -1 : busy(core + 1) * 100.0 / coreTotal;
+            if (coreLoads[core] > maxCoreLoad) {
+                maxCoreLoad = coreLoads[core];
+                busiestCore = core;
+            }
+        }
+        return new CpuBreakdown(percent(USER, total) + percent(NICE, total), percent(SYSTEM, total),
+            percent(IOWAIT, total), percent(IRQ, total) + percent(SOFTIRQ, total), percent(STEAL, total),
+            percent(IDLE, total), busy(0) * 100.0 / total, coreLoads, maxCoreLoad, busiestCore);
+    }
+
+    // Ticks of a slot since the previous call; 0 if either call didn't see it
+    private long total(int slot) {
+        int base = slot * FIELDS;
+        if (slot >= slots || current[base] < 0 || previous.length <= base || previous[base] < 0) {
+            return 0;
+        }
+        long total = 0;
+        for (int field = 0; field < FIELDS; field++) {
+            total += delta(base + field);
+        }
+        return total;
+    }
+
+    // Same definition as OSHI's getSystemCpuLoadBetweenTicks: everything but idle and iowait
+    private long busy(int slot) {
+        int base = slot * FIELDS;
+        long busy = 0;
+        for (int field = 0; field < FIELDS; field++) {
+            if (field != IDLE && field != IOWAIT) {
+                busy += delta(base + field);
+            }
+        }
+        return busy;
+    }
+
+    private double percent(int field, long total) {
+        return delta(field) * 100.0 / total;
+    }
+
+    // Clamped at 0 for a counter that went backwards (core brought back online)
+    private long delta(int index) {
+        return Math.max(0, current[index] - previous[index]);
+    }
+
+    private void ensureSlots(int count) {
+        if (count <= slots) {
+            return;
+        }
+        // New cores (first call or hotplug): previous ticks for them are unknown
+        previous = Arrays.copyOf(previous, count * FIELDS);
+        current = Arrays.copyOf(current, count * FIELDS);
+        Arrays.fill(previous, slots * FIELDS, count * FIELDS, -1);
+        Arrays.fill(current, slots * FIELDS, count * FIELDS, -1);
+        slots = count;
+    }
+
+    private void readOshi() {
+        long[] system = processor.getSystemCpuLoadTicks();
+        long[][] cores = processor.getProcessorCpuLoadTicks();
+        ensureSlots(cores.length + 1);
+        System.arraycopy(system, 0, current, 0, Math.min(FIELDS, system.length));
+        for (int core = 0; core < cores.length; core++) {
+            System.arraycopy(cores[core], 0, current, (core + 1) * FIELDS, Math.min(FIELDS, cores[core].length));
+        }
+    }
+
+    private void readProcStat() throws IOException {
+        // "cpu  88830 0 5865 426852 1956 0 34 9592 0 0\ncpu0 ...\nintr 752437 0 0 ..."
+        buffer.clear();
+        int length = -1;
+        try (FileChannel channel = FileChannel.open(PROC_STAT)) {
+            while (length < 0 && channel.read(buffer) > 0) {
+                length = endOfCpuLines(buffer.array(), buffer.position());
+                if (length < 0 && !buffer.hasRemaining()) {
+                    buffer = ByteBuffer.allocate(buffer.capacity() * 2).put(buffer.flip());
+                }
+            }
+        }
+        byte[] data = buffer.array();
+        if (length < 0) {
+            length = buffer.position();
+        }
+
+        int lineStart = 0;
+        while (lineStart < length) {
+            int lineEnd = lineStart;
+            while (lineEnd < length && data[lineEnd] != '\n') {
+                lineEnd++;
+            }
+            int position = lineStart + 3;
+            int slot = 0;
+            if (position < lineEnd && data[position] != ' ') {
+                slot = (int) parseLong(data, position, lineEnd) + 1;
+                while (position < lineEnd && data[position] != ' ') {
+                    position++;
+                }
+            }
+            ensureSlots(slot + 1);
+            int base = slot * FIELDS;
+            for (int field = 0; field < FIELDS; field++) {
+                while (position < lineEnd && data[position] == ' ') {
+                    position++;
+                }
+                current[base + field] = parseLong(data, position, lineEnd);
+                while (position < lineEnd && data[position] != ' ') {
+                    position++;
+                }
+            }
+            lineStart = lineEnd + 1;
+        }
+    }
+
+    // Offset of the first complete line that isn't a cpu line, or -1 if none has been read yet
+    private static int endOfCpuLines(byte[] data, int length) {
+        int lineStart = 0;
+        while (lineStart < length) {
+            if (lineStart + 3 > length) {
+                return -1;
+            }
+            if (data[lineStart] != 'c' || data[lineStart + 1] != 'p' || data[lineStart + 2] != 'u') {
+                return lineStart;
+            }
+            while (lineStart < length && data[lineStart] != '\n') {
+                lineStart++;
+            }
+            lineStart++;
+        }
+        return -1;
+    }
+
+    private static long parseLong(byte[] data, int from, int to) {
+        long value = 0;
+        for (int i = from; i < to && data[i] >= '0' && data[i] <= '9'; i++) {
+            value = value * 10 + (data[i] - '0');
+        }
+        return value;
+    }
+
+    /**
+     * Where CPU time went over the last interval, as percentages of all CPU time
+     */
+    public static class CpuBreakdown {
+        private final double user;
+        private final double system;
+        private final double iowait;
+        private final double irq;
+        private final double steal;
+        private final double idle;
+        private final double busy;
+        private final double[] coreLoads;
+        private final double maxCoreLoad;
+        private final int busiestCore;
+
+        public CpuBreakdown(double user, double system, double iowait, double irq, double steal, double idle,
+                            double busy, double[] coreLoads, double maxCoreLoad, int busiestCore) {
+            this.user = user;
+            this.system = system;
+            this.iowait = iowait;
+            this.irq = irq;
+            this.steal = steal;
+            this.idle = idle;
+            this.busy = busy;
+            this.coreLoads = coreLoads;
+            this.maxCoreLoad = maxCoreLoad;
+            this.busiestCore = busiestCore;
+        }
+
+        /** User time, niced processes included */
+        public double getUser() { return user; }
+        public double getSystem() { return system; }
+        /** Idle time with I/O outstanding */
+        public double getIowait() { return iowait; }
+        /** Hardware and soft interrupt handling */
+        public double getIrq() { return irq; }
+        /** Time the hypervisor ran something else while this machine wanted the CPU */
+        public double getSteal() { return steal; }
+        public double getIdle() { return idle; }
+        /** Everything but idle and iowait - the figure logged as the CPU usage */
+        public double getBusy() { return busy; }
+        /** Busy percentage per core, -1 for a core that was offline */
+        public double[] getCoreLoads() { return coreLoads; }
+        /** Load of the busiest core, or -1 if no core was seen twice */
+        public double getMaxCoreLoad() { return maxCoreLoad; }
+        /** Index of the busiest core, or -1 */
+        public int getBusiestCore() { return busiestCore; }
+    }
+}
@@ -0,0 +1,300 @@
+package net.bubblecraft.bubblelog.monitor;
+
+import org.slf4j.Logger;
+import oshi.software.os.OSFileStore;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Per-device I/O throughput, latency and utilisation from {@code /proc/diskstats}, for the block
+ * devices behind the file stores {@link SystemMonitor} already reports space for. Space says
+ * nothing about a log volume that is saturated; these figures do.
+ *
+ * Each tick reads the whole file into one reused buffer and keeps only the counters of tracked
+ * devices, in flat primitive arrays; rates are the difference to the previous tick. The mount to
+ * device mapping is rebuilt only when the list of file stores changes.
+ */
+public class DiskIoCollector {
+
+    public static final Path DISKSTATS = Paths.get("/proc/diskstats");
+
+    private static final int SECTOR_BYTES = 512;
+    // Counters kept per device: reads, sectors read, ms reading, writes, sectors written, ms writing, ms busy
+    private static final int FIELDS = 7;
+    private static final int READS = 0;
+    private static final int SECTORS_READ = 1;
+    private static final int READ_MS = 2;
+    private static final int WRITES = 3;
+    private static final int SECTORS_WRITTEN = 4;
+    private static final int WRITE_MS = 5;
+    private static final int BUSY_MS = 6;
+    // diskstats column (after the device name) of each counter above
+    private static final int[] COLUMNS = {1, 3, 4, 5, 7, 8, 10};
+
+    private final Logger logger;
+    private ByteBuffer buffer = ByteBuffer.allocate(8192);
+
+    // Tracked devices, one slot each; rebuilt when the mounted file stores change
+    private String storesKey = "";
+    private String[] names = new String[0];
+    private String[] devices = new String[0];
+    private long[] deviceIds = new long[0];
+    private long[] previous = new long[0];
+    private long[] current = new long[0];
+    private long previousNanos;
+    private boolean warnedReadFailure;
+
+    public DiskIoCollector(Logger logger) {
+        this.logger = logger;
+    }
+
+    /**
+     * @param stores the file stores reported this tick
+     * @return one entry per device seen on both this tick and the last, empty on the first tick
+     */
+    public List<DiskIo> collect(List<OSFileStore> stores) {
+        String key = storesKey(stores);
+        if (!key.equals(storesKey)) {
+            track(stores);
+            storesKey = key;
+            previousNanos = 0;
+        }
+        if (deviceIds.length == 0) {
+            return List.of();
+        }
+
+        long now = System.nanoTime();
+        Arrays.fill(current, -1);
+        try {
+            readCounters();
+        } catch (IOException | RuntimeException e) {
+            if (!warnedReadFailure) {
+                warnedReadFailure = true;
+                logger.warn("Failed to read {} - disk I/O will be missing: {}", DISKSTATS, e.getMessage());
+            }
+            return List.of();
+        }
+
+        List<DiskIo> result = new ArrayList<>(deviceIds.length);
+        long intervalNanos = previousNanos == 0 ? 0 : now - previousNanos;
+        if (intervalNanos > 0) {
+            for (int slot = 0; slot < deviceIds.length; slot++) {
+                int base = slot * FIELDS;
+                if (current[base] >= 0 && previous[base] >= 0) {
+                    result.add(rates(slot, base, intervalNanos));
+                }
+            }
+        }
+        long[] swap = previous;
+        previous = current;
+        current = swap;
+        previousNanos = now;
+        return result;
+    }
+
+    private DiskIo rates(int slot, int base, long intervalNanos) {
+        double seconds = intervalNanos / 1e9;
+        long reads = delta(base + READS);
+        long writes = delta(base + WRITES);
+        long waitMs = delta(base + READ_MS) + delta(base + WRITE_MS);
+        double await = reads + writes > 0 ? (double) waitMs / (reads + writes) : 0;
+        double utilization = Math.min(100, delta(base + BUSY_MS) * 100.0 / (intervalNanos / 1e6));
+        return new DiskIo(names[slot], devices[slot], reads / seconds, writes / seconds,
+            delta(base + SECTORS_READ) * SECTOR_BYTES / seconds, delta(base + SECTORS_WRITTEN) * SECTOR_BYTES / seconds,
+            await, utilization);
+    }
+
+    // Clamped at 0 for a counter that went backwards (device re-attached)
+    private long delta(int index) {
+        return Math.max(0, current[index] - previous[index]);
+    }
+
+    private static String storesKey(List<OSFileStore> stores) {
+        StringBuilder key = new StringBuilder();
+        for (OSFileStore store : stores) {
+            key.append(store.getVolume()).append('\0').append(store.getMount()).append('\0');
+        }
+        return key.toString();
+    }
+
+    private void track(List<OSFileStore> stores) {
+        List<String> trackedNames = new ArrayList<>();
+        List<Long> trackedIds = new ArrayList<>();
+        for (OSFileStore store : stores) {
+            long id = deviceOf(store);
+            // Bind mounts and subvolumes of one device are reported once, under the first name;
+            // major 0 is an anonymous device (overlay, tmpfs) with nothing in diskstats
+            if (id >= 0 && (id >>> 32) > 0 && !trackedIds.contains(id)) {
+                trackedIds.add(id);
+                trackedNames.add(store.getName() != null ? store.getName() : store.getMount());
+            }
+        }
+        int count = trackedIds.size();
+        names = trackedNames.toArray(new String[0]);
+        devices = new String[count];
+        deviceIds = new long[count];
+        for (int i = 0; i < count; i++) {
+            deviceIds[i] = trackedIds.get(i);
+        }
+        previous = new long[count * FIELDS];
+        current = new long[count * FIELDS];
+        Arrays.fill(previous, -1);
+        logger.debug("Tracking disk I/O for {} device(s): {}", count, trackedNames);
+    }
+
+    // The volume's own device node ("/dev/nvme0n1p2", "/dev/mapper/vg-root"), or the device the mount
+    // point lives on when the volume isn't a node ("/dev/root"); -1 if neither can be read
+    private static long deviceOf(OSFileStore store) {
+        try {
+            String volume = store.getVolume();
+            if (volume != null && volume.startsWith("/dev/")) {
+                Path node = Paths.get(volume);
+                if (Files.exists(node)) {
+                    return deviceId(((Number) Files.getAttribute(node, "unix:rdev")).longValue());
+                }
+            }
+            return deviceId(((Number) Files.getAttribute(Paths.get(store.getMount()), "unix:dev")).longValue());
+        } catch (IOException | RuntimeException e) {
+            return -1;
+        }
+    }
+
+    // Linux dev_t to major << 32 | minor
+    private static long deviceId(long dev) {
+        long major = ((dev >>> 8) & 0xfff) | ((dev >>> 32) & 0xfffff000L);
+        long minor = (dev & 0xff) | ((dev >>> 12) & 0xffffff00L);
+        return major << 32 | minor;
+    }
+
+    private void readCounters() throws IOException {
+        buffer.clear();
+        try (FileChannel channel = FileChannel.open(DISKSTATS)) {
+            while (channel.read(buffer) > 0) {
+                if (!buffer.hasRemaining()) {
+                    // Hosts with many partitions or loop devices; the buffer stays at the larger size
+                    buffer = ByteBuffer.allocate(buffer.capacity() * 2).put(buffer.flip());
+                }
+            }
+        }
+        byte[] data = buffer.array();
+        int length = buffer.position();
+
+        // " 259       0 nvme0n1 152348 4070 9466412 34231 381941 ..."
+        int position = 0;
+        while (position < length) {
+            int lineEnd = position;
+            while (lineEnd < length && data[lineEnd] != '\n') {
+                lineEnd++;
+            }
+            position = skipSpaces(data, position, lineEnd);
+            long major = parseLong(data, position, lineEnd);
+            position = skipSpaces(data, skipToken(data, position, lineEnd), lineEnd);
+            long minor = parseLong(data, position, lineEnd);
+            int slot = slotOf(major << 32 | minor);
+            if (slot >= 0) {
+                position = skipSpaces(data, skipToken(data, position, lineEnd), lineEnd);
+                int nameStart = position;
+                position = skipToken(data, position, lineEnd);
+                if (devices[slot] == null) {
+                    devices[slot] = new String(data, nameStart, position - nameStart, StandardCharsets.US_ASCII);
+                }
+                readColumns(data, position, lineEnd, slot * FIELDS);
+            }
+            position = lineEnd + 1;
+        }
+    }
+
+    private void readColumns(byte[] data, int position, int lineEnd, int base) {
+        int field = 0;
+        for (int column = 1; field < FIELDS; column++) {
+            position = skipSpaces(data, position, lineEnd);
+            if (position >= lineEnd) {
+                current[base] = -1; // truncated line, treat the device as missing
+                return;
+            }
+            if (column == COLUMNS[field]) {
+                current[base + field++] = parseLong(data, position, lineEnd);
+            }
+            position = skipToken(data, position, lineEnd);
+        }
+    }
+
+    private int slotOf(long id) {
+        for (int i = 0; i < deviceIds.length; i++) {
+            if (deviceIds[i] == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int skipSpaces(byte[] data, int from, int to) {
+        while (from < to && data[from] == ' ') {
+            from++;
+        }
+        return from;
+    }
+
+    private static int skipToken(byte[] data, int from, int to) {
+        while (from < to && data[from] != ' ') {
+            from++;
+        }
+        return from;
+    }
+
+    private static long parseLong(byte[] data, int from, int to) {
+        long value = 0;
+        for (int i = from; i < to && data[i] >= '0' && data[i] <= '9'; i++) {
+            value = value * 10 + (data[i] - '0');
+        }
+        return value;
+    }
+
+    /**
+     * I/O of one block device over the last monitoring interval
+     */
+    public static class DiskIo {
+        private final String name;
+        private final String device;
+        private final double readsPerSecond;
+        private final double writesPerSecond;
+        private final double readBytesPerSecond;
+        private final double writeBytesPerSecond;
+        private final double awaitMs;
+        private final double utilization;
+
+        public DiskIo(String name, String device, double readsPerSecond, double writesPerSecond,
+                      double readBytesPerSecond, double writeBytesPerSecond, double awaitMs, double utilization) {
+            this.name = name;
+            this.device = device;
+            this.readsPerSecond = readsPerSecond;
+            this.writesPerSecond = writesPerSecond;
+            this.readBytesPerSecond = readBytesPerSecond;
+            this.writeBytesPerSecond = writeBytesPerSecond;
+            this.awaitMs = awaitMs;
+            this.utilization = utilization;
+        }
+
+        /** Name of the file store, as in {@link SystemMonitor.DiskUsage#getName()} */
+        public String getName() { return name; }
+        /** Kernel device name, e.g. {@code nvme0n1p2} */
+        public String getDevice() { return device; }
+        public double getReadsPerSecond() { return readsPerSecond; }
+        public double getWritesPerSecond() { return writesPerSecond; }
+        public double getReadBytesPerSecond() { return readBytesPerSecond; }
+        public double getWriteBytesPerSecond() { return writeBytesPerSecond; }
+        /** Average time a request took including queueing, 0 if there were none */
+        public double getAwaitMs() { return awaitMs; }
+        /** Percent of the interval the device was busy */
+        public double getUtilization() { return utilization; }
+    }
+}
@@ -21,6 +21,24 @@ public class HostingEnvironment {
     private final boolean isContainerized;
     private final boolean isSharedHosting;
     private final CapabilityLevel capabilityLevel;
+    // PSI files: the proxy's own cgroup v2 directory, /proc/pressure, or null if the kernel has none
+    private final Path pressureDirectory;
+    private final boolean pressureCgroupScoped;
+    private final boolean hasDiskStats;
+    private final boolean hasProcNetDev;
+    private final boolean hasProcNetTcp;
+    private final boolean hasProcSelf;
+    private final boolean hasProcStat;
+    private final boolean hasProcfs;
+    
+    private static final Path PROC_PRESSURE = Paths.get("/proc/pressure");
+    private static final Path PROC_DISKSTATS = Paths.get("/proc/diskstats");
+    private static final Path PROC_NET_DEV = Paths.get("/proc/net/dev");
+    private static final Path PROC_NET_TCP = Paths.get("/proc/net/tcp");
+    private static final Path PROC_SELF_STATUS = Paths.get("/proc/self/status");
+    private static final Path PROC_STAT = Paths.get("/proc/stat");
+    private static final Path PROC_INIT = Paths.get("/proc/1");
+    private static final String[] CGROUP2_MOUNTS = {"/sys/fs/cgroup", "/sys/fs/cgroup/unified"};
     
     public enum CapabilityLevel {
         FULL("Full system access - all features available"),
@@ -49,6 +67,14 @@ public class HostingEnvironment {
         this.isContainerized = detectContainer();
         this.isSharedHosting = detectSharedHosting();
         this.capabilityLevel = determineCapabilityLevel();
+        this.pressureDirectory = detectPressureDirectory();
+        this.pressureCgroupScoped = pressureDirectory != null && !pressureDirectory.equals(PROC_PRESSURE);
+        this.hasDiskStats = hasDiskAccess && isReadable(PROC_DISKSTATS);
+        this.hasProcNetDev = isReadable(PROC_NET_DEV);
+        this.hasProcNetTcp = isReadable(PROC_NET_TCP);
+        this.hasProcSelf = isReadable(PROC_SELF_STATUS);
+        this.hasProcStat = hasSystemAccess && isReadable(PROC_STAT);
+        this.hasProcfs = hasSystemAccess && Files.isDirectory(PROC_INIT);
         
         logEnvironmentInfo();
     }
@@ -148,6 +174,51 @@ public class HostingEnvironment {
         return false;
     }
     
+    private Path detectPressureDirectory() {
+        try {
+            // cgroup v2 entry of this process ("0::/system.slice/velocity.service"); stalls of the
+            // proxy's own cgroup say more than host-wide ones when neighbours share the machine
+            Path cgroupFile = Paths.get("/proc/self/cgroup");
+            if (Files.isReadable(cgroupFile)) {
+                for (String line : Files.readAllLines(cgroupFile)) {
+                    if (!line.startsWith("0::/") || line.length() == 4) {
+                        continue;
+                    }
+                    for (String mount : CGROUP2_MOUNTS) {
+                        Path directory = Paths.get(mount + line.substring(3));
+                        if (isPressureReadable(directory.resolve("cpu.pressure"))) {
+                            return directory;
+                        }
+                    }
+                }
+            }
+            if (isPressureReadable(PROC_PRESSURE.resolve("cpu"))) {
+                return PROC_PRESSURE;
+            }
+        } catch (IOException | SecurityException e) {
+            logger.debug("Pressure stall information check failed", e);
+        }
+        return null;
+    }
+    
+    private boolean isReadable(Path file) {
+        try {
+            return Files.isReadable(file);
+        } catch (SecurityException e) {
+            logger.debug("Access check for {} failed", file, e);
+            return false;
+        }
+    }
+    
+    // The files exist but fail to read when the kernel was booted with psi=0
+    private static boolean isPressureReadable(Path file) {
+        try {
+            return Files.isReadable(file) && Files.readAllBytes(file).length > 0;
+        } catch (IOException | SecurityException e) {
+            return false;
+        }
+    }
+    
     private CapabilityLevel determineCapabilityLevel() {
         if (hasSystemAccess && hasDiskAccess && hasNetworkAccess) {
             return CapabilityLevel.FULL;
@@ -168,6 +239,14 @@ public class HostingEnvironment {
         logger.info("Network Access: {}", hasNetworkAccess ? "✓" : "✗");
         logger.info("Containerized: {}", isContainerized ? "Yes" : "No");
         logger.info("Shared Hosting: {}", isSharedHosting ? "Likely" : "Unlikely");
+        logger.info("Pressure Stall Info: {}", pressureDirectory == null ? "✗"
+            : pressureCgroupScoped ? "✓ (cgroup " + pressureDirectory + ")" : "✓ (system-wide)");
+        logger.info("Disk I/O Stats: {}", hasDiskStats ? "✓" : "✗");
+        logger.info("Network I/O Stats: {}", hasProcNetDev ? "✓" : hasSystemAccess ? "✓ (OSHI)" : "✗");
+        logger.info("Socket Census: {}", hasProcNetTcp ? "✓" : "✗");
+        logger.info("CPU Breakdown: {}", hasProcStat ? "✓" : hasSystemAccess ? "✓ (OSHI)" : "✗");
+        logger.info("Backend Processes: {}", hasProcfs ? "✓" : hasSystemAccess ? "✓ (OSHI)" : "✗");
+        logger.info("Process Stats: {}", hasProcSelf ? "✓" : hasSystemAccess ? "✓ (OSHI)" : "✓ (JVM only)");
         logger.info("=====================================");
         
         if (capabilityLevel == CapabilityLevel.RESTRICTED || capabilityLevel == CapabilityLevel.MINIMAL) {
@@ -216,6 +295,71 @@ public class HostingEnvironment {
         return hasNetworkAccess;
     }
     
+    public boolean canMonitorDiskIo() {
+        return hasDiskStats;
+    }
+    
+    /**
+     * Whether {@code /proc/net/dev} is readable; otherwise network I/O falls back to OSHI
+     */
+    public boolean hasProcNetDev() {
+        return hasProcNetDev;
+    }
+    
+    /**
+     * Whether {@code /proc/stat} is readable (and system metrics allowed); otherwise CPU ticks come from OSHI
+     */
+    public boolean hasProcStat() {
+        return hasProcStat;
+    }
+    
+    /**
+     * Whether other processes can be listed under {@code /proc}; otherwise backend processes are found through OSHI
+     */
+    public boolean hasProcfs() {
+        return hasProcfs;
+    }
+    
+    /**
+     * Backend processes on this machine can be found with system access, through {@code /proc} or OSHI
+     */
+    public boolean canMonitorBackendProcesses() {
+        return hasSystemAccess;
+    }
+    
+    /**
+     * Whether {@code /proc/self} is readable; otherwise process statistics fall back to OSHI
+     */
+    public boolean hasProcSelf() {
+        return hasProcSelf;
+    }
+    
+    public boolean canMonitorSockets() {
+        return hasProcNetTcp;
+    }
+    
+    public boolean canMonitorPressure() {
+        return pressureDirectory != null;
+    }
+    
+    /**
+     * Whether pressure is read for the proxy's own cgroup rather than the whole host
+     */
+    public boolean isPressureCgroupScoped() {
+        return pressureCgroupScoped;
+    }
+    
+    /**
+     * @param resource {@code cpu}, {@code memory} or {@code io}
+     * @return the PSI file for the resource, or {@code null} if pressure can't be monitored
+     */
+    public Path getPressureFile(String resource) {
+        if (pressureDirectory == null) {
+            return null;
+        }
+        return pressureCgroupScoped ? pressureDirectory.resolve(resource + ".pressure") : pressureDirectory.resolve(resource);
+    }
+    
     public boolean shouldUseJVMFallback() {
         return capabilityLevel == CapabilityLevel.RESTRICTED || capabilityLevel == CapabilityLevel.MINIMAL;
     }
@@ -0,0 +1,236 @@
+package net.bubblecraft.bubblelog.monitor;
+
+import net.bubblecraft.bubblelog.config.ConfigManager;
+import net.bubblecraft.bubblelog.util.FramedLogWriter;
+import net.bubblecraft.bubblelog.util.LogFiles;
+import org.slf4j.Logger;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzips log files once their day is over, on a single low-priority background thread.
+ *
+ * Usage logs from earlier days and the rotated alert logs are compressed in place
+ * ({@code name.log} becomes {@code name.log.gz}); {@code alerts.log} itself is first rotated to
+ * {@code alerts-<date>.log} when it was last written on an earlier day. Reading is throttled to
+ * {@code logging.compression.max-rate} so a backlog of old logs doesn't compete with the proxy
+ * for disk bandwidth. The compressed file is written under a temporary name, synced and moved
+ * into place before the original is removed, so an interrupted run loses nothing.
+ */
+public class LogCompressor {
+
+    private static final String TEMP_SUFFIX = ".gz.tmp";
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final long INITIAL_DELAY_SECONDS = 60;
+    private static final long CHECK_INTERVAL_SECONDS = 3600;
+
+    private final Path logDirectory;
+    private final FramedLogWriter alertWriter;
+    private final ConfigManager config;
+    private final Logger logger;
+    private final ScheduledExecutorService executor;
+
+    private volatile int filesCompressed;
+    private volatile long bytesSaved;
+
+    /**
+     * @param alertWriter the writer appending to {@code alerts.log}; rotation goes through it
+     */
+    public LogCompressor(Path logDirectory, FramedLogWriter alertWriter, ConfigManager config, Logger logger) {
+        this.logDirectory = logDirectory;
+        this.alertWriter = alertWriter;
+        this.config = config;
+        this.logger = logger;
+        this.executor = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+            .name("BubbleLog-compress")
+            .daemon(true)
+            .priority(Thread.MIN_PRIORITY)
+            .factory());
+    }
+
+    /**
+     * Check for rotated logs shortly after startup and then hourly. The enabled flag is
+     * re-checked on every run so compression can be switched with a reload.
+     */
+    public void start() {
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                compressRotatedLogs();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                logger.warn("Error compressing rotated log files", e);
+            }
+        }, INITIAL_DELAY_SECONDS, CHECK_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Rotate {@code alerts.log} if its day is over and compress every finished log
+     * @return number of files compressed
+     */
+    public int compressRotatedLogs() throws IOException, InterruptedException {
+        if (!config.isLogCompressionEnabled() || !Files.isDirectory(logDirectory)) {
+            return 0;
+        }
+        LocalDate today = LocalDate.now();
+        deleteLeftovers();
+        rotateAlertLog(today);
+
+        int compressed = 0;
+        long saved = 0;
+        long original = 0;
+        for (Path file : findRotatedLogs(today)) {
+            long size = Files.size(file);
+            long compressedSize = compress(file);
+            compressed++;
+            original += size;
+            saved += size - compressedSize;
+            logger.debug("Compressed {} ({} -> {})", file.getFileName(), formatBytes(size), formatBytes(compressedSize));
+        }
+        if (compressed > 0) {
+            filesCompressed += compressed;
+            bytesSaved += saved;
+            logger.info("Compressed {} rotated log file(s), {} -> {}", compressed,
+                formatBytes(original), formatBytes(original - saved));
+        }
+        return compressed;
+    }
+
+    // Temporary files of a run that was interrupted; the originals are still in place
+    private void deleteLeftovers() throws IOException {
+        try (Stream<Path> files = Files.list(logDirectory)) {
+            for (Path file : files.filter(file -> file.getFileName().toString().endsWith(TEMP_SUFFIX)).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private void rotateAlertLog(LocalDate today) throws IOException {
+        Path alertLog = logDirectory.resolve(LogFiles.ALERT_LOG_NAME);
+        if (!Files.exists(alertLog)) {
+            return;
+        }
+        FileTime modified = Files.getLastModifiedTime(alertLog);
+        LocalDate lastWritten = LocalDate.ofInstant(modified.toInstant(), ZoneId.systemDefault());
+        if (!lastWritten.isBefore(today)) {
+            return;
+        }
+        Path archive = logDirectory.resolve(LogFiles.alertArchiveName(lastWritten));
+        if (Files.exists(archive) || Files.exists(LogFiles.compressedPath(archive))) {
+            logger.debug("Not rotating {}: {} already exists", alertLog.getFileName(), archive.getFileName());
+            return;
+        }
+        // The writer keeps alerts.log open, so move it under the writer's lock - and only if no
+        // alert arrived since the date was read, or today's alert would be archived with yesterday
+        if (!alertWriter.rotate(alertLog, archive, modified)) {
+            logger.debug("Not rotating {}: written to while checking", alertLog.getFileName());
+        }
+    }
+
+    private List<Path> findRotatedLogs(LocalDate today) throws IOException {
+        Pattern usageLogs = LogFiles.usageLogPattern(config.getLogFileName());
+        Pattern alertArchives = LogFiles.alertArchivePattern();
+        List<Path> rotated = new ArrayList<>();
+        try (Stream<Path> files = Files.list(logDirectory)) {
+            for (Path file : files.toList()) {
+                if (LogFiles.isCompressed(file) || !Files.isRegularFile(file)) {
+                    continue;
+                }
+                LocalDate date = LogFiles.dateOf(file, usageLogs);
+                if (date == null) {
+                    date = LogFiles.dateOf(file, alertArchives);
+                }
+                if (date != null && date.isBefore(today)) {
+                    rotated.add(file);
+                }
+            }
+        }
+        rotated.sort(Comparator.comparing(file -> file.getFileName().toString()));
+        return rotated;
+    }
+
+    /**
+     * @return size of the compressed file
+     */
+    private long compress(Path file) throws IOException, InterruptedException {
+        Path temp = file.resolveSibling(file.getFileName() + TEMP_SUFFIX);
+        long bytesPerSecond = config.getLogCompressionRate() * 1024L;
+        boolean done = false;
+        try {
+            try (InputStream in = Files.newInputStream(file);
+                 OutputStream out = new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), CHUNK_SIZE), CHUNK_SIZE)) {
+                byte[] chunk = new byte[CHUNK_SIZE];
+                long startNanos = System.nanoTime();
+                long total = 0;
+                int read;
+                while ((read = in.read(chunk)) > 0) {
+                    out.write(chunk, 0, read);
+                    total += read;
+                    if (bytesPerSecond > 0) {
+                        // Sleep off whatever we are ahead of the allowed rate
+                        long aheadMillis = total * 1000 / bytesPerSecond - (System.nanoTime() - startNanos) / 1_000_000;
+                        if (aheadMillis > 0) {
+                            Thread.sleep(aheadMillis);
+                        }
+                    }
+                }
+            }
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+
+            // Keep the original time so retention keeps ordering files the same way
+            FileTime modified = Files.getLastModifiedTime(file);
+            Files.setLastModifiedTime(temp, modified);
+            Path target = LogFiles.compressedPath(file);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            done = true;
+            Files.delete(file);
+            return Files.size(target);
+        } finally {
+            if (!done) {
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+
+    public int getFilesCompressed() {
+        return filesCompressed;
+    }
+
+    public long getBytesSaved() {
+        return bytesSaved;
+    }
+
+    public void shutdown() {
+        // Interrupts a compression in progress; its temporary file is removed and the original kept
+        executor.shutdownNow();
+    }
+
+    private String formatBytes(long bytes) {
+        if (bytes < 1024) return bytes + " B";
+        if (bytes < 1024 * 1024) return "%.2f KB".formatted(bytes / 1024.0);
+        if (bytes < 1024 * 1024 * 1024) return "%.2f MB".formatted(bytes / (1024.0 * 1024));
+        return "%.2f GB".formatted(bytes / (1024.0 * 1024 * 1024));
+    }
+}
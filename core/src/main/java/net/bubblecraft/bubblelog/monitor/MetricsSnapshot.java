@@ -0,0 +1,129 @@
+package net.bubblecraft.bubblelog.monitor;
+
+import java.util.List;
+
+/**
+ * Immutable result of one monitoring tick, published to {@link SnapshotListener}s.
+ *
+ * Sections that are disabled in the config (or failed to collect) are {@code null};
+ * CPU usage is -1 when it was not sampled. Created through {@link #builder(long)}.
+ */
+public class MetricsSnapshot {
+
+    private final long timestamp;
+    private final double cpuUsage;
+    private final SystemMonitor.MemoryUsage memoryUsage;
+    private final List<SystemMonitor.DiskUsage> diskUsages;
+    private final SystemMonitor.NetworkData networkData;
+    private final SystemMonitor.JVMData jvmData;
+    private final SystemMonitor.ConnectionQualityData connectionData;
+    private final PressureCollector.PressureData pressureData;
+    private final List<DiskIoCollector.DiskIo> diskIo;
+    private final NetworkIoCollector.NetworkIoData networkIo;
+    private final SocketCensusCollector.SocketCensus sockets;
+    private final ProcessCollector.ProcessData process;
+    private final CpuCollector.CpuBreakdown cpuBreakdown;
+    private final List<BackendProcessCollector.BackendProcess> backendProcesses;
+    private final List<BackendTickCollector.BackendTick> backendTicks;
+
+    private MetricsSnapshot(Builder builder) {
+        this.timestamp = builder.timestamp;
+        this.cpuUsage = builder.cpuUsage;
+        this.memoryUsage = builder.memoryUsage;
+        this.diskUsages = builder.diskUsages != null ? builder.diskUsages : List.of();
+        this.networkData = builder.networkData;
+        this.jvmData = builder.jvmData;
+        this.connectionData = builder.connectionData;
+        this.pressureData = builder.pressureData;
+        this.diskIo = builder.diskIo != null ? builder.diskIo : List.of();
+        this.networkIo = builder.networkIo;
+        this.sockets = builder.sockets;
+        this.process = builder.process;
+        this.cpuBreakdown = builder.cpuBreakdown;
+        this.backendProcesses = builder.backendProcesses != null ? builder.backendProcesses : List.of();
+        this.backendTicks = builder.backendTicks != null ? builder.backendTicks : List.of();
+    }
+
+    /**
+     * @param timestamp epoch milliseconds when the sample was taken
+     * @return a builder with every section left out
+     */
+    public static Builder builder(long timestamp) {
+        return new Builder(timestamp);
+    }
+
+    /** Epoch milliseconds when the sample was taken */
+    public long getTimestamp() { return timestamp; }
+    /** System (or JVM fallback) CPU load between 0 and 1, or -1 if not sampled */
+    public double getCpuUsage() { return cpuUsage; }
+    public SystemMonitor.MemoryUsage getMemoryUsage() { return memoryUsage; }
+    public List<SystemMonitor.DiskUsage> getDiskUsages() { return diskUsages; }
+    public SystemMonitor.NetworkData getNetworkData() { return networkData; }
+    public SystemMonitor.JVMData getJvmData() { return jvmData; }
+    public SystemMonitor.ConnectionQualityData getConnectionData() { return connectionData; }
+    /** Pressure stall information, or {@code null} where the host doesn't provide it */
+    public PressureCollector.PressureData getPressureData() { return pressureData; }
+    /** Per-device I/O over the last interval; empty when not collected or on the first tick */
+    public List<DiskIoCollector.DiskIo> getDiskIo() { return diskIo; }
+    /** Interface throughput and TCP health, or {@code null} when not collected or on the first tick */
+    public NetworkIoCollector.NetworkIoData getNetworkIo() { return networkIo; }
+    /** TCP sockets by state, for the proxy port and per backend, or {@code null} when not collected */
+    public SocketCensusCollector.SocketCensus getSockets() { return sockets; }
+    /** Resources of the proxy process itself, or {@code null} when not collected */
+    public ProcessCollector.ProcessData getProcess() { return process; }
+    /** CPU time by mode and load per core, or {@code null} with JVM-only CPU monitoring */
+    public CpuCollector.CpuBreakdown getCpuBreakdown() { return cpuBreakdown; }
+    /** Backends found running on this machine, in registration order; empty when not collected */
+    public List<BackendProcessCollector.BackendProcess> getBackendProcesses() { return backendProcesses; }
+    /** Tick health reported by backends with the agent plugin, in registration order; empty when not collected */
+    public List<BackendTickCollector.BackendTick> getBackendTicks() { return backendTicks; }
+
+    public boolean hasCpu() {
+        return cpuUsage >= 0;
+    }
+
+    /**
+     * Collects the sections of one tick; a section that is never set stays absent
+     */
+    public static final class Builder {
+        private final long timestamp;
+        private double cpuUsage = -1;
+        private SystemMonitor.MemoryUsage memoryUsage;
+        private List<SystemMonitor.DiskUsage> diskUsages;
+        private SystemMonitor.NetworkData networkData;
+        private SystemMonitor.JVMData jvmData;
+        private SystemMonitor.ConnectionQualityData connectionData;
+        private PressureCollector.PressureData pressureData;
+        private List<DiskIoCollector.DiskIo> diskIo;
+        private NetworkIoCollector.NetworkIoData networkIo;
+        private SocketCensusCollector.SocketCensus sockets;
+        private ProcessCollector.ProcessData process;
+        private CpuCollector.CpuBreakdown cpuBreakdown;
+        private List<BackendProcessCollector.BackendProcess> backendProcesses;
+        private List<BackendTickCollector.BackendTick> backendTicks;
+
+        private Builder(long timestamp) {
+            this.timestamp = timestamp;
+        }
+
+        /** CPU load between 0 and 1, or -1 if not sampled */
+        public Builder cpuUsage(double cpuUsage) { this.cpuUsage = cpuUsage; return this; }
+        public Builder memoryUsage(SystemMonitor.MemoryUsage memoryUsage) { this.memoryUsage = memoryUsage; return this; }
+        public Builder diskUsages(List<SystemMonitor.DiskUsage> diskUsages) { this.diskUsages = diskUsages; return this; }
+        public Builder networkData(SystemMonitor.NetworkData networkData) { this.networkData = networkData; return this; }
+        public Builder jvmData(SystemMonitor.JVMData jvmData) { this.jvmData = jvmData; return this; }
+        public Builder connectionData(SystemMonitor.ConnectionQualityData connectionData) { this.connectionData = connectionData; return this; }
+        public Builder pressureData(PressureCollector.PressureData pressureData) { this.pressureData = pressureData; return this; }
+        public Builder diskIo(List<DiskIoCollector.DiskIo> diskIo) { this.diskIo = diskIo; return this; }
+        public Builder networkIo(NetworkIoCollector.NetworkIoData networkIo) { this.networkIo = networkIo; return this; }
+        public Builder sockets(SocketCensusCollector.SocketCensus sockets) { this.sockets = sockets; return this; }
+        public Builder process(ProcessCollector.ProcessData process) { this.process = process; return this; }
+        public Builder cpuBreakdown(CpuCollector.CpuBreakdown cpuBreakdown) { this.cpuBreakdown = cpuBreakdown; return this; }
+        public Builder backendProcesses(List<BackendProcessCollector.BackendProcess> backendProcesses) { this.backendProcesses = backendProcesses; return this; }
+        public Builder backendTicks(List<BackendTickCollector.BackendTick> backendTicks) { this.backendTicks = backendTicks; return this; }
+
+        public MetricsSnapshot build() {
+            return new MetricsSnapshot(this);
+        }
+    }
+}
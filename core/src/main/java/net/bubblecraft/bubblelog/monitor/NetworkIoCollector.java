@@ -0,0 +1,552 @@
+package net.bubblecraft.bubblelog.monitor;
+
+import org.slf4j.Logger;
+import oshi.hardware.HardwareAbstractionLayer;
+import oshi.hardware.NetworkIF;
+import oshi.software.os.InternetProtocolStats;
+import oshi.software.os.OperatingSystem;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Interface throughput and TCP health: per-interface bytes, packets, drops and errors from
+ * {@code /proc/net/dev}, and retransmits, resets and listen queue overflows from
+ * {@code /proc/net/snmp} and {@code /proc/net/netstat}. Where those files don't exist OSHI's
+ * {@link NetworkIF} and {@link InternetProtocolStats} are used instead (no listen overflows there).
+ *
+ * The files are read into one reused buffer and parsed in place; counters live in flat
+ * primitive arrays swapped each tick and rates are the difference to the previous tick;
+ * interfaces that disappear lose their slot. Column positions in the TCP tables are looked up
+ * once. The loopback interface and interfaces that never carried traffic are left out.
+ */
+public class NetworkIoCollector {
+
+    private static final Path NET_DEV = Paths.get("/proc/net/dev");
+    private static final Path NET_SNMP = Paths.get("/proc/net/snmp");
+    private static final Path NET_NETSTAT = Paths.get("/proc/net/netstat");
+    private static final String LOOPBACK = "lo";
+
+    // Counters kept per interface
+    private static final int IF_FIELDS = 8;
+    private static final int RX_BYTES = 0;
+    private static final int RX_PACKETS = 1;
+    private static final int RX_ERRORS = 2;
+    private static final int RX_DROPS = 3;
+    private static final int TX_BYTES = 4;
+    private static final int TX_PACKETS = 5;
+    private static final int TX_ERRORS = 6;
+    private static final int TX_DROPS = 7;
+    // /proc/net/dev column (after the colon) of each counter above
+    private static final int[] IF_COLUMNS = {0, 1, 2, 3, 8, 9, 10, 11};
+
+    // TCP counters: the first five from the "Tcp:" table, the rest from "TcpExt:"
+    private static final String[] SNMP_NAMES = {"OutSegs", "RetransSegs", "InErrs", "OutRsts", "CurrEstab"};
+    private static final String[] NETSTAT_NAMES = {"ListenOverflows", "ListenDrops"};
+    private static final int TCP_FIELDS = 7;
+    private static final int OUT_SEGS = 0;
+    private static final int RETRANS_SEGS = 1;
+    private static final int IN_ERRS = 2;
+    private static final int OUT_RSTS = 3;
+    private static final int CURR_ESTAB = 4;
+    private static final int LISTEN_OVERFLOWS = 5;
+    private static final int LISTEN_DROPS = 6;
+    private static final byte[] SNMP_PREFIX = "Tcp: ".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NETSTAT_PREFIX = "TcpExt: ".getBytes(StandardCharsets.US_ASCII);
+
+    // Segments that must be sent in an interval before the retransmit share means anything
+    private static final long MIN_SEGMENTS_FOR_RATIO = 100;
+
+    private final Logger logger;
+    private final boolean procfs;
+    private final boolean netstatReadable;
+    private final HardwareAbstractionLayer hardware;
+    private final OperatingSystem os;
+    private ByteBuffer buffer = ByteBuffer.allocate(8192);
+
+    // Interfaces seen on the last read, one slot each; see dropVanished()
+    private int interfaceCount;
+    private byte[][] nameBytes = new byte[4][];
+    private String[] names = new String[4];
+    private long[] speedMbps = new long[4];
+    private long[] previous = new long[4 * IF_FIELDS];
+    private long[] current = new long[4 * IF_FIELDS];
+    private List<NetworkIF> networkIFs;
+
+    private int[] snmpColumns;
+    private int[] netstatColumns;
+    private long[] tcpPrevious = new long[TCP_FIELDS];
+    private long[] tcpCurrent = new long[TCP_FIELDS];
+    private boolean tcpAvailable = true;
+
+    private long previousNanos;
+    private boolean warnedReadFailure;
+
+    /**
+     * @param hardware OSHI hardware for the fallback, or {@code null}
+     * @param os OSHI operating system for the TCP fallback, or {@code null}
+     */
+    public NetworkIoCollector(HostingEnvironment hostingEnv, HardwareAbstractionLayer hardware, OperatingSystem os, Logger logger) {
+        this.logger = logger;
+        this.procfs = hostingEnv.hasProcNetDev();
+        this.netstatReadable = procfs && Files.isReadable(NET_NETSTAT);
+        this.hardware = hardware;
+        this.os = os;
+        Arrays.fill(previous, -1);
+        Arrays.fill(tcpPrevious, -1);
+    }
+
+    /**
+     * @return this tick's rates, or {@code null} on the first tick or if nothing could be read
+     */
+    public NetworkIoData collect() {
+        long now = System.nanoTime();
+        Arrays.fill(current, 0, interfaceCount * IF_FIELDS, -1);
+        Arrays.fill(tcpCurrent, -1);
+        try {
+            if (procfs) {
+                readInterfaces();
+                readTcp();
+            } else {
+                readInterfacesFallback();
+                readTcpFallback();
+            }
+        } catch (IOException | RuntimeException e) {
+            if (!warnedReadFailure) {
+                warnedReadFailure = true;
+                logger.warn("Failed to read network statistics - network I/O will be missing: {}", e.getMessage());
+            }
+            return null;
+        }
+
+        long intervalNanos = previousNanos == 0 ? 0 : now - previousNanos;
+        NetworkIoData result = null;
+        if (intervalNanos > 0) {
+            double seconds = intervalNanos / 1e9;
+            List<InterfaceIo> interfaces = new ArrayList<>(interfaceCount);
+            for (int slot = 0; slot < interfaceCount; slot++) {
+                int base = slot * IF_FIELDS;
+                boolean idle = current[base + RX_BYTES] == 0 && current[base + TX_BYTES] == 0;
+                if (current[base] >= 0 && previous[base] >= 0 && !idle) {
+                    interfaces.add(new InterfaceIo(names[slot],
+                        delta(current, previous, base + RX_BYTES) / seconds,
+                        delta(current, previous, base + TX_BYTES) / seconds,
+                        delta(current, previous, base + RX_PACKETS) / seconds,
+                        delta(current, previous, base + TX_PACKETS) / seconds,
+                        (delta(current, previous, base + RX_DROPS) + delta(current, previous, base + TX_DROPS)) / seconds,
+                        (delta(current, previous, base + RX_ERRORS) + delta(current, previous, base + TX_ERRORS)) / seconds,
+                        speedMbps[slot]));
+                }
+            }
+            result = new NetworkIoData(interfaces, tcpHealth(seconds));
+        }
+
+        long[] swap = previous;
+        previous = current;
+        current = swap;
+        swap = tcpPrevious;
+        tcpPrevious = tcpCurrent;
+        tcpCurrent = swap;
+        previousNanos = now;
+        dropVanished();
+        return result;
+    }
+
+    // Compact away the slots of interfaces missing from this read (container veth pairs, VPN
+    // tunnels), so churn can't grow the arrays or the lookup. 'previous' holds this read now.
+    private void dropVanished() {
+        int kept = 0;
+        for (int slot = 0; slot < interfaceCount; slot++) {
+            if (previous[slot * IF_FIELDS] < 0) {
+                continue;
+            }
+            if (kept != slot) {
+                nameBytes[kept] = nameBytes[slot];
+                names[kept] = names[slot];
+                speedMbps[kept] = speedMbps[slot];
+                System.arraycopy(previous, slot * IF_FIELDS, previous, kept * IF_FIELDS, IF_FIELDS);
+            }
+            kept++;
+        }
+        if (kept < interfaceCount) {
+            Arrays.fill(nameBytes, kept, interfaceCount, null);
+            Arrays.fill(names, kept, interfaceCount, null);
+            Arrays.fill(previous, kept * IF_FIELDS, interfaceCount * IF_FIELDS, -1);
+            interfaceCount = kept;
+        }
+    }
+
+    private TcpHealth tcpHealth(double seconds) {
+        if (!tcpAvailable || tcpCurrent[OUT_SEGS] < 0 || tcpPrevious[OUT_SEGS] < 0) {
+            return null;
+        }
+        long sent = delta(tcpCurrent, tcpPrevious, OUT_SEGS);
+        long retransmitted = delta(tcpCurrent, tcpPrevious, RETRANS_SEGS);
+        boolean listenKnown = tcpCurrent[LISTEN_OVERFLOWS] >= 0 && tcpPrevious[LISTEN_OVERFLOWS] >= 0;
+        return new TcpHealth(
+            retransmitted / seconds,
+            sent >= MIN_SEGMENTS_FOR_RATIO ? retransmitted * 100.0 / sent : -1,
+            delta(tcpCurrent, tcpPrevious, IN_ERRS) / seconds,
+            delta(tcpCurrent, tcpPrevious, OUT_RSTS) / seconds,
+            listenKnown ? delta(tcpCurrent, tcpPrevious, LISTEN_OVERFLOWS) : -1,
+            listenKnown ? delta(tcpCurrent, tcpPrevious, LISTEN_DROPS) : -1,
+            tcpCurrent[CURR_ESTAB]);
+    }
+
+    // Clamped at 0 for a counter that went backwards (interface re-created)
+    private static long delta(long[] now, long[] before, int index) {
+        return Math.max(0, now[index] - before[index]);
+    }
+
+    private void readInterfaces() throws IOException {
+        int length = read(NET_DEV);
+        byte[] data = buffer.array();
+
+        // "  eth0: 19486859    1144    0    0    0     0          0         0   108706     929 ..."
+        int position = 0;
+        while (position < length) {
+            int lineEnd = lineEnd(data, position, length);
+            int colon = position;
+            while (colon < lineEnd && data[colon] != ':') {
+                colon++;
+            }
+            int nameStart = skipSpaces(data, position, colon);
+            // The two header lines have '|' where the colon would be
+            if (colon < lineEnd && !isLoopback(data, nameStart, colon)) {
+                int slot = slotOf(data, nameStart, colon);
+                readColumns(data, colon + 1, lineEnd, IF_COLUMNS, current, slot * IF_FIELDS);
+            }
+            position = lineEnd + 1;
+        }
+    }
+
+    private void readTcp() throws IOException {
+        if (snmpColumns == null) {
+            snmpColumns = new int[SNMP_NAMES.length];
+            netstatColumns = new int[NETSTAT_NAMES.length];
+            Arrays.fill(netstatColumns, -1);
+            try {
+                tcpAvailable = resolveColumns(NET_SNMP, SNMP_PREFIX, SNMP_NAMES, snmpColumns) && snmpColumns[OUT_SEGS] >= 0;
+                if (netstatReadable) {
+                    resolveColumns(NET_NETSTAT, NETSTAT_PREFIX, NETSTAT_NAMES, netstatColumns);
+                }
+            } catch (IOException e) {
+                tcpAvailable = false;
+                logger.debug("TCP statistics unavailable - reporting interfaces only", e);
+            }
+        }
+        if (!tcpAvailable) {
+            return;
+        }
+        readTable(NET_SNMP, SNMP_PREFIX, snmpColumns, 0);
+        if (netstatColumns[0] >= 0) {
+            readTable(NET_NETSTAT, NETSTAT_PREFIX, netstatColumns, SNMP_NAMES.length);
+        }
+    }
+
+    /**
+     * Find the column of each name in the header line of a "Prefix: name name ...\nPrefix: 1 2 ..." table
+     */
+    private boolean resolveColumns(Path file, byte[] prefix, String[] columnNames, int[] columns) throws IOException {
+        Arrays.fill(columns, -1);
+        int length = read(file);
+        byte[] data = buffer.array();
+        int header = findLine(data, 0, length, prefix);
+        if (header < 0) {
+            return false;
+        }
+        int lineEnd = lineEnd(data, header, length);
+        int position = header + prefix.length;
+        for (int column = 0; position < lineEnd; column++) {
+            position = skipSpaces(data, position, lineEnd);
+            int tokenEnd = skipToken(data, position, lineEnd);
+            for (int i = 0; i < columnNames.length; i++) {
+                if (equals(data, position, tokenEnd, columnNames[i])) {
+                    columns[i] = column;
+                }
+            }
+            position = tokenEnd;
+        }
+        return true;
+    }
+
+    // Values are on the second line with the prefix, right below the header
+    private void readTable(Path file, byte[] prefix, int[] columns, int offset) throws IOException {
+        int length = read(file);
+        byte[] data = buffer.array();
+        int header = findLine(data, 0, length, prefix);
+        if (header < 0) {
+            return;
+        }
+        int values = findLine(data, lineEnd(data, header, length) + 1, length, prefix);
+        if (values >= 0) {
+            readColumns(data, values + prefix.length, lineEnd(data, values, length), columns, tcpCurrent, offset);
+        }
+    }
+
+    private void readInterfacesFallback() {
+        if (hardware == null) {
+            return;
+        }
+        if (networkIFs == null) {
+            networkIFs = hardware.getNetworkIFs();
+        }
+        for (NetworkIF networkIF : networkIFs) {
+            if (!networkIF.updateAttributes() || LOOPBACK.equals(networkIF.getName()) || "lo0".equals(networkIF.getName())) {
+                continue;
+            }
+            byte[] name = networkIF.getName().getBytes(StandardCharsets.UTF_8);
+            int slot = slotOf(name, 0, name.length);
+            if (speedMbps[slot] < 0 && networkIF.getSpeed() > 0) {
+                speedMbps[slot] = networkIF.getSpeed() / 1_000_000;
+            }
+            int base = slot * IF_FIELDS;
+            current[base + RX_BYTES] = networkIF.getBytesRecv();
+            current[base + RX_PACKETS] = networkIF.getPacketsRecv();
+            current[base + RX_ERRORS] = networkIF.getInErrors();
+            current[base + RX_DROPS] = networkIF.getInDrops();
+            current[base + TX_BYTES] = networkIF.getBytesSent();
+            current[base + TX_PACKETS] = networkIF.getPacketsSent();
+            current[base + TX_ERRORS] = networkIF.getOutErrors();
+            current[base + TX_DROPS] = 0;
+        }
+    }
+
+    private void readTcpFallback() {
+        if (os == null) {
+            tcpAvailable = false;
+            return;
+        }
+        InternetProtocolStats.TcpStats tcp = os.getInternetProtocolStats().getTCPv4Stats();
+        tcpCurrent[OUT_SEGS] = tcp.getSegmentsSent();
+        tcpCurrent[RETRANS_SEGS] = tcp.getSegmentsRetransmitted();
+        tcpCurrent[IN_ERRS] = tcp.getInErrors();
+        tcpCurrent[OUT_RSTS] = tcp.getOutResets();
+        tcpCurrent[CURR_ESTAB] = tcp.getConnectionsEstablished();
+    }
+
+    private int slotOf(byte[] data, int start, int end) {
+        for (int i = 0; i < interfaceCount; i++) {
+            if (Arrays.equals(nameBytes[i], 0, nameBytes[i].length, data, start, end)) {
+                return i;
+            }
+        }
+        if (interfaceCount == names.length) {
+            int capacity = interfaceCount * 2;
+            nameBytes = Arrays.copyOf(nameBytes, capacity);
+            names = Arrays.copyOf(names, capacity);
+            speedMbps = Arrays.copyOf(speedMbps, capacity);
+            previous = Arrays.copyOf(previous, capacity * IF_FIELDS);
+            current = Arrays.copyOf(current, capacity * IF_FIELDS);
+            Arrays.fill(previous, interfaceCount * IF_FIELDS, previous.length, -1);
+        }
+        int slot = interfaceCount++;
+        nameBytes[slot] = Arrays.copyOfRange(data, start, end);
+        names[slot] = new String(nameBytes[slot], StandardCharsets.UTF_8);
+        speedMbps[slot] = procfs ? linkSpeed(names[slot]) : -1;
+        Arrays.fill(current, slot * IF_FIELDS, (slot + 1) * IF_FIELDS, -1);
+        return slot;
+    }
+
+    // Virtual interfaces report -1 or fail to read
+    private static long linkSpeed(String name) {
+        try {
+            long speed = Long.parseLong(Files.readString(Paths.get("/sys/class/net", name, "speed")).trim());
+            return speed > 0 ? speed : -1;
+        } catch (IOException | RuntimeException e) {
+            return -1;
+        }
+    }
+
+    private int read(Path file) throws IOException {
+        buffer.clear();
+        try (FileChannel channel = FileChannel.open(file)) {
+            while (channel.read(buffer) > 0) {
+                if (!buffer.hasRemaining()) {
+                    buffer = ByteBuffer.allocate(buffer.capacity() * 2).put(buffer.flip());
+                }
+            }
+        }
+        return buffer.position();
+    }
+
+    private static void readColumns(byte[] data, int position, int lineEnd, int[] columns, long[] into, int offset) {
+        for (int column = 0; position < lineEnd; column++) {
+            position = skipSpaces(data, position, lineEnd);
+            if (position >= lineEnd) {
+                break;
+            }
+            for (int i = 0; i < columns.length; i++) {
+                if (columns[i] == column) {
+                    into[offset + i] = parseLong(data, position, lineEnd);
+                }
+            }
+            position = skipToken(data, position, lineEnd);
+        }
+    }
+
+    private static boolean isLoopback(byte[] data, int start, int end) {
+        return end - start == 2 && data[start] == 'l' && data[start + 1] == 'o';
+    }
+
+    private static int findLine(byte[] data, int from, int length, byte[] prefix) {
+        int position = from;
+        while (position < length) {
+            int lineEnd = lineEnd(data, position, length);
+            if (lineEnd - position >= prefix.length && Arrays.equals(data, position, position + prefix.length, prefix, 0, prefix.length)) {
+                return position;
+            }
+            position = lineEnd + 1;
+        }
+        return -1;
+    }
+
+    private static boolean equals(byte[] data, int start, int end, String name) {
+        if (end - start != name.length()) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            if (data[start + i] != name.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int lineEnd(byte[] data, int from, int length) {
+        while (from < length && data[from] != '\n') {
+            from++;
+        }
+        return from;
+    }
+
+    private static int skipSpaces(byte[] data, int from, int to) {
+        while (from < to && data[from] == ' ') {
+            from++;
+        }
+        return from;
+    }
+
+    private static int skipToken(byte[] data, int from, int to) {
+        while (from < to && data[from] != ' ') {
+            from++;
+        }
+        return from;
+    }
+
+    private static long parseLong(byte[] data, int from, int to) {
+        long value = 0;
+        for (int i = from; i < to && data[i] >= '0' && data[i] <= '9'; i++) {
+            value = value * 10 + (data[i] - '0');
+        }
+        return value;
+    }
+
+    /**
+     * Traffic of one interface over the last monitoring interval
+     */
+    public static class InterfaceIo {
+        private final String name;
+        private final double rxBytesPerSecond;
+        private final double txBytesPerSecond;
+        private final double rxPacketsPerSecond;
+        private final double txPacketsPerSecond;
+        private final double dropsPerSecond;
+        private final double errorsPerSecond;
+        private final long speedMbps;
+
+        public InterfaceIo(String name, double rxBytesPerSecond, double txBytesPerSecond, double rxPacketsPerSecond,
+                           double txPacketsPerSecond, double dropsPerSecond, double errorsPerSecond, long speedMbps) {
+            this.name = name;
+            this.rxBytesPerSecond = rxBytesPerSecond;
+            this.txBytesPerSecond = txBytesPerSecond;
+            this.rxPacketsPerSecond = rxPacketsPerSecond;
+            this.txPacketsPerSecond = txPacketsPerSecond;
+            this.dropsPerSecond = dropsPerSecond;
+            this.errorsPerSecond = errorsPerSecond;
+            this.speedMbps = speedMbps;
+        }
+
+        public String getName() { return name; }
+        public double getRxBytesPerSecond() { return rxBytesPerSecond; }
+        public double getTxBytesPerSecond() { return txBytesPerSecond; }
+        public double getRxPacketsPerSecond() { return rxPacketsPerSecond; }
+        public double getTxPacketsPerSecond() { return txPacketsPerSecond; }
+        /** Received and transmitted packets dropped per second */
+        public double getDropsPerSecond() { return dropsPerSecond; }
+        /** Receive and transmit errors per second */
+        public double getErrorsPerSecond() { return errorsPerSecond; }
+        /** Link speed, or -1 if the interface doesn't report one (most virtual NICs) */
+        public long getSpeedMbps() { return speedMbps; }
+
+        /**
+         * @return busier direction as a percent of link speed, or -1 if the speed is unknown
+         */
+        public double getUtilization() {
+            if (speedMbps <= 0) {
+                return -1;
+            }
+            return Math.min(100, Math.max(rxBytesPerSecond, txBytesPerSecond) * 8 * 100 / (speedMbps * 1_000_000.0));
+        }
+    }
+
+    /**
+     * TCP counters over the last monitoring interval, for the proxy's network namespace
+     */
+    public static class TcpHealth {
+        private final double retransmitsPerSecond;
+        private final double retransmitPercent;
+        private final double inErrorsPerSecond;
+        private final double resetsPerSecond;
+        private final long listenOverflows;
+        private final long listenDrops;
+        private final long established;
+
+        public TcpHealth(double retransmitsPerSecond, double retransmitPercent, double inErrorsPerSecond,
+                         double resetsPerSecond, long listenOverflows, long listenDrops, long established) {
+            this.retransmitsPerSecond = retransmitsPerSecond;
+            this.retransmitPercent = retransmitPercent;
+            this.inErrorsPerSecond = inErrorsPerSecond;
+            this.resetsPerSecond = resetsPerSecond;
+            this.listenOverflows = listenOverflows;
+            this.listenDrops = listenDrops;
+            this.established = established;
+        }
+
+        public double getRetransmitsPerSecond() { return retransmitsPerSecond; }
+        /** Share of sent segments that were retransmits, or -1 if too few were sent to tell */
+        public double getRetransmitPercent() { return retransmitPercent; }
+        public double getInErrorsPerSecond() { return inErrorsPerSecond; }
+        public double getResetsPerSecond() { return resetsPerSecond; }
+        /** Connections the accept queue had no room for this interval, or -1 if unknown */
+        public long getListenOverflows() { return listenOverflows; }
+        /** Incoming connections dropped before being accepted this interval, or -1 if unknown */
+        public long getListenDrops() { return listenDrops; }
+        public long getEstablished() { return established; }
+    }
+
+    /**
+     * Network I/O for one tick
+     */
+    public static class NetworkIoData {
+        private final List<InterfaceIo> interfaces;
+        private final TcpHealth tcp;
+
+        public NetworkIoData(List<InterfaceIo> interfaces, TcpHealth tcp) {
+            this.interfaces = interfaces;
+            this.tcp = tcp;
+        }
+
+        public List<InterfaceIo> getInterfaces() { return interfaces; }
+        /** TCP health, or {@code null} where the counters can't be read */
+        public TcpHealth getTcp() { return tcp; }
+    }
+}
@@ -1,8 +1,7 @@
 package net.bubblecraft.bubblelog.monitor;
 
-import com.velocitypowered.api.proxy.ProxyServer;
-import com.velocitypowered.api.proxy.server.RegisteredServer;
 import net.bubblecraft.bubblelog.config.ConfigManager;
+import net.bubblecraft.bubblelog.platform.ProxyPlatform;
 import org.slf4j.Logger;
 
 import java.time.Duration;
@@ -12,11 +11,11 @@ import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
 /**
- * Monitors network and server connectivity metrics for Velocity proxy
+ * Monitors network and server connectivity metrics for the proxy
  */
 public class NetworkMonitor {
     
-    private final ProxyServer server;
+    private final ProxyPlatform server;
     private final Logger logger;
     private final ConfigManager config;
     
@@ -24,7 +23,7 @@ public class NetworkMonitor {
     private final Map<String, Long> lastPingTimes = new HashMap<>();
     private final Map<String, Boolean> serverStatus = new HashMap<>();
     
-    public NetworkMonitor(ProxyServer server, Logger logger, ConfigManager config) {
+    public NetworkMonitor(ProxyPlatform server, Logger logger, ConfigManager config) {
         this.server = server;
         this.logger = logger;
         this.config = config;
@@ -33,16 +32,16 @@ public class NetworkMonitor {
     public NetworkUsage getNetworkUsage() {
         try {
             int totalPlayers = server.getPlayerCount();
-            int maxPlayers = server.getConfiguration().getShowMaxPlayers();
+            int maxPlayers = server.getMaxPlayers();
             
             // Get backend server statuses
             Map<String, ServerInfo> backendServers = new HashMap<>();
-            for (RegisteredServer registeredServer : server.getAllServers()) {
-                String serverName = registeredServer.getServerInfo().getName();
+            for (ProxyPlatform.Backend backend : server.getBackends()) {
+                String serverName = backend.getName();
                 
                 // Ping the server asynchronously
                 Instant startTime = Instant.now();
-                CompletableFuture<Boolean> pingFuture = registeredServer.ping()
+                CompletableFuture<Boolean> pingFuture = backend.ping()
                     .thenApply(ping -> {
                         long responseTime = Duration.between(startTime, Instant.now()).toMillis();
                         lastPingTimes.put(serverName, responseTime);
@@ -58,7 +57,7 @@ public class NetworkMonitor {
                 // Don't wait for ping to complete, use cached data
                 boolean isOnline = serverStatus.getOrDefault(serverName, false);
                 long pingTime = lastPingTimes.getOrDefault(serverName, -1L);
-                int playersOnServer = registeredServer.getPlayersConnected().size();
+                int playersOnServer = backend.getPlayerCount();
                 
                 backendServers.put(serverName, new ServerInfo(serverName, isOnline, pingTime, playersOnServer));
             }
@@ -0,0 +1,264 @@
+package net.bubblecraft.bubblelog.monitor;
+
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reads Linux Pressure Stall Information ({@code cpu}, {@code memory}, {@code io}) - the share
+ * of time tasks were stalled waiting for a resource. Unlike a CPU percentage this shows
+ * whether the proxy is actually being held up, including by steal and noisy neighbours.
+ *
+ * Files come from {@link HostingEnvironment#getPressureFile(String)}: the proxy's own cgroup
+ * when available, otherwise the whole host. Each tick reads three small files into one reused
+ * buffer; stall totals are kept from the previous tick to report per-interval deltas.
+ */
+public class PressureCollector {
+
+    private static final String[] RESOURCES = {"cpu", "memory", "io"};
+
+    private final Logger logger;
+    private final Path[] files = new Path[RESOURCES.length];
+    private final boolean cgroupScoped;
+    private final ByteBuffer buffer = ByteBuffer.allocate(512);
+
+    private final long[] previousSome = new long[RESOURCES.length];
+    private final long[] previousFull = new long[RESOURCES.length];
+    private long previousNanos;
+    private boolean warnedReadFailure;
+
+    public PressureCollector(HostingEnvironment hostingEnv, Logger logger) {
+        this.logger = logger;
+        this.cgroupScoped = hostingEnv.isPressureCgroupScoped();
+        for (int i = 0; i < RESOURCES.length; i++) {
+            files[i] = hostingEnv.getPressureFile(RESOURCES[i]);
+        }
+    }
+
+    /**
+     * @return this tick's pressure, or {@code null} if no file could be read
+     */
+    public PressureData collect() {
+        long now = System.nanoTime();
+        long intervalMicros = previousNanos == 0 ? 0 : (now - previousNanos) / 1000;
+        Stall[] stalls = new Stall[RESOURCES.length];
+        boolean any = false;
+
+        for (int i = 0; i < RESOURCES.length; i++) {
+            if (files[i] == null) {
+                continue;
+            }
+            try {
+                stalls[i] = read(i, intervalMicros);
+                any = true;
+            } catch (IOException | RuntimeException e) {
+                if (!warnedReadFailure) {
+                    warnedReadFailure = true;
+                    logger.warn("Failed to read {} - pressure for {} will be missing: {}", files[i], RESOURCES[i], e.getMessage());
+                }
+            }
+        }
+        previousNanos = now;
+        return any ? new PressureData(stalls[0], stalls[1], stalls[2], cgroupScoped) : null;
+    }
+
+    private Stall read(int index, long intervalMicros) throws IOException {
+        buffer.clear();
+        try (FileChannel channel = FileChannel.open(files[index])) {
+            int read;
+            do {
+                read = channel.read(buffer);
+            } while (read > 0 && buffer.hasRemaining());
+        }
+        byte[] data = buffer.array();
+        int length = buffer.position();
+
+        // "some avg10=1.18 avg60=10.77 avg300=14.16 total=549268843\nfull avg10=..."
+        double someAvg10 = -1;
+        double fullAvg10 = -1;
+        long someTotal = -1;
+        long fullTotal = -1;
+        int lineStart = 0;
+        while (lineStart < length) {
+            int lineEnd = lineStart;
+            while (lineEnd < length && data[lineEnd] != '\n') {
+                lineEnd++;
+            }
+            boolean some = startsWith(data, lineStart, lineEnd, "some ");
+            boolean full = startsWith(data, lineStart, lineEnd, "full ");
+            if (some || full) {
+                double avg10 = parseDecimal(data, valueStart(data, lineStart, lineEnd, "avg10="), lineEnd);
+                long total = parseLong(data, valueStart(data, lineStart, lineEnd, "total="), lineEnd);
+                if (some) {
+                    someAvg10 = avg10;
+                    someTotal = total;
+                } else {
+                    fullAvg10 = avg10;
+                    fullTotal = total;
+                }
+            }
+            lineStart = lineEnd + 1;
+        }
+        if (someTotal < 0) {
+            throw new IOException("no 'some' line");
+        }
+
+        long someDelta = delta(someTotal, previousSome, index, intervalMicros);
+        long fullDelta = fullTotal < 0 ? -1 : delta(fullTotal, previousFull, index, intervalMicros);
+        return new Stall(someAvg10, fullAvg10, someTotal, fullTotal, someDelta, fullDelta, intervalMicros);
+    }
+
+    // -1 on the first tick; clamped at 0 if the counter went backwards (cgroup recreated)
+    private static long delta(long total, long[] previous, int index, long intervalMicros) {
+        long last = previous[index];
+        previous[index] = total;
+        if (intervalMicros == 0) {
+            return -1;
+        }
+        return Math.max(0, total - last);
+    }
+
+    private static boolean startsWith(byte[] data, int from, int to, String prefix) {
+        if (to - from < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (data[from + i] != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int valueStart(byte[] data, int from, int to, String key) {
+        for (int i = from; i + key.length() <= to; i++) {
+            if (startsWith(data, i, to, key)) {
+                return i + key.length();
+            }
+        }
+        return -1;
+    }
+
+    private static long parseLong(byte[] data, int from, int to) {
+        if (from < 0) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = from; i < to && data[i] >= '0' && data[i] <= '9'; i++) {
+            value = value * 10 + (data[i] - '0');
+        }
+        return value;
+    }
+
+    // avg values always have two decimals ("12.34")
+    private static double parseDecimal(byte[] data, int from, int to) {
+        if (from < 0) {
+            return -1;
+        }
+        long value = 0;
+        long scale = 1;
+        boolean fraction = false;
+        for (int i = from; i < to; i++) {
+            byte b = data[i];
+            if (b == '.') {
+                fraction = true;
+            } else if (b >= '0' && b <= '9') {
+                value = value * 10 + (b - '0');
+                if (fraction) {
+                    scale *= 10;
+                }
+            } else {
+                break;
+            }
+        }
+        return (double) value / scale;
+    }
+
+    /**
+     * Stall figures for one resource. "some" is time at least one task was stalled, "full" time
+     * all non-idle tasks were stalled at once (absent for host-wide CPU on older kernels).
+     */
+    public static class Stall {
+        private final double someAvg10;
+        private final double fullAvg10;
+        private final long someTotalMicros;
+        private final long fullTotalMicros;
+        private final long someDeltaMicros;
+        private final long fullDeltaMicros;
+        private final long intervalMicros;
+
+        public Stall(double someAvg10, double fullAvg10, long someTotalMicros, long fullTotalMicros,
+                     long someDeltaMicros, long fullDeltaMicros, long intervalMicros) {
+            this.someAvg10 = someAvg10;
+            this.fullAvg10 = fullAvg10;
+            this.someTotalMicros = someTotalMicros;
+            this.fullTotalMicros = fullTotalMicros;
+            this.someDeltaMicros = someDeltaMicros;
+            this.fullDeltaMicros = fullDeltaMicros;
+            this.intervalMicros = intervalMicros;
+        }
+
+        /** Percent of the last 10 seconds with some tasks stalled */
+        public double getSomeAvg10() { return someAvg10; }
+        /** Percent of the last 10 seconds with all tasks stalled, or -1 if not reported */
+        public double getFullAvg10() { return fullAvg10; }
+        public long getSomeTotalMicros() { return someTotalMicros; }
+        /** -1 if not reported */
+        public long getFullTotalMicros() { return fullTotalMicros; }
+        /** Stall time since the previous tick, or -1 on the first tick */
+        public long getSomeDeltaMicros() { return someDeltaMicros; }
+        /** Stall time since the previous tick, or -1 on the first tick or if not reported */
+        public long getFullDeltaMicros() { return fullDeltaMicros; }
+        public long getIntervalMicros() { return intervalMicros; }
+
+        /**
+         * @return percent of the monitoring interval with some tasks stalled, or -1 on the first tick
+         */
+        public double getSomeIntervalPercent() {
+            return someDeltaMicros < 0 || intervalMicros <= 0 ? -1 : Math.min(100, someDeltaMicros * 100.0 / intervalMicros);
+        }
+    }
+
+    /**
+     * Pressure for one tick; a resource is {@code null} if its file couldn't be read
+     */
+    public static class PressureData {
+        private final Stall cpu;
+        private final Stall memory;
+        private final Stall io;
+        private final boolean cgroupScoped;
+
+        public PressureData(Stall cpu, Stall memory, Stall io, boolean cgroupScoped) {
+            this.cpu = cpu;
+            this.memory = memory;
+            this.io = io;
+            this.cgroupScoped = cgroupScoped;
+        }
+
+        public Stall getCpu() { return cpu; }
+        public Stall getMemory() { return memory; }
+        public Stall getIo() { return io; }
+
+        /**
+         * @return the resources that were read, keyed {@code cpu}, {@code memory}, {@code io}
+         */
+        public Map<String, Stall> getStalls() {
+            Map<String, Stall> stalls = new LinkedHashMap<>();
+            Stall[] all = {cpu, memory, io};
+            for (int i = 0; i < all.length; i++) {
+                if (all[i] != null) {
+                    stalls.put(RESOURCES[i], all[i]);
+                }
+            }
+            return stalls;
+        }
+
+        /** True if the figures are for the proxy's cgroup rather than the whole host */
+        public boolean isCgroupScoped() { return cgroupScoped; }
+    }
+}
@@ -0,0 +1,345 @@
+package net.bubblecraft.bubblelog.monitor;
+
+import com.sun.management.UnixOperatingSystemMXBean;
+import org.slf4j.Logger;
+import oshi.software.os.OSProcess;
+import oshi.software.os.OperatingSystem;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * Resources of the proxy process itself: open file descriptors against the limit, resident and
+ * proportional memory, context switches, page faults and CPU time. Running out of descriptors
+ * during a join flood takes the proxy down while heap and system figures look healthy.
+ *
+ * On Linux the figures come from {@code /proc/self}, read into one reused buffer; elsewhere
+ * from OSHI's {@link OSProcess}. Descriptor counts and CPU time come from the JVM's own
+ * {@code OperatingSystemMXBean} where it provides them. Counters are kept from the previous
+ * tick to report per-second rates.
+ */
+public class ProcessCollector {
+
+    private static final Path STATUS = Paths.get("/proc/self/status");
+    private static final Path STAT = Paths.get("/proc/self/stat");
+    private static final Path SMAPS_ROLLUP = Paths.get("/proc/self/smaps_rollup");
+    private static final Path TASKS = Paths.get("/proc/self/task");
+
+    // Counters turned into rates
+    private static final int MINOR_FAULTS = 0;
+    private static final int MAJOR_FAULTS = 1;
+    private static final int CONTEXT_SWITCHES = 2;
+    private static final int INVOLUNTARY_SWITCHES = 3;
+    private static final int COUNTERS = 4;
+    // /proc/self/stat fields counted from the one after the command name (field 3)
+    private static final int STAT_MINOR_FAULTS = 7;
+    private static final int STAT_MAJOR_FAULTS = 9;
+
+    private final Logger logger;
+    private final boolean procfs;
+    private final OSProcess process; // OSHI fallback; null with /proc/self or without OSHI
+    private final com.sun.management.OperatingSystemMXBean osBean; // null on JVMs without it
+    private ByteBuffer buffer = ByteBuffer.allocate(4096);
+    private boolean pssAvailable = true;
+
+    private long[] previous = new long[COUNTERS];
+    private long[] current = new long[COUNTERS];
+    private long previousCpuNanos = -1;
+    private long previousNanos;
+    private boolean warnedReadFailure;
+
+    // Gauges of the tick being collected
+    private long rssBytes;
+    private long pssBytes;
+    private int threads;
+
+    /**
+     * @param os OSHI's operating system, used where {@code /proc/self} isn't readable; may be {@code null}
+     */
+    public ProcessCollector(HostingEnvironment hostingEnv, OperatingSystem os, Logger logger) {
+        this.logger = logger;
+        this.procfs = hostingEnv.hasProcSelf();
+        this.process = !procfs && os != null ? os.getCurrentProcess() : null;
+        this.osBean = ManagementFactory.getOperatingSystemMXBean() instanceof com.sun.management.OperatingSystemMXBean bean
+            ? bean : null;
+        Arrays.fill(previous, -1);
+    }
+
+    /**
+     * @return this tick's figures; rates are -1 on the first tick and whatever couldn't be read is -1
+     */
+    public ProcessData collect() {
+        long now = System.nanoTime();
+        Arrays.fill(current, -1);
+        rssBytes = -1;
+        pssBytes = -1;
+        threads = -1;
+        try {
+            if (procfs) {
+                readProcfs();
+            } else if (process != null && process.updateAttributes()) {
+                readOshi();
+            }
+        } catch (IOException | RuntimeException e) {
+            if (!warnedReadFailure) {
+                warnedReadFailure = true;
+                logger.warn("Failed to read the proxy's process statistics - some will be missing: {}", e.getMessage());
+            }
+        }
+
+        long openFiles = -1;
+        long maxOpenFiles = -1;
+        if (osBean instanceof UnixOperatingSystemMXBean unixBean) {
+            openFiles = unixBean.getOpenFileDescriptorCount();
+            maxOpenFiles = unixBean.getMaxFileDescriptorCount();
+        } else if (process != null) {
+            openFiles = process.getOpenFiles();
+            maxOpenFiles = process.getSoftOpenFileLimit();
+        }
+        long cpuNanos = osBean != null ? osBean.getProcessCpuTime()
+            : process != null ? (process.getUserTime() + process.getKernelTime()) * 1_000_000 : -1;
+
+        double seconds = previousNanos == 0 ? 0 : (now - previousNanos) / 1e9;
+        double cpuPercent = seconds > 0 && cpuNanos >= 0 && previousCpuNanos >= 0
+            ? Math.max(0, cpuNanos - previousCpuNanos) / 1e7 / seconds : -1;
+        ProcessData data = new ProcessData(openFiles, maxOpenFiles, rssBytes, pssBytes, threads, cpuPercent,
+            cpuNanos < 0 ? -1 : cpuNanos / 1e9, rate(CONTEXT_SWITCHES, seconds), rate(INVOLUNTARY_SWITCHES, seconds),
+            rate(MINOR_FAULTS, seconds), rate(MAJOR_FAULTS, seconds));
+
+        long[] swap = previous;
+        previous = current;
+        current = swap;
+        previousCpuNanos = cpuNanos;
+        previousNanos = now;
+        return data;
+    }
+
+    // -1 if either tick lacks the counter; clamped at 0 if it went backwards
+    private double rate(int counter, double seconds) {
+        if (seconds <= 0 || current[counter] < 0 || previous[counter] < 0) {
+            return -1;
+        }
+        return Math.max(0, current[counter] - previous[counter]) / seconds;
+    }
+
+    private void readOshi() {
+        rssBytes = process.getResidentSetSize();
+        threads = process.getThreadCount();
+        current[MINOR_FAULTS] = process.getMinorFaults();
+        current[MAJOR_FAULTS] = process.getMajorFaults();
+        current[CONTEXT_SWITCHES] = process.getContextSwitches();
+    }
+
+    private void readProcfs() throws IOException {
+        // "VmRSS:\t  524288 kB", "Threads:\t42", ...
+        int length = read(STATUS);
+        byte[] data = buffer.array();
+        int lineStart = 0;
+        while (lineStart < length) {
+            int lineEnd = lineEnd(data, lineStart, length);
+            if (startsWith(data, lineStart, lineEnd, "VmRSS:")) {
+                rssBytes = valueOf(data, lineStart, lineEnd) * 1024;
+            } else if (startsWith(data, lineStart, lineEnd, "Threads:")) {
+                threads = (int) valueOf(data, lineStart, lineEnd);
+            }
+            lineStart = lineEnd + 1;
+        }
+        readContextSwitches();
+
+        // "1234 (java) S 1 1234 ... minflt cminflt majflt ..." - the command name may contain spaces
+        length = read(STAT);
+        data = buffer.array();
+        int position = length - 1;
+        while (position > 0 && data[position] != ')') {
+            position--;
+        }
+        position += 2;
+        for (int field = 0; position < length && field <= STAT_MAJOR_FAULTS; field++) {
+            if (field == STAT_MINOR_FAULTS) {
+                current[MINOR_FAULTS] = parseLong(data, position, length);
+            } else if (field == STAT_MAJOR_FAULTS) {
+                current[MAJOR_FAULTS] = parseLong(data, position, length);
+            }
+            while (position < length && data[position] != ' ') {
+                position++;
+            }
+            position++;
+        }
+
+        if (pssAvailable) {
+            readPss();
+        }
+    }
+
+    // The process's own status only counts its first thread, so add up every thread's; switches of
+    // threads that exited since the last tick drop out, which the rate clamps at 0
+    private void readContextSwitches() throws IOException {
+        long total = 0;
+        long involuntary = 0;
+        try (DirectoryStream<Path> tasks = Files.newDirectoryStream(TASKS)) {
+            for (Path task : tasks) {
+                int length;
+                try {
+                    length = read(task.resolve("status"));
+                } catch (NoSuchFileException e) {
+                    continue; // thread exited while listing
+                }
+                byte[] data = buffer.array();
+                int lineStart = 0;
+                while (lineStart < length) {
+                    int lineEnd = lineEnd(data, lineStart, length);
+                    if (startsWith(data, lineStart, lineEnd, "voluntary_ctxt_switches:")) {
+                        total += valueOf(data, lineStart, lineEnd);
+                    } else if (startsWith(data, lineStart, lineEnd, "nonvoluntary_ctxt_switches:")) {
+                        long forced = valueOf(data, lineStart, lineEnd);
+                        total += forced;
+                        involuntary += forced;
+                        break; // last field we need
+                    }
+                    lineStart = lineEnd + 1;
+                }
+            }
+        }
+        current[CONTEXT_SWITCHES] = total;
+        current[INVOLUNTARY_SWITCHES] = involuntary;
+    }
+
+    // Walks every mapping of the process, but in the kernel; the file is missing before Linux 4.14
+    private void readPss() {
+        try {
+            int length = read(SMAPS_ROLLUP);
+            byte[] data = buffer.array();
+            int lineStart = 0;
+            while (lineStart < length) {
+                int lineEnd = lineEnd(data, lineStart, length);
+                if (startsWith(data, lineStart, lineEnd, "Pss:")) {
+                    pssBytes = valueOf(data, lineStart, lineEnd) * 1024;
+                    return;
+                }
+                lineStart = lineEnd + 1;
+            }
+        } catch (IOException e) {
+            pssAvailable = false;
+            logger.debug("{} is unavailable - proportional memory will be missing: {}", SMAPS_ROLLUP, e.getMessage());
+        }
+    }
+
+    private int read(Path file) throws IOException {
+        buffer.clear();
+        try (FileChannel channel = FileChannel.open(file)) {
+            while (channel.read(buffer) > 0) {
+                if (!buffer.hasRemaining()) {
+                    buffer = ByteBuffer.allocate(buffer.capacity() * 2).put(buffer.flip());
+                }
+            }
+        }
+        return buffer.position();
+    }
+
+    private static int lineEnd(byte[] data, int from, int to) {
+        while (from < to && data[from] != '\n') {
+            from++;
+        }
+        return from;
+    }
+
+    private static boolean startsWith(byte[] data, int from, int to, String prefix) {
+        if (to - from < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (data[from + i] != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // The number after "Key:" and its tabs or spaces
+    private static long valueOf(byte[] data, int from, int to) {
+        while (from < to && data[from] != ':') {
+            from++;
+        }
+        from++;
+        while (from < to && (data[from] == ' ' || data[from] == '\t')) {
+            from++;
+        }
+        return parseLong(data, from, to);
+    }
+
+    private static long parseLong(byte[] data, int from, int to) {
+        long value = 0;
+        for (int i = from; i < to && data[i] >= '0' && data[i] <= '9'; i++) {
+            value = value * 10 + (data[i] - '0');
+        }
+        return value;
+    }
+
+    /**
+     * Resources of the proxy process for one tick; anything that couldn't be read is -1
+     */
+    public static class ProcessData {
+        private final long openFiles;
+        private final long maxOpenFiles;
+        private final long rssBytes;
+        private final long pssBytes;
+        private final int threads;
+        private final double cpuPercent;
+        private final double cpuSeconds;
+        private final double contextSwitchesPerSecond;
+        private final double involuntarySwitchesPerSecond;
+        private final double minorFaultsPerSecond;
+        private final double majorFaultsPerSecond;
+
+        public ProcessData(long openFiles, long maxOpenFiles, long rssBytes, long pssBytes, int threads,
+                           double cpuPercent, double cpuSeconds, double contextSwitchesPerSecond,
+                           double involuntarySwitchesPerSecond, double minorFaultsPerSecond, double majorFaultsPerSecond) {
+            this.openFiles = openFiles;
+            this.maxOpenFiles = maxOpenFiles;
+            this.rssBytes = rssBytes;
+            this.pssBytes = pssBytes;
+            this.threads = threads;
+            this.cpuPercent = cpuPercent;
+            this.cpuSeconds = cpuSeconds;
+            this.contextSwitchesPerSecond = contextSwitchesPerSecond;
+            this.involuntarySwitchesPerSecond = involuntarySwitchesPerSecond;
+            this.minorFaultsPerSecond = minorFaultsPerSecond;
+            this.majorFaultsPerSecond = majorFaultsPerSecond;
+        }
+
+        /** Open file descriptors, sockets included */
+        public long getOpenFiles() { return openFiles; }
+        /** Soft limit on open file descriptors */
+        public long getMaxOpenFiles() { return maxOpenFiles; }
+        public long getRssBytes() { return rssBytes; }
+        /** Resident memory with shared pages split between the processes sharing them (Linux 4.14+) */
+        public long getPssBytes() { return pssBytes; }
+        /** OS threads of the process, including those the JVM doesn't report */
+        public int getThreads() { return threads; }
+        /** CPU time used over the last interval; 100% is one core busy */
+        public double getCpuPercent() { return cpuPercent; }
+        /** CPU time used since the process started */
+        public double getCpuSeconds() { return cpuSeconds; }
+        public double getContextSwitchesPerSecond() { return contextSwitchesPerSecond; }
+        /** Switches forced by the scheduler rather than waits; high values mean threads compete for CPU */
+        public double getInvoluntarySwitchesPerSecond() { return involuntarySwitchesPerSecond; }
+        public double getMinorFaultsPerSecond() { return minorFaultsPerSecond; }
+        /** Faults that had to read from disk */
+        public double getMajorFaultsPerSecond() { return majorFaultsPerSecond; }
+
+        /**
+         * @return open descriptors as a percentage of the limit, or -1 if either isn't known
+         */
+        public double getFdUtilization() {
+            return openFiles < 0 || maxOpenFiles <= 0 ? -1 : openFiles * 100.0 / maxOpenFiles;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package net.bubblecraft.bubblelog.monitor;
+
+/**
+ * Receives every {@link MetricsSnapshot} published by {@link SystemMonitor}.
+ *
+ * Listeners run on the monitoring thread, so they must be quick and must not block -
+ * hand anything expensive off to another thread.
+ */
+@FunctionalInterface
+public interface SnapshotListener {
+    void onSnapshot(MetricsSnapshot snapshot);
+}
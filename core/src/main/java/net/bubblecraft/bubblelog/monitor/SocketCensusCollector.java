@@ -0,0 +1,398 @@
+package net.bubblecraft.bubblelog.monitor;
+
+import net.bubblecraft.bubblelog.platform.ProxyPlatform;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.net.Inet4Address;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Counts TCP sockets by state from {@code /proc/net/tcp} and {@code /proc/net/tcp6}: in total,
+ * for the proxy's own listening port (SYN_RECV and TIME_WAIT buildup during a connection flood)
+ * and per backend server, matched on the remote address and port of
+ * {@link ProxyPlatform.Backend#getAddress()} (port only if it doesn't resolve).
+ *
+ * {@code tcp6} is left out where IPv6 is disabled ({@code ipv6.disable=1}) and the kernel
+ * doesn't create it. The tables cover the proxy's network namespace rather than just this
+ * process. They can run to 100k lines during an attack, so they are streamed through one
+ * reused chunk and parsed in place - hex fields straight from the bytes, no per-line objects -
+ * jumping over addresses by their fixed width and searching for line ends a word at a time.
+ */
+public class SocketCensusCollector {
+
+    private static final Path TCP = Paths.get("/proc/net/tcp");
+    private static final Path TCP6 = Paths.get("/proc/net/tcp6");
+    private static final int CHUNK_BYTES = 256 * 1024;
+    // Kernel state codes start at 1; slot 0 is unused
+    private static final int STATES = TcpState.values().length + 1;
+    // "::ffff:" prefix of an IPv4-mapped address, as the kernel prints its third word
+    private static final long MAPPED_IPV4 = nativeWord(new byte[] {0, 0, (byte) 0xff, (byte) 0xff}) & 0xffffffffL;
+    // Newline search eight bytes at a time
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final long NEWLINES = 0x0a0a0a0a0a0a0a0aL;
+    private static final long LOW_BITS = 0x0101010101010101L;
+    private static final long HIGH_BITS = 0x8080808080808080L;
+
+    /**
+     * TCP states in kernel order, so {@code ordinal() + 1} is the code in the tables
+     */
+    public enum TcpState {
+        ESTABLISHED, SYN_SENT, SYN_RECV, FIN_WAIT1, FIN_WAIT2, TIME_WAIT, CLOSE, CLOSE_WAIT, LAST_ACK, LISTEN,
+        CLOSING, NEW_SYN_RECV;
+
+        public String getLabel() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private final Logger logger;
+    private final ProxyPlatform server;
+    private final Path[] tables;
+    private final byte[] chunk = new byte[CHUNK_BYTES];
+    private final ByteBuffer chunkBuffer = ByteBuffer.wrap(chunk);
+
+    private final int[] all = new int[STATES];
+    private final int[] proxy = new int[STATES];
+    private int proxyPort = -1;
+
+    // Backends as the kernel prints their address; rebuilt when the registered servers change
+    private List<ProxyPlatform.Backend> knownServers = List.of();
+    private List<InetSocketAddress> knownAddresses = List.of();
+    private String[] backendNames = new String[0];
+    private int[] backendPorts = new int[0];
+    private boolean[] backendAnyAddress = new boolean[0];
+    private long[] backendHigh = new long[0];
+    private long[] backendLow = new long[0];
+    private int[] backends = new int[0];
+
+    private boolean warnedReadFailure;
+
+    /**
+     * @param server the proxy, or {@code null} to count totals only
+     */
+    public SocketCensusCollector(ProxyPlatform server, Logger logger) {
+        this.server = server;
+        this.logger = logger;
+        if (Files.isReadable(TCP6)) {
+            this.tables = new Path[] {TCP, TCP6};
+        } else {
+            this.tables = new Path[] {TCP};
+            logger.debug("{} is missing (IPv6 disabled?) - counting IPv4 sockets only", TCP6);
+        }
+    }
+
+    /**
+     * @return this tick's counts, or {@code null} if the tables couldn't be read
+     */
+    public SocketCensus collect() {
+        long start = System.nanoTime();
+        refreshTargets();
+        Arrays.fill(all, 0);
+        Arrays.fill(proxy, 0);
+        Arrays.fill(backends, 0);
+        try {
+            for (Path table : tables) {
+                readTable(table);
+            }
+        } catch (IOException e) {
+            if (!warnedReadFailure) {
+                warnedReadFailure = true;
+                logger.warn("Failed to read the TCP socket tables - socket census will be missing: {}", e.getMessage());
+            }
+            return null;
+        }
+
+        Map<String, SocketCounts> backendCounts = new LinkedHashMap<>();
+        for (int i = 0; i < backendNames.length; i++) {
+            backendCounts.put(backendNames[i], new SocketCounts(Arrays.copyOfRange(backends, i * STATES, (i + 1) * STATES)));
+        }
+        return new SocketCensus(new SocketCounts(all.clone()), proxyPort >= 0 ? new SocketCounts(proxy.clone()) : null,
+            Collections.unmodifiableMap(backendCounts), (System.nanoTime() - start) / 1000);
+    }
+
+    private void refreshTargets() {
+        if (server == null) {
+            return;
+        }
+        InetSocketAddress bound = server.getBoundAddress();
+        proxyPort = bound != null ? bound.getPort() : -1;
+
+        List<ProxyPlatform.Backend> servers = List.copyOf(server.getBackends());
+        List<InetSocketAddress> addresses = new ArrayList<>(servers.size());
+        for (ProxyPlatform.Backend backend : servers) {
+            addresses.add(backend.getAddress());
+        }
+        if (servers.equals(knownServers) && addresses.equals(knownAddresses)) {
+            return;
+        }
+        knownServers = servers;
+        knownAddresses = addresses;
+
+        int count = servers.size();
+        backendNames = new String[count];
+        backendPorts = new int[count];
+        backendAnyAddress = new boolean[count];
+        backendHigh = new long[count];
+        backendLow = new long[count];
+        backends = new int[count * STATES];
+        for (int i = 0; i < count; i++) {
+            InetSocketAddress address = addresses.get(i);
+            backendNames[i] = servers.get(i).getName();
+            backendPorts[i] = address.getPort();
+            InetAddress resolved = address.getAddress();
+            if (resolved instanceof Inet4Address) {
+                // Compared in the IPv4-mapped form a dual-stack socket shows in tcp6
+                backendHigh[i] = 0;
+                backendLow[i] = MAPPED_IPV4 << 32 | (nativeWord(resolved.getAddress()) & 0xffffffffL);
+            } else if (resolved instanceof Inet6Address) {
+                byte[] bytes = resolved.getAddress();
+                backendHigh[i] = words(bytes, 0);
+                backendLow[i] = words(bytes, 8);
+            } else {
+                backendAnyAddress[i] = true;
+            }
+        }
+    }
+
+    private void readTable(Path table) throws IOException {
+        int carry = 0;
+        addressDigits = 0;
+        try (FileChannel channel = FileChannel.open(table)) {
+            while (true) {
+                chunkBuffer.clear().position(carry);
+                int read = channel.read(chunkBuffer);
+                if (read < 0) {
+                    return;
+                }
+                int limit = carry + read;
+                int consumed = parseLines(limit);
+                carry = limit - consumed;
+                System.arraycopy(chunk, consumed, chunk, 0, carry);
+            }
+        }
+    }
+
+    /**
+     * Count every complete line in {@code chunk[0, limit)}
+     * @return offset after the last complete line
+     */
+    private int parseLines(int limit) {
+        byte[] data = chunk;
+        int lineStart = 0;
+        int lineLength = 0;
+        while (lineStart < limit) {
+            // "   1: 0100007F:BC8F 00000000:0000 0A 00000000:00000000 00:00000000 ..." (tcp6: 32 hex digits)
+            int position = lineStart;
+            while (position < limit && data[position] == ' ') {
+                position++;
+            }
+            while (position < limit && data[position] >= '0' && data[position] <= '9') {
+                position++;
+            }
+            boolean socket = position + 2 < limit && data[position] == ':';
+            if (socket) {
+                position = parseSocket(data, position + 2, limit);
+                if (position < 0) {
+                    return lineStart;
+                }
+            }
+
+            // Most lines have the previous line's length; lines are over 140 bytes, so a newline
+            // there can't belong to a later one
+            int lineEnd = lineStart + lineLength - 1;
+            if (lineLength == 0 || lineEnd < position || lineEnd >= limit || data[lineEnd] != '\n') {
+                lineEnd = indexOfNewline(data, position, limit);
+                if (lineEnd < 0) {
+                    return lineStart;
+                }
+            }
+            if (socket) {
+                count(data);
+            }
+            lineLength = lineEnd + 1 - lineStart;
+            lineStart = lineEnd + 1;
+        }
+        return lineStart;
+    }
+
+    private static int indexOfNewline(byte[] data, int from, int limit) {
+        int i = from;
+        for (; i + Long.BYTES <= limit; i += Long.BYTES) {
+            long word = (long) LONGS.get(data, i) ^ NEWLINES;
+            long found = (word - LOW_BITS) & ~word & HIGH_BITS;
+            if (found != 0) {
+                return i + Long.numberOfTrailingZeros(found) / Byte.SIZE;
+            }
+        }
+        for (; i < limit; i++) {
+            if (data[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Hex digits of an address in the table being read: 8 in tcp, 32 in tcp6
+    private int addressDigits;
+
+    // Fields of the line being parsed, counted once the whole line is in the chunk
+    private int localPort;
+    private int remoteStart;
+    private int remoteEnd;
+    private int remotePort;
+    private int state;
+
+    /**
+     * Parse "local:port remote:port st"
+     * @return offset after the state, or -1 if the line is cut off by the end of the chunk
+     */
+    private int parseSocket(byte[] data, int position, int limit) {
+        // Local address, only its port matters
+        int colon = addressEnd(data, position, limit);
+        if (colon + 5 >= limit) {
+            return -1;
+        }
+        localPort = (int) hex(data, colon + 1, colon + 5);
+
+        remoteStart = colon + 6;
+        remoteEnd = addressEnd(data, remoteStart, limit);
+        if (remoteEnd + 8 >= limit) {
+            return -1;
+        }
+        remotePort = (int) hex(data, remoteEnd + 1, remoteEnd + 5);
+        state = (int) hex(data, remoteEnd + 6, remoteEnd + 8);
+        return remoteEnd + 8;
+    }
+
+    private void count(byte[] data) {
+        if (state <= 0 || state >= STATES) {
+            return;
+        }
+        all[state]++;
+        if (localPort == proxyPort) {
+            proxy[state]++;
+        }
+        for (int i = 0; i < backendPorts.length; i++) {
+            if (backendPorts[i] == remotePort && matchesAddress(i, data, remoteStart, remoteEnd)) {
+                backends[i * STATES + state]++;
+                return;
+            }
+        }
+    }
+
+    private int addressEnd(byte[] data, int start, int limit) {
+        int colon = start + addressDigits;
+        if (addressDigits > 0 && colon < limit && data[colon] == ':') {
+            return colon;
+        }
+        colon = start;
+        while (colon < limit && data[colon] != ':') {
+            colon++;
+        }
+        if (colon < limit) {
+            addressDigits = colon - start;
+        }
+        return colon;
+    }
+
+    private boolean matchesAddress(int backend, byte[] data, int start, int end) {
+        if (backendAnyAddress[backend]) {
+            return true;
+        }
+        if (end - start == 8) {
+            // tcp (IPv4) table
+            long word = hex(data, start, end);
+            return backendHigh[backend] == 0 && backendLow[backend] == (MAPPED_IPV4 << 32 | word);
+        }
+        return end - start == 32 && hex(data, start, start + 16) == backendHigh[backend]
+            && hex(data, start + 16, end) == backendLow[backend];
+    }
+
+    private static long hex(byte[] data, int from, int to) {
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            int b = data[i];
+            int digit = b <= '9' ? b - '0' : (b | 0x20) - 'a' + 10;
+            value = value << 4 | digit;
+        }
+        return value;
+    }
+
+    // The kernel prints each 32-bit word of an address as the integer its bytes form in memory
+    private static int nativeWord(byte[] bytes) {
+        return ByteBuffer.wrap(bytes).order(ByteOrder.nativeOrder()).getInt();
+    }
+
+    private static long words(byte[] bytes, int offset) {
+        long high = nativeWord(Arrays.copyOfRange(bytes, offset, offset + 4)) & 0xffffffffL;
+        long low = nativeWord(Arrays.copyOfRange(bytes, offset + 4, offset + 8)) & 0xffffffffL;
+        return high << 32 | low;
+    }
+
+    /**
+     * Socket counts by state
+     */
+    public static class SocketCounts {
+        private final int[] counts;
+
+        SocketCounts(int[] counts) {
+            this.counts = counts;
+        }
+
+        public int get(TcpState state) {
+            return counts[state.ordinal() + 1];
+        }
+
+        public int getTotal() {
+            int total = 0;
+            for (int count : counts) {
+                total += count;
+            }
+            return total;
+        }
+    }
+
+    /**
+     * Socket census for one tick
+     */
+    public static class SocketCensus {
+        private final SocketCounts all;
+        private final SocketCounts proxy;
+        private final Map<String, SocketCounts> backends;
+        private final long durationMicros;
+
+        public SocketCensus(SocketCounts all, SocketCounts proxy, Map<String, SocketCounts> backends, long durationMicros) {
+            this.all = all;
+            this.proxy = proxy;
+            this.backends = backends;
+            this.durationMicros = durationMicros;
+        }
+
+        /** Every TCP socket in the proxy's network namespace */
+        public SocketCounts getAll() { return all; }
+        /** Sockets on the proxy's listening port, or {@code null} if it isn't known */
+        public SocketCounts getProxy() { return proxy; }
+        /** Sockets to each registered backend server, by server name */
+        public Map<String, SocketCounts> getBackends() { return backends; }
+        /** Time taken to read and count the tables */
+        public long getDurationMicros() { return durationMicros; }
+    }
+}
@@ -2,8 +2,9 @@ package net.bubblecraft.bubblelog.monitor;
 
 import net.bubblecraft.bubblelog.config.ConfigManager;
 import net.bubblecraft.bubblelog.alert.AlertManager;
-import com.velocitypowered.api.proxy.ProxyServer;
-import com.velocitypowered.api.proxy.server.RegisteredServer;
+import net.bubblecraft.bubblelog.platform.ProxyPlatform;
+import net.bubblecraft.bubblelog.util.FramedLogWriter;
+import net.bubblecraft.bubblelog.util.LogFiles;
 import oshi.SystemInfo;
 import oshi.hardware.CentralProcessor;
 import oshi.hardware.GlobalMemory;
@@ -16,9 +17,11 @@ import org.slf4j.Logger;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.lang.management.ManagementFactory;
 import java.lang.management.MemoryMXBean;
@@ -27,8 +30,12 @@ import java.lang.management.GarbageCollectorMXBean;
 import java.lang.management.ClassLoadingMXBean;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 public class SystemMonitor {
     
@@ -39,8 +46,16 @@ public class SystemMonitor {
     private HardwareAbstractionLayer hardware;
     private OperatingSystem os;
     private final AlertManager alertManager;
-    private final ProxyServer server; // For network monitoring
+    private final ProxyPlatform server; // For network monitoring; null outside a proxy
     private final HostingEnvironment hostingEnv;
+    private final PressureCollector pressureCollector; // null where the kernel has no PSI
+    private final DiskIoCollector diskIoCollector; // null without /proc/diskstats
+    private final NetworkIoCollector networkIoCollector; // null without /proc/net/dev or OSHI
+    private final SocketCensusCollector socketCensusCollector; // null without /proc/net/tcp
+    private final ProcessCollector processCollector;
+    private CpuCollector cpuCollector; // null with JVM-only CPU monitoring
+    private final BackendProcessCollector backendProcessCollector; // null without a proxy or system access
+    private final BackendTickCollector backendTickCollector; // null without a proxy
     
     private final DateTimeFormatter dateFormatter;
     private long[] prevTicks;
@@ -61,8 +76,13 @@ public class SystemMonitor {
     
     // Performance optimization: pre-allocate StringBuilder to reduce allocations
     private final StringBuilder logBuilder = new StringBuilder(512);
+    private final FramedLogWriter logWriter;
     
-    public SystemMonitor(Path dataDirectory, Logger logger, ConfigManager config, AlertManager alertManager, ProxyServer server) {
+    // Consumers of each tick's results (status reports, exporters, ...)
+    private final List<SnapshotListener> snapshotListeners = new CopyOnWriteArrayList<>();
+    private volatile MetricsSnapshot latestSnapshot;
+    
+    public SystemMonitor(Path dataDirectory, Logger logger, ConfigManager config, AlertManager alertManager, ProxyPlatform server) {
         this.dataDirectory = dataDirectory;
         this.logger = logger;
         this.config = config;
@@ -71,6 +91,9 @@ public class SystemMonitor {
         
         // Detect hosting environment capabilities
         this.hostingEnv = new HostingEnvironment(logger);
+        this.pressureCollector = hostingEnv.canMonitorPressure() ? new PressureCollector(hostingEnv, logger) : null;
+        this.diskIoCollector = hostingEnv.canMonitorDiskIo() ? new DiskIoCollector(logger) : null;
+        this.socketCensusCollector = hostingEnv.canMonitorSockets() ? new SocketCensusCollector(server, logger) : null;
         
         // Initialize system monitoring only if we have access
         if (hostingEnv.hasSystemAccess()) {
@@ -79,9 +102,13 @@ public class SystemMonitor {
                 this.hardware = systemInfo.getHardware();
                 this.os = systemInfo.getOperatingSystem();
                 
-                // Initialize CPU monitoring
+                // Initialize CPU monitoring; the first breakdown is relative to startup
                 CentralProcessor processor = hardware.getProcessor();
                 this.prevTicks = processor.getSystemCpuLoadTicks();
+                if (hostingEnv.canMonitorCPU()) {
+                    this.cpuCollector = new CpuCollector(hostingEnv, processor, logger);
+                    cpuCollector.collect();
+                }
             } catch (Exception e) {
                 logger.warn("Failed to initialize OSHI - falling back to JVM-only monitoring", e);
                 this.systemInfo = null;
@@ -94,8 +121,16 @@ public class SystemMonitor {
             this.hardware = null;
             this.os = null;
         }
+        this.networkIoCollector = hostingEnv.hasProcNetDev() || hardware != null
+            ? new NetworkIoCollector(hostingEnv, hardware, os, logger) : null;
+        this.processCollector = new ProcessCollector(hostingEnv, os, logger);
+        this.backendProcessCollector = server != null && hostingEnv.canMonitorBackendProcesses()
+            ? new BackendProcessCollector(hostingEnv, server, os, config, logger) : null;
+        this.backendTickCollector = server != null ? new BackendTickCollector(server, config, logger) : null;
         
         this.dateFormatter = DateTimeFormatter.ofPattern(config.getDateFormat());
+        this.logWriter = new FramedLogWriter("usage log", logger, config::getLogFsyncPolicy,
+            () -> config.getLogFsyncInterval() * 1000L);
         
         // Initialize JVM monitoring components (always available)
         this.memoryBean = ManagementFactory.getMemoryMXBean();
@@ -106,6 +141,21 @@ public class SystemMonitor {
         return hostingEnv;
     }
     
+    public void addSnapshotListener(SnapshotListener listener) {
+        snapshotListeners.add(listener);
+    }
+    
+    public void removeSnapshotListener(SnapshotListener listener) {
+        snapshotListeners.remove(listener);
+    }
+    
+    /**
+     * Most recent completed monitoring tick, or {@code null} before the first one
+     */
+    public MetricsSnapshot getLatestSnapshot() {
+        return latestSnapshot;
+    }
+    
     public void logSystemUsage() {
         try {
             // Clear and reuse StringBuilder for performance
@@ -116,10 +166,19 @@ public class SystemMonitor {
             
             // CPU Usage - with error handling
             double cpuUsage = 0.0;
+            double sampledCpu = -1;
+            CpuCollector.CpuBreakdown cpuBreakdown = null;
             if (config.isCpuMonitoringEnabled()) {
                 try {
-                    cpuUsage = getCpuUsage();
+                    if (cpuCollector != null) {
+                        cpuBreakdown = cpuCollector.collect();
+                    }
+                    cpuUsage = cpuBreakdown != null ? Math.min(cpuBreakdown.getBusy() / 100, 1.0) : getCpuUsage();
+                    sampledCpu = cpuUsage;
                     logBuilder.append("CPU: ").append("%.2f%%".formatted(cpuUsage * 100));
+                    if (cpuBreakdown != null) {
+                        appendCpuBreakdown(cpuBreakdown);
+                    }
                 } catch (Exception e) {
                     logger.debug("Failed to get CPU usage", e);
                     logBuilder.append("CPU: N/A");
@@ -151,12 +210,16 @@ public class SystemMonitor {
                     memUsage = new MemoryUsage(0, 0, 0, 0.0);
                 }
             }
+            MemoryUsage sampledMemUsage = memUsage != null && memUsage.getTotal() > 0 ? memUsage : null;
             
             // Disk Usage - with error handling
+            boolean collectDiskIo = diskIoCollector != null && config.isDiskIoMonitoringEnabled();
+            List<OSFileStore> fileStores = config.isDiskMonitoringEnabled() || collectDiskIo
+                ? getFileStores() : java.util.Collections.emptyList();
             List<DiskUsage> diskUsages = java.util.Collections.emptyList();
             if (config.isDiskMonitoringEnabled()) {
                 try {
-                    diskUsages = getDiskUsage();
+                    diskUsages = getDiskUsage(fileStores);
                     if (!diskUsages.isEmpty() && logBuilder.length() > timestamp.length() + 3) {
                         logBuilder.append(" | ");
                     }
@@ -181,9 +244,33 @@ public class SystemMonitor {
                 }
             }
             
+            // Disk I/O - rates since the last tick for the devices behind the file stores above
+            List<DiskIoCollector.DiskIo> diskIo = java.util.Collections.emptyList();
+            if (collectDiskIo) {
+                try {
+                    diskIo = diskIoCollector.collect(fileStores);
+                    if (!diskIo.isEmpty() && logBuilder.length() > timestamp.length() + 3) {
+                        logBuilder.append(" | ");
+                    }
+                    for (int i = 0; i < diskIo.size(); i++) {
+                        DiskIoCollector.DiskIo disk = diskIo.get(i);
+                        if (i > 0) logBuilder.append(", ");
+                        logBuilder.append("DiskIO(").append(disk.getName()).append("): util ")
+                            .append("%.1f%%".formatted(disk.getUtilization()))
+                            .append(", await ").append("%.2fms".formatted(disk.getAwaitMs()))
+                            .append(", read ").append("%.0f/s ".formatted(disk.getReadsPerSecond()))
+                            .append(formatBytes((long) disk.getReadBytesPerSecond())).append("/s")
+                            .append(", write ").append("%.0f/s ".formatted(disk.getWritesPerSecond()))
+                            .append(formatBytes((long) disk.getWriteBytesPerSecond())).append("/s");
+                    }
+                } catch (Exception e) {
+                    logger.debug("Failed to get disk I/O", e);
+                }
+            }
+            
             // Network & Player Monitoring - with caching for performance
             NetworkData networkData = null;
-            if (config.isNetworkMonitoringEnabled()) {
+            if (server != null && config.isNetworkMonitoringEnabled()) {
                 try {
                     networkData = getNetworkData();
                     if (logBuilder.length() > timestamp.length() + 3) {
@@ -203,6 +290,65 @@ public class SystemMonitor {
                 }
             }
             
+            // Backends on this machine - their CPU and memory next to the server list
+            List<BackendProcessCollector.BackendProcess> backendProcesses = null;
+            if (backendProcessCollector != null && config.isBackendProcessMonitoringEnabled()) {
+                try {
+                    backendProcesses = backendProcessCollector.collect();
+                    appendBackendProcesses(backendProcesses, timestamp.length());
+                } catch (Exception e) {
+                    logger.debug("Failed to get backend processes", e);
+                }
+            }
+            
+            // Tick health reported by backends running the agent plugin
+            List<BackendTickCollector.BackendTick> backendTicks = null;
+            if (backendTickCollector != null && config.isBackendTickMonitoringEnabled()) {
+                try {
+                    backendTicks = backendTickCollector.collect();
+                    appendBackendTicks(backendTicks, timestamp.length());
+                } catch (Exception e) {
+                    logger.debug("Failed to get backend ticks", e);
+                }
+            }
+            
+            // Network I/O - interface throughput and TCP health since the last tick
+            NetworkIoCollector.NetworkIoData networkIo = null;
+            if (networkIoCollector != null && config.isNetworkIoMonitoringEnabled()) {
+                try {
+                    networkIo = networkIoCollector.collect();
+                    if (networkIo != null) {
+                        appendNetworkIo(networkIo, timestamp.length());
+                    }
+                } catch (Exception e) {
+                    logger.debug("Failed to get network I/O", e);
+                }
+            }
+            
+            // Socket census - connection floods show up as SYN_RECV / TIME_WAIT on the proxy port
+            SocketCensusCollector.SocketCensus sockets = null;
+            if (socketCensusCollector != null && config.isSocketMonitoringEnabled()) {
+                try {
+                    sockets = socketCensusCollector.collect();
+                    if (sockets != null) {
+                        appendSockets(sockets, timestamp.length());
+                    }
+                } catch (Exception e) {
+                    logger.debug("Failed to take the socket census", e);
+                }
+            }
+            
+            // Proxy process - descriptors, memory and scheduling beyond what the JVM reports
+            ProcessCollector.ProcessData processData = null;
+            if (config.isProcessMonitoringEnabled()) {
+                try {
+                    processData = processCollector.collect();
+                    appendProcess(processData, timestamp.length());
+                } catch (Exception e) {
+                    logger.debug("Failed to get process statistics", e);
+                }
+            }
+            
             // JVM Monitoring - lightweight essential metrics only
             JVMData jvmData = null;
             if (config.isJvmMonitoringEnabled()) {
@@ -227,7 +373,7 @@ public class SystemMonitor {
             
             // Connection Quality Monitoring - lightweight network performance metrics
             ConnectionQualityData connectionData = null;
-            if (config.isConnectionQualityMonitoringEnabled()) {
+            if (server != null && config.isConnectionQualityMonitoringEnabled()) {
                 try {
                     connectionData = getConnectionQualityData();
                     if (logBuilder.length() > timestamp.length() + 3) {
@@ -250,6 +396,25 @@ public class SystemMonitor {
                 }
             }
             
+            // Pressure stall information - skipped entirely where the kernel doesn't provide it
+            PressureCollector.PressureData pressureData = null;
+            if (pressureCollector != null && config.isPressureMonitoringEnabled()) {
+                try {
+                    pressureData = pressureCollector.collect();
+                    if (pressureData != null) {
+                        if (logBuilder.length() > timestamp.length() + 3) {
+                            logBuilder.append(" | ");
+                        }
+                        logBuilder.append("PSI:");
+                        appendPressure(" CPU ", pressureData.getCpu());
+                        appendPressure(" Memory ", pressureData.getMemory());
+                        appendPressure(" IO ", pressureData.getIo());
+                    }
+                } catch (Exception e) {
+                    logger.debug("Failed to get pressure stall information", e);
+                }
+            }
+            
             String logLine = logBuilder.toString();
             
             // Write to file - with error handling
@@ -277,18 +442,271 @@ public class SystemMonitor {
                     MemoryUsage alertMemUsage = memUsage != null ? memUsage : new MemoryUsage(0, 0, 0, 0.0);
                     
                     alertManager.checkAndSendAlerts(alertMemUsage, cpuUsage, diskUsages);
+                    if (cpuBreakdown != null) {
+                        alertManager.checkCpuBreakdownAlerts(cpuBreakdown);
+                    }
+                    if (pressureData != null) {
+                        alertManager.checkPressureAlerts(pressureData);
+                    }
+                    if (!diskIo.isEmpty()) {
+                        alertManager.checkDiskIoAlerts(diskIo);
+                    }
+                    if (networkIo != null) {
+                        alertManager.checkNetworkIoAlerts(networkIo);
+                    }
+                    if (processData != null) {
+                        alertManager.checkProcessAlerts(processData);
+                    }
                 }
             } catch (Exception e) {
                 logger.warn("Failed to check performance alerts", e);
                 // Don't let alert errors stop the monitoring
             }
             
+            publishSnapshot(MetricsSnapshot.builder(System.currentTimeMillis())
+                .cpuUsage(sampledCpu)
+                .memoryUsage(sampledMemUsage)
+                .diskUsages(diskUsages)
+                .networkData(networkData)
+                .jvmData(jvmData)
+                .connectionData(connectionData)
+                .pressureData(pressureData)
+                .diskIo(diskIo)
+                .networkIo(networkIo)
+                .sockets(sockets)
+                .process(processData)
+                .cpuBreakdown(cpuBreakdown)
+                .backendProcesses(backendProcesses)
+                .backendTicks(backendTicks)
+                .build());
+            
         } catch (Exception e) {
             logger.error("Critical error in system monitoring - monitoring will continue", e);
             // Ensure monitoring continues even if there's a critical error
         }
     }
     
+    // "Net(eth0): rx 1.20 MB/s 900 pkt/s, tx ..., drops 0.0/s, errors 0.0/s | TCP: Retrans 0.4/s (0.12%), ..."
+    private void appendNetworkIo(NetworkIoCollector.NetworkIoData networkIo, int timestampLength) {
+        List<NetworkIoCollector.InterfaceIo> interfaces = networkIo.getInterfaces();
+        for (int i = 0; i < interfaces.size(); i++) {
+            NetworkIoCollector.InterfaceIo networkInterface = interfaces.get(i);
+            if (i > 0) {
+                logBuilder.append(", ");
+            } else if (logBuilder.length() > timestampLength + 3) {
+                logBuilder.append(" | ");
+            }
+            logBuilder.append("Net(").append(networkInterface.getName()).append("): rx ")
+                .append(formatBytes((long) networkInterface.getRxBytesPerSecond())).append("/s ")
+                .append("%.0f pkt/s".formatted(networkInterface.getRxPacketsPerSecond()))
+                .append(", tx ").append(formatBytes((long) networkInterface.getTxBytesPerSecond())).append("/s ")
+                .append("%.0f pkt/s".formatted(networkInterface.getTxPacketsPerSecond()))
+                .append(", drops ").append("%.1f/s".formatted(networkInterface.getDropsPerSecond()))
+                .append(", errors ").append("%.1f/s".formatted(networkInterface.getErrorsPerSecond()));
+        }
+        NetworkIoCollector.TcpHealth tcp = networkIo.getTcp();
+        if (tcp != null) {
+            if (logBuilder.length() > timestampLength + 3) {
+                logBuilder.append(" | ");
+            }
+            logBuilder.append("TCP: Retrans ").append("%.1f/s".formatted(tcp.getRetransmitsPerSecond()));
+            if (tcp.getRetransmitPercent() >= 0) {
+                logBuilder.append(" (").append("%.2f%%".formatted(tcp.getRetransmitPercent())).append(")");
+            }
+            if (tcp.getListenOverflows() >= 0) {
+                logBuilder.append(", Listen Overflows ").append(tcp.getListenOverflows());
+            }
+            logBuilder.append(", Established ").append(tcp.getEstablished());
+        }
+    }
+    
+    // "Sockets: Estab 120, SynRecv 0, TimeWait 35, CloseWait 0, Total 160, Proxy Estab 80, Proxy SynRecv 0 | Backends: lobby 40, ..."
+    private void appendSockets(SocketCensusCollector.SocketCensus sockets, int timestampLength) {
+        if (logBuilder.length() > timestampLength + 3) {
+            logBuilder.append(" | ");
+        }
+        SocketCensusCollector.SocketCounts all = sockets.getAll();
+        logBuilder.append("Sockets: Estab ").append(all.get(SocketCensusCollector.TcpState.ESTABLISHED))
+            .append(", SynRecv ").append(all.get(SocketCensusCollector.TcpState.SYN_RECV))
+            .append(", TimeWait ").append(all.get(SocketCensusCollector.TcpState.TIME_WAIT))
+            .append(", CloseWait ").append(all.get(SocketCensusCollector.TcpState.CLOSE_WAIT))
+            .append(", Total ").append(all.getTotal());
+        SocketCensusCollector.SocketCounts proxy = sockets.getProxy();
+        if (proxy != null) {
+            logBuilder.append(", Proxy Estab ").append(proxy.get(SocketCensusCollector.TcpState.ESTABLISHED))
+                .append(", Proxy SynRecv ").append(proxy.get(SocketCensusCollector.TcpState.SYN_RECV));
+        }
+        boolean first = true;
+        for (Map.Entry<String, SocketCensusCollector.SocketCounts> backend : sockets.getBackends().entrySet()) {
+            logBuilder.append(first ? " | Backends: " : ", ").append(backend.getKey()).append(' ')
+                .append(backend.getValue().get(SocketCensusCollector.TcpState.ESTABLISHED));
+            first = false;
+        }
+    }
+    
+    // "Backend(lobby): CPU 45.0%, RSS 2.10 GB, Backend(survival): ..."
+    private void appendBackendProcesses(List<BackendProcessCollector.BackendProcess> processes, int timestampLength) {
+        for (BackendProcessCollector.BackendProcess process : processes) {
+            if (logBuilder.length() > timestampLength + 3) {
+                logBuilder.append(processes.get(0) == process ? " | " : ", ");
+            }
+            logBuilder.append("Backend(").append(process.getBackend()).append("):");
+            if (process.getCpuPercent() >= 0) {
+                logBuilder.append(" CPU ").append("%.1f%%".formatted(process.getCpuPercent())).append(',');
+            }
+            logBuilder.append(" RSS ").append(process.getRssBytes() >= 0 ? formatBytes(process.getRssBytes()) : "N/A");
+        }
+    }
+    
+    // "Tick(lobby): TPS 19.98, Min 19.50, MSPT 12.30, p95 18.20, p99 31.00, Max 48.10, Entities 1520, Chunks 880, Tick(...)..."
+    private void appendBackendTicks(List<BackendTickCollector.BackendTick> ticks, int timestampLength) {
+        for (BackendTickCollector.BackendTick tick : ticks) {
+            if (logBuilder.length() > timestampLength + 3) {
+                logBuilder.append(ticks.get(0) == tick ? " | " : ", ");
+            }
+            logBuilder.append("Tick(").append(tick.getBackend()).append("): TPS ").append("%.2f".formatted(tick.getTps()))
+                .append(", Min ").append("%.2f".formatted(tick.getMinTps()))
+                .append(", MSPT ").append("%.2f".formatted(tick.getMsptAvg()))
+                .append(", p95 ").append("%.2f".formatted(tick.getMsptP95()))
+                .append(", p99 ").append("%.2f".formatted(tick.getMsptP99()))
+                .append(", Max ").append("%.2f".formatted(tick.getMsptMax()))
+                .append(", Entities ").append(tick.getEntities())
+                .append(", Chunks ").append(tick.getChunks());
+        }
+    }
+    
+    // " (User 30.10%, System 10.20%, IOWait 1.00%, IRQ 0.50%, Steal 3.90%, Max Core 98.00% on cpu3)"
+    private void appendCpuBreakdown(CpuCollector.CpuBreakdown cpu) {
+        logBuilder.append(" (User ").append("%.2f%%".formatted(cpu.getUser()))
+            .append(", System ").append("%.2f%%".formatted(cpu.getSystem()))
+            .append(", IOWait ").append("%.2f%%".formatted(cpu.getIowait()))
+            .append(", IRQ ").append("%.2f%%".formatted(cpu.getIrq()))
+            .append(", Steal ").append("%.2f%%".formatted(cpu.getSteal()));
+        if (cpu.getBusiestCore() >= 0) {
+            logBuilder.append(", Max Core ").append("%.2f%%".formatted(cpu.getMaxCoreLoad()))
+                .append(" on cpu").append(cpu.getBusiestCore());
+        }
+        logBuilder.append(')');
+    }
+    
+    // "Process: CPU 12.3%, RSS 512.00 MB, PSS 498.00 MB, FDs 1234/65536 (1.9%), Threads 80, CtxSw 1200/s (30/s invol), Faults 10/s (0.0/s major)"
+    private void appendProcess(ProcessCollector.ProcessData process, int timestampLength) {
+        if (process.getOpenFiles() < 0 && process.getRssBytes() < 0) {
+            return; // neither /proc/self, OSHI nor the JVM could tell us anything
+        }
+        if (logBuilder.length() > timestampLength + 3) {
+            logBuilder.append(" | ");
+        }
+        logBuilder.append("Process:");
+        if (process.getCpuPercent() >= 0) {
+            logBuilder.append(" CPU ").append("%.1f%%".formatted(process.getCpuPercent())).append(',');
+        }
+        if (process.getRssBytes() >= 0) {
+            logBuilder.append(" RSS ").append(formatBytes(process.getRssBytes())).append(',');
+        }
+        if (process.getPssBytes() >= 0) {
+            logBuilder.append(" PSS ").append(formatBytes(process.getPssBytes())).append(',');
+        }
+        if (process.getOpenFiles() >= 0) {
+            logBuilder.append(" FDs ").append(process.getOpenFiles());
+            if (process.getFdUtilization() >= 0) {
+                logBuilder.append('/').append(process.getMaxOpenFiles())
+                    .append(" (").append("%.1f%%".formatted(process.getFdUtilization())).append(')');
+            }
+            logBuilder.append(',');
+        }
+        if (process.getThreads() >= 0) {
+            logBuilder.append(" Threads ").append(process.getThreads()).append(',');
+        }
+        if (process.getContextSwitchesPerSecond() >= 0) {
+            logBuilder.append(" CtxSw ").append("%.0f/s".formatted(process.getContextSwitchesPerSecond()));
+            if (process.getInvoluntarySwitchesPerSecond() >= 0) {
+                logBuilder.append(" (").append("%.0f/s".formatted(process.getInvoluntarySwitchesPerSecond())).append(" invol)");
+            }
+            logBuilder.append(',');
+        }
+        if (process.getMinorFaultsPerSecond() >= 0) {
+            logBuilder.append(" Faults ").append("%.0f/s".formatted(process.getMinorFaultsPerSecond() + process.getMajorFaultsPerSecond()))
+                .append(" (").append("%.1f/s".formatted(process.getMajorFaultsPerSecond())).append(" major),");
+        }
+        logBuilder.setLength(logBuilder.length() - 1); // trailing comma
+    }
+    
+    // "PSI: CPU 1.20%, Memory 0.00%, IO 3.40%" - the some avg10 share of each resource
+    private void appendPressure(String label, PressureCollector.Stall stall) {
+        if (stall == null) {
+            return;
+        }
+        if (logBuilder.charAt(logBuilder.length() - 1) == '%') {
+            logBuilder.append(',');
+        }
+        logBuilder.append(label).append("%.2f%%".formatted(stall.getSomeAvg10()));
+    }
+    
+    /**
+     * @return the pressure stall collector, or {@code null} if the kernel doesn't provide PSI
+     */
+    public PressureCollector getPressureCollector() {
+        return pressureCollector;
+    }
+    
+    /**
+     * @return the network I/O collector, or {@code null} without {@code /proc/net/dev} or OSHI
+     */
+    public NetworkIoCollector getNetworkIoCollector() {
+        return networkIoCollector;
+    }
+    
+    /**
+     * @return the socket census collector, or {@code null} without {@code /proc/net/tcp}
+     */
+    public SocketCensusCollector getSocketCensusCollector() {
+        return socketCensusCollector;
+    }
+    
+    /**
+     * @return the CPU breakdown collector, or {@code null} with JVM-only CPU monitoring
+     */
+    public CpuCollector getCpuCollector() {
+        return cpuCollector;
+    }
+    
+    /**
+     * @return the co-located backend collector, or {@code null} without a proxy or system access
+     */
+    public BackendProcessCollector getBackendProcessCollector() {
+        return backendProcessCollector;
+    }
+    
+    /**
+     * @return the receiver of agent tick reports, to be registered as a listener, or {@code null} without a proxy
+     */
+    public BackendTickCollector getBackendTickCollector() {
+        return backendTickCollector;
+    }
+    
+    public ProcessCollector getProcessCollector() {
+        return processCollector;
+    }
+    
+    /**
+     * @return the disk I/O collector, or {@code null} without {@code /proc/diskstats}
+     */
+    public DiskIoCollector getDiskIoCollector() {
+        return diskIoCollector;
+    }
+    
+    private void publishSnapshot(MetricsSnapshot snapshot) {
+        latestSnapshot = snapshot;
+        for (SnapshotListener listener : snapshotListeners) {
+            try {
+                listener.onSnapshot(snapshot);
+            } catch (Exception e) {
+                logger.warn("Snapshot listener {} failed", listener.getClass().getSimpleName(), e);
+            }
+        }
+    }
+    
     private double getCpuUsage() {
         // Use JVM fallback if system access is restricted
         if (!hostingEnv.canMonitorCPU() || hardware == null) {
@@ -380,7 +798,7 @@ public class SystemMonitor {
         }
     }
     
-    private List<DiskUsage> getDiskUsage() {
+    private List<OSFileStore> getFileStores() {
         // Skip disk monitoring if not available
         if (!hostingEnv.canMonitorDisk() || os == null) {
             logger.debug("Disk monitoring not available in this environment");
@@ -398,15 +816,20 @@ public class SystemMonitor {
                         return false;
                     }
                 })
-                .map(this::createDiskUsage)
-                .filter(diskUsage -> diskUsage != null) // Filter out null results
                 .toList();
         } catch (Exception e) {
-            logger.debug("Error getting disk usage", e);
+            logger.debug("Error getting file stores", e);
             return java.util.Collections.emptyList(); // Return safe default
         }
     }
     
+    private List<DiskUsage> getDiskUsage(List<OSFileStore> fileStores) {
+        return fileStores.stream()
+            .map(this::createDiskUsage)
+            .filter(diskUsage -> diskUsage != null) // Filter out null results
+            .toList();
+    }
+    
     private DiskUsage createDiskUsage(OSFileStore store) {
         try {
             long total = store.getTotalSpace();
@@ -447,22 +870,25 @@ public class SystemMonitor {
         
         try {
             int currentPlayers = server.getPlayerCount();
-            int maxPlayers = server.getConfiguration().getShowMaxPlayers();
+            int maxPlayers = server.getMaxPlayers();
             double serverUtilization = maxPlayers > 0 ? (double) currentPlayers / maxPlayers * 100 : 0.0;
             
             // Count online servers efficiently (don't ping, just check registration)
-            int totalServers = server.getAllServers().size();
+            List<? extends ProxyPlatform.Backend> backends = server.getBackends();
+            int totalServers = backends.size();
             int onlineServers = 0;
+            Map<String, Integer> backendPlayers = new LinkedHashMap<>();
             
             // Quick check without blocking pings for performance
-            for (RegisteredServer registeredServer : server.getAllServers()) {
+            for (ProxyPlatform.Backend backend : backends) {
+                backendPlayers.put(backend.getName(), backend.getPlayerCount());
                 // Consider server online if it has connected players or is responding
-                if (registeredServer.getPlayersConnected().size() > 0) {
+                if (backend.getPlayerCount() > 0) {
                     onlineServers++;
                 } else {
                     // Only ping if no players to avoid performance impact
                     try {
-                        registeredServer.ping().getNow(null); // Non-blocking check
+                        backend.ping().getNow(null); // Non-blocking check
                         onlineServers++;
                     } catch (Exception ignored) {
                         // Server likely offline, don't count it
@@ -470,7 +896,8 @@ public class SystemMonitor {
                 }
             }
             
-            cachedNetworkData = new NetworkData(currentPlayers, maxPlayers, serverUtilization, onlineServers, totalServers);
+            cachedNetworkData = new NetworkData(currentPlayers, maxPlayers, serverUtilization, onlineServers, totalServers,
+                backendPlayers);
             lastNetworkCheck = currentTime;
             
             return cachedNetworkData;
@@ -542,30 +969,27 @@ public class SystemMonitor {
             int totalChecks = 0;
             
             // Sample a few servers for connection quality (max 3 to keep it lightweight)
-            for (RegisteredServer registeredServer : server.getAllServers()) {
+            for (ProxyPlatform.Backend backend : server.getBackends()) {
                 if (totalChecks >= 3) break; // Limit checks for performance
                 totalChecks++;
                 
                 try {
                     // Quick, non-blocking ping check
                     long startTime = System.nanoTime();
-                    CompletableFuture<com.velocitypowered.api.proxy.server.ServerPing> pingFuture = 
-                        registeredServer.ping();
+                    CompletableFuture<?> pingFuture = backend.ping();
                     
                     // Wait max 1 second for ping (lightweight timeout)
-                    com.velocitypowered.api.proxy.server.ServerPing ping = pingFuture.get(1, java.util.concurrent.TimeUnit.SECONDS);
+                    pingFuture.get(1, java.util.concurrent.TimeUnit.SECONDS);
                     
-                    if (ping != null) {
-                        long endTime = System.nanoTime();
-                        double pingTime = (endTime - startTime) / 1_000_000.0; // Convert to milliseconds
-                        
-                        totalPing += pingTime;
-                        maxPing = Math.max(maxPing, pingTime);
-                        validPings++;
-                    }
+                    long endTime = System.nanoTime();
+                    double pingTime = (endTime - startTime) / 1_000_000.0; // Convert to milliseconds
+                    
+                    totalPing += pingTime;
+                    maxPing = Math.max(maxPing, pingTime);
+                    validPings++;
                 } catch (Exception e) {
                     // Ping failed or timed out - this is normal for offline servers
-                    logger.debug("Ping failed for server {}: {}", registeredServer.getServerInfo().getName(), e.getMessage());
+                    logger.debug("Ping failed for server {}: {}", backend.getName(), e.getMessage());
                 }
             }
             
@@ -603,33 +1027,16 @@ public class SystemMonitor {
     private void writeToLogFile(String logLine) throws IOException {
         Path logFile = getLogFilePath();
         
-        // Create parent directories if they don't exist
-        if (!Files.exists(logFile.getParent())) {
-            Files.createDirectories(logFile.getParent());
-        }
-        
-        // Write log entry
-        Files.write(logFile, (logLine + System.lineSeparator()).getBytes(), 
-            StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        // Write log entry - checksummed, and a torn line from a crash is repaired on open
+        logWriter.append(logFile, logLine);
         
         // Clean up old log files if needed
         cleanupOldLogFiles();
     }
     
     private Path getLogFilePath() {
-        String filename = config.getLogFileName();
-        
-        // Add date to filename if it doesn't already contain date pattern
-        if (!filename.contains("%date%")) {
-            String baseName = filename.substring(0, filename.lastIndexOf('.'));
-            String extension = filename.substring(filename.lastIndexOf('.'));
-            String date = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
-            filename = baseName + "-" + date + extension;
-        } else {
-            String date = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
-            filename = filename.replace("%date%", date);
-        }
-        
+        // Adds the date to the filename unless it already contains a %date% pattern
+        String filename = LogFiles.usageLogName(config.getLogFileName(), LocalDate.now());
         return dataDirectory.resolve("logs").resolve(filename);
     }
     
@@ -637,19 +1044,19 @@ public class SystemMonitor {
         int maxFiles = config.getMaxLogFiles();
         if (maxFiles <= 0) return;
         
-        try {
-            Path logsDir = dataDirectory.resolve("logs");
-            if (!Files.exists(logsDir)) return;
-            
-            Files.list(logsDir)
-                .filter(path -> path.getFileName().toString().endsWith(".log"))
-                .sorted((a, b) -> {
-                    try {
-                        return Files.getLastModifiedTime(b).compareTo(Files.getLastModifiedTime(a));
-                    } catch (IOException e) {
-                        return 0;
-                    }
-                })
+        Path logsDir = dataDirectory.resolve("logs");
+        if (!Files.exists(logsDir)) return;
+        
+        // Usage logs and rotated alert logs are counted separately, compressed or not
+        cleanupOldLogFiles(logsDir, LogFiles.usageLogPattern(config.getLogFileName()), maxFiles);
+        cleanupOldLogFiles(logsDir, LogFiles.alertArchivePattern(), maxFiles);
+    }
+    
+    private void cleanupOldLogFiles(Path logsDir, Pattern pattern, int maxFiles) {
+        try (Stream<Path> files = Files.list(logsDir)) {
+            files
+                .filter(path -> LogFiles.dateOf(path, pattern) != null)
+                .sorted(Comparator.comparing((Path path) -> LogFiles.dateOf(path, pattern)).reversed())
                 .skip(maxFiles)
                 .forEach(path -> {
                     try {
@@ -672,8 +1079,15 @@ public class SystemMonitor {
         return "%.2f GB".formatted(bytes / (1024.0 * 1024 * 1024));
     }
     
+    /**
+     * Writer of the usage log, for its integrity and data-loss counters
+     */
+    public FramedLogWriter getLogWriter() {
+        return logWriter;
+    }
+    
     public void shutdown() {
-        // Any cleanup needed
+        logWriter.close();
         logger.info("System monitor shutdown completed");
     }
     
@@ -726,14 +1140,21 @@ public class SystemMonitor {
         private final double serverUtilization;
         private final int onlineServers;
         private final int totalServers;
+        private final Map<String, Integer> backendPlayers;
         
         public NetworkData(int currentPlayers, int maxPlayers, double serverUtilization, 
                           int onlineServers, int totalServers) {
+            this(currentPlayers, maxPlayers, serverUtilization, onlineServers, totalServers, Map.of());
+        }
+        
+        public NetworkData(int currentPlayers, int maxPlayers, double serverUtilization,
+                          int onlineServers, int totalServers, Map<String, Integer> backendPlayers) {
             this.currentPlayers = currentPlayers;
             this.maxPlayers = maxPlayers;
             this.serverUtilization = serverUtilization;
             this.onlineServers = onlineServers;
             this.totalServers = totalServers;
+            this.backendPlayers = Collections.unmodifiableMap(backendPlayers);
         }
         
         public int getCurrentPlayers() { return currentPlayers; }
@@ -741,6 +1162,8 @@ public class SystemMonitor {
         public double getServerUtilization() { return serverUtilization; }
         public int getOnlineServers() { return onlineServers; }
         public int getTotalServers() { return totalServers; }
+        /** Players connected to each registered backend server, in registration order */
+        public Map<String, Integer> getBackendPlayers() { return backendPlayers; }
     }
     
     // Lightweight JVM monitoring data
@@ -0,0 +1,174 @@
+package net.bubblecraft.bubblelog.monitor;
+
+import org.slf4j.Logger;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Sampling profiler for the proxy JVM: captures the stacks of all runnable threads at a fixed
+ * interval for a while and writes the methods seen most often to a text report under
+ * {@code profiles/}.
+ *
+ * Sampling happens at safepoints, so the report shows where time goes in broad strokes rather
+ * than exactly. Only one run at a time; it runs on its own daemon thread.
+ */
+public class ThreadProfiler {
+
+    public static final int MAX_SECONDS = 300;
+
+    private static final long SAMPLE_INTERVAL_MS = 20;
+    private static final int MAX_STACK_DEPTH = 128;
+    private static final int TOP_METHODS = 30;
+    private static final int TOP_THREADS = 15;
+    // Native waits the JVM reports as RUNNABLE although the thread is idle
+    private static final Set<String> IDLE_FRAMES = Set.of(
+        "sun.nio.ch.EPoll.wait",
+        "sun.nio.ch.KQueue.poll",
+        "sun.nio.ch.WEPoll.wait",
+        "io.netty.channel.epoll.Native.epollWait",
+        "io.netty.channel.epoll.Native.epollWait0",
+        "io.netty.channel.epoll.Native.epollBusyWait0",
+        "io.netty.channel.kqueue.Native.keventWait",
+        "sun.nio.ch.Net.accept",
+        "sun.nio.ch.Net.poll",
+        "java.lang.ref.Reference.waitForReferencePendingList");
+    private static final DateTimeFormatter FILE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss");
+
+    private final Path outputDirectory;
+    private final Logger logger;
+    private final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+
+    private volatile Thread sampler;
+    private volatile Path lastReport;
+
+    public ThreadProfiler(Path outputDirectory, Logger logger) {
+        this.outputDirectory = outputDirectory;
+        this.logger = logger;
+    }
+
+    /**
+     * Start profiling in the background
+     * @param seconds how long to sample, capped at {@link #MAX_SECONDS}
+     * @return the report that will be written, or {@code null} if a run is already in progress
+     */
+    public synchronized Path start(int seconds) {
+        if (isRunning()) {
+            return null;
+        }
+        int duration = Math.max(1, Math.min(MAX_SECONDS, seconds));
+        Path report = outputDirectory.resolve("profile-" + LocalDateTime.now().format(FILE_TIME_FORMAT) + ".txt");
+        sampler = Thread.ofPlatform().name("BubbleLog-profiler").daemon(true).start(() -> {
+            try {
+                run(duration, report);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logger.info("Profiler run cancelled");
+            } catch (Exception e) {
+                logger.warn("Profiler run failed", e);
+            } finally {
+                sampler = null;
+            }
+        });
+        logger.info("Profiling the proxy for {} second(s), report: {}", duration, report.getFileName());
+        return report;
+    }
+
+    private void run(int seconds, Path report) throws IOException, InterruptedException {
+        Map<String, Integer> self = new HashMap<>();
+        Map<String, Integer> total = new HashMap<>();
+        Map<String, Integer> threads = new HashMap<>();
+        Set<String> seenInStack = new HashSet<>();
+        long selfId = Thread.currentThread().threadId();
+        int samples = 0;
+        long stackSamples = 0;
+
+        long end = System.nanoTime() + seconds * 1_000_000_000L;
+        while (System.nanoTime() < end) {
+            for (ThreadInfo info : threadBean.dumpAllThreads(false, false, MAX_STACK_DEPTH)) {
+                if (info == null || info.getThreadId() == selfId || info.getThreadState() != Thread.State.RUNNABLE) {
+                    continue;
+                }
+                StackTraceElement[] stack = info.getStackTrace();
+                if (stack.length == 0 || IDLE_FRAMES.contains(frame(stack[0]))) {
+                    continue;
+                }
+                stackSamples++;
+                self.merge(frame(stack[0]), 1, Integer::sum);
+                seenInStack.clear();
+                for (StackTraceElement element : stack) {
+                    // Recursive methods count once per sample
+                    String frame = frame(element);
+                    if (seenInStack.add(frame)) {
+                        total.merge(frame, 1, Integer::sum);
+                    }
+                }
+                threads.merge(threadGroup(info.getThreadName()), 1, Integer::sum);
+            }
+            samples++;
+            Thread.sleep(SAMPLE_INTERVAL_MS);
+        }
+
+        Files.createDirectories(outputDirectory);
+        try (BufferedWriter out = Files.newBufferedWriter(report)) {
+            out.write("BubbleLog profile - " + seconds + "s, " + samples + " samples every " + SAMPLE_INTERVAL_MS
+                + "ms, " + stackSamples + " runnable thread stacks\n");
+            writeTop(out, "Top methods (self - running at the top of the stack)", self, stackSamples, TOP_METHODS);
+            writeTop(out, "Top methods (total - anywhere on the stack)", total, stackSamples, TOP_METHODS);
+            writeTop(out, "Busiest threads", threads, stackSamples, TOP_THREADS);
+        }
+        lastReport = report;
+        logger.info("Profiler report written to {}", report);
+    }
+
+    private static String frame(StackTraceElement element) {
+        return element.getClassName() + "." + element.getMethodName();
+    }
+
+    // "Netty Epoll Server IO #3" and "Netty Epoll Server IO #7" are one group
+    private static String threadGroup(String name) {
+        return name.replaceAll("\\d+", "#").replaceAll("#+", "#");
+    }
+
+    private static void writeTop(BufferedWriter out, String title, Map<String, Integer> counts, long samples,
+                                 int limit) throws IOException {
+        out.write("\n" + title + ":\n");
+        List<Map.Entry<String, Integer>> sorted = new ArrayList<>(counts.entrySet());
+        sorted.sort(Map.Entry.<String, Integer>comparingByValue().reversed());
+        for (Map.Entry<String, Integer> entry : sorted.subList(0, Math.min(limit, sorted.size()))) {
+            out.write("%6.2f%%  %7d  %s%n".formatted(entry.getValue() * 100.0 / Math.max(1, samples),
+                entry.getValue(), entry.getKey()));
+        }
+    }
+
+    public boolean isRunning() {
+        return sampler != null;
+    }
+
+    /**
+     * @return the most recent finished report, or {@code null} if there is none yet
+     */
+    public Path getLastReport() {
+        return lastReport;
+    }
+
+    public void cancel() {
+        Thread current = sampler;
+        if (current != null) {
+            current.interrupt();
+        }
+    }
+}
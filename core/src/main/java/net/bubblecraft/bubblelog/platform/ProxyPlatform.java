@@ -0,0 +1,56 @@
+package net.bubblecraft.bubblelog.platform;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The proxy the monitoring core runs in: its players and registered backends.
+ *
+ * The Velocity module implements this on top of {@code ProxyServer}; benchmarks and load
+ * harnesses drive the core with their own implementation, or pass {@code null} where the
+ * core accepts it to leave out everything proxy-specific.
+ *
+ * Called from the monitoring thread, so implementations must be thread-safe and must not block.
+ */
+public interface ProxyPlatform {
+
+    int getPlayerCount();
+
+    /**
+     * Player limit shown to clients
+     */
+    int getMaxPlayers();
+
+    /**
+     * @return the address players connect to, or {@code null} if it isn't known
+     */
+    InetSocketAddress getBoundAddress();
+
+    /**
+     * @return the registered backends in registration order; the same {@link Backend} instance
+     * for a backend on every call, so collectors can tell cheaply that nothing changed
+     */
+    List<? extends Backend> getBackends();
+
+    /**
+     * One registered backend server
+     */
+    interface Backend {
+
+        /** Name the backend is registered under */
+        String getName();
+
+        /** Configured address the proxy connects to */
+        InetSocketAddress getAddress();
+
+        /** Players the proxy has connected to this backend */
+        int getPlayerCount();
+
+        /**
+         * Starts a status ping
+         * @return completes normally once the backend answered, exceptionally if it didn't
+         */
+        CompletableFuture<?> ping();
+    }
+}
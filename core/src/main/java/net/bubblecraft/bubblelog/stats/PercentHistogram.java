@@ -0,0 +1,61 @@
+package net.bubblecraft.bubblelog.stats;
+
+/**
+ * Fixed-bin histogram for values in the 0-100 range (CPU %, RAM %, ...).
+ *
+ * Recording is a single array increment, and percentiles are answered by walking the
+ * 1001 bins, so the cost is the same whether the window holds ten samples or ten thousand.
+ * Resolution is 0.1 percentage points. Histograms with the same layout can be merged.
+ */
+public class PercentHistogram {
+
+    private static final int BINS_PER_PERCENT = 10;
+    private static final int BIN_COUNT = 100 * BINS_PER_PERCENT + 1;
+
+    private final long[] bins = new long[BIN_COUNT];
+    private long count;
+
+    public void add(double percent) {
+        if (Double.isNaN(percent)) {
+            return;
+        }
+        int bin = (int) Math.round(percent * BINS_PER_PERCENT);
+        bins[Math.max(0, Math.min(BIN_COUNT - 1, bin))]++;
+        count++;
+    }
+
+    public void merge(PercentHistogram other) {
+        for (int i = 0; i < BIN_COUNT; i++) {
+            bins[i] += other.bins[i];
+        }
+        count += other.count;
+    }
+
+    /**
+     * @param quantile between 0 and 1, e.g. 0.95
+     * @return the value at that quantile, or NaN if nothing was recorded
+     */
+    public double quantile(double quantile) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        long rank = (long) Math.ceil(Math.max(0.0, Math.min(1.0, quantile)) * count);
+        long seen = 0;
+        for (int i = 0; i < BIN_COUNT; i++) {
+            seen += bins[i];
+            if (seen >= rank && seen > 0) {
+                return (double) i / BINS_PER_PERCENT;
+            }
+        }
+        return 100.0;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void reset() {
+        java.util.Arrays.fill(bins, 0);
+        count = 0;
+    }
+}
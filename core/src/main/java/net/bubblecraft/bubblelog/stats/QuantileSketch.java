@@ -0,0 +1,222 @@
+package net.bubblecraft.bubblelog.stats;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Mergeable quantile sketch with bounded relative error (the DDSketch scheme).
+ *
+ * Values are counted in logarithmically sized bins, so any quantile is reported within
+ * {@link #RELATIVE_ACCURACY} of the true value regardless of range - unlike
+ * {@link PercentHistogram}, which only covers 0-100. Sketches merge exactly by adding bin
+ * counts, which is what lets rollups of rollups keep meaningful percentiles.
+ * Not thread-safe - owners synchronize around it.
+ */
+public class QuantileSketch {
+
+    public static final double RELATIVE_ACCURACY = 0.01;
+
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+    // Anything closer to zero than this lands in the zero bin
+    private static final double MIN_INDEXABLE = 1e-9;
+
+    private final Bins positive = new Bins();
+    private final Bins negative = new Bins();
+    private long zeroCount;
+    private long count;
+
+    public void add(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return;
+        }
+        if (value > MIN_INDEXABLE) {
+            positive.add(index(value), 1);
+        } else if (value < -MIN_INDEXABLE) {
+            negative.add(index(-value), 1);
+        } else {
+            zeroCount++;
+        }
+        count++;
+    }
+
+    public void merge(QuantileSketch other) {
+        positive.merge(other.positive);
+        negative.merge(other.negative);
+        zeroCount += other.zeroCount;
+        count += other.count;
+    }
+
+    /**
+     * @param quantile between 0 and 1, e.g. 0.95
+     * @return the estimated value at that quantile, or NaN if nothing was recorded
+     */
+    public double quantile(double quantile) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        long rank = (long) (Math.max(0.0, Math.min(1.0, quantile)) * (count - 1));
+
+        // Negative bins run from the most negative value (highest index) upwards
+        long seen = 0;
+        for (int i = negative.counts.length - 1; i >= 0; i--) {
+            seen += negative.counts[i];
+            if (seen > rank) {
+                return -value(negative.offset + i);
+            }
+        }
+        seen += zeroCount;
+        if (seen > rank) {
+            return 0;
+        }
+        for (int i = 0; i < positive.counts.length; i++) {
+            seen += positive.counts[i];
+            if (seen > rank) {
+                return value(positive.offset + i);
+            }
+        }
+        return value(positive.offset + positive.counts.length - 1);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void reset() {
+        positive.clear();
+        negative.clear();
+        zeroCount = 0;
+        count = 0;
+    }
+
+    /**
+     * Compact encoding: only non-empty bins are written, as varint (index delta, count) pairs
+     */
+    public void writeTo(ByteArrayOutputStream out) {
+        writeVarLong(out, zeroCount);
+        positive.writeTo(out);
+        negative.writeTo(out);
+    }
+
+    /**
+     * Read a sketch written by {@link #writeTo}, advancing the buffer's position
+     */
+    public static QuantileSketch readFrom(ByteBuffer in) {
+        QuantileSketch sketch = new QuantileSketch();
+        sketch.zeroCount = readVarLong(in);
+        sketch.positive.readFrom(in);
+        sketch.negative.readFrom(in);
+        sketch.count = sketch.zeroCount + sketch.positive.total() + sketch.negative.total();
+        return sketch;
+    }
+
+    private static int index(double magnitude) {
+        return (int) Math.ceil(Math.log(magnitude) / LOG_GAMMA);
+    }
+
+    // Midpoint of the bin, which is what bounds the relative error
+    private static double value(int index) {
+        return 2 * Math.pow(GAMMA, index) / (GAMMA + 1);
+    }
+
+    static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    /**
+     * Dense bin counts for one sign, grown on demand around the indexes actually seen
+     */
+    private static final class Bins {
+        private static final long[] EMPTY = new long[0];
+
+        private long[] counts = EMPTY;
+        private int offset;
+
+        void add(int index, long amount) {
+            if (counts.length == 0) {
+                counts = new long[8];
+                offset = index - 4;
+            } else if (index < offset || index >= offset + counts.length) {
+                grow(index);
+            }
+            counts[index - offset] += amount;
+        }
+
+        private void grow(int index) {
+            int low = Math.min(offset, index);
+            int high = Math.max(offset + counts.length - 1, index);
+            // Leave some slack on the side that grew so a drifting value doesn't copy every time
+            int slack = Math.max(4, (high - low + 1) / 4);
+            int newOffset = index < offset ? low - slack : low;
+            long[] grown = new long[high - low + 1 + slack];
+            System.arraycopy(counts, 0, grown, offset - newOffset, counts.length);
+            counts = grown;
+            offset = newOffset;
+        }
+
+        void merge(Bins other) {
+            for (int i = 0; i < other.counts.length; i++) {
+                if (other.counts[i] != 0) {
+                    add(other.offset + i, other.counts[i]);
+                }
+            }
+        }
+
+        long total() {
+            long total = 0;
+            for (long binCount : counts) {
+                total += binCount;
+            }
+            return total;
+        }
+
+        void clear() {
+            Arrays.fill(counts, 0);
+        }
+
+        void writeTo(ByteArrayOutputStream out) {
+            int nonEmpty = 0;
+            for (long binCount : counts) {
+                if (binCount != 0) nonEmpty++;
+            }
+            writeVarLong(out, nonEmpty);
+            long previous = 0;
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] != 0) {
+                    long index = offset + i;
+                    long delta = index - previous;
+                    writeVarLong(out, (delta << 1) ^ (delta >> 63)); // zigzag
+                    writeVarLong(out, counts[i]);
+                    previous = index;
+                }
+            }
+        }
+
+        void readFrom(ByteBuffer in) {
+            long nonEmpty = readVarLong(in);
+            long index = 0;
+            for (long i = 0; i < nonEmpty; i++) {
+                long zigzag = readVarLong(in);
+                index += (zigzag >>> 1) ^ -(zigzag & 1);
+                add((int) index, readVarLong(in));
+            }
+        }
+    }
+}
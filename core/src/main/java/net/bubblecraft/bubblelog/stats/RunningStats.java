@@ -0,0 +1,72 @@
+package net.bubblecraft.bubblelog.stats;
+
+/**
+ * Constant-time min/max/sum/count/first/last accumulator for one metric over a window.
+ * Not thread-safe - owners synchronize around it.
+ */
+public class RunningStats {
+
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+    private double sum;
+    private long count;
+    private double first = Double.NaN;
+    private double last = Double.NaN;
+
+    public void add(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return;
+        }
+        if (count == 0) {
+            min = value;
+            max = value;
+            first = value;
+        } else {
+            if (value < min) min = value;
+            if (value > max) max = value;
+        }
+        sum += value;
+        last = value;
+        count++;
+    }
+
+    /**
+     * Fold another window into this one; {@code other} must cover a later time range
+     */
+    public void merge(RunningStats other) {
+        if (other.count == 0) {
+            return;
+        }
+        if (count == 0) {
+            min = other.min;
+            max = other.max;
+            first = other.first;
+        } else {
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+        }
+        sum += other.sum;
+        count += other.count;
+        last = other.last;
+    }
+
+    public void reset() {
+        min = Double.NaN;
+        max = Double.NaN;
+        sum = 0;
+        count = 0;
+        first = Double.NaN;
+        last = Double.NaN;
+    }
+
+    public double getMin() { return min; }
+    public double getMax() { return max; }
+    public double getSum() { return sum; }
+    public long getCount() { return count; }
+    public double getFirst() { return first; }
+    public double getLast() { return last; }
+
+    public double getAverage() {
+        return count > 0 ? sum / count : Double.NaN;
+    }
+}
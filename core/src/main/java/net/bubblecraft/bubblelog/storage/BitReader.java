@@ -0,0 +1,50 @@
+package net.bubblecraft.bubblelog.storage;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Reads bit strings MSB-first from a region of a buffer using absolute gets, so heap,
+ * direct and memory-mapped buffers work alike and the buffer's position is never touched
+ */
+final class BitReader {
+
+    private final ByteBuffer buffer;
+    private final int offset;
+    private final long limitBits;
+    private long bitPosition;
+
+    BitReader(ByteBuffer buffer, int offset, int length) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.limitBits = (long) length * 8;
+    }
+
+    boolean readBit() {
+        checkAvailable(1);
+        int b = buffer.get(offset + (int) (bitPosition >>> 3));
+        boolean bit = (b & (0x80 >>> (bitPosition & 7))) != 0;
+        bitPosition++;
+        return bit;
+    }
+
+    long readBits(int count) {
+        checkAvailable(count);
+        long value = 0;
+        while (count > 0) {
+            int bitOffset = (int) (bitPosition & 7);
+            int available = 8 - bitOffset;
+            int n = Math.min(available, count);
+            int b = buffer.get(offset + (int) (bitPosition >>> 3)) & 0xFF;
+            value = (value << n) | ((b >>> (available - n)) & ((1 << n) - 1));
+            bitPosition += n;
+            count -= n;
+        }
+        return value;
+    }
+
+    private void checkAvailable(int bits) {
+        if (bitPosition + bits > limitBits) {
+            throw new IllegalStateException("Read past end of block");
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package net.bubblecraft.bubblelog.storage;
+
+import java.util.Arrays;
+
+/**
+ * Appends bit strings MSB-first into a growable, reusable byte array
+ */
+final class BitWriter {
+
+    private byte[] buffer;
+    private int bitPosition;
+
+    BitWriter(int initialBytes) {
+        this.buffer = new byte[Math.max(8, initialBytes)];
+    }
+
+    void writeBit(boolean bit) {
+        ensureCapacity(1);
+        if (bit) {
+            buffer[bitPosition >>> 3] |= (byte) (0x80 >>> (bitPosition & 7));
+        }
+        bitPosition++;
+    }
+
+    /**
+     * Write the low {@code count} bits of {@code value} (0-64), most significant first
+     */
+    void writeBits(long value, int count) {
+        ensureCapacity(count);
+        while (count > 0) {
+            int bitOffset = bitPosition & 7;
+            int free = 8 - bitOffset;
+            int n = Math.min(free, count);
+            int bits = (int) ((value >>> (count - n)) & ((1 << n) - 1));
+            buffer[bitPosition >>> 3] |= (byte) (bits << (free - n));
+            bitPosition += n;
+            count -= n;
+        }
+    }
+
+    int bitLength() {
+        return bitPosition;
+    }
+
+    int byteLength() {
+        return (bitPosition + 7) >>> 3;
+    }
+
+    /** Backing array; only the first {@link #byteLength()} bytes are meaningful */
+    byte[] buffer() {
+        return buffer;
+    }
+
+    void reset() {
+        Arrays.fill(buffer, 0, byteLength(), (byte) 0);
+        bitPosition = 0;
+    }
+
+    private void ensureCapacity(int bits) {
+        int needed = (bitPosition + bits + 7) >>> 3;
+        if (needed > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, needed));
+        }
+    }
+}
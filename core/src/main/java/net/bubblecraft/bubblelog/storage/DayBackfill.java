@@ -0,0 +1,154 @@
+package net.bubblecraft.bubblelog.storage;
+
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes one complete UTC day of imported points for a series: the raw segment and every
+ * rollup tier, each built in a scratch directory and moved into place in one step. A day
+ * segment therefore either exists in full or not at all, which is what makes an interrupted
+ * import safe to run again - days (and tiers) that already exist are left untouched.
+ */
+final class DayBackfill {
+
+    private static final String SCRATCH_DIRECTORY = ".import";
+
+    private DayBackfill() {
+    }
+
+    /**
+     * @param timestamps strictly increasing epoch seconds, all within {@code day}
+     * @param writeRaw whether raw samples are wanted for this day (rollups are decided per tier)
+     * @param tiers rollup tiers to write for this day
+     * @return number of segments written (raw and tiers)
+     */
+    static int write(String name, Path seriesDirectory, long day, long[] timestamps, double[] values, int count,
+                     boolean writeRaw, List<RollupTier> tiers, Logger logger) throws IOException {
+        if (count == 0) {
+            return 0;
+        }
+        int written = 0;
+        Path scratch = seriesDirectory.resolve(SCRATCH_DIRECTORY);
+
+        if (writeRaw && !Files.exists(seriesDirectory.resolve(SegmentLog.segmentName(day)))) {
+            clearScratch(scratch, day);
+            SegmentLog log = new SegmentLog(name, scratch, logger);
+            try {
+                GorillaCodec.Encoder block = new GorillaCodec.Encoder();
+                for (int i = 0; i < count; i++) {
+                    if (block.count() >= SeriesStore.MAX_BLOCK_POINTS
+                        || (block.count() > 0 && timestamps[i] - block.firstTimestamp() >= SeriesStore.MAX_BLOCK_SECONDS)) {
+                        appendBlock(log, day, block);
+                    }
+                    block.add(timestamps[i], values[i]);
+                }
+                appendBlock(log, day, block);
+            } finally {
+                log.close();
+            }
+            moveIntoPlace(scratch, seriesDirectory, day);
+            written++;
+        }
+
+        // Each tier is built from the one below, exactly as the live rollups are
+        List<Rollup> previous = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            long start = RollupTier.MINUTE.align(timestamps[i]);
+            if (previous.isEmpty() || previous.get(previous.size() - 1).getStart() != start) {
+                previous.add(new Rollup(start));
+            }
+            previous.get(previous.size() - 1).add(values[i]);
+        }
+        for (RollupTier tier : RollupTier.values()) {
+            List<Rollup> buckets = previous;
+            if (tier != RollupTier.MINUTE) {
+                buckets = new ArrayList<>();
+                for (Rollup rollup : previous) {
+                    long start = tier.align(rollup.getStart());
+                    if (buckets.isEmpty() || buckets.get(buckets.size() - 1).getStart() != start) {
+                        buckets.add(new Rollup(start));
+                    }
+                    buckets.get(buckets.size() - 1).merge(rollup);
+                }
+            }
+            previous = buckets;
+
+            Path tierDirectory = seriesDirectory.resolve(tier.getName());
+            if (!tiers.contains(tier) || Files.exists(tierDirectory.resolve(SegmentLog.segmentName(day)))) {
+                continue;
+            }
+            Path tierScratch = scratch.resolve(tier.getName());
+            clearScratch(tierScratch, day);
+            SegmentLog log = new SegmentLog(name + "/" + tier.getName(), tierScratch, logger);
+            try {
+                for (int from = 0; from < buckets.size(); from += tier.getBlockSize()) {
+                    List<Rollup> block = buckets.subList(from, Math.min(buckets.size(), from + tier.getBlockSize()));
+                    byte[] payload = RollupCodec.encode(block);
+                    log.append(day, block.get(0).getStart(), block.get(block.size() - 1).getStart(), block.size(),
+                        payload, payload.length);
+                }
+            } finally {
+                log.close();
+            }
+            moveIntoPlace(tierScratch, tierDirectory, day);
+            written++;
+        }
+        return written;
+    }
+
+    private static void appendBlock(SegmentLog log, long day, GorillaCodec.Encoder block) throws IOException {
+        if (block.count() == 0) {
+            return;
+        }
+        log.append(day, block.firstTimestamp(), block.lastTimestamp(), block.count(), block.buffer(), block.byteLength());
+        block.reset();
+    }
+
+    // Left over from an interrupted run
+    private static void clearScratch(Path scratch, long day) throws IOException {
+        Files.deleteIfExists(scratch.resolve(SegmentLog.segmentName(day)));
+        Files.deleteIfExists(scratch.resolve(SegmentLog.indexName(day)));
+    }
+
+    /**
+     * Index first, then segment. A crash between the two leaves an index with no segment, so
+     * the day still counts as missing and the next run rebuilds both; readers never see a
+     * segment whose index doesn't match it (and would rescan it if they did).
+     */
+    private static void moveIntoPlace(Path scratch, Path target, long day) throws IOException {
+        Files.createDirectories(target);
+        String segment = SegmentLog.segmentName(day);
+        String index = SegmentLog.indexName(day);
+
+        // The rename must not become durable before the data it points to
+        force(scratch.resolve(segment));
+        force(scratch.resolve(index));
+        Files.move(scratch.resolve(index), target.resolve(index),
+            StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Files.move(scratch.resolve(segment), target.resolve(segment), StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory(target);
+    }
+
+    private static void force(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+    }
+
+    // Makes the moves themselves durable; not supported everywhere (e.g. Windows)
+    static void syncDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // The files are synced; only the rename may be lost and is redone on the next run
+        }
+    }
+}
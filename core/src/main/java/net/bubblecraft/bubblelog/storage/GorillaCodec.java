@@ -0,0 +1,186 @@
+package net.bubblecraft.bubblelog.storage;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Gorilla-style block compression for (timestamp, double) series.
+ *
+ * Timestamps are stored as delta-of-delta with variable-width buckets, so a steady
+ * monitoring interval costs one bit per point. Values are XORed with their predecessor and
+ * only the meaningful bits are written, reusing the previous leading/trailing-zero window
+ * when it fits. The first timestamp lives in the block header; the first value is written
+ * in full.
+ */
+final class GorillaCodec {
+
+    private GorillaCodec() {
+    }
+
+    /**
+     * Incremental encoder for one block. Not thread-safe.
+     */
+    static final class Encoder {
+
+        private final BitWriter out = new BitWriter(256);
+        private long firstTimestamp;
+        private long lastTimestamp;
+        private long previousDelta;
+        private long previousBits;
+        private int previousLeading = -1;
+        private int previousTrailing;
+        private int count;
+
+        /**
+         * @param timestamp epoch seconds, strictly greater than the previous one
+         */
+        void add(long timestamp, double value) {
+            long bits = Double.doubleToRawLongBits(value);
+            if (count == 0) {
+                firstTimestamp = timestamp;
+                out.writeBits(bits, 64);
+            } else {
+                long delta = timestamp - lastTimestamp;
+                writeDeltaOfDelta(delta - previousDelta);
+                previousDelta = delta;
+                writeValue(bits);
+            }
+            previousBits = bits;
+            lastTimestamp = timestamp;
+            count++;
+        }
+
+        private void writeDeltaOfDelta(long dod) {
+            if (dod == 0) {
+                out.writeBit(false);
+            } else if (dod >= -63 && dod <= 64) {
+                out.writeBits(0b10, 2);
+                out.writeBits(dod + 63, 7);
+            } else if (dod >= -255 && dod <= 256) {
+                out.writeBits(0b110, 3);
+                out.writeBits(dod + 255, 9);
+            } else if (dod >= -2047 && dod <= 2048) {
+                out.writeBits(0b1110, 4);
+                out.writeBits(dod + 2047, 12);
+            } else {
+                // Blocks never span more than a day, so this always fits in 32 bits
+                out.writeBits(0b1111, 4);
+                out.writeBits(dod, 32);
+            }
+        }
+
+        private void writeValue(long bits) {
+            long xor = bits ^ previousBits;
+            if (xor == 0) {
+                out.writeBit(false);
+                return;
+            }
+            out.writeBit(true);
+
+            int leading = Math.min(Long.numberOfLeadingZeros(xor), 31);
+            int trailing = Long.numberOfTrailingZeros(xor);
+            if (previousLeading >= 0 && leading >= previousLeading && trailing >= previousTrailing) {
+                out.writeBit(false);
+                out.writeBits(xor >>> previousTrailing, 64 - previousLeading - previousTrailing);
+            } else {
+                int significant = 64 - leading - trailing;
+                out.writeBit(true);
+                out.writeBits(leading, 5);
+                out.writeBits(significant == 64 ? 0 : significant, 6);
+                out.writeBits(xor >>> trailing, significant);
+                previousLeading = leading;
+                previousTrailing = trailing;
+            }
+        }
+
+        int count() {
+            return count;
+        }
+
+        long firstTimestamp() {
+            return firstTimestamp;
+        }
+
+        long lastTimestamp() {
+            return lastTimestamp;
+        }
+
+        byte[] buffer() {
+            return out.buffer();
+        }
+
+        int byteLength() {
+            return out.byteLength();
+        }
+
+        void reset() {
+            out.reset();
+            previousDelta = 0;
+            previousBits = 0;
+            previousLeading = -1;
+            previousTrailing = 0;
+            count = 0;
+        }
+    }
+
+    /**
+     * Decode a block, passing points within [from, to] to the consumer
+     * @return number of points decoded (including those outside the range)
+     */
+    static int decode(ByteBuffer buffer, int offset, int length, long firstTimestamp, int count,
+                      long from, long to, PointConsumer consumer) {
+        if (count <= 0) {
+            return 0;
+        }
+        BitReader in = new BitReader(buffer, offset, length);
+
+        long timestamp = firstTimestamp;
+        long bits = in.readBits(64);
+        if (timestamp >= from && timestamp <= to) {
+            consumer.accept(timestamp, Double.longBitsToDouble(bits));
+        }
+
+        long delta = 0;
+        int leading = 0;
+        int trailing = 0;
+        for (int i = 1; i < count; i++) {
+            delta += readDeltaOfDelta(in);
+            timestamp += delta;
+
+            if (in.readBit()) {
+                if (in.readBit()) {
+                    leading = (int) in.readBits(5);
+                    int significant = (int) in.readBits(6);
+                    if (significant == 0) {
+                        significant = 64;
+                    }
+                    trailing = 64 - leading - significant;
+                }
+                bits ^= in.readBits(64 - leading - trailing) << trailing;
+            }
+
+            if (timestamp > to) {
+                return i + 1;
+            }
+            if (timestamp >= from) {
+                consumer.accept(timestamp, Double.longBitsToDouble(bits));
+            }
+        }
+        return count;
+    }
+
+    private static long readDeltaOfDelta(BitReader in) {
+        if (!in.readBit()) {
+            return 0;
+        }
+        if (!in.readBit()) {
+            return in.readBits(7) - 63;
+        }
+        if (!in.readBit()) {
+            return in.readBits(9) - 255;
+        }
+        if (!in.readBit()) {
+            return in.readBits(12) - 2047;
+        }
+        return (int) in.readBits(32);
+    }
+}
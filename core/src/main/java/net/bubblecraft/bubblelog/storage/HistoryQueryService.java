@@ -0,0 +1,224 @@
+package net.bubblecraft.bubblelog.storage;
+
+import org.slf4j.Logger;
+
+import java.util.SortedSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Runs history queries off the proxy and monitoring threads.
+ *
+ * Results are streamed: bucket summaries are handed to the caller's consumer as soon as each
+ * bucket is complete, on the query thread, and the returned future completes with totals.
+ * Two low-priority daemon threads bound how much CPU concurrent queries can take.
+ *
+ * Summaries are read from the coarsest {@link RollupTier} no wider than the requested bucket,
+ * so a month-long query reads a few hundred hourly rollups instead of half a million samples.
+ * Buckets are then widened to a whole number of rollups and aligned to the tier, so every
+ * rollup lands in exactly one bucket.
+ */
+public class HistoryQueryService {
+
+    private static final int QUERY_THREADS = 2;
+
+    private final MetricStore store;
+    private final Logger logger;
+    private final ExecutorService executor;
+
+    public HistoryQueryService(MetricStore store, Logger logger) {
+        this.store = store;
+        this.logger = logger;
+        this.executor = Executors.newFixedThreadPool(QUERY_THREADS, Thread.ofPlatform()
+            .name("BubbleLog-history-", 0)
+            .daemon(true)
+            .priority(Thread.MIN_PRIORITY)
+            .factory());
+    }
+
+    /**
+     * Summarize a series over [from, to] (epoch seconds) in {@code bucketCount} equal time buckets.
+     * Empty buckets are skipped. Fails with {@link IllegalArgumentException} for an unknown series.
+     */
+    public CompletableFuture<QueryStats> query(String series, long from, long to, int bucketCount,
+                                               Consumer<Bucket> consumer) {
+        return CompletableFuture.supplyAsync(() -> {
+            long start = System.nanoTime();
+            long width = Math.max(1, (to - from + bucketCount) / Math.max(1, bucketCount));
+            RollupTier tier = RollupTier.coarsestFor(width);
+            long origin = from;
+            if (tier != null) {
+                origin = tier.align(from);
+                width = Math.ceilDiv(width, tier.getSeconds()) * tier.getSeconds();
+            }
+            BucketAggregator aggregator = new BucketAggregator(origin, width, consumer);
+            try {
+                if (tier == null) {
+                    store.query(series, from, to, aggregator);
+                } else {
+                    store.queryRollups(series, tier, origin, to, aggregator::accept);
+                }
+            } catch (IllegalArgumentException e) {
+                // Unknown series; nothing to log
+                throw e;
+            } catch (Exception e) {
+                logger.debug("History query for {} failed", series, e);
+                throw new IllegalStateException("History query failed: " + e.getMessage(), e);
+            }
+            aggregator.finish();
+            return new QueryStats(series, from, to, tier == null ? "raw" : tier.getName(), aggregator.points,
+                aggregator.records, aggregator.buckets, System.nanoTime() - start);
+        }, executor);
+    }
+
+    /**
+     * Stream every raw point of a series within [from, to] to the consumer on the query thread
+     */
+    public CompletableFuture<QueryStats> queryRaw(String series, long from, long to, PointConsumer consumer) {
+        return CompletableFuture.supplyAsync(() -> {
+            long start = System.nanoTime();
+            long[] points = new long[1];
+            try {
+                store.query(series, from, to, (timestamp, value) -> {
+                    points[0]++;
+                    consumer.accept(timestamp, value);
+                });
+            } catch (IllegalArgumentException e) {
+                // Unknown series; nothing to log
+                throw e;
+            } catch (Exception e) {
+                logger.debug("History query for {} failed", series, e);
+                throw new IllegalStateException("History query failed: " + e.getMessage(), e);
+            }
+            return new QueryStats(series, from, to, "raw", points[0], points[0], 0, System.nanoTime() - start);
+        }, executor);
+    }
+
+    public CompletableFuture<SortedSet<String>> listSeries() {
+        return CompletableFuture.supplyAsync(store::getSeriesNames, executor);
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // Points and rollups arrive in time order, so each bucket is complete once a later one shows up
+    private static final class BucketAggregator implements PointConsumer {
+        private final long from;
+        private final long width;
+        private final Consumer<Bucket> consumer;
+        private Rollup current;
+        private long points;
+        private long records;
+        private int buckets;
+
+        BucketAggregator(long from, long width, Consumer<Bucket> consumer) {
+            this.from = from;
+            this.width = width;
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void accept(long timestamp, double value) {
+            bucketFor(timestamp).add(value);
+            points++;
+            records++;
+        }
+
+        void accept(Rollup rollup) {
+            bucketFor(rollup.getStart()).merge(rollup);
+            points += rollup.getCount();
+            records++;
+        }
+
+        private Rollup bucketFor(long timestamp) {
+            long start = from + Math.max(0, Math.floorDiv(timestamp - from, width)) * width;
+            if (current == null || current.getStart() != start) {
+                finish();
+                current = new Rollup(start);
+            }
+            return current;
+        }
+
+        void finish() {
+            if (current != null && current.getCount() > 0) {
+                consumer.accept(new Bucket(current.getStart(), current.getStart() + width, current.getMin(),
+                    current.getAverage(), current.getMax(), current.getLast(), current.getQuantile(0.95),
+                    current.getCount()));
+                buckets++;
+            }
+            current = null;
+        }
+    }
+
+    public static class Bucket {
+        private final long start;
+        private final long end;
+        private final double min;
+        private final double average;
+        private final double max;
+        private final double last;
+        private final double p95;
+        private final long count;
+
+        public Bucket(long start, long end, double min, double average, double max, double last, double p95, long count) {
+            this.start = start;
+            this.end = end;
+            this.min = min;
+            this.average = average;
+            this.max = max;
+            this.last = last;
+            this.p95 = p95;
+            this.count = count;
+        }
+
+        /** Epoch seconds, inclusive */
+        public long getStart() { return start; }
+        /** Epoch seconds, exclusive */
+        public long getEnd() { return end; }
+        public double getMin() { return min; }
+        public double getAverage() { return average; }
+        public double getMax() { return max; }
+        public double getLast() { return last; }
+        /** Estimated to within {@link net.bubblecraft.bubblelog.stats.QuantileSketch#RELATIVE_ACCURACY} */
+        public double getP95() { return p95; }
+        public long getCount() { return count; }
+    }
+
+    public static class QueryStats {
+        private final String series;
+        private final long from;
+        private final long to;
+        private final String resolution;
+        private final long points;
+        private final long records;
+        private final int buckets;
+        private final long elapsedNanos;
+
+        public QueryStats(String series, long from, long to, String resolution, long points, long records,
+                          int buckets, long elapsedNanos) {
+            this.series = series;
+            this.from = from;
+            this.to = to;
+            this.resolution = resolution;
+            this.points = points;
+            this.records = records;
+            this.buckets = buckets;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public String getSeries() { return series; }
+        public long getFrom() { return from; }
+        public long getTo() { return to; }
+        /** "raw" or the rollup tier that was read */
+        public String getResolution() { return resolution; }
+        /** Samples covered */
+        public long getPoints() { return points; }
+        /** Raw points or rollup buckets actually read */
+        public long getRecords() { return records; }
+        public int getBuckets() { return buckets; }
+        public double getElapsedMillis() { return elapsedNanos / 1_000_000.0; }
+    }
+}
@@ -0,0 +1,438 @@
+package net.bubblecraft.bubblelog.storage;
+
+import net.bubblecraft.bubblelog.config.ConfigManager;
+import net.bubblecraft.bubblelog.util.LogFiles;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Backfills the metric history from existing {@code logs/system-usage-*.log} files, including
+ * ones already compressed to {@code .log.gz}.
+ *
+ * Files are parsed in parallel (one file per worker, see {@link UsageLogParser}) and consumed in
+ * date order; points are gathered per series into UTC days, and each day is written whole once
+ * no later file can add to it (see {@link DayBackfill}). A log file is recorded in the state
+ * file only after every day it touched has been written, so an interrupted import resumes by
+ * re-reading at most the files that were in flight, and never duplicates a day.
+ */
+public class LogImporter {
+
+    private final MetricStore store;
+    private final Path logDirectory;
+    private final Path stateFile;
+    private final ConfigManager config;
+    private final Logger logger;
+
+    private volatile boolean running;
+    private volatile boolean cancelled;
+    private volatile ImportProgress progress;
+
+    public LogImporter(MetricStore store, Path logDirectory, Path stateFile, ConfigManager config, Logger logger) {
+        this.store = store;
+        this.logDirectory = logDirectory;
+        this.stateFile = stateFile;
+        this.config = config;
+        this.logger = logger;
+    }
+
+    /**
+     * Start an import on a background thread, parsing with {@code threads} workers
+     * @return the running import, or {@code null} if one is already running
+     */
+    public synchronized CompletableFuture<ImportProgress> start(int threads, Consumer<ImportProgress> listener) {
+        if (running) {
+            return null;
+        }
+        running = true;
+        cancelled = false;
+        CompletableFuture<ImportProgress> result = new CompletableFuture<>();
+        Thread.ofPlatform().name("BubbleLog-import").daemon(true).priority(Thread.MIN_PRIORITY).start(() -> {
+            ImportProgress outcome = null;
+            Exception failure = null;
+            try {
+                outcome = run(Math.max(1, threads), listener);
+            } catch (Exception e) {
+                logger.warn("History import failed", e);
+                failure = e;
+            }
+            // Cleared first so a caller reacting to completion can start the next run
+            running = false;
+            if (failure == null) {
+                result.complete(outcome);
+            } else {
+                result.completeExceptionally(failure);
+            }
+        });
+        return result;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Latest progress of the running or last import, or {@code null} if none has run
+     */
+    public ImportProgress getProgress() {
+        return progress;
+    }
+
+    private ImportProgress run(int threads, Consumer<ImportProgress> listener) throws IOException {
+        long startNanos = System.nanoTime();
+        long today = day(System.currentTimeMillis() / 1000);
+        Set<String> completed = loadState();
+        List<Path> files = new ArrayList<>();
+        int skippedFiles = 0;
+        for (Path file : listLogFiles()) {
+            if (completed.contains(stateKey(file))) {
+                skippedFiles++;
+            } else {
+                files.add(file);
+            }
+        }
+
+        ImportProgress current = new ImportProgress(files.size() + skippedFiles, skippedFiles, 0, 0, 0, 0, 0, 0, false);
+        publish(current, listener);
+        if (files.isEmpty()) {
+            current = current.finish(System.nanoTime() - startNanos);
+            publish(current, listener);
+            return current;
+        }
+
+        ExecutorService workers = Executors.newFixedThreadPool(threads, Thread.ofPlatform()
+            .name("BubbleLog-import-", 0)
+            .daemon(true)
+            .priority(Thread.MIN_PRIORITY)
+            .factory());
+        ZoneId zone = ZoneId.systemDefault();
+        ThreadLocal<UsageLogParser> parsers = ThreadLocal.withInitial(() -> new UsageLogParser(config.getDateFormat(), zone));
+
+        Map<String, DayBuffer> days = new HashMap<>();
+        Deque<PendingFile> unconfirmed = new ArrayDeque<>();
+        Deque<Future<UsageLogParser.ParsedLog>> inFlight = new ArrayDeque<>();
+        long lines = 0;
+        long malformed = 0;
+        long bytes = 0;
+        long[] written = new long[2]; // points, segments
+        int done = 0;
+        int next = 0;
+
+        try {
+            while (done < files.size() && !cancelled) {
+                // Keep a bounded window of files parsing ahead so memory stays flat
+                while (next < files.size() && inFlight.size() < threads * 2) {
+                    Path file = files.get(next++);
+                    inFlight.add(workers.submit(() -> parsers.get().parse(current(file))));
+                }
+
+                Path file = files.get(done);
+                UsageLogParser.ParsedLog parsed;
+                try {
+                    parsed = inFlight.removeFirst().get();
+                } catch (ExecutionException e) {
+                    logger.warn("Skipping unreadable log file {}: {}", file.getFileName(), e.getCause().getMessage());
+                    parsed = new UsageLogParser.ParsedLog();
+                }
+                done++;
+                lines += parsed.lines;
+                malformed += parsed.malformedLines;
+                bytes += parsed.bytes;
+
+                // Files are in date order, so days before this file's first line are complete
+                if (parsed.minTimestamp != Long.MAX_VALUE) {
+                    flushDaysBefore(days, day(parsed.minTimestamp), written);
+                    confirm(unconfirmed, Math.min(today, day(parsed.minTimestamp)));
+                    for (Map.Entry<String, UsageLogParser.Points> entry : parsed.series.entrySet()) {
+                        add(days, entry.getKey(), entry.getValue(), written);
+                    }
+                }
+                unconfirmed.add(new PendingFile(file, parsed.maxTimestamp == Long.MIN_VALUE
+                    ? Long.MIN_VALUE : day(parsed.maxTimestamp)));
+
+                current = new ImportProgress(current.getFilesTotal(), skippedFiles, done, lines, malformed, bytes,
+                    written[0], written[1], false).withElapsed(System.nanoTime() - startNanos);
+                publish(current, listener);
+            }
+
+            if (!cancelled) {
+                flushDaysBefore(days, Long.MAX_VALUE, written);
+                // Files reaching into today stay unconfirmed; today is only imported once it's over
+                confirm(unconfirmed, today);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            workers.shutdownNow();
+        }
+
+        current = new ImportProgress(current.getFilesTotal(), skippedFiles, done, lines, malformed, bytes,
+            written[0], written[1], cancelled).finish(System.nanoTime() - startNanos);
+        publish(current, listener);
+        logger.info("History import {}: {} lines from {} file(s), {} points in {} day segment(s), {} lines/s",
+            cancelled ? "cancelled" : "finished", lines, done, written[0], written[1],
+            Math.round(current.getLinesPerSecond()));
+        return current;
+    }
+
+    private void publish(ImportProgress update, Consumer<ImportProgress> listener) {
+        progress = update;
+        if (listener != null) {
+            try {
+                listener.accept(update);
+            } catch (Exception e) {
+                logger.debug("Import progress listener failed", e);
+            }
+        }
+    }
+
+    private static long day(long timestamp) {
+        return Math.floorDiv(timestamp, SeriesStore.SECONDS_PER_DAY);
+    }
+
+    private void add(Map<String, DayBuffer> days, String series, UsageLogParser.Points points, long[] written)
+        throws IOException {
+        DayBuffer buffer = days.computeIfAbsent(series, name -> new DayBuffer());
+        for (int i = 0; i < points.size; i++) {
+            long timestamp = points.timestamps[i];
+            long day = day(timestamp);
+            if (buffer.day != day) {
+                if (buffer.day != Long.MIN_VALUE && day < buffer.day) {
+                    continue; // a day already written; only happens with overlapping files
+                }
+                flush(series, buffer, written);
+                buffer.day = day;
+            }
+            buffer.add(timestamp, points.values[i]);
+        }
+    }
+
+    private void flushDaysBefore(Map<String, DayBuffer> days, long day, long[] written) throws IOException {
+        for (Map.Entry<String, DayBuffer> entry : days.entrySet()) {
+            if (entry.getValue().day < day) {
+                flush(entry.getKey(), entry.getValue(), written);
+            }
+        }
+    }
+
+    private void flush(String series, DayBuffer buffer, long[] written) throws IOException {
+        if (buffer.size == 0) {
+            return;
+        }
+        int count = buffer.sortAndDeduplicate();
+        int segments = store.backfillDay(series, buffer.day, buffer.timestamps, buffer.values, count);
+        if (segments > 0) {
+            written[0] += count;
+            written[1] += segments;
+        }
+        buffer.size = 0;
+    }
+
+    // Record files whose last day is before 'day' - every day they touched has been written
+    private void confirm(Deque<PendingFile> unconfirmed, long day) throws IOException {
+        StringBuilder lines = new StringBuilder();
+        while (!unconfirmed.isEmpty() && unconfirmed.peekFirst().lastDay() < day) {
+            lines.append(stateKey(unconfirmed.removeFirst().file())).append('\n');
+        }
+        if (!lines.isEmpty()) {
+            Files.createDirectories(stateFile.getParent());
+            boolean created = !Files.exists(stateFile);
+            ByteBuffer bytes = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+            try (FileChannel channel = FileChannel.open(stateFile, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                while (bytes.hasRemaining()) {
+                    channel.write(bytes);
+                }
+                // A torn last line just doesn't match any key, so that file is re-checked next run
+                channel.force(false);
+            }
+            if (created) {
+                DayBackfill.syncDirectory(stateFile.getParent());
+            }
+        }
+    }
+
+    private Set<String> loadState() throws IOException {
+        Set<String> completed = new HashSet<>();
+        if (Files.exists(stateFile)) {
+            completed.addAll(Files.readAllLines(stateFile, StandardCharsets.UTF_8));
+        }
+        return completed;
+    }
+
+    // A file that grew since it was imported (today's log) is imported again; compressing a
+    // file keeps its key, so it isn't
+    private static String stateKey(Path file) throws IOException {
+        Path current = current(file);
+        return LogFiles.uncompressedName(current) + "\t" + LogFiles.uncompressedSize(current);
+    }
+
+    /**
+     * Usage logs matching {@code logging.filename}, compressed or not, oldest first
+     */
+    List<Path> listLogFiles() throws IOException {
+        if (!Files.isDirectory(logDirectory)) {
+            return List.of();
+        }
+        Pattern pattern = LogFiles.usageLogPattern(config.getLogFileName());
+        try (Stream<Path> files = Files.list(logDirectory)) {
+            return files
+                .filter(file -> LogFiles.dateOf(file, pattern) != null)
+                // Both forms exist for a moment while a file is being compressed
+                .filter(file -> LogFiles.isCompressed(file) || !Files.exists(LogFiles.compressedPath(file)))
+                .sorted(Comparator.comparing((Path file) -> LogFiles.dateOf(file, pattern))
+                    .thenComparing(file -> file.getFileName().toString()))
+                .toList();
+        }
+    }
+
+    // The plain file may have been compressed since it was listed
+    private static Path current(Path file) {
+        Path compressed = LogFiles.compressedPath(file);
+        if (!LogFiles.isCompressed(file) && !Files.exists(file) && Files.exists(compressed)) {
+            return compressed;
+        }
+        return file;
+    }
+
+    private record PendingFile(Path file, long lastDay) {}
+
+    /**
+     * One series' points for the UTC day being collected
+     */
+    private static final class DayBuffer {
+        long day = Long.MIN_VALUE;
+        long[] timestamps = new long[4096];
+        double[] values = new double[4096];
+        int size;
+
+        void add(long timestamp, double value) {
+            if (size == timestamps.length) {
+                timestamps = Arrays.copyOf(timestamps, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            timestamps[size] = timestamp;
+            values[size++] = value;
+        }
+
+        /**
+         * Lines are normally in order already; a DST fall-back hour or an overlapping file is not
+         * @return number of points left, strictly increasing
+         */
+        int sortAndDeduplicate() {
+            boolean sorted = true;
+            for (int i = 1; i < size && sorted; i++) {
+                sorted = timestamps[i] > timestamps[i - 1];
+            }
+            if (!sorted) {
+                Integer[] order = new Integer[size];
+                for (int i = 0; i < size; i++) {
+                    order[i] = i;
+                }
+                Arrays.sort(order, Comparator.comparingLong(i -> timestamps[i]));
+                long[] sortedTimestamps = new long[size];
+                double[] sortedValues = new double[size];
+                int count = 0;
+                for (int index : order) {
+                    if (count > 0 && sortedTimestamps[count - 1] == timestamps[index]) {
+                        continue;
+                    }
+                    sortedTimestamps[count] = timestamps[index];
+                    sortedValues[count++] = values[index];
+                }
+                timestamps = sortedTimestamps;
+                values = sortedValues;
+                size = count;
+            }
+            return size;
+        }
+    }
+
+    /**
+     * Immutable progress snapshot of an import run
+     */
+    public static class ImportProgress {
+        private final int filesTotal;
+        private final int filesSkipped;
+        private final int filesDone;
+        private final long lines;
+        private final long malformedLines;
+        private final long bytes;
+        private final long pointsWritten;
+        private final long segmentsWritten;
+        private final boolean cancelled;
+        private long elapsedNanos;
+        private boolean finished;
+
+        ImportProgress(int filesTotal, int filesSkipped, int filesDone, long lines, long malformedLines, long bytes,
+                       long pointsWritten, long segmentsWritten, boolean cancelled) {
+            this.filesTotal = filesTotal;
+            this.filesSkipped = filesSkipped;
+            this.filesDone = filesDone;
+            this.lines = lines;
+            this.malformedLines = malformedLines;
+            this.bytes = bytes;
+            this.pointsWritten = pointsWritten;
+            this.segmentsWritten = segmentsWritten;
+            this.cancelled = cancelled;
+        }
+
+        ImportProgress withElapsed(long nanos) {
+            this.elapsedNanos = nanos;
+            return this;
+        }
+
+        ImportProgress finish(long nanos) {
+            this.elapsedNanos = nanos;
+            this.finished = true;
+            return this;
+        }
+
+        public int getFilesTotal() { return filesTotal; }
+        /** Files already imported by an earlier run */
+        public int getFilesSkipped() { return filesSkipped; }
+        /** Files read in this run */
+        public int getFilesDone() { return filesDone; }
+        public long getLines() { return lines; }
+        public long getMalformedLines() { return malformedLines; }
+        public long getBytes() { return bytes; }
+        public long getPointsWritten() { return pointsWritten; }
+        public long getSegmentsWritten() { return segmentsWritten; }
+        public boolean isCancelled() { return cancelled; }
+        public boolean isFinished() { return finished; }
+        public double getElapsedSeconds() { return elapsedNanos / 1_000_000_000.0; }
+
+        public double getLinesPerSecond() {
+            return elapsedNanos > 0 ? lines / getElapsedSeconds() : 0;
+        }
+    }
+}
@@ -0,0 +1,529 @@
+package net.bubblecraft.bubblelog.storage;
+
+import net.bubblecraft.bubblelog.config.ConfigManager;
+import net.bubblecraft.bubblelog.monitor.BackendProcessCollector;
+import net.bubblecraft.bubblelog.monitor.BackendTickCollector;
+import net.bubblecraft.bubblelog.monitor.CpuCollector;
+import net.bubblecraft.bubblelog.monitor.DiskIoCollector;
+import net.bubblecraft.bubblelog.monitor.MetricsSnapshot;
+import net.bubblecraft.bubblelog.monitor.NetworkIoCollector;
+import net.bubblecraft.bubblelog.monitor.PressureCollector;
+import net.bubblecraft.bubblelog.monitor.ProcessCollector;
+import net.bubblecraft.bubblelog.monitor.SnapshotListener;
+import net.bubblecraft.bubblelog.monitor.SocketCensusCollector;
+import net.bubblecraft.bubblelog.monitor.SystemMonitor;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.SortedSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Compressed on-disk history of every published {@link MetricsSnapshot}.
+ *
+ * Each metric is its own series under {@code history/<series>/}, stored as Gorilla-encoded
+ * blocks in one segment per UTC day (see {@link SeriesStore}), with 1m/5m/1h rollups in
+ * {@code history/<series>/<tier>/} (see {@link SeriesRollups}). Each resolution has its own
+ * retention in days under {@code history.retention}.
+ *
+ * Values are snapped to a binary grid before encoding - 1/256 for percentages, whole units
+ * for counts - which keeps the XOR residuals a few bits wide while staying finer than the
+ * two decimals the text log records.
+ *
+ * The monitoring tick only queues snapshots; a background writer does all disk work (block
+ * sealing, retention and the rollup recovery of existing series at startup).
+ */
+public class MetricStore implements SnapshotListener {
+
+    public static final String CPU = "cpu";
+    public static final String CPU_IOWAIT = "cpu_iowait";
+    public static final String CPU_STEAL = "cpu_steal";
+    public static final String CPU_MAX_CORE = "cpu_max_core";
+    public static final String RAM = "ram";
+    public static final String RAM_USED_MB = "ram_used_mb";
+    public static final String PLAYERS = "players";
+    public static final String SERVERS_ONLINE = "servers_online";
+    public static final String JVM_HEAP = "jvm_heap";
+    public static final String JVM_THREADS = "jvm_threads";
+    public static final String JVM_GC_MS = "jvm_gc_ms";
+    public static final String PING_AVG_MS = "ping_avg_ms";
+    public static final String PING_MAX_MS = "ping_max_ms";
+    public static final String PSI_CPU = "psi_cpu";
+    public static final String PSI_MEMORY = "psi_memory";
+    public static final String PSI_IO = "psi_io";
+    public static final String DISK_PREFIX = "disk.";
+    public static final String DISK_UTIL_PREFIX = "disk_util.";
+    public static final String DISK_AWAIT_PREFIX = "disk_await_ms.";
+    public static final String NET_RX_PREFIX = "net_rx_bytes.";
+    public static final String NET_TX_PREFIX = "net_tx_bytes.";
+    public static final String TCP_RETRANSMITS = "tcp_retransmits";
+    public static final String TCP_LISTEN_OVERFLOWS = "tcp_listen_overflows";
+    public static final String SOCKETS_ESTABLISHED = "sockets_established";
+    public static final String SOCKETS_SYN_RECV = "sockets_syn_recv";
+    public static final String SOCKETS_TIME_WAIT = "sockets_time_wait";
+    public static final String PROXY_SYN_RECV = "proxy_syn_recv";
+    public static final String PROCESS_CPU = "process_cpu";
+    public static final String PROCESS_RSS_MB = "process_rss_mb";
+    public static final String PROCESS_FDS = "process_fds";
+    public static final String PROCESS_CONTEXT_SWITCHES = "process_context_switches";
+    public static final String BACKEND_CPU_PREFIX = "backend_cpu.";
+    public static final String BACKEND_RSS_PREFIX = "backend_rss_mb.";
+    public static final String BACKEND_TPS_PREFIX = "backend_tps.";
+    public static final String BACKEND_MSPT_PREFIX = "backend_mspt.";
+    public static final String BACKEND_MSPT_P99_PREFIX = "backend_mspt_p99.";
+
+    private static final double PERCENT_SCALE = 256;
+    private static final double PING_SCALE = 16;
+
+    // About four minutes of ticks, enough to ride out startup recovery or a slow disk
+    private static final int SNAPSHOT_QUEUE_SIZE = 256;
+    private static final long WRITER_POLL_MS = 500;
+    private static final long SHUTDOWN_WAIT_MS = 2000;
+
+    private final Path directory;
+    private final Logger logger;
+    private final ConfigManager config;
+    private final Map<String, SeriesStore> series = new ConcurrentHashMap<>();
+    private final BlockingQueue<MetricsSnapshot> pending = new ArrayBlockingQueue<>(SNAPSHOT_QUEUE_SIZE);
+    private final AtomicLong snapshotsDropped = new AtomicLong();
+
+    // Writer thread only
+    private long lastRetentionDay = Long.MIN_VALUE;
+    private boolean warnedWriteFailure;
+
+    private volatile boolean running;
+    private volatile boolean warnedQueueFull;
+    private Thread writer;
+
+    public MetricStore(Path directory, Logger logger, ConfigManager config) {
+        this.directory = directory;
+        this.logger = logger;
+        this.config = config;
+    }
+
+    /**
+     * Start the background writer; it recovers the rollups of existing series before
+     * writing the first queued snapshot
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        writer = Thread.ofPlatform().name("BubbleLog-history").daemon(true).start(this::runLoop);
+    }
+
+    @Override
+    public void onSnapshot(MetricsSnapshot snapshot) {
+        if (!running || !pending.offer(snapshot)) {
+            snapshotsDropped.incrementAndGet();
+            if (running && !warnedQueueFull) {
+                warnedQueueFull = true;
+                logger.warn("Metric history writer is falling behind - dropping snapshots");
+            }
+        }
+    }
+
+    private void runLoop() {
+        recoverExisting();
+        // Keep draining after close() so queued snapshots still reach disk
+        while (running || !pending.isEmpty()) {
+            try {
+                MetricsSnapshot snapshot = pending.poll(WRITER_POLL_MS, TimeUnit.MILLISECONDS);
+                if (snapshot != null) {
+                    write(snapshot);
+                    warnedQueueFull = false;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                logger.warn("Metric history writer error", e);
+            }
+        }
+    }
+
+    // Rollup recovery replays up to two days per series - do it now rather than on the first append
+    private void recoverExisting() {
+        long now = System.currentTimeMillis() / 1000;
+        for (String seriesName : getSeriesNames()) {
+            if (!running) {
+                return;
+            }
+            if (!isSeriesName(seriesName)) {
+                continue;
+            }
+            try {
+                getOrCreate(seriesName).recoverRollups(now);
+            } catch (IOException e) {
+                logger.warn("Failed to recover rollups for {}", seriesName, e);
+            }
+        }
+    }
+
+    private void write(MetricsSnapshot snapshot) {
+        long timestamp = snapshot.getTimestamp() / 1000;
+
+        if (snapshot.hasCpu()) {
+            record(CPU, timestamp, snapPercent(snapshot.getCpuUsage() * 100));
+        }
+
+        CpuCollector.CpuBreakdown cpu = snapshot.getCpuBreakdown();
+        if (cpu != null) {
+            record(CPU_IOWAIT, timestamp, snapPercent(cpu.getIowait()));
+            record(CPU_STEAL, timestamp, snapPercent(cpu.getSteal()));
+            if (cpu.getMaxCoreLoad() >= 0) {
+                record(CPU_MAX_CORE, timestamp, snapPercent(cpu.getMaxCoreLoad()));
+            }
+        }
+
+        SystemMonitor.MemoryUsage memory = snapshot.getMemoryUsage();
+        if (memory != null) {
+            record(RAM, timestamp, snapPercent(memory.getUsagePercent()));
+            record(RAM_USED_MB, timestamp, Math.round(memory.getUsed() / (1024.0 * 1024)));
+        }
+
+        for (SystemMonitor.DiskUsage disk : snapshot.getDiskUsages()) {
+            record(diskSeries(disk.getName()), timestamp, snapPercent(disk.getUsagePercent()));
+        }
+
+        for (DiskIoCollector.DiskIo disk : snapshot.getDiskIo()) {
+            record(deviceSeries(DISK_UTIL_PREFIX, disk.getName()), timestamp, snapPercent(disk.getUtilization()));
+            record(deviceSeries(DISK_AWAIT_PREFIX, disk.getName()), timestamp, snapPing(disk.getAwaitMs()));
+        }
+
+        NetworkIoCollector.NetworkIoData networkIo = snapshot.getNetworkIo();
+        if (networkIo != null) {
+            for (NetworkIoCollector.InterfaceIo networkInterface : networkIo.getInterfaces()) {
+                record(deviceSeries(NET_RX_PREFIX, networkInterface.getName()), timestamp, Math.round(networkInterface.getRxBytesPerSecond()));
+                record(deviceSeries(NET_TX_PREFIX, networkInterface.getName()), timestamp, Math.round(networkInterface.getTxBytesPerSecond()));
+            }
+            NetworkIoCollector.TcpHealth tcp = networkIo.getTcp();
+            if (tcp != null) {
+                record(TCP_RETRANSMITS, timestamp, snapPing(tcp.getRetransmitsPerSecond()));
+                if (tcp.getListenOverflows() >= 0) {
+                    record(TCP_LISTEN_OVERFLOWS, timestamp, tcp.getListenOverflows());
+                }
+            }
+        }
+
+        SocketCensusCollector.SocketCensus sockets = snapshot.getSockets();
+        if (sockets != null) {
+            record(SOCKETS_ESTABLISHED, timestamp, sockets.getAll().get(SocketCensusCollector.TcpState.ESTABLISHED));
+            record(SOCKETS_SYN_RECV, timestamp, sockets.getAll().get(SocketCensusCollector.TcpState.SYN_RECV));
+            record(SOCKETS_TIME_WAIT, timestamp, sockets.getAll().get(SocketCensusCollector.TcpState.TIME_WAIT));
+            if (sockets.getProxy() != null) {
+                record(PROXY_SYN_RECV, timestamp, sockets.getProxy().get(SocketCensusCollector.TcpState.SYN_RECV));
+            }
+        }
+
+        for (BackendProcessCollector.BackendProcess backend : snapshot.getBackendProcesses()) {
+            if (backend.getCpuPercent() >= 0) {
+                record(deviceSeries(BACKEND_CPU_PREFIX, backend.getBackend()), timestamp, snapPercent(backend.getCpuPercent()));
+            }
+            if (backend.getRssBytes() >= 0) {
+                record(deviceSeries(BACKEND_RSS_PREFIX, backend.getBackend()), timestamp, Math.round(backend.getRssBytes() / (1024.0 * 1024)));
+            }
+        }
+
+        for (BackendTickCollector.BackendTick tick : snapshot.getBackendTicks()) {
+            record(deviceSeries(BACKEND_TPS_PREFIX, tick.getBackend()), timestamp, snapPercent(tick.getTps()));
+            record(deviceSeries(BACKEND_MSPT_PREFIX, tick.getBackend()), timestamp, snapPing(tick.getMsptAvg()));
+            record(deviceSeries(BACKEND_MSPT_P99_PREFIX, tick.getBackend()), timestamp, snapPing(tick.getMsptP99()));
+        }
+
+        ProcessCollector.ProcessData process = snapshot.getProcess();
+        if (process != null) {
+            if (process.getCpuPercent() >= 0) {
+                record(PROCESS_CPU, timestamp, snapPercent(process.getCpuPercent()));
+            }
+            if (process.getRssBytes() >= 0) {
+                record(PROCESS_RSS_MB, timestamp, Math.round(process.getRssBytes() / (1024.0 * 1024)));
+            }
+            if (process.getOpenFiles() >= 0) {
+                record(PROCESS_FDS, timestamp, process.getOpenFiles());
+            }
+            if (process.getContextSwitchesPerSecond() >= 0) {
+                record(PROCESS_CONTEXT_SWITCHES, timestamp, Math.round(process.getContextSwitchesPerSecond()));
+            }
+        }
+
+        SystemMonitor.NetworkData network = snapshot.getNetworkData();
+        if (network != null) {
+            record(PLAYERS, timestamp, network.getCurrentPlayers());
+            record(SERVERS_ONLINE, timestamp, network.getOnlineServers());
+        }
+
+        SystemMonitor.JVMData jvm = snapshot.getJvmData();
+        if (jvm != null) {
+            record(JVM_HEAP, timestamp, snapPercent(jvm.getHeapUtilization()));
+            record(JVM_THREADS, timestamp, jvm.getThreadCount());
+            record(JVM_GC_MS, timestamp, jvm.getTotalGCTime());
+        }
+
+        SystemMonitor.ConnectionQualityData connection = snapshot.getConnectionData();
+        if (connection != null) {
+            record(PING_AVG_MS, timestamp, snapPing(connection.getAveragePing()));
+            record(PING_MAX_MS, timestamp, snapPing(connection.getMaxPing()));
+        }
+
+        PressureCollector.PressureData pressure = snapshot.getPressureData();
+        if (pressure != null) {
+            recordPressure(PSI_CPU, timestamp, pressure.getCpu());
+            recordPressure(PSI_MEMORY, timestamp, pressure.getMemory());
+            recordPressure(PSI_IO, timestamp, pressure.getIo());
+        }
+
+        long day = Math.floorDiv(timestamp, SeriesStore.SECONDS_PER_DAY);
+        if (day != lastRetentionDay) {
+            lastRetentionDay = day;
+            applyRetention(day);
+        }
+    }
+
+    private void recordPressure(String seriesName, long timestamp, PressureCollector.Stall stall) {
+        if (stall != null) {
+            record(seriesName, timestamp, snapPercent(stall.getSomeAvg10()));
+        }
+    }
+
+    /**
+     * Append one point to a series, creating it on first use. Does disk I/O on the calling thread.
+     * @param timestamp epoch seconds
+     */
+    public void record(String seriesName, long timestamp, double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return;
+        }
+        try {
+            getOrCreate(seriesName).append(timestamp, value);
+            warnedWriteFailure = false;
+        } catch (IOException e) {
+            if (!warnedWriteFailure) {
+                warnedWriteFailure = true;
+                logger.warn("Failed to write metric history for {} - will keep retrying", seriesName, e);
+            }
+        }
+    }
+
+    /**
+     * Stream the points of one series within [from, to] (epoch seconds) in timestamp order
+     * @throws IllegalArgumentException if there is no such series
+     */
+    public void query(String seriesName, long from, long to, PointConsumer consumer) throws IOException {
+        existing(seriesName).query(from, to, consumer);
+    }
+
+    /**
+     * Stream the rollup buckets of one series and tier that start within [from, to], oldest first
+     * @throws IllegalArgumentException if there is no such series
+     */
+    public void queryRollups(String seriesName, RollupTier tier, long from, long to,
+                             Consumer<Rollup> consumer) throws IOException {
+        existing(seriesName).queryRollups(tier, from, to, consumer);
+    }
+
+    /**
+     * Names of every series that has data on disk or in memory
+     */
+    public SortedSet<String> getSeriesNames() {
+        SortedSet<String> names = new TreeSet<>(series.keySet());
+        if (Files.isDirectory(directory)) {
+            try (Stream<Path> dirs = Files.list(directory)) {
+                dirs.filter(Files::isDirectory).forEach(dir -> names.add(dir.getFileName().toString()));
+            } catch (IOException e) {
+                logger.debug("Failed to list history series", e);
+            }
+        }
+        return names;
+    }
+
+    public long getPointsWritten() {
+        return series.values().stream().mapToLong(SeriesStore::getPointsWritten).sum();
+    }
+
+    public long getBytesWritten() {
+        return series.values().stream().mapToLong(SeriesStore::getBytesWritten).sum();
+    }
+
+    public long getSnapshotsDropped() {
+        return snapshotsDropped.get();
+    }
+
+    public long getRollupBytesWritten() {
+        return series.values().stream().mapToLong(SeriesStore::getRollupBytesWritten).sum();
+    }
+
+    public static String diskSeries(String diskName) {
+        return deviceSeries(DISK_PREFIX, diskName);
+    }
+
+    /**
+     * Series name for a per-disk or per-interface metric
+     * @param prefix one of the {@code _PREFIX} constants
+     */
+    public static String deviceSeries(String prefix, String name) {
+        String sanitized = name.replaceAll("[^A-Za-z0-9]+", "_").replaceAll("^_+|_+$", "").toLowerCase();
+        return prefix + (sanitized.isEmpty() ? "root" : sanitized);
+    }
+
+    // Query names come from commands and JMX; they must name a series directory directly under ours
+    private SeriesStore existing(String seriesName) {
+        SeriesStore store = series.get(seriesName);
+        if (store != null) {
+            return store;
+        }
+        if (!isSeriesName(seriesName) || !Files.isDirectory(directory.resolve(seriesName))) {
+            throw new IllegalArgumentException("Unknown metric '" + seriesName + "'");
+        }
+        return getOrCreate(seriesName);
+    }
+
+    static boolean isSeriesName(String name) {
+        // "." resolves to the history directory itself
+        return !name.isEmpty() && !name.contains("..") && !name.chars().allMatch(c -> c == '.')
+            && name.indexOf('/') < 0 && name.indexOf('\\') < 0 && name.indexOf(':') < 0 && name.indexOf('\0') < 0;
+    }
+
+    private SeriesStore getOrCreate(String seriesName) {
+        return series.computeIfAbsent(seriesName, name -> new SeriesStore(name, directory.resolve(name), logger));
+    }
+
+    static double snapPercent(double percent) {
+        return Math.round(percent * PERCENT_SCALE) / PERCENT_SCALE;
+    }
+
+    static double snapPing(double millis) {
+        return Math.round(millis * PING_SCALE) / PING_SCALE;
+    }
+
+    /**
+     * Store one complete past UTC day of a series at every resolution whose retention still
+     * covers it and that has no data for that day yet. Used by the log importer; the day must
+     * be before today so it can't collide with live writes.
+     * @param timestamps strictly increasing epoch seconds within {@code day}
+     * @return number of day segments written (raw and rollup tiers)
+     */
+    public int backfillDay(String seriesName, long day, long[] timestamps, double[] values, int count)
+        throws IOException {
+        long today = Math.floorDiv(System.currentTimeMillis() / 1000, SeriesStore.SECONDS_PER_DAY);
+        if (day >= today) {
+            return 0;
+        }
+        List<RollupTier> tiers = new ArrayList<>();
+        for (RollupTier tier : RollupTier.values()) {
+            if (isRetained(day, today, getRetentionDays(tier))) {
+                tiers.add(tier);
+            }
+        }
+        boolean raw = isRetained(day, today, config.getHistoryRawRetentionDays());
+        if (!raw && tiers.isEmpty()) {
+            return 0;
+        }
+        return DayBackfill.write(seriesName, directory.resolve(seriesName), day, timestamps, values, count,
+            raw, tiers, logger);
+    }
+
+    private static boolean isRetained(long day, long today, int retentionDays) {
+        return retentionDays <= 0 || day > today - retentionDays;
+    }
+
+    /**
+     * Delete day segments older than each resolution's retention (0 keeps everything)
+     */
+    public void applyRetention(long today) {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (Stream<Path> dirs = Files.list(directory)) {
+            for (Path seriesDir : dirs.filter(Files::isDirectory).toList()) {
+                deleteExpired(seriesDir, today, config.getHistoryRawRetentionDays());
+                for (RollupTier tier : RollupTier.values()) {
+                    deleteExpired(seriesDir.resolve(tier.getName()), today, getRetentionDays(tier));
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to apply history retention", e);
+        }
+    }
+
+    private int getRetentionDays(RollupTier tier) {
+        return switch (tier) {
+            case MINUTE -> config.getHistoryMinuteRetentionDays();
+            case FIVE_MINUTES -> config.getHistoryFiveMinuteRetentionDays();
+            case HOUR -> config.getHistoryHourRetentionDays();
+        };
+    }
+
+    private void deleteExpired(Path dir, long today, int maxDays) throws IOException {
+        if (maxDays <= 0 || !Files.isDirectory(dir)) {
+            return;
+        }
+        String cutoff = LocalDate.ofEpochDay(today - maxDays + 1).toString();
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : files.filter(Files::isRegularFile).toList()) {
+                String fileName = file.getFileName().toString();
+                // Segment names are ISO dates, so string order is date order
+                if (fileName.length() >= 10 && fileName.substring(0, 10).compareTo(cutoff) < 0) {
+                    Files.deleteIfExists(file);
+                    logger.debug("Deleted expired history file: {}", directory.relativize(file));
+                }
+            }
+        }
+    }
+
+    /**
+     * Write every open raw block and queued rollup block to disk
+     */
+    public void flush() {
+        for (SeriesStore store : series.values()) {
+            try {
+                store.flush();
+            } catch (IOException e) {
+                logger.warn("Failed to flush history for {}", store.getName(), e);
+            }
+        }
+    }
+
+    public void close() {
+        Thread current;
+        synchronized (this) {
+            running = false;
+            current = writer;
+            writer = null;
+        }
+        if (current != null) {
+            try {
+                // Not interrupted: that would close the FileChannel under a write in progress
+                current.join(SHUTDOWN_WAIT_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (current.isAlive()) {
+                logger.warn("Metric history writer did not finish in time - {} snapshot(s) not written", pending.size());
+            }
+        }
+        for (SeriesStore store : series.values()) {
+            try {
+                store.close();
+            } catch (IOException e) {
+                logger.warn("Failed to flush history for {}", store.getName(), e);
+            }
+        }
+        logger.debug("Metric history closed ({} points, {} bytes written this session)",
+            getPointsWritten(), getBytesWritten());
+    }
+}
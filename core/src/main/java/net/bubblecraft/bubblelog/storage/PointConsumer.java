@@ -0,0 +1,12 @@
+package net.bubblecraft.bubblelog.storage;
+
+/**
+ * Receives decoded data points in timestamp order
+ */
+@FunctionalInterface
+public interface PointConsumer {
+    /**
+     * @param timestamp epoch seconds
+     */
+    void accept(long timestamp, double value);
+}
@@ -0,0 +1,96 @@
+package net.bubblecraft.bubblelog.storage;
+
+import net.bubblecraft.bubblelog.stats.QuantileSketch;
+
+/**
+ * Summary of one metric over one time bucket: min/max/sum/count/last plus a quantile sketch.
+ * Rollups of adjacent buckets merge exactly (up to the sketch's relative error), which is
+ * how coarser tiers are built from finer ones. Not thread-safe.
+ */
+public final class Rollup {
+
+    private final long start;
+    private long count;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+    private double sum;
+    private double last = Double.NaN;
+    private final QuantileSketch sketch;
+
+    public Rollup(long start) {
+        this.start = start;
+        this.sketch = new QuantileSketch();
+    }
+
+    Rollup(long start, long count, double min, double max, double sum, double last, QuantileSketch sketch) {
+        this.start = start;
+        this.count = count;
+        this.min = min;
+        this.max = max;
+        this.sum = sum;
+        this.last = last;
+        this.sketch = sketch;
+    }
+
+    public void add(double value) {
+        if (count == 0) {
+            min = value;
+            max = value;
+        } else {
+            if (value < min) min = value;
+            if (value > max) max = value;
+        }
+        sum += value;
+        last = value;
+        count++;
+        sketch.add(value);
+    }
+
+    /**
+     * Fold in a bucket that covers a later (or the same) time range
+     */
+    public void merge(Rollup other) {
+        if (other.count == 0) {
+            return;
+        }
+        if (count == 0) {
+            min = other.min;
+            max = other.max;
+        } else {
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+        }
+        sum += other.sum;
+        count += other.count;
+        last = other.last;
+        sketch.merge(other.sketch);
+    }
+
+    Rollup copy() {
+        Rollup copy = new Rollup(start);
+        copy.merge(this);
+        return copy;
+    }
+
+    /** Bucket start, epoch seconds */
+    public long getStart() { return start; }
+    public long getCount() { return count; }
+    public double getMin() { return min; }
+    public double getMax() { return max; }
+    public double getSum() { return sum; }
+    public double getLast() { return last; }
+
+    QuantileSketch getSketch() { return sketch; }
+
+    public double getAverage() {
+        return count > 0 ? sum / count : Double.NaN;
+    }
+
+    /**
+     * Estimated quantile, clamped to the exact min and max
+     */
+    public double getQuantile(double quantile) {
+        double estimate = sketch.quantile(quantile);
+        return Double.isNaN(estimate) ? estimate : Math.max(min, Math.min(max, estimate));
+    }
+}
@@ -0,0 +1,79 @@
+package net.bubblecraft.bubblelog.storage;
+
+import net.bubblecraft.bubblelog.stats.QuantileSketch;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Columnar block encoding for rollups.
+ *
+ * Payload: [int length] for each of the count/min/max/sum/last columns, the columns
+ * themselves as Gorilla streams keyed by bucket start, then one sketch per bucket. Bucket
+ * starts are evenly spaced, so the timestamps cost a bit per column per bucket and the
+ * columns compress the same way raw samples do.
+ */
+final class RollupCodec {
+
+    private static final int COLUMNS = 5;
+
+    private RollupCodec() {
+    }
+
+    static byte[] encode(List<Rollup> rollups) {
+        GorillaCodec.Encoder[] columns = new GorillaCodec.Encoder[COLUMNS];
+        for (int c = 0; c < COLUMNS; c++) {
+            columns[c] = new GorillaCodec.Encoder();
+        }
+        ByteArrayOutputStream sketches = new ByteArrayOutputStream(rollups.size() * 16);
+        for (Rollup rollup : rollups) {
+            long start = rollup.getStart();
+            columns[0].add(start, rollup.getCount());
+            columns[1].add(start, rollup.getMin());
+            columns[2].add(start, rollup.getMax());
+            columns[3].add(start, rollup.getSum());
+            columns[4].add(start, rollup.getLast());
+            rollup.getSketch().writeTo(sketches);
+        }
+
+        int length = COLUMNS * 4 + sketches.size();
+        for (GorillaCodec.Encoder column : columns) {
+            length += column.byteLength();
+        }
+        ByteBuffer payload = ByteBuffer.allocate(length);
+        for (GorillaCodec.Encoder column : columns) {
+            payload.putInt(column.byteLength());
+        }
+        for (GorillaCodec.Encoder column : columns) {
+            payload.put(column.buffer(), 0, column.byteLength());
+        }
+        payload.put(sketches.toByteArray());
+        return payload.array();
+    }
+
+    static void decode(ByteBuffer buffer, int offset, int length, long firstStart, int count,
+                       Consumer<Rollup> consumer) {
+        long[] starts = new long[count];
+        double[][] columns = new double[COLUMNS][count];
+        int position = offset + COLUMNS * 4;
+        for (int c = 0; c < COLUMNS; c++) {
+            int columnLength = buffer.getInt(offset + c * 4);
+            double[] column = columns[c];
+            int[] next = {0};
+            GorillaCodec.decode(buffer, position, columnLength, firstStart, count, Long.MIN_VALUE, Long.MAX_VALUE,
+                (start, value) -> {
+                    starts[next[0]] = start;
+                    column[next[0]++] = value;
+                });
+            position += columnLength;
+        }
+
+        ByteBuffer sketches = buffer.slice(position, offset + length - position);
+        for (int i = 0; i < count; i++) {
+            consumer.accept(new Rollup(starts[i], (long) columns[0][i], columns[1][i], columns[2][i],
+                columns[3][i], columns[4][i], QuantileSketch.readFrom(sketches)));
+        }
+    }
+}
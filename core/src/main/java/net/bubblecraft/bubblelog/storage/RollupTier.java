@@ -0,0 +1,49 @@
+package net.bubblecraft.bubblelog.storage;
+
+/**
+ * Downsampled resolutions kept alongside the raw samples. Each tier is built from the one
+ * below it, so the minute tier sees raw points and the hour tier sees five-minute buckets.
+ */
+public enum RollupTier {
+    MINUTE("1m", 60, 60),
+    FIVE_MINUTES("5m", 300, 48),
+    HOUR("1h", 3600, 24);
+
+    private final String name;
+    private final long seconds;
+    private final int blockSize;
+
+    RollupTier(String name, long seconds, int blockSize) {
+        this.name = name;
+        this.seconds = seconds;
+        this.blockSize = blockSize;
+    }
+
+    /** Short name, also the tier's directory under each series */
+    public String getName() { return name; }
+    public long getSeconds() { return seconds; }
+
+    /** Buckets written per on-disk block */
+    int getBlockSize() { return blockSize; }
+
+    /**
+     * Start of the bucket containing {@code timestamp} (epoch seconds)
+     */
+    public long align(long timestamp) {
+        return Math.floorDiv(timestamp, seconds) * seconds;
+    }
+
+    /**
+     * The coarsest tier whose buckets are no wider than {@code resolutionSeconds},
+     * or {@code null} if only raw samples are fine enough
+     */
+    public static RollupTier coarsestFor(long resolutionSeconds) {
+        RollupTier best = null;
+        for (RollupTier tier : values()) {
+            if (tier.seconds <= resolutionSeconds) {
+                best = tier;
+            }
+        }
+        return best;
+    }
+}
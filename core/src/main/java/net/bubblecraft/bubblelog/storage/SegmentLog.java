@@ -0,0 +1,385 @@
+package net.bubblecraft.bubblelog.storage;
+
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Checksummed block files, one segment per UTC day, shared by raw series and rollup tiers.
+ *
+ * Segment layout: [int magic][int version] followed by blocks of
+ * [int bodyLength][int crc32c(body)][long firstTs][long lastTs][int count][payload].
+ * Each segment has a sidecar {@code .idx} file with one (firstTs, lastTs, offset, length)
+ * entry per block, so a range read touches only the blocks that overlap it. What the
+ * payload holds is up to the owner.
+ */
+final class SegmentLog {
+
+    static final int MAGIC = 0x424C5453; // "BLTS"
+    static final int VERSION = 1;
+    static final int FILE_HEADER_SIZE = 8;
+    static final int BLOCK_HEADER_SIZE = 8;
+    static final int BLOCK_PREFIX_SIZE = 20; // firstTs + lastTs + count
+    static final int INDEX_ENTRY_SIZE = 28;
+    static final long SECONDS_PER_DAY = 86_400;
+
+    record BlockRef(long firstTimestamp, long lastTimestamp, long offset, int length) {}
+
+    /**
+     * Receives one block's payload, which stays valid only for the duration of the call
+     */
+    @FunctionalInterface
+    interface BlockVisitor {
+        void visit(ByteBuffer buffer, int payloadOffset, int payloadLength, long firstTimestamp, int count);
+    }
+
+    private final String name;
+    private final Path directory;
+    private final Logger logger;
+
+    private FileChannel segment;
+    private FileChannel index;
+    private long segmentDay = Long.MIN_VALUE;
+    private long segmentSize;
+    private final List<BlockRef> activeBlocks = new ArrayList<>();
+
+    private final CRC32C crc = new CRC32C();
+    private long bytesWritten;
+
+    SegmentLog(String name, Path directory, Logger logger) {
+        this.name = name;
+        this.directory = directory;
+        this.logger = logger;
+    }
+
+    Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Append one block to the segment for {@code day}
+     */
+    synchronized void append(long day, long firstTimestamp, long lastTimestamp, int count,
+                             byte[] payload, int payloadLength) throws IOException {
+        openSegment(day);
+
+        int bodyLength = BLOCK_PREFIX_SIZE + payloadLength;
+        ByteBuffer block = ByteBuffer.allocate(BLOCK_HEADER_SIZE + bodyLength);
+        block.position(BLOCK_HEADER_SIZE);
+        block.putLong(firstTimestamp).putLong(lastTimestamp).putInt(count);
+        block.put(payload, 0, payloadLength);
+
+        crc.reset();
+        crc.update(block.array(), BLOCK_HEADER_SIZE, bodyLength);
+        block.putInt(0, bodyLength).putInt(4, (int) crc.getValue());
+        block.flip();
+
+        long offset = segmentSize;
+        writeFully(segment, block, offset);
+        segmentSize += block.limit();
+        bytesWritten += block.limit();
+
+        BlockRef ref = new BlockRef(firstTimestamp, lastTimestamp, offset, block.limit());
+        activeBlocks.add(ref);
+        writeIndexEntry(index, ref, (long) (activeBlocks.size() - 1) * INDEX_ENTRY_SIZE);
+    }
+
+    private void openSegment(long day) throws IOException {
+        if (segmentDay == day && segment != null) {
+            return;
+        }
+        closeSegment();
+        Files.createDirectories(directory);
+
+        Path segmentPath = segmentPath(day);
+        segment = FileChannel.open(segmentPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        activeBlocks.clear();
+
+        // Reopening today's segment after a restart: keep the intact blocks, drop a torn tail
+        segmentSize = segment.size() > 0 ? scanBlocks(segment, activeBlocks) : 0;
+        if (segmentSize < segment.size()) {
+            logger.warn("History {}: truncating {} damaged byte(s) from {}",
+                name, segment.size() - segmentSize, segmentPath.getFileName());
+            segment.truncate(segmentSize);
+        }
+        if (segmentSize == 0) {
+            ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE).putInt(MAGIC).putInt(VERSION).flip();
+            writeFully(segment, header, 0);
+            segmentSize = FILE_HEADER_SIZE;
+        }
+
+        // The index is derived data - rewrite it from the scan so it can never disagree
+        index = FileChannel.open(indexPath(day), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING);
+        for (int i = 0; i < activeBlocks.size(); i++) {
+            writeIndexEntry(index, activeBlocks.get(i), (long) i * INDEX_ENTRY_SIZE);
+        }
+        segmentDay = day;
+    }
+
+    /**
+     * Visit, oldest first, every block that overlaps [from, to] (epoch seconds). Safe to call
+     * from any thread while blocks are being appended.
+     */
+    void read(long from, long to, BlockVisitor visitor) throws IOException {
+        if (from > to) {
+            return;
+        }
+
+        List<BlockRef> liveBlocks;
+        long liveDay;
+        synchronized (this) {
+            liveDay = segmentDay;
+            liveBlocks = new ArrayList<>(activeBlocks);
+        }
+
+        long firstDay = Math.floorDiv(from, SECONDS_PER_DAY);
+        long lastDay = Math.floorDiv(to, SECONDS_PER_DAY);
+        for (long day : listDays(firstDay, lastDay)) {
+            List<BlockRef> blocks;
+            try {
+                blocks = day == liveDay ? liveBlocks : loadIndex(day);
+            } catch (NoSuchFileException e) {
+                continue; // removed by retention while we were looking
+            }
+            int first = firstBlockEndingAfter(blocks, from);
+            if (first >= blocks.size() || blocks.get(first).firstTimestamp() > to) {
+                continue;
+            }
+
+            // Map only up to the last indexed block - anything after it may still be being written
+            BlockRef last = blocks.get(blocks.size() - 1);
+            MappedByteBuffer mapped;
+            try (FileChannel channel = FileChannel.open(segmentPath(day), StandardOpenOption.READ)) {
+                long mapSize = Math.min(channel.size(), last.offset() + last.length());
+                mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, mapSize);
+            } catch (NoSuchFileException e) {
+                continue; // removed by retention while we were looking
+            }
+            readBlocks(mapped, blocks, first, to, visitor);
+        }
+    }
+
+    /**
+     * Hand the blocks starting at or before {@code to} straight out of a mapped segment. Nothing
+     * is copied: checksums and payload decoders both read the mapping with absolute gets.
+     */
+    private void readBlocks(ByteBuffer segment, List<BlockRef> blocks, int first, long to, BlockVisitor visitor) {
+        CRC32C checksum = new CRC32C();
+        for (int i = first; i < blocks.size(); i++) {
+            BlockRef ref = blocks.get(i);
+            if (ref.firstTimestamp() > to) {
+                break;
+            }
+            if (ref.offset() + ref.length() > segment.limit()) {
+                break;
+            }
+            int offset = (int) ref.offset();
+            int bodyLength = ref.length() - BLOCK_HEADER_SIZE;
+            checksum.reset();
+            checksum.update(segment.slice(offset + BLOCK_HEADER_SIZE, bodyLength));
+            if (segment.getInt(offset) != bodyLength || (int) checksum.getValue() != segment.getInt(offset + 4)) {
+                logger.warn("History {}: skipping corrupt block at offset {}", name, ref.offset());
+                continue;
+            }
+            int body = offset + BLOCK_HEADER_SIZE;
+            visitor.visit(segment, body + BLOCK_PREFIX_SIZE, bodyLength - BLOCK_PREFIX_SIZE,
+                segment.getLong(body), segment.getInt(body + 16));
+        }
+    }
+
+    /**
+     * Days in [firstDay, lastDay] that have a segment on disk, oldest first
+     */
+    private List<Long> listDays(long firstDay, long lastDay) throws IOException {
+        List<Long> days = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return days;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(path -> path.getFileName().toString())
+                .filter(fileName -> fileName.endsWith(".seg"))
+                .forEach(fileName -> {
+                    try {
+                        long day = LocalDate.parse(fileName.substring(0, fileName.length() - 4)).toEpochDay();
+                        if (day >= firstDay && day <= lastDay) {
+                            days.add(day);
+                        }
+                    } catch (DateTimeException e) {
+                        // Not one of ours
+                    }
+                });
+        }
+        days.sort(null);
+        return days;
+    }
+
+    /**
+     * Walk the block headers of a segment, verifying checksums
+     * @return offset just past the last intact block
+     */
+    static long scanBlocks(FileChannel channel, List<BlockRef> blocks) throws IOException {
+        long size = channel.size();
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE);
+        if (size < FILE_HEADER_SIZE || readFully(channel, header, 0) < FILE_HEADER_SIZE
+            || header.getInt(0) != MAGIC) {
+            return 0;
+        }
+
+        CRC32C checksum = new CRC32C();
+        long position = FILE_HEADER_SIZE;
+        ByteBuffer blockHeader = ByteBuffer.allocate(BLOCK_HEADER_SIZE + BLOCK_PREFIX_SIZE);
+        while (position + BLOCK_HEADER_SIZE + BLOCK_PREFIX_SIZE <= size) {
+            blockHeader.clear();
+            readFully(channel, blockHeader, position);
+            int bodyLength = blockHeader.getInt(0);
+            if (bodyLength < BLOCK_PREFIX_SIZE || position + BLOCK_HEADER_SIZE + bodyLength > size) {
+                break;
+            }
+
+            ByteBuffer body = ByteBuffer.allocate(bodyLength);
+            readFully(channel, body, position + BLOCK_HEADER_SIZE);
+            checksum.reset();
+            checksum.update(body.array(), 0, bodyLength);
+            if ((int) checksum.getValue() != blockHeader.getInt(4)) {
+                break;
+            }
+
+            int length = BLOCK_HEADER_SIZE + bodyLength;
+            blocks.add(new BlockRef(body.getLong(0), body.getLong(8), position, length));
+            position += length;
+        }
+        return position;
+    }
+
+    /**
+     * Binary search for the first block whose last timestamp is at or after {@code from}
+     */
+    static int firstBlockEndingAfter(List<BlockRef> blocks, long from) {
+        int low = 0;
+        int high = blocks.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (blocks.get(mid).lastTimestamp() < from) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Load a closed segment's index, rebuilding it from the segment if it is missing, unreadable
+     * or doesn't end where the segment does (a crash can leave either file ahead of the other)
+     */
+    List<BlockRef> loadIndex(long day) throws IOException {
+        List<BlockRef> blocks = new ArrayList<>();
+        Path indexPath = indexPath(day);
+        long segmentBytes = Files.size(segmentPath(day));
+        if (Files.exists(indexPath)) {
+            ByteBuffer entries = ByteBuffer.wrap(Files.readAllBytes(indexPath));
+            while (entries.remaining() >= INDEX_ENTRY_SIZE) {
+                blocks.add(new BlockRef(entries.getLong(), entries.getLong(), entries.getLong(), entries.getInt()));
+            }
+            if (!blocks.isEmpty()) {
+                BlockRef last = blocks.get(blocks.size() - 1);
+                if (last.offset() + last.length() == segmentBytes) {
+                    return blocks;
+                }
+                logger.debug("History {}: {} doesn't match its segment - scanning blocks instead",
+                    name, indexPath.getFileName());
+                blocks.clear();
+            }
+        }
+        try (FileChannel channel = FileChannel.open(segmentPath(day), StandardOpenOption.READ)) {
+            scanBlocks(channel, blocks);
+        }
+        return blocks;
+    }
+
+    private static void writeIndexEntry(FileChannel channel, BlockRef ref, long position) throws IOException {
+        ByteBuffer entry = ByteBuffer.allocate(INDEX_ENTRY_SIZE)
+            .putLong(ref.firstTimestamp()).putLong(ref.lastTimestamp()).putLong(ref.offset()).putInt(ref.length())
+            .flip();
+        writeFully(channel, entry, position);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private static int readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        int total = 0;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + total);
+            if (read < 0) {
+                break;
+            }
+            total += read;
+        }
+        return total;
+    }
+
+    Path segmentPath(long day) {
+        return directory.resolve(segmentName(day));
+    }
+
+    Path indexPath(long day) {
+        return directory.resolve(indexName(day));
+    }
+
+    static String segmentName(long day) {
+        return LocalDate.ofEpochDay(day) + ".seg";
+    }
+
+    static String indexName(long day) {
+        return LocalDate.ofEpochDay(day) + ".idx";
+    }
+
+    synchronized long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    private void closeSegment() {
+        try {
+            // Once closed, readers trust the index as long as it ends where the segment does
+            if (segment != null) {
+                segment.force(true);
+                segment.close();
+            }
+            if (index != null) {
+                index.force(true);
+                index.close();
+            }
+        } catch (IOException e) {
+            logger.debug("Failed to close history segment for {}", name, e);
+        }
+        segment = null;
+        index = null;
+        segmentDay = Long.MIN_VALUE;
+        activeBlocks.clear();
+    }
+
+    /**
+     * Release file handles; the next append reopens the segment
+     */
+    synchronized void close() {
+        closeSegment();
+    }
+}
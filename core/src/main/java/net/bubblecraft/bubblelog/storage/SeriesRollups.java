@@ -0,0 +1,256 @@
+package net.bubblecraft.bubblelog.storage;
+
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * The rollup tiers of one series, maintained incrementally as points arrive.
+ *
+ * Each tier has one open bucket. When a point (or, for coarser tiers, a sealed bucket of
+ * the tier below) falls past the open bucket, that bucket is sealed, merged into the next
+ * tier's open bucket and queued for disk; queued buckets are written as one block per
+ * {@link RollupTier#getBlockSize()} buckets under {@code <series>/<tier>/}. At any moment
+ * the sealed buckets of a tier plus the open buckets of it and every finer tier cover all
+ * data exactly once, which is what queries return.
+ *
+ * Open and queued buckets are not persisted on shutdown; {@link #recover} rebuilds them from
+ * the tier below, starting where each tier's files end.
+ */
+final class SeriesRollups {
+
+    // How far back recovery replays; covers a full day-long hour block plus a restart gap
+    private static final long CATCH_UP_SECONDS = 2 * SegmentLog.SECONDS_PER_DAY;
+
+    @FunctionalInterface
+    interface PointSource {
+        void query(long from, long to, PointConsumer consumer) throws IOException;
+    }
+
+    private static final class Level {
+        final RollupTier tier;
+        final SegmentLog log;
+        final List<Rollup> pending = new ArrayList<>();
+        Rollup open;
+
+        Level(RollupTier tier, SegmentLog log) {
+            this.tier = tier;
+            this.log = log;
+        }
+    }
+
+    private final Level[] levels;
+
+    SeriesRollups(String name, Path seriesDirectory, Logger logger) {
+        RollupTier[] tiers = RollupTier.values();
+        levels = new Level[tiers.length];
+        for (int i = 0; i < tiers.length; i++) {
+            String tierName = tiers[i].getName();
+            levels[i] = new Level(tiers[i], new SegmentLog(name + "/" + tierName, seriesDirectory.resolve(tierName), logger));
+        }
+    }
+
+    /**
+     * Add a raw point; points older than the open minute bucket are ignored
+     */
+    synchronized void add(long timestamp, double value) throws IOException {
+        Rollup bucket = bucketFor(0, timestamp, true);
+        if (bucket != null) {
+            bucket.add(value);
+        }
+    }
+
+    private void mergeInto(int level, Rollup rollup, boolean cascade) throws IOException {
+        Rollup bucket = bucketFor(level, rollup.getStart(), cascade);
+        if (bucket != null) {
+            bucket.merge(rollup);
+        }
+    }
+
+    private Rollup bucketFor(int level, long timestamp, boolean cascade) throws IOException {
+        Level current = levels[level];
+        long start = current.tier.align(timestamp);
+        if (current.open != null) {
+            if (start < current.open.getStart()) {
+                return null;
+            }
+            if (start > current.open.getStart()) {
+                seal(level, cascade);
+            }
+        }
+        if (current.open == null) {
+            current.open = new Rollup(start);
+        }
+        return current.open;
+    }
+
+    private void seal(int level, boolean cascade) throws IOException {
+        Level current = levels[level];
+        Rollup sealed = current.open;
+        current.open = null;
+        if (sealed.getCount() == 0) {
+            return;
+        }
+
+        // Hand it up first so a failed write only costs this tier's copy
+        if (cascade && level + 1 < levels.length) {
+            mergeInto(level + 1, sealed, true);
+        }
+
+        if (!current.pending.isEmpty() && day(current.pending.get(0)) != day(sealed)) {
+            flush(current);
+        }
+        current.pending.add(sealed);
+        if (current.pending.size() >= current.tier.getBlockSize()) {
+            flush(current);
+        }
+    }
+
+    private static long day(Rollup rollup) {
+        return Math.floorDiv(rollup.getStart(), SegmentLog.SECONDS_PER_DAY);
+    }
+
+    private static void flush(Level level) throws IOException {
+        if (level.pending.isEmpty()) {
+            return;
+        }
+        try {
+            Rollup first = level.pending.get(0);
+            Rollup last = level.pending.get(level.pending.size() - 1);
+            byte[] payload = RollupCodec.encode(level.pending);
+            level.log.append(day(first), first.getStart(), last.getStart(), level.pending.size(), payload, payload.length);
+        } finally {
+            level.pending.clear();
+        }
+    }
+
+    /**
+     * Rebuild open and queued buckets after a restart: replay raw points into the minute tier,
+     * then each tier's sealed buckets into the next, starting where each tier's files end.
+     * Call once, before the first {@link #add}.
+     */
+    synchronized void recover(long now, PointSource raw) throws IOException {
+        long floor = now - CATCH_UP_SECONDS;
+        for (int level = 0; level < levels.length; level++) {
+            RollupTier tier = levels[level].tier;
+            long from = Math.max(tier.align(floor), sealedEnd(level, floor, now));
+
+            // Collect first: merging may write blocks, which the read callbacks can't do
+            List<Rollup> replay = new ArrayList<>();
+            if (level == 0) {
+                raw.query(from, now, (timestamp, value) -> {
+                    long start = tier.align(timestamp);
+                    if (replay.isEmpty() || replay.get(replay.size() - 1).getStart() != start) {
+                        replay.add(new Rollup(start));
+                    }
+                    replay.get(replay.size() - 1).add(value);
+                });
+            } else {
+                readSealed(level - 1, from, now, replay::add);
+            }
+            for (Rollup rollup : replay) {
+                mergeInto(level, rollup, false);
+            }
+        }
+    }
+
+    // End of the newest bucket this tier has on disk, if any within the catch-up window
+    private long sealedEnd(int level, long floor, long now) throws IOException {
+        Level current = levels[level];
+        long[] lastStart = {Long.MIN_VALUE};
+        readSealed(level, floor - current.tier.getSeconds(), now, rollup -> lastStart[0] = rollup.getStart());
+        return lastStart[0] == Long.MIN_VALUE ? Long.MIN_VALUE : lastStart[0] + current.tier.getSeconds();
+    }
+
+    /**
+     * Sealed buckets (on disk or queued) of one tier with a start in [from, to], oldest first
+     */
+    private void readSealed(int level, long from, long to, Consumer<Rollup> consumer) throws IOException {
+        List<Rollup> pending;
+        synchronized (this) {
+            pending = new ArrayList<>(levels[level].pending);
+        }
+        readSealed(level, from, to, pending, cutoff(levels[level], pending), consumer);
+    }
+
+    private void readSealed(int level, long from, long to, List<Rollup> pending, long cutoff,
+                            Consumer<Rollup> consumer) throws IOException {
+        long diskTo = Math.min(to, cutoff - 1);
+        levels[level].log.read(from, diskTo, (buffer, offset, length, firstStart, count) ->
+            RollupCodec.decode(buffer, offset, length, firstStart, count, rollup -> {
+                if (rollup.getStart() >= from && rollup.getStart() <= diskTo) {
+                    consumer.accept(rollup);
+                }
+            }));
+        for (Rollup rollup : pending) {
+            if (rollup.getStart() >= from && rollup.getStart() <= to) {
+                consumer.accept(rollup);
+            }
+        }
+    }
+
+    // Anything at or after this start is still in memory; buckets move to disk only after it
+    private static long cutoff(Level level, List<Rollup> pending) {
+        if (!pending.isEmpty()) {
+            return pending.get(0).getStart();
+        }
+        return level.open != null ? level.open.getStart() : Long.MAX_VALUE;
+    }
+
+    /**
+     * Stream one tier's buckets starting in [from, to] in time order, followed by the open
+     * buckets of that tier and every finer one, so the most recent data is included.
+     * Safe to call from any thread.
+     */
+    void query(RollupTier tier, long from, long to, Consumer<Rollup> consumer) throws IOException {
+        int level = tier.ordinal();
+        List<Rollup> pending;
+        long cutoff;
+        List<Rollup> open = new ArrayList<>();
+        synchronized (this) {
+            pending = new ArrayList<>(levels[level].pending);
+            cutoff = cutoff(levels[level], pending);
+            for (int i = level; i >= 0; i--) {
+                Rollup bucket = levels[i].open;
+                if (bucket != null && bucket.getStart() <= to
+                    && bucket.getStart() + levels[i].tier.getSeconds() > from) {
+                    open.add(bucket.copy());
+                }
+            }
+        }
+
+        readSealed(level, from, to, pending, cutoff, consumer);
+        open.forEach(consumer);
+    }
+
+    /**
+     * Write queued buckets; open buckets stay in memory
+     */
+    synchronized void flush() throws IOException {
+        for (Level level : levels) {
+            flush(level);
+        }
+    }
+
+    synchronized long getBytesWritten() {
+        long bytes = 0;
+        for (Level level : levels) {
+            bytes += level.log.getBytesWritten();
+        }
+        return bytes;
+    }
+
+    synchronized void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            for (Level level : levels) {
+                level.log.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package net.bubblecraft.bubblelog.storage;
+
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Append-only storage for one metric: raw samples as Gorilla-encoded blocks in a
+ * {@link SegmentLog} (one segment per UTC day), plus its {@link SeriesRollups}.
+ *
+ * Points are buffered in an in-memory block until it holds {@link #MAX_BLOCK_POINTS} points,
+ * spans {@link #MAX_BLOCK_SECONDS} or the day rolls over; queries include that open block.
+ */
+final class SeriesStore {
+
+    static final long SECONDS_PER_DAY = SegmentLog.SECONDS_PER_DAY;
+
+    static final int MAX_BLOCK_POINTS = 120;
+    static final long MAX_BLOCK_SECONDS = 600;
+
+    private final String name;
+    private final SegmentLog log;
+    private final SeriesRollups rollups;
+    private boolean rollupsRecovered;
+
+    private final GorillaCodec.Encoder open = new GorillaCodec.Encoder();
+    private long openDay = Long.MIN_VALUE;
+    private long pointsWritten;
+
+    SeriesStore(String name, Path directory, Logger logger) {
+        this.name = name;
+        this.log = new SegmentLog(name, directory, logger);
+        this.rollups = new SeriesRollups(name, directory, logger);
+    }
+
+    String getName() {
+        return name;
+    }
+
+    /**
+     * Buffer a point and feed it to the rollups; seals the open block to disk when it is full
+     * or the day changes. Points that aren't newer than the previous one are ignored.
+     */
+    synchronized void append(long timestamp, double value) throws IOException {
+        recoverRollups(timestamp - 1);
+
+        long day = Math.floorDiv(timestamp, SECONDS_PER_DAY);
+        if (open.count() > 0) {
+            if (timestamp <= open.lastTimestamp()) {
+                return;
+            }
+            if (day != openDay || open.count() >= MAX_BLOCK_POINTS
+                || timestamp - open.firstTimestamp() >= MAX_BLOCK_SECONDS) {
+                seal();
+            }
+        }
+        if (open.count() == 0) {
+            openDay = day;
+        }
+        open.add(timestamp, value);
+        rollups.add(timestamp, value);
+    }
+
+    /**
+     * Write the open block (if any) to its segment
+     */
+    synchronized void seal() throws IOException {
+        if (open.count() == 0) {
+            return;
+        }
+        try {
+            log.append(openDay, open.firstTimestamp(), open.lastTimestamp(), open.count(),
+                open.buffer(), open.byteLength());
+            pointsWritten += open.count();
+        } finally {
+            open.reset();
+        }
+    }
+
+    /**
+     * Read points in [from, to] (epoch seconds) in timestamp order. Safe to call from any
+     * thread while points are being appended.
+     */
+    void query(long from, long to, PointConsumer consumer) throws IOException {
+        if (from > to) {
+            return;
+        }
+
+        // Copy the open block under the lock, then read without holding it
+        byte[] openBlock = null;
+        long openFirst = Long.MAX_VALUE;
+        int openCount;
+        synchronized (this) {
+            openCount = open.count();
+            if (openCount > 0) {
+                openFirst = open.firstTimestamp();
+                if (open.lastTimestamp() >= from && openFirst <= to) {
+                    openBlock = Arrays.copyOf(open.buffer(), open.byteLength());
+                }
+            }
+        }
+
+        // Blocks sealed after the copy start at openFirst or later - the copy already has them
+        log.read(from, Math.min(to, openFirst - 1), (buffer, offset, length, firstTimestamp, count) ->
+            GorillaCodec.decode(buffer, offset, length, firstTimestamp, count, from, to, consumer));
+
+        if (openBlock != null) {
+            GorillaCodec.decode(ByteBuffer.wrap(openBlock), 0, openBlock.length, openFirst, openCount,
+                from, to, consumer);
+        }
+    }
+
+    /**
+     * Stream rollup buckets of one tier in [from, to], including the still-open recent buckets
+     */
+    void queryRollups(RollupTier tier, long from, long to, Consumer<Rollup> consumer) throws IOException {
+        recoverRollups(System.currentTimeMillis() / 1000);
+        rollups.query(tier, from, to, consumer);
+    }
+
+    /**
+     * Rebuild the open rollup buckets from disk, once per process. Runs before the first
+     * append or rollup query at the latest; the store calls it at startup for existing series.
+     */
+    synchronized void recoverRollups(long now) throws IOException {
+        if (!rollupsRecovered) {
+            rollupsRecovered = true;
+            rollups.recover(now, this::query);
+        }
+    }
+
+    /**
+     * Write the open raw block and any queued rollup buckets
+     */
+    synchronized void flush() throws IOException {
+        seal();
+        rollups.flush();
+    }
+
+    synchronized long getPointsWritten() {
+        return pointsWritten;
+    }
+
+    synchronized long getBytesWritten() {
+        return log.getBytesWritten();
+    }
+
+    long getRollupBytesWritten() {
+        return rollups.getBytesWritten();
+    }
+
+    /**
+     * Flush everything and release file handles
+     */
+    synchronized void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            rollups.close();
+            log.close();
+        }
+    }
+}
@@ -0,0 +1,665 @@
+package net.bubblecraft.bubblelog.storage;
+
+import net.bubblecraft.bubblelog.util.FramedLogWriter;
+import net.bubblecraft.bubblelog.util.LogFiles;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parses the text lines written by {@code SystemMonitor.logSystemUsage} back into series points.
+ *
+ * The file is memory-mapped (or, if gzip-compressed, inflated once) and tokenized in place:
+ * fields are located and numbers parsed with absolute gets on the buffer, so no line or field
+ * strings are created. Only the timestamp falls back to a {@link DateTimeFormatter} when a
+ * custom {@code logging.date-format} is used, and even then it reads a {@link CharSequence}
+ * view of the bytes. One parser per thread; instances are not thread-safe.
+ */
+final class UsageLogParser {
+
+    private static final String DEFAULT_DATE_FORMAT = "yyyy-MM-dd HH:mm:ss";
+
+    private static final byte[] FIELD_SEPARATOR = ascii(" | ");
+    private static final byte[] CPU = ascii("CPU: ");
+    private static final byte[] IOWAIT = ascii("IOWait ");
+    private static final byte[] STEAL = ascii("Steal ");
+    private static final byte[] MAX_CORE = ascii("Max Core ");
+    private static final byte[] RAM = ascii("RAM: ");
+    private static final byte[] DISK = ascii("Disk(");
+    private static final byte[] DISK_NAME_END = ascii("): ");
+    private static final byte[] DISK_SEPARATOR = ascii(", Disk(");
+    private static final byte[] DISK_IO = ascii("DiskIO(");
+    private static final byte[] DISK_IO_SEPARATOR = ascii(", DiskIO(");
+    private static final byte[] UTIL = ascii("util ");
+    private static final byte[] AWAIT = ascii("await ");
+    private static final byte[] NET = ascii("Net(");
+    private static final byte[] NET_SEPARATOR = ascii(", Net(");
+    private static final byte[] RX = ascii("rx ");
+    private static final byte[] TX = ascii("tx ");
+    private static final byte[] TCP = ascii("TCP: ");
+    private static final byte[] RETRANS = ascii("Retrans ");
+    private static final byte[] LISTEN_OVERFLOWS = ascii("Listen Overflows ");
+    private static final byte[] SOCKETS = ascii("Sockets: ");
+    private static final byte[] ESTAB = ascii("Estab ");
+    private static final byte[] SYN_RECV = ascii("SynRecv ");
+    private static final byte[] TIME_WAIT = ascii("TimeWait ");
+    private static final byte[] PROXY_SYN_RECV = ascii("Proxy SynRecv ");
+    private static final byte[] PROCESS = ascii("Process: ");
+    private static final byte[] PROCESS_CPU = ascii("CPU ");
+    private static final byte[] RSS = ascii("RSS ");
+    private static final byte[] FDS = ascii("FDs ");
+    private static final byte[] CONTEXT_SWITCHES = ascii("CtxSw ");
+    private static final byte[] BACKEND = ascii("Backend(");
+    private static final byte[] BACKEND_SEPARATOR = ascii(", Backend(");
+    private static final byte[] TICK = ascii("Tick(");
+    private static final byte[] TICK_SEPARATOR = ascii(", Tick(");
+    private static final byte[] TPS = ascii("TPS ");
+    private static final byte[] MSPT = ascii("MSPT ");
+    private static final byte[] P99 = ascii("p99 ");
+    private static final byte[] PLAYERS = ascii("Players: ");
+    private static final byte[] SERVERS = ascii("Servers: ");
+    private static final byte[] JVM = ascii("JVM: ");
+    private static final byte[] HEAP = ascii("Heap ");
+    private static final byte[] THREADS = ascii("Threads: ");
+    private static final byte[] GC = ascii("GC: ");
+    private static final byte[] CONNECTION = ascii("Connection: ");
+    private static final byte[] AVG_PING = ascii("Avg Ping ");
+    private static final byte[] MAX_PING = ascii("Max Ping: ");
+    private static final byte[] PSI = ascii("PSI: ");
+    private static final byte[] PSI_CPU = ascii("CPU ");
+    private static final byte[] PSI_MEMORY = ascii("Memory ");
+    private static final byte[] PSI_IO = ascii("IO ");
+
+    /**
+     * Points of one series in file order, in growable parallel arrays
+     */
+    static final class Points {
+        long[] timestamps = new long[1024];
+        double[] values = new double[1024];
+        int size;
+
+        void add(long timestamp, double value) {
+            if (size == timestamps.length) {
+                timestamps = Arrays.copyOf(timestamps, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            timestamps[size] = timestamp;
+            values[size++] = value;
+        }
+    }
+
+    /**
+     * Everything parsed from one file
+     */
+    static final class ParsedLog {
+        final Map<String, Points> series = new HashMap<>();
+        long lines;
+        long malformedLines;
+        long bytes;
+        long minTimestamp = Long.MAX_VALUE;
+        long maxTimestamp = Long.MIN_VALUE;
+
+        Points points(String name) {
+            return series.computeIfAbsent(name, key -> new Points());
+        }
+    }
+
+    private final ZoneId zone;
+    private final DateTimeFormatter formatter;
+    private final boolean defaultFormat;
+
+    // Epoch second of the start of the last local hour seen, so most lines skip zone math
+    private long cachedHourKey = Long.MIN_VALUE;
+    private long cachedHourEpoch;
+
+    // Disk names seen so far, compared byte-wise so series names are only built once
+    private final List<byte[]> diskNames = new ArrayList<>();
+    private final List<String> diskSeries = new ArrayList<>();
+    private final List<String> diskUtilSeries = new ArrayList<>();
+    private final List<String> diskAwaitSeries = new ArrayList<>();
+    // Same for network interfaces
+    private final List<byte[]> interfaceNames = new ArrayList<>();
+    private final List<String> rxSeries = new ArrayList<>();
+    private final List<String> txSeries = new ArrayList<>();
+    // And backends, for their process and tick series
+    private final List<byte[]> backendNames = new ArrayList<>();
+    private final List<String> backendCpuSeries = new ArrayList<>();
+    private final List<String> backendRssSeries = new ArrayList<>();
+    private final List<String> backendTpsSeries = new ArrayList<>();
+    private final List<String> backendMsptSeries = new ArrayList<>();
+    private final List<String> backendMsptP99Series = new ArrayList<>();
+
+    UsageLogParser(String dateFormat, ZoneId zone) {
+        this.zone = zone;
+        this.defaultFormat = DEFAULT_DATE_FORMAT.equals(dateFormat);
+        this.formatter = DateTimeFormatter.ofPattern(dateFormat);
+    }
+
+    ParsedLog parse(Path file) throws IOException {
+        if (LogFiles.isCompressed(file)) {
+            // Rotated logs are a few MB once inflated; tokenize them on the heap instead
+            try (InputStream in = LogFiles.open(file)) {
+                byte[] content = in.readAllBytes();
+                return parse(ByteBuffer.wrap(content), content.length);
+            }
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Log file too large to import: " + file.getFileName());
+            }
+            return parse(channel.map(FileChannel.MapMode.READ_ONLY, 0, size), (int) size);
+        }
+    }
+
+    private ParsedLog parse(ByteBuffer buffer, int limit) {
+        ParsedLog result = new ParsedLog();
+        result.bytes = limit;
+        int position = 0;
+        while (position < limit) {
+            int end = indexOf(buffer, (byte) '\n', position, limit);
+            int next = end < 0 ? limit : end + 1;
+            int lineEnd = end < 0 ? limit : end;
+            if (lineEnd > position && buffer.get(lineEnd - 1) == '\r') {
+                lineEnd--;
+            }
+            if (lineEnd > position) {
+                result.lines++;
+                int contentEnd = contentEnd(buffer, position, lineEnd);
+                if (contentEnd < 0 || !parseLine(buffer, position, contentEnd, result)) {
+                    result.malformedLines++;
+                }
+            }
+            position = next;
+        }
+        return result;
+    }
+
+    // Lines are framed with a length and checksum trailer; older logs have none
+    private static int contentEnd(ByteBuffer buffer, int start, int end) {
+        int trailer = FramedLogWriter.findTrailer(buffer, start, end);
+        if (trailer < 0) {
+            return end;
+        }
+        boolean intact = FramedLogWriter.recordStart(buffer, trailer, end) == start
+            && FramedLogWriter.verify(buffer, start, trailer, end);
+        return intact ? trailer : -1;
+    }
+
+    private boolean parseLine(ByteBuffer buffer, int start, int end, ParsedLog result) {
+        if (buffer.get(start) != '[') {
+            return false;
+        }
+        int close = indexOf(buffer, (byte) ']', start + 1, end);
+        if (close < 0) {
+            return false;
+        }
+        long timestamp = parseTimestamp(buffer, start + 1, close);
+        if (timestamp == Long.MIN_VALUE) {
+            return false;
+        }
+        result.minTimestamp = Math.min(result.minTimestamp, timestamp);
+        result.maxTimestamp = Math.max(result.maxTimestamp, timestamp);
+
+        int field = close + 2;
+        while (field < end) {
+            int separator = indexOf(buffer, FIELD_SEPARATOR, field, end);
+            int fieldEnd = separator < 0 ? end : separator;
+            parseField(buffer, field, fieldEnd, timestamp, result);
+            field = separator < 0 ? end : separator + FIELD_SEPARATOR.length;
+        }
+        return true;
+    }
+
+    private void parseField(ByteBuffer buffer, int start, int end, long timestamp, ParsedLog result) {
+        if (startsWith(buffer, start, end, CPU)) {
+            double cpu = parseDecimal(buffer, start + CPU.length, end);
+            if (!Double.isNaN(cpu)) {
+                result.points(MetricStore.CPU).add(timestamp, MetricStore.snapPercent(cpu));
+            }
+            // "CPU: 45.20% (User 30.10%, System 10.20%, IOWait 1.00%, IRQ 0.50%, Steal 3.90%, Max Core 98.00% on cpu3)"
+            addPercent(result, MetricStore.CPU_IOWAIT, timestamp, valueAfter(buffer, IOWAIT, start, end));
+            addPercent(result, MetricStore.CPU_STEAL, timestamp, valueAfter(buffer, STEAL, start, end));
+            addPercent(result, MetricStore.CPU_MAX_CORE, timestamp, valueAfter(buffer, MAX_CORE, start, end));
+        } else if (startsWith(buffer, start, end, RAM)) {
+            int position = start + RAM.length;
+            int slash = indexOf(buffer, (byte) '/', position, end);
+            int open = indexOf(buffer, (byte) '(', position, end);
+            if (slash < 0 || open < 0) {
+                return;
+            }
+            double used = parseSize(buffer, position, slash);
+            double percent = parseDecimal(buffer, open + 1, end);
+            if (!Double.isNaN(percent)) {
+                result.points(MetricStore.RAM).add(timestamp, MetricStore.snapPercent(percent));
+            }
+            if (!Double.isNaN(used)) {
+                result.points(MetricStore.RAM_USED_MB).add(timestamp, Math.round(used / (1024.0 * 1024)));
+            }
+        } else if (startsWith(buffer, start, end, DISK)) {
+            // All disks share one field: "Disk(a): x/y (p%), Disk(b): ..."
+            int position = start;
+            while (position >= 0 && position < end) {
+                int nameStart = position + DISK.length;
+                int nameEnd = indexOf(buffer, DISK_NAME_END, nameStart, end);
+                if (nameEnd < 0) {
+                    return;
+                }
+                int next = indexOf(buffer, DISK_SEPARATOR, nameEnd, end);
+                int diskEnd = next < 0 ? end : next;
+                int open = indexOf(buffer, (byte) '(', nameEnd + DISK_NAME_END.length, diskEnd);
+                if (open >= 0) {
+                    double percent = parseDecimal(buffer, open + 1, diskEnd);
+                    if (!Double.isNaN(percent)) {
+                        result.points(diskSeries.get(diskIndex(buffer, nameStart, nameEnd))).add(timestamp, MetricStore.snapPercent(percent));
+                    }
+                }
+                position = next < 0 ? -1 : next + 2;
+            }
+        } else if (startsWith(buffer, start, end, DISK_IO)) {
+            // "DiskIO(a): util 35.0%, await 2.10ms, read 12/s 1.20 MB/s, write ..., DiskIO(b): ..."
+            int position = start;
+            while (position >= 0 && position < end) {
+                int nameStart = position + DISK_IO.length;
+                int nameEnd = indexOf(buffer, DISK_NAME_END, nameStart, end);
+                if (nameEnd < 0) {
+                    return;
+                }
+                int next = indexOf(buffer, DISK_IO_SEPARATOR, nameEnd, end);
+                int diskEnd = next < 0 ? end : next;
+                int index = diskIndex(buffer, nameStart, nameEnd);
+                addPercent(result, diskUtilSeries.get(index), timestamp, valueAfter(buffer, UTIL, nameEnd, diskEnd));
+                double await = valueAfter(buffer, AWAIT, nameEnd, diskEnd);
+                if (!Double.isNaN(await)) {
+                    result.points(diskAwaitSeries.get(index)).add(timestamp, MetricStore.snapPing(await));
+                }
+                position = next < 0 ? -1 : next + 2;
+            }
+        } else if (startsWith(buffer, start, end, NET)) {
+            // "Net(eth0): rx 1.20 MB/s 900 pkt/s, tx 300.00 KB/s 800 pkt/s, drops 0.0/s, errors 0.0/s, Net(eth1): ..."
+            int position = start;
+            while (position >= 0 && position < end) {
+                int nameStart = position + NET.length;
+                int nameEnd = indexOf(buffer, DISK_NAME_END, nameStart, end);
+                if (nameEnd < 0) {
+                    return;
+                }
+                int next = indexOf(buffer, NET_SEPARATOR, nameEnd, end);
+                int interfaceEnd = next < 0 ? end : next;
+                int index = interfaceIndex(buffer, nameStart, nameEnd);
+                addSize(result, rxSeries.get(index), timestamp, buffer, RX, nameEnd, interfaceEnd);
+                addSize(result, txSeries.get(index), timestamp, buffer, TX, nameEnd, interfaceEnd);
+                position = next < 0 ? -1 : next + 2;
+            }
+        } else if (startsWith(buffer, start, end, TCP)) {
+            double retransmits = valueAfter(buffer, RETRANS, start, end);
+            if (!Double.isNaN(retransmits)) {
+                result.points(MetricStore.TCP_RETRANSMITS).add(timestamp, MetricStore.snapPing(retransmits));
+            }
+            double overflows = valueAfter(buffer, LISTEN_OVERFLOWS, start, end);
+            if (!Double.isNaN(overflows)) {
+                result.points(MetricStore.TCP_LISTEN_OVERFLOWS).add(timestamp, overflows);
+            }
+        } else if (startsWith(buffer, start, end, SOCKETS)) {
+            // Host-wide counts come first, so the unprefixed labels match them
+            addCount(result, MetricStore.SOCKETS_ESTABLISHED, timestamp, valueAfter(buffer, ESTAB, start, end));
+            addCount(result, MetricStore.SOCKETS_SYN_RECV, timestamp, valueAfter(buffer, SYN_RECV, start, end));
+            addCount(result, MetricStore.SOCKETS_TIME_WAIT, timestamp, valueAfter(buffer, TIME_WAIT, start, end));
+            addCount(result, MetricStore.PROXY_SYN_RECV, timestamp, valueAfter(buffer, PROXY_SYN_RECV, start, end));
+        } else if (startsWith(buffer, start, end, BACKEND)) {
+            // "Backend(lobby): CPU 45.0%, RSS 2.10 GB, Backend(survival): ..."
+            int position = start;
+            while (position >= 0 && position < end) {
+                int nameStart = position + BACKEND.length;
+                int nameEnd = indexOf(buffer, DISK_NAME_END, nameStart, end);
+                if (nameEnd < 0) {
+                    return;
+                }
+                int next = indexOf(buffer, BACKEND_SEPARATOR, nameEnd, end);
+                int backendEnd = next < 0 ? end : next;
+                int index = backendIndex(buffer, nameStart, nameEnd);
+                addPercent(result, backendCpuSeries.get(index), timestamp, valueAfter(buffer, PROCESS_CPU, nameEnd, backendEnd));
+                int rss = indexOf(buffer, RSS, nameEnd, backendEnd);
+                if (rss >= 0) {
+                    double used = parseSize(buffer, rss + RSS.length, backendEnd);
+                    if (!Double.isNaN(used)) {
+                        result.points(backendRssSeries.get(index)).add(timestamp, Math.round(used / (1024.0 * 1024)));
+                    }
+                }
+                position = next < 0 ? -1 : next + 2;
+            }
+        } else if (startsWith(buffer, start, end, TICK)) {
+            // "Tick(lobby): TPS 19.98, Min 19.50, MSPT 12.30, p95 18.20, p99 31.00, Max 48.10, Entities 1520, Chunks 880, Tick(...)..."
+            int position = start;
+            while (position >= 0 && position < end) {
+                int nameStart = position + TICK.length;
+                int nameEnd = indexOf(buffer, DISK_NAME_END, nameStart, end);
+                if (nameEnd < 0) {
+                    return;
+                }
+                int next = indexOf(buffer, TICK_SEPARATOR, nameEnd, end);
+                int tickEnd = next < 0 ? end : next;
+                int index = backendIndex(buffer, nameStart, nameEnd);
+                addPercent(result, backendTpsSeries.get(index), timestamp, valueAfter(buffer, TPS, nameEnd, tickEnd));
+                addMillis(result, backendMsptSeries.get(index), timestamp, valueAfter(buffer, MSPT, nameEnd, tickEnd));
+                addMillis(result, backendMsptP99Series.get(index), timestamp, valueAfter(buffer, P99, nameEnd, tickEnd));
+                position = next < 0 ? -1 : next + 2;
+            }
+        } else if (startsWith(buffer, start, end, PROCESS)) {
+            addPercent(result, MetricStore.PROCESS_CPU, timestamp, valueAfter(buffer, PROCESS_CPU, start, end));
+            int rss = indexOf(buffer, RSS, start, end);
+            if (rss >= 0) {
+                int rssEnd = indexOf(buffer, (byte) ',', rss, end);
+                double used = parseSize(buffer, rss + RSS.length, rssEnd < 0 ? end : rssEnd);
+                if (!Double.isNaN(used)) {
+                    result.points(MetricStore.PROCESS_RSS_MB).add(timestamp, Math.round(used / (1024.0 * 1024)));
+                }
+            }
+            addCount(result, MetricStore.PROCESS_FDS, timestamp, valueAfter(buffer, FDS, start, end));
+            double switches = valueAfter(buffer, CONTEXT_SWITCHES, start, end);
+            if (!Double.isNaN(switches)) {
+                result.points(MetricStore.PROCESS_CONTEXT_SWITCHES).add(timestamp, Math.round(switches));
+            }
+        } else if (startsWith(buffer, start, end, PLAYERS)) {
+            double players = parseDecimal(buffer, start + PLAYERS.length, end);
+            if (!Double.isNaN(players)) {
+                result.points(MetricStore.PLAYERS).add(timestamp, players);
+            }
+            double servers = valueAfter(buffer, SERVERS, start, end);
+            if (!Double.isNaN(servers)) {
+                result.points(MetricStore.SERVERS_ONLINE).add(timestamp, servers);
+            }
+        } else if (startsWith(buffer, start, end, JVM)) {
+            double heap = valueAfter(buffer, HEAP, start, end);
+            if (!Double.isNaN(heap)) {
+                result.points(MetricStore.JVM_HEAP).add(timestamp, MetricStore.snapPercent(heap));
+            }
+            double threads = valueAfter(buffer, THREADS, start, end);
+            if (!Double.isNaN(threads)) {
+                result.points(MetricStore.JVM_THREADS).add(timestamp, threads);
+            }
+            double gc = valueAfter(buffer, GC, start, end);
+            if (!Double.isNaN(gc)) {
+                result.points(MetricStore.JVM_GC_MS).add(timestamp, gc);
+            }
+        } else if (startsWith(buffer, start, end, CONNECTION)) {
+            double average = valueAfter(buffer, AVG_PING, start, end);
+            if (!Double.isNaN(average)) {
+                result.points(MetricStore.PING_AVG_MS).add(timestamp, MetricStore.snapPing(average));
+            }
+            double max = valueAfter(buffer, MAX_PING, start, end);
+            if (!Double.isNaN(max)) {
+                result.points(MetricStore.PING_MAX_MS).add(timestamp, MetricStore.snapPing(max));
+            }
+        } else if (startsWith(buffer, start, end, PSI)) {
+            addPercent(result, MetricStore.PSI_CPU, timestamp, valueAfter(buffer, PSI_CPU, start, end));
+            addPercent(result, MetricStore.PSI_MEMORY, timestamp, valueAfter(buffer, PSI_MEMORY, start, end));
+            addPercent(result, MetricStore.PSI_IO, timestamp, valueAfter(buffer, PSI_IO, start, end));
+        }
+    }
+
+    private static void addCount(ParsedLog result, String series, long timestamp, double count) {
+        if (!Double.isNaN(count)) {
+            result.points(series).add(timestamp, count);
+        }
+    }
+
+    private static void addPercent(ParsedLog result, String series, long timestamp, double percent) {
+        if (!Double.isNaN(percent)) {
+            result.points(series).add(timestamp, MetricStore.snapPercent(percent));
+        }
+    }
+
+    private static void addMillis(ParsedLog result, String series, long timestamp, double millis) {
+        if (!Double.isNaN(millis)) {
+            result.points(series).add(timestamp, MetricStore.snapPing(millis));
+        }
+    }
+
+    // "rx 1.20 MB/s" as whole bytes per second
+    private static void addSize(ParsedLog result, String series, long timestamp, ByteBuffer buffer, byte[] label,
+                                int start, int end) {
+        int position = indexOf(buffer, label, start, end);
+        if (position >= 0) {
+            double bytes = parseSize(buffer, position + label.length, end);
+            if (!Double.isNaN(bytes)) {
+                result.points(series).add(timestamp, Math.round(bytes));
+            }
+        }
+    }
+
+    private int interfaceIndex(ByteBuffer buffer, int start, int end) {
+        int length = end - start;
+        for (int i = 0; i < interfaceNames.size(); i++) {
+            byte[] name = interfaceNames.get(i);
+            if (name.length == length && regionMatches(buffer, start, name)) {
+                return i;
+            }
+        }
+        byte[] name = new byte[length];
+        buffer.get(start, name);
+        String interfaceName = new String(name, StandardCharsets.UTF_8);
+        interfaceNames.add(name);
+        rxSeries.add(MetricStore.deviceSeries(MetricStore.NET_RX_PREFIX, interfaceName));
+        txSeries.add(MetricStore.deviceSeries(MetricStore.NET_TX_PREFIX, interfaceName));
+        return interfaceNames.size() - 1;
+    }
+
+    private int backendIndex(ByteBuffer buffer, int start, int end) {
+        int length = end - start;
+        for (int i = 0; i < backendNames.size(); i++) {
+            byte[] name = backendNames.get(i);
+            if (name.length == length && regionMatches(buffer, start, name)) {
+                return i;
+            }
+        }
+        byte[] name = new byte[length];
+        buffer.get(start, name);
+        String backendName = new String(name, StandardCharsets.UTF_8);
+        backendNames.add(name);
+        backendCpuSeries.add(MetricStore.deviceSeries(MetricStore.BACKEND_CPU_PREFIX, backendName));
+        backendRssSeries.add(MetricStore.deviceSeries(MetricStore.BACKEND_RSS_PREFIX, backendName));
+        backendTpsSeries.add(MetricStore.deviceSeries(MetricStore.BACKEND_TPS_PREFIX, backendName));
+        backendMsptSeries.add(MetricStore.deviceSeries(MetricStore.BACKEND_MSPT_PREFIX, backendName));
+        backendMsptP99Series.add(MetricStore.deviceSeries(MetricStore.BACKEND_MSPT_P99_PREFIX, backendName));
+        return backendNames.size() - 1;
+    }
+
+    // Index of the disk in the series name lists, added on first sight
+    private int diskIndex(ByteBuffer buffer, int start, int end) {
+        int length = end - start;
+        for (int i = 0; i < diskNames.size(); i++) {
+            byte[] name = diskNames.get(i);
+            if (name.length == length && regionMatches(buffer, start, name)) {
+                return i;
+            }
+        }
+        byte[] name = new byte[length];
+        buffer.get(start, name);
+        String diskName = new String(name, StandardCharsets.UTF_8);
+        diskNames.add(name);
+        diskSeries.add(MetricStore.diskSeries(diskName));
+        diskUtilSeries.add(MetricStore.deviceSeries(MetricStore.DISK_UTIL_PREFIX, diskName));
+        diskAwaitSeries.add(MetricStore.deviceSeries(MetricStore.DISK_AWAIT_PREFIX, diskName));
+        return diskNames.size() - 1;
+    }
+
+    /**
+     * Epoch seconds for the bracketed timestamp, or Long.MIN_VALUE if it can't be read
+     */
+    private long parseTimestamp(ByteBuffer buffer, int start, int end) {
+        if (defaultFormat) {
+            // yyyy-MM-dd HH:mm:ss
+            if (end - start != 19) {
+                return Long.MIN_VALUE;
+            }
+            int year = digits(buffer, start, 4);
+            int month = digits(buffer, start + 5, 2);
+            int day = digits(buffer, start + 8, 2);
+            int hour = digits(buffer, start + 11, 2);
+            int minute = digits(buffer, start + 14, 2);
+            int second = digits(buffer, start + 17, 2);
+            if ((year | month | day | hour | minute | second) < 0) {
+                return Long.MIN_VALUE;
+            }
+            long hourKey = ((year * 13L + month) * 32 + day) * 24 + hour;
+            if (hourKey != cachedHourKey) {
+                try {
+                    cachedHourEpoch = LocalDateTime.of(year, month, day, hour, 0).atZone(zone).toEpochSecond();
+                    cachedHourKey = hourKey;
+                } catch (RuntimeException e) {
+                    return Long.MIN_VALUE;
+                }
+            }
+            return cachedHourEpoch + minute * 60L + second;
+        }
+        try {
+            return LocalDateTime.parse(new AsciiView(buffer, start, end - start), formatter).atZone(zone).toEpochSecond();
+        } catch (DateTimeException e) {
+            return Long.MIN_VALUE;
+        }
+    }
+
+    private static int digits(ByteBuffer buffer, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static double valueAfter(ByteBuffer buffer, byte[] label, int start, int end) {
+        int position = indexOf(buffer, label, start, end);
+        return position < 0 ? Double.NaN : parseDecimal(buffer, position + label.length, end);
+    }
+
+    /**
+     * Parse an unsigned decimal like "12.34" starting at {@code start}; NaN if there is no digit
+     */
+    static double parseDecimal(ByteBuffer buffer, int start, int end) {
+        long mantissa = 0;
+        int scale = 0;
+        boolean digits = false;
+        boolean fraction = false;
+        int position = start;
+        for (; position < end; position++) {
+            byte b = buffer.get(position);
+            if (b >= '0' && b <= '9') {
+                if (mantissa < 100_000_000_000_000L) {
+                    mantissa = mantissa * 10 + (b - '0');
+                    if (fraction) scale++;
+                } else if (!fraction) {
+                    scale--;
+                }
+                digits = true;
+            } else if (b == '.' && !fraction) {
+                fraction = true;
+            } else {
+                break;
+            }
+        }
+        if (!digits) {
+            return Double.NaN;
+        }
+        return scale >= 0 ? mantissa / Math.pow(10, scale) : mantissa * Math.pow(10, -scale);
+    }
+
+    /**
+     * Parse a size written by {@code formatBytes}, e.g. "3.21 GB", into bytes
+     */
+    private static double parseSize(ByteBuffer buffer, int start, int end) {
+        double value = parseDecimal(buffer, start, end);
+        int space = indexOf(buffer, (byte) ' ', start, end);
+        if (Double.isNaN(value) || space < 0 || space + 1 >= end) {
+            return Double.NaN;
+        }
+        return switch (buffer.get(space + 1)) {
+            case 'K' -> value * 1024;
+            case 'M' -> value * 1024 * 1024;
+            case 'G' -> value * 1024 * 1024 * 1024;
+            case 'T' -> value * 1024 * 1024 * 1024 * 1024;
+            default -> value;
+        };
+    }
+
+    private static boolean startsWith(ByteBuffer buffer, int start, int end, byte[] prefix) {
+        return end - start >= prefix.length && regionMatches(buffer, start, prefix);
+    }
+
+    private static boolean regionMatches(ByteBuffer buffer, int start, byte[] bytes) {
+        for (int i = 0; i < bytes.length; i++) {
+            if (buffer.get(start + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf(ByteBuffer buffer, byte value, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (buffer.get(i) == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int indexOf(ByteBuffer buffer, byte[] pattern, int start, int end) {
+        int last = end - pattern.length;
+        for (int i = start; i <= last; i++) {
+            if (buffer.get(i) == pattern[0] && regionMatches(buffer, i, pattern)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Read-only ASCII view of mapped bytes for {@link DateTimeFormatter}
+     */
+    private record AsciiView(ByteBuffer buffer, int offset, int length) implements CharSequence {
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (buffer.get(offset + index) & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new AsciiView(buffer, offset + start, end - start);
+        }
+
+        @Override
+        public String toString() {
+            byte[] bytes = new byte[length];
+            buffer.get(offset, bytes);
+            return new String(bytes, StandardCharsets.ISO_8859_1);
+        }
+    }
+}
@@ -0,0 +1,429 @@
+package net.bubblecraft.bubblelog.util;
+
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.zip.CRC32C;
+
+/**
+ * Appends text records to a log file so that a crash can't leave a damaged record behind
+ * unnoticed. Each record stays readable text but ends with a framing trailer,
+ * {@code <record> #<length>:<crc32c>}, giving its byte length and CRC32C. Records may span
+ * several lines; the length locates the start of the record from its trailer.
+ *
+ * When a file is opened, its tail is checked and a torn or corrupt last record is truncated
+ * away before anything new is appended; what was removed is kept in the loss counters.
+ * Writes are synced to disk according to the {@link FsyncPolicy}. Thread-safe.
+ */
+public final class FramedLogWriter {
+
+    // How much of the end of a file the startup check reads
+    private static final int TAIL_SCAN_BYTES = 64 * 1024;
+    private static final int CRC_DIGITS = 8;
+
+    // Deferred INTERVAL syncs; one daemon thread shared by every writer, so a blocking force
+    // never occupies a common pool worker
+    private static final class SyncScheduler {
+        static final ScheduledExecutorService INSTANCE = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("BubbleLog-fsync").daemon(true).factory());
+    }
+
+    public enum FsyncPolicy {
+        /** Leave it to the OS; a crash can lose the last few seconds */
+        NONE,
+        /** Sync at most once per interval; a crash loses at most one interval */
+        INTERVAL,
+        /** Sync after every write */
+        BATCH;
+
+        /**
+         * @return the policy named in the config, or {@code null} if unknown
+         */
+        public static FsyncPolicy parse(String name) {
+            for (FsyncPolicy policy : values()) {
+                if (policy.name().equalsIgnoreCase(name.trim())) {
+                    return policy;
+                }
+            }
+            return null;
+        }
+    }
+
+    private final String name;
+    private final Logger logger;
+    private final Supplier<FsyncPolicy> policy;
+    private final LongSupplier syncIntervalMillis;
+
+    private Path path;
+    private FileChannel channel;
+    private long lastSyncNanos = System.nanoTime();
+    private long unsyncedBytes;
+    private boolean syncScheduled;
+
+    private long recordsWritten;
+    private long syncs;
+    private long tailsRepaired;
+    private long bytesTruncated;
+    private long recordsDropped;
+    private long lastGapSeconds = -1;
+
+    /**
+     * @param name used in log messages, e.g. "usage log"
+     * @param policy read on every write so a config reload takes effect
+     */
+    public FramedLogWriter(String name, Logger logger, Supplier<FsyncPolicy> policy, LongSupplier syncIntervalMillis) {
+        this.name = name;
+        this.logger = logger;
+        this.policy = policy;
+        this.syncIntervalMillis = syncIntervalMillis;
+    }
+
+    /**
+     * Append one record to {@code file}, switching files if it differs from the last one.
+     * Files must only be moved away through {@link #rotate}, which makes the next record
+     * start a new file.
+     */
+    public synchronized void append(Path file, String record) throws IOException {
+        byte[] framed = frame(record);
+        try {
+            if (channel == null || !file.equals(path)) {
+                open(file);
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(framed);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            closeChannel();
+            throw e;
+        }
+        recordsWritten++;
+        unsyncedBytes += framed.length;
+
+        switch (policy.get()) {
+            case BATCH -> sync();
+            case INTERVAL -> {
+                long interval = Math.max(1, syncIntervalMillis.getAsLong());
+                long sinceSync = (System.nanoTime() - lastSyncNanos) / 1_000_000;
+                if (sinceSync >= interval) {
+                    sync();
+                } else if (!syncScheduled) {
+                    // Nothing may be written for a while; don't leave this record unsynced until then
+                    syncScheduled = true;
+                    SyncScheduler.INSTANCE.schedule(this::scheduledSync, interval - sinceSync, TimeUnit.MILLISECONDS);
+                }
+            }
+            case NONE -> {
+            }
+        }
+    }
+
+    private synchronized void scheduledSync() {
+        syncScheduled = false;
+        try {
+            sync();
+        } catch (IOException e) {
+            logger.debug("Failed to sync {}", name, e);
+        }
+    }
+
+    /**
+     * Force written records to disk
+     */
+    public synchronized void sync() throws IOException {
+        if (channel == null) {
+            // Closed after a write error; what wasn't synced then is still unsynced
+            return;
+        }
+        if (unsyncedBytes > 0) {
+            channel.force(false);
+            syncs++;
+        }
+        unsyncedBytes = 0;
+        lastSyncNanos = System.nanoTime();
+    }
+
+    /**
+     * Move {@code file} to {@code target} unless it was modified after {@code lastModified}.
+     * No record can be appended while this runs; the next one starts a new {@code file}.
+     * @return whether the file was moved
+     */
+    public synchronized boolean rotate(Path file, Path target, FileTime lastModified) throws IOException {
+        if (!Files.exists(file) || !Files.getLastModifiedTime(file).equals(lastModified)) {
+            return false;
+        }
+        if (file.equals(path)) {
+            sync();
+            closeChannel();
+        }
+        Files.move(file, target, StandardCopyOption.ATOMIC_MOVE);
+        return true;
+    }
+
+    private void open(Path file) throws IOException {
+        // Records in the file being left must not stay unsynced once nothing tracks it
+        sync();
+        closeChannel();
+        Path parent = file.getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        boolean existed = Files.exists(file);
+        if (existed) {
+            lastGapSeconds = Math.max(0, (System.currentTimeMillis() - Files.getLastModifiedTime(file).toMillis()) / 1000);
+        }
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        path = file;
+        if (existed) {
+            repairTail();
+        }
+        channel.position(channel.size());
+    }
+
+    // Truncate a torn or corrupt tail left by a crash
+    private void repairTail() throws IOException {
+        long size = channel.size();
+        int windowLength = (int) Math.min(size, TAIL_SCAN_BYTES);
+        long windowStart = size - windowLength;
+        ByteBuffer window = ByteBuffer.allocate(windowLength);
+        while (window.hasRemaining()) {
+            if (channel.read(window, windowStart + window.position()) < 0) {
+                break;
+            }
+        }
+        window.flip();
+        int end = window.limit();
+
+        int validEnd = validEnd(window, end);
+        if (validEnd < 0) {
+            return; // a line longer than the scan window; nothing we can judge
+        }
+        int dropped = 0;
+        if (validEnd < end) {
+            dropped++;
+        }
+        // Framed records are checked from the last one back until one verifies
+        while (validEnd > 0) {
+            int lineEnd = stripLineEnd(window, validEnd);
+            int lineStart = lastIndexOf(window, (byte) '\n', 0, lineEnd) + 1;
+            int trailer = findTrailer(window, lineStart, lineEnd);
+            if (trailer < 0) {
+                break;
+            }
+            int start = recordStart(window, trailer, lineEnd);
+            if (start == -2 || (start >= 0 && verify(window, start, trailer, lineEnd))) {
+                break;
+            }
+            dropped++;
+            validEnd = Math.max(0, start);
+            if (start < 0) {
+                // The trailer itself is damaged; drop back to the previous line
+                validEnd = lineStart;
+            }
+        }
+        // A damaged length can point into the middle of a line; never keep part of one
+        if (validEnd > 0 && window.get(validEnd - 1) != '\n') {
+            validEnd = lastIndexOf(window, (byte) '\n', 0, validEnd) + 1;
+        }
+
+        if (validEnd < end) {
+            long truncated = end - validEnd;
+            channel.truncate(windowStart + validEnd);
+            channel.force(true);
+            tailsRepaired++;
+            bytesTruncated += truncated;
+            recordsDropped += dropped;
+            logger.warn("Repaired {} after an unclean shutdown: removed {} damaged record(s), {} bytes at the end of {}",
+                name, dropped, truncated, path.getFileName());
+        }
+    }
+
+    /**
+     * End of the last complete line in the window, or of the last framed record if unframed
+     * lines follow it (the pieces of a torn multi-line record); -1 if nothing can be judged
+     */
+    private static int validEnd(ByteBuffer window, int end) {
+        int lastNewline = lastIndexOf(window, (byte) '\n', 0, end);
+        if (lastNewline < 0) {
+            // One partial line: only safe to drop if it is the whole file
+            return window.capacity() < TAIL_SCAN_BYTES ? 0 : -1;
+        }
+        int lineEnd = lastNewline + 1;
+        while (lineEnd > 0) {
+            int contentEnd = stripLineEnd(window, lineEnd);
+            int lineStart = lastIndexOf(window, (byte) '\n', 0, contentEnd) + 1;
+            if (findTrailer(window, lineStart, contentEnd) >= 0) {
+                return lineEnd;
+            }
+            lineEnd = lineStart;
+        }
+        // No framed record at all: a log written before framing, keep every complete line
+        return lastNewline + 1;
+    }
+
+    // End of the content of the line that ends (with its terminator) at 'lineEnd'
+    private static int stripLineEnd(ByteBuffer buffer, int lineEnd) {
+        int end = lineEnd;
+        if (end > 0 && buffer.get(end - 1) == '\n') {
+            end--;
+        }
+        if (end > 0 && buffer.get(end - 1) == '\r') {
+            end--;
+        }
+        return end;
+    }
+
+    /**
+     * The record followed by its framing trailer and a line separator
+     */
+    static byte[] frame(String record) {
+        byte[] content = record.getBytes(StandardCharsets.UTF_8);
+        CRC32C crc = new CRC32C();
+        crc.update(content);
+        byte[] trailer = (" #" + content.length + ":" + "%08x".formatted(crc.getValue()) + System.lineSeparator())
+            .getBytes(StandardCharsets.US_ASCII);
+        byte[] framed = new byte[content.length + trailer.length];
+        System.arraycopy(content, 0, framed, 0, content.length);
+        System.arraycopy(trailer, 0, framed, content.length, trailer.length);
+        return framed;
+    }
+
+    /**
+     * Position of the {@code " #<length>:<crc>"} trailer ending a line's content
+     * [start, end), or -1 if the line has none
+     */
+    public static int findTrailer(ByteBuffer buffer, int start, int end) {
+        int colon = end - CRC_DIGITS - 1;
+        if (colon - 3 < start || buffer.get(colon) != ':') {
+            return -1;
+        }
+        for (int i = colon + 1; i < end; i++) {
+            if (Character.digit(buffer.get(i), 16) < 0) {
+                return -1;
+            }
+        }
+        int position = colon - 1;
+        while (position > start && buffer.get(position) >= '0' && buffer.get(position) <= '9') {
+            position--;
+        }
+        if (position == colon - 1 || position < start + 1 || buffer.get(position) != '#' || buffer.get(position - 1) != ' ') {
+            return -1;
+        }
+        return position - 1;
+    }
+
+    /**
+     * Start of the record whose trailer is at {@code trailer}, from the length it carries;
+     * -1 if the length is implausible, -2 if the record starts before the buffer
+     */
+    public static int recordStart(ByteBuffer buffer, int trailer, int end) {
+        long length = 0;
+        int colon = end - CRC_DIGITS - 1;
+        for (int i = trailer + 2; i < colon; i++) {
+            length = length * 10 + (buffer.get(i) - '0');
+            if (length > Integer.MAX_VALUE) {
+                return -1;
+            }
+        }
+        long start = trailer - length;
+        return start < 0 ? -2 : (int) start;
+    }
+
+    /**
+     * Whether the record [start, trailer) matches the checksum in its trailer
+     */
+    public static boolean verify(ByteBuffer buffer, int start, int trailer, int end) {
+        long expected = 0;
+        for (int i = end - CRC_DIGITS; i < end; i++) {
+            expected = (expected << 4) | Character.digit(buffer.get(i), 16);
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.duplicate().limit(trailer).position(start));
+        return crc.getValue() == expected;
+    }
+
+    private static int lastIndexOf(ByteBuffer buffer, byte value, int start, int end) {
+        for (int i = end - 1; i >= start; i--) {
+            if (buffer.get(i) == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public synchronized long getRecordsWritten() {
+        return recordsWritten;
+    }
+
+    public synchronized long getSyncs() {
+        return syncs;
+    }
+
+    /** Files whose tail had to be truncated when opened */
+    public synchronized long getTailsRepaired() {
+        return tailsRepaired;
+    }
+
+    public synchronized long getBytesTruncated() {
+        return bytesTruncated;
+    }
+
+    /** Torn or corrupt records removed by tail repairs */
+    public synchronized long getRecordsDropped() {
+        return recordsDropped;
+    }
+
+    /** Written but not yet synced, i.e. what a crash right now could lose */
+    public synchronized long getUnsyncedBytes() {
+        return unsyncedBytes;
+    }
+
+    /**
+     * Seconds between the last write before this process and the first one after it - the
+     * window in which nothing was logged - or -1 if the file was new
+     */
+    public synchronized long getLastGapSeconds() {
+        return lastGapSeconds;
+    }
+
+    public FsyncPolicy getPolicy() {
+        return policy.get();
+    }
+
+    /**
+     * Sync and release the file
+     */
+    public synchronized void close() {
+        try {
+            sync();
+        } catch (IOException e) {
+            logger.warn("Failed to sync {} on close", name, e);
+        }
+        closeChannel();
+    }
+
+    private void closeChannel() {
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (IOException e) {
+            logger.debug("Failed to close {}", name, e);
+        }
+        channel = null;
+        path = null;
+    }
+}
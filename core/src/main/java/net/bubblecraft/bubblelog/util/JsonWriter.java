@@ -0,0 +1,219 @@
+package net.bubblecraft.bubblelog.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Minimal streaming JSON writer that appends UTF-8 straight into a reusable byte buffer.
+ *
+ * Payloads are assembled from precomputed {@link #fragment(String) fragments} for the static
+ * parts and escaped values for the dynamic ones, so building a message costs one pass over
+ * the dynamic text and no intermediate Strings. The caller is responsible for structure
+ * (commas, brackets) - this is a template filler, not a validating writer.
+ */
+public final class JsonWriter {
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final long[] POWERS_OF_TEN = {1, 10, 100, 1_000, 10_000, 100_000, 1_000_000};
+    private static final byte[] TRUE = fragment("true");
+    private static final byte[] FALSE = fragment("false");
+
+    private byte[] buffer;
+    private int size;
+
+    public JsonWriter(int initialCapacity) {
+        this.buffer = new byte[Math.max(16, initialCapacity)];
+    }
+
+    /**
+     * Encode a static JSON piece once so it can be appended with {@link #raw(byte[])}
+     */
+    public static byte[] fragment(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public JsonWriter reset() {
+        size = 0;
+        return this;
+    }
+
+    public JsonWriter raw(byte[] fragment) {
+        ensureCapacity(fragment.length);
+        System.arraycopy(fragment, 0, buffer, size, fragment.length);
+        size += fragment.length;
+        return this;
+    }
+
+    public JsonWriter raw(byte[] bytes, int offset, int length) {
+        ensureCapacity(length);
+        System.arraycopy(bytes, offset, buffer, size, length);
+        size += length;
+        return this;
+    }
+
+    public JsonWriter raw(char c) {
+        ensureCapacity(1);
+        buffer[size++] = (byte) c;
+        return this;
+    }
+
+    /**
+     * Write a quoted, escaped JSON string ({@code null} becomes an empty string)
+     */
+    public JsonWriter string(CharSequence text) {
+        raw('"');
+        escaped(text);
+        return raw('"');
+    }
+
+    /**
+     * Write escaped string content without quotes, in a single pass over the input
+     */
+    public JsonWriter escaped(CharSequence text) {
+        if (text == null) {
+            return this;
+        }
+        int length = text.length();
+        // Worst case is 6 bytes per char (\\u00XX); grow once up front for the common case
+        ensureCapacity(length + 16);
+
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                if (c >= 0x20 && c != '"' && c != '\\') {
+                    ensureCapacity(1);
+                    buffer[size++] = (byte) c;
+                } else {
+                    writeEscape(c);
+                }
+            } else if (c < 0x800) {
+                ensureCapacity(2);
+                buffer[size++] = (byte) (0xC0 | (c >> 6));
+                buffer[size++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(text.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                ensureCapacity(4);
+                buffer[size++] = (byte) (0xF0 | (codePoint >> 18));
+                buffer[size++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                buffer[size++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buffer[size++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // Unpaired surrogate - not representable in UTF-8
+                ensureCapacity(1);
+                buffer[size++] = '?';
+            } else {
+                ensureCapacity(3);
+                buffer[size++] = (byte) (0xE0 | (c >> 12));
+                buffer[size++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[size++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return this;
+    }
+
+    private void writeEscape(char c) {
+        ensureCapacity(6);
+        buffer[size++] = '\\';
+        switch (c) {
+            case '"' -> buffer[size++] = '"';
+            case '\\' -> buffer[size++] = '\\';
+            case '\n' -> buffer[size++] = 'n';
+            case '\r' -> buffer[size++] = 'r';
+            case '\t' -> buffer[size++] = 't';
+            case '\b' -> buffer[size++] = 'b';
+            case '\f' -> buffer[size++] = 'f';
+            default -> {
+                buffer[size++] = 'u';
+                buffer[size++] = '0';
+                buffer[size++] = '0';
+                buffer[size++] = HEX[(c >> 4) & 0xF];
+                buffer[size++] = HEX[c & 0xF];
+            }
+        }
+    }
+
+    public JsonWriter number(long value) {
+        ensureCapacity(20);
+        if (value == Long.MIN_VALUE) {
+            return raw(fragment(Long.toString(value)));
+        }
+        if (value < 0) {
+            buffer[size++] = '-';
+            value = -value;
+        }
+        int start = size;
+        do {
+            buffer[size++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        reverse(start, size - 1);
+        return this;
+    }
+
+    /**
+     * Write a fixed-point number rounded to the given number of decimals (0-6).
+     * Non-finite values are written as 0 so the payload stays valid JSON.
+     */
+    public JsonWriter number(double value, int decimals) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            value = 0.0;
+        }
+        decimals = Math.max(0, Math.min(decimals, POWERS_OF_TEN.length - 1));
+        long scale = POWERS_OF_TEN[decimals];
+        long scaled = Math.round(Math.abs(value) * scale);
+
+        if (value < 0 && scaled != 0) {
+            raw('-');
+        }
+        number(scaled / scale);
+        if (decimals > 0) {
+            raw('.');
+            long fraction = scaled % scale;
+            ensureCapacity(decimals);
+            for (int i = decimals - 1; i >= 0; i--) {
+                buffer[size + i] = (byte) ('0' + fraction % 10);
+                fraction /= 10;
+            }
+            size += decimals;
+        }
+        return this;
+    }
+
+    public JsonWriter bool(boolean value) {
+        return raw(value ? TRUE : FALSE);
+    }
+
+    private void reverse(int from, int to) {
+        while (from < to) {
+            byte tmp = buffer[from];
+            buffer[from++] = buffer[to];
+            buffer[to--] = tmp;
+        }
+    }
+
+    private void ensureCapacity(int extra) {
+        if (size + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+        }
+    }
+
+    /**
+     * Backing array - only the first {@link #size()} bytes are valid, and it is reused after {@link #reset()}
+     */
+    public byte[] buffer() {
+        return buffer;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, size);
+    }
+
+    @Override
+    public String toString() {
+        return new String(buffer, 0, size, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,138 @@
+package net.bubblecraft.bubblelog.util;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Naming and reading of the files under {@code logs/}. Rotated files may be gzip-compressed
+ * in place ({@code name.log} becomes {@code name.log.gz}); everything that reads them goes
+ * through here so both forms are handled alike.
+ */
+public final class LogFiles {
+
+    public static final String COMPRESSED_SUFFIX = ".gz";
+    public static final String ALERT_LOG_NAME = "alerts.log";
+
+    private static final String DATE_TOKEN = "%date%";
+    private static final String DATE_PATTERN = "(?<date>\\d{4}-\\d{2}-\\d{2})";
+    private static final Pattern ALERT_ARCHIVE = Pattern.compile("alerts-" + DATE_PATTERN + "\\.log(\\.gz)?");
+
+    private LogFiles() {
+    }
+
+    /**
+     * Name of the usage log for a date, following {@code logging.filename}: {@code name.log}
+     * becomes {@code name-<date>.log} unless it contains {@code %date%}
+     */
+    public static String usageLogName(String fileName, LocalDate date) {
+        return template(fileName).replace(DATE_TOKEN, date.toString());
+    }
+
+    /**
+     * Matches usage log names for {@code logging.filename}, compressed or not; the date is
+     * captured as group {@code date}
+     */
+    public static Pattern usageLogPattern(String fileName) {
+        String template = template(fileName);
+        int at = template.indexOf(DATE_TOKEN);
+        return Pattern.compile(Pattern.quote(template.substring(0, at)) + DATE_PATTERN
+            + Pattern.quote(template.substring(at + DATE_TOKEN.length())) + "(\\.gz)?");
+    }
+
+    private static String template(String fileName) {
+        if (fileName.contains(DATE_TOKEN)) {
+            return fileName;
+        }
+        int dot = fileName.lastIndexOf('.');
+        return dot < 0 ? fileName + "-" + DATE_TOKEN
+            : fileName.substring(0, dot) + "-" + DATE_TOKEN + fileName.substring(dot);
+    }
+
+    /**
+     * Name {@code alerts.log} is rotated to once its day is over
+     */
+    public static String alertArchiveName(LocalDate date) {
+        return "alerts-" + date + ".log";
+    }
+
+    public static Pattern alertArchivePattern() {
+        return ALERT_ARCHIVE;
+    }
+
+    /**
+     * Date a rotated log belongs to, or {@code null} if the name doesn't match the pattern
+     */
+    public static LocalDate dateOf(Path file, Pattern pattern) {
+        Matcher matcher = pattern.matcher(file.getFileName().toString());
+        if (!matcher.matches()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(matcher.group("date"));
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    public static boolean isCompressed(Path file) {
+        return file.getFileName().toString().endsWith(COMPRESSED_SUFFIX);
+    }
+
+    public static Path compressedPath(Path file) {
+        return file.resolveSibling(file.getFileName() + COMPRESSED_SUFFIX);
+    }
+
+    /**
+     * The name a file had before it was compressed
+     */
+    public static String uncompressedName(Path file) {
+        String name = file.getFileName().toString();
+        return isCompressed(file) ? name.substring(0, name.length() - COMPRESSED_SUFFIX.length()) : name;
+    }
+
+    /**
+     * Open a log for reading, decompressing it if needed
+     */
+    public static InputStream open(Path file) throws IOException {
+        InputStream in = Files.newInputStream(file);
+        if (!isCompressed(file)) {
+            return in;
+        }
+        try {
+            return new GZIPInputStream(new BufferedInputStream(in), 64 * 1024);
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Uncompressed size of a log. For gzip files this is read from the trailer, which holds the
+     * size modulo 2^32 - exact for any log small enough to import.
+     */
+    public static long uncompressedSize(Path file) throws IOException {
+        if (!isCompressed(file)) {
+            return Files.size(file);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < 4) {
+                throw new IOException("Truncated gzip file: " + file.getFileName());
+            }
+            ByteBuffer trailer = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            channel.read(trailer, channel.size() - 4);
+            return Integer.toUnsignedLong(trailer.getInt(0));
+        }
+    }
+}
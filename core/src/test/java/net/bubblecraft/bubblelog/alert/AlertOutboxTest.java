@@ -0,0 +1,97 @@
+package net.bubblecraft.bubblelog.alert;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AlertOutboxTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AlertOutboxTest.class);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replaysOnlyUnacknowledgedEntriesInOrder() throws IOException {
+        AlertOutbox outbox = new AlertOutbox(directory, "Test", LOGGER);
+        assertTrue(outbox.open().isEmpty());
+        long first = outbox.append(bytes("one"));
+        outbox.append(bytes("two"));
+        outbox.append(bytes("three"));
+        outbox.ack(new long[] {first}, 1);
+        outbox.close();
+
+        AlertOutbox reopened = new AlertOutbox(directory, "Test", LOGGER);
+        List<AlertOutbox.Entry> pending = reopened.open();
+        assertEquals(List.of("two", "three"), payloads(pending));
+        assertEquals(2, reopened.getPendingCount());
+
+        // Sequence numbers keep increasing across restarts
+        long next = reopened.append(bytes("four"));
+        assertTrue(next > pending.get(1).seq());
+        reopened.close();
+    }
+
+    @Test
+    void truncatesTornTailAndKeepsAppending() throws IOException {
+        AlertOutbox outbox = new AlertOutbox(directory, "Test", LOGGER);
+        outbox.open();
+        outbox.append(bytes("one"));
+        outbox.append(bytes("two"));
+        outbox.close();
+
+        Path segment = directory.resolve("test-00000001.seg");
+        long intactSize = Files.size(segment);
+        // A record header promising more bytes than were written, as left by a crash mid-append
+        Files.write(segment, new byte[] {0, 0, 0, 40, 1, 2, 3, 4, 1, 0, 0}, StandardOpenOption.APPEND);
+
+        AlertOutbox reopened = new AlertOutbox(directory, "Test", LOGGER);
+        assertEquals(List.of("one", "two"), payloads(reopened.open()));
+        assertEquals(intactSize, Files.size(segment));
+
+        reopened.append(bytes("three"));
+        reopened.close();
+
+        AlertOutbox again = new AlertOutbox(directory, "Test", LOGGER);
+        assertEquals(List.of("one", "two", "three"), payloads(again.open()));
+        again.close();
+    }
+
+    @Test
+    void dropsRecordWithBadChecksum() throws IOException {
+        AlertOutbox outbox = new AlertOutbox(directory, "Test", LOGGER);
+        outbox.open();
+        outbox.append(bytes("one"));
+        outbox.append(bytes("two"));
+        outbox.close();
+
+        // Flip the last payload byte of the second record
+        Path segment = directory.resolve("test-00000001.seg");
+        byte[] data = Files.readAllBytes(segment);
+        data[data.length - 1] ^= 0x7f;
+        Files.write(segment, data);
+
+        AlertOutbox reopened = new AlertOutbox(directory, "Test", LOGGER);
+        assertEquals(List.of("one"), payloads(reopened.open()));
+        reopened.close();
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> payloads(List<AlertOutbox.Entry> entries) {
+        return entries.stream().map(entry -> new String(entry.payload(), StandardCharsets.UTF_8)).toList();
+    }
+}
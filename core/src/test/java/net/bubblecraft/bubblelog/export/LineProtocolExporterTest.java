@@ -0,0 +1,243 @@
+package net.bubblecraft.bubblelog.export;
+
+import com.sun.net.httpserver.HttpServer;
+import net.bubblecraft.bubblelog.config.ConfigManager;
+import net.bubblecraft.bubblelog.monitor.MetricsSnapshot;
+import net.bubblecraft.bubblelog.monitor.SystemMonitor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Drives the exporter against a local HTTP stub standing in for an InfluxDB write endpoint
+ */
+class LineProtocolExporterTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LineProtocolExporterTest.class);
+    private static final long BASE_TIMESTAMP = 1_700_000_000_000L;
+
+    @TempDir
+    Path directory;
+
+    private HttpServer server;
+    // Status codes for the next requests; 'status' once exhausted
+    private final ConcurrentLinkedQueue<Integer> responses = new ConcurrentLinkedQueue<>();
+    private volatile int status = 204;
+    private final List<Request> requests = new CopyOnWriteArrayList<>();
+
+    private record Request(int status, String encoding, String body) {}
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/write", exchange -> {
+            byte[] raw = exchange.getRequestBody().readAllBytes();
+            String encoding = exchange.getRequestHeaders().getFirst("Content-Encoding");
+            InputStream in = new ByteArrayInputStream(raw);
+            if ("gzip".equals(encoding)) {
+                in = new GZIPInputStream(in);
+            }
+            Integer next = responses.poll();
+            int answer = next != null ? next : status;
+            requests.add(new Request(answer, encoding, new String(in.readAllBytes(), StandardCharsets.UTF_8)));
+            exchange.sendResponseHeaders(answer, -1);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void batchesSnapshotsIntoOneGzippedRequest() throws Exception {
+        LineProtocolExporter exporter = exporter(100, 1);
+        exporter.start();
+        try {
+            for (int i = 0; i < 3; i++) {
+                exporter.onSnapshot(snapshot(i));
+            }
+            await(() -> exporter.getLinesSent() == 3);
+
+            assertEquals(1, requests.size());
+            assertEquals("gzip", requests.get(0).encoding());
+            assertEquals(Set.of(0, 1, 2), sentSamples());
+            assertEquals(1, exporter.getRequestsSent());
+        } finally {
+            exporter.shutdown();
+        }
+    }
+
+    @Test
+    void retriesOnRateLimitAndServerErrors() throws Exception {
+        responses.add(429);
+        responses.add(503);
+        LineProtocolExporter exporter = exporter(100, 1);
+        exporter.start();
+        try {
+            exporter.onSnapshot(snapshot(0));
+            await(() -> exporter.getLinesSent() == 1);
+
+            assertEquals(3, requests.size());
+            assertEquals(requests.get(0).body(), requests.get(2).body());
+            assertEquals(2, exporter.getRequestsFailed());
+            assertEquals(0, exporter.getLinesDropped());
+        } finally {
+            exporter.shutdown();
+        }
+    }
+
+    @Test
+    void spillsWhileEndpointIsDownAndCatchesUp() throws Exception {
+        status = 503;
+        LineProtocolExporter exporter = exporter(1, 1);
+        exporter.start();
+        try {
+            exporter.onSnapshot(snapshot(0));
+            await(exporter::isEndpointDown);
+            // The sender is busy retrying sample 0: one sample fits the queue, the rest goes to disk
+            for (int i = 1; i < 20; i++) {
+                exporter.onSnapshot(snapshot(i));
+            }
+            await(() -> exporter.getLinesSpilled() == 18);
+            assertTrue(exporter.getSpilledBytes() > 0);
+
+            status = 204;
+            await(() -> exporter.getLinesSent() == 20);
+
+            assertEquals(0, exporter.getLinesDropped());
+            assertEquals(0, exporter.getSpilledBytes());
+            assertEquals(rangeSet(20), sentSamples());
+        } finally {
+            exporter.shutdown();
+        }
+    }
+
+    @Test
+    void replaysSpillAfterRestart() throws Exception {
+        status = 503;
+        LineProtocolExporter first = exporter(1, 1);
+        first.start();
+        for (int i = 0; i < 10; i++) {
+            first.onSnapshot(snapshot(i));
+        }
+        await(() -> !requests.isEmpty());
+        first.shutdown();
+        assertEquals(0, first.getLinesSent());
+
+        status = 204;
+        requests.clear();
+        LineProtocolExporter second = exporter(1, 1);
+        second.start();
+        try {
+            await(() -> second.getLinesSent() == 10);
+            assertEquals(rangeSet(10), sentSamples());
+        } finally {
+            second.shutdown();
+        }
+    }
+
+    @Test
+    void skipsNonFiniteFields() throws Exception {
+        LineProtocolExporter exporter = exporter(100, 1);
+        MetricsSnapshot snapshot = MetricsSnapshot.builder(BASE_TIMESTAMP)
+            .cpuUsage(Double.POSITIVE_INFINITY)
+            .memoryUsage(new SystemMonitor.MemoryUsage(1000, 400, 600, Double.NaN))
+            .build();
+
+        exporter.start();
+        try {
+            String lines = new String(exporter.format(snapshot), StandardCharsets.UTF_8);
+
+            // The cpu line had no finite field left and is dropped entirely
+            assertEquals("bubblelog_memory total=1000i,used=400i,available=600i " + BASE_TIMESTAMP * 1_000_000 + "\n", lines);
+        } finally {
+            exporter.shutdown();
+        }
+    }
+
+    private LineProtocolExporter exporter(int queueSize, int flushIntervalSeconds) throws IOException {
+        Path data = directory.resolve("data");
+        Files.createDirectories(data);
+        Files.writeString(data.resolve("config.yml"), """
+            export:
+              line-protocol:
+                enabled: true
+                url: "http://127.0.0.1:%d/write"
+                batch-size: 256
+                flush-interval: %d
+                compression: true
+                queue-size: %d
+                spill-max-size: 1
+            """.formatted(server.getAddress().getPort(), flushIntervalSeconds, queueSize));
+        ConfigManager config = new ConfigManager(data, LOGGER);
+        config.loadConfig();
+        return new LineProtocolExporter(config, LOGGER, directory.resolve("spill"));
+    }
+
+    // One memory line per snapshot; its used bytes identify the sample
+    private static MetricsSnapshot snapshot(int sample) {
+        SystemMonitor.MemoryUsage memory = new SystemMonitor.MemoryUsage(1 << 30, sample, (1 << 30) - sample, 0.0);
+        return MetricsSnapshot.builder(BASE_TIMESTAMP + sample * 1000L).memoryUsage(memory).build();
+    }
+
+    // Samples in every accepted request
+    private Set<Integer> sentSamples() {
+        Set<Integer> samples = new TreeSet<>();
+        for (Request request : requests) {
+            if (request.status() >= 300) {
+                continue;
+            }
+            for (String line : request.body().split("\n")) {
+                int start = line.indexOf(",used=") + 6;
+                int end = line.indexOf('i', start);
+                assertTrue(samples.add(Integer.parseInt(line.substring(start, end))), "sent twice: " + line);
+            }
+        }
+        return samples;
+    }
+
+    private static Set<Integer> rangeSet(int count) {
+        Set<Integer> range = new TreeSet<>();
+        for (int i = 0; i < count; i++) {
+            range.add(i);
+        }
+        return range;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(20).toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail("Timed out waiting for the exporter");
+            }
+            Thread.sleep(20);
+        }
+    }
+}
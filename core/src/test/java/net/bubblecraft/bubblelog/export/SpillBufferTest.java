@@ -0,0 +1,48 @@
+package net.bubblecraft.bubblelog.export;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SpillBufferTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void unsentRemainderIsTakenBeforeNewerLines() throws IOException {
+        SpillBuffer spill = new SpillBuffer(directory, "test", 1024 * 1024, LoggerFactory.getLogger(SpillBufferTest.class));
+        spill.open();
+        spill.append(bytes("1\n2\n3\n"), 3);
+
+        SpillBuffer.Taken taken = spill.takeOldest();
+        byte[] data = Files.readAllBytes(taken.path());
+        // "1" was sent, then newer lines arrived before the rest went out
+        spill.append(bytes("4\n"), 1);
+        spill.putBack(taken, data, 2, data.length);
+
+        assertEquals(3, spill.getLines());
+        SpillBuffer.Taken remainder = spill.takeOldest();
+        assertEquals("2\n3\n", Files.readString(remainder.path()));
+        spill.release(remainder);
+        SpillBuffer.Taken newer = spill.takeOldest();
+        assertEquals("4\n", Files.readString(newer.path()));
+        spill.release(newer);
+
+        assertNull(spill.takeOldest());
+        assertEquals(0, spill.getBytes());
+        spill.close();
+    }
+
+    private static byte[] bytes(String lines) {
+        return lines.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,176 @@
+package net.bubblecraft.bubblelog.export;
+
+import net.bubblecraft.bubblelog.config.ConfigManager;
+import net.bubblecraft.bubblelog.monitor.MetricsSnapshot;
+import net.bubblecraft.bubblelog.monitor.SystemMonitor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Sends snapshots to a UDP listener on the loopback interface standing in for the agent
+ */
+class StatsdExporterTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StatsdExporterTest.class);
+
+    @TempDir
+    Path directory;
+
+    private DatagramChannel listener;
+
+    @BeforeEach
+    void bindListener() throws IOException {
+        listener = DatagramChannel.open();
+        listener.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        listener.configureBlocking(false);
+    }
+
+    @AfterEach
+    void closeListener() throws IOException {
+        listener.close();
+    }
+
+    @Test
+    void sendsDogstatsdLinesWithTags() throws Exception {
+        StatsdExporter exporter = exporter("dogstatsd", 1432);
+        exporter.start();
+        try {
+            exporter.onSnapshot(snapshot());
+
+            List<String> datagrams = receive(1);
+            assertEquals(List.of(
+                "bl.memory.total_bytes:1000|g|#proxy:eu-1",
+                "bl.memory.used_bytes:400|g|#proxy:eu-1",
+                "bl.memory.available_bytes:600|g|#proxy:eu-1",
+                "bl.memory.usage:40.25|g|#proxy:eu-1",
+                "bl.players:12|g|#proxy:eu-1",
+                "bl.players.max:100|g|#proxy:eu-1",
+                "bl.servers.online:2|g|#proxy:eu-1",
+                "bl.servers.total:3|g|#proxy:eu-1",
+                "bl.backend.players:12|g|#proxy:eu-1,backend:lobby"
+            ), lines(datagrams));
+            assertEquals(1, exporter.getDatagramsSent());
+            assertEquals(9, exporter.getLinesSent());
+            assertEquals(0, exporter.getLinesDropped());
+        } finally {
+            exporter.shutdown();
+        }
+    }
+
+    @Test
+    void sendsStatsdLinesWithLabelsInTheName() throws Exception {
+        StatsdExporter exporter = exporter("statsd", 1432);
+        exporter.start();
+        try {
+            exporter.onSnapshot(snapshot());
+
+            assertEquals(List.of(
+                "bl.memory.total_bytes:1000|g",
+                "bl.memory.used_bytes:400|g",
+                "bl.memory.available_bytes:600|g",
+                "bl.memory.usage:40.25|g",
+                "bl.players:12|g",
+                "bl.players.max:100|g",
+                "bl.servers.online:2|g",
+                "bl.servers.total:3|g",
+                "bl.backend.players.lobby:12|g"
+            ), lines(receive(1)));
+        } finally {
+            exporter.shutdown();
+        }
+    }
+
+    @Test
+    void splitsLinesAcrossDatagramsAtPacketSize() throws Exception {
+        StatsdExporter exporter = exporter("statsd", 64);
+        exporter.start();
+        try {
+            exporter.onSnapshot(snapshot());
+
+            int sent = (int) exporter.getDatagramsSent();
+            assertTrue(sent > 1, "expected several datagrams, got " + sent);
+            List<String> datagrams = receive(sent);
+            for (String datagram : datagrams) {
+                assertTrue(datagram.getBytes(StandardCharsets.UTF_8).length <= 64, "oversized datagram: " + datagram);
+            }
+            assertEquals(9, lines(datagrams).size());
+        } finally {
+            exporter.shutdown();
+        }
+    }
+
+    private StatsdExporter exporter(String flavor, int maxPacketSize) throws IOException {
+        Path data = directory.resolve("data");
+        Files.createDirectories(data);
+        Files.writeString(data.resolve("config.yml"), """
+            export:
+              statsd:
+                enabled: true
+                host: "127.0.0.1"
+                port: %d
+                flavor: "%s"
+                prefix: "bl."
+                tags: "proxy: eu-1"
+                max-packet-size: %d
+            """.formatted(((InetSocketAddress) listener.getLocalAddress()).getPort(), flavor, maxPacketSize));
+        ConfigManager config = new ConfigManager(data, LOGGER);
+        config.loadConfig();
+        return new StatsdExporter(config, LOGGER);
+    }
+
+    private static MetricsSnapshot snapshot() {
+        return MetricsSnapshot.builder(1_700_000_000_000L)
+            .memoryUsage(new SystemMonitor.MemoryUsage(1000, 400, 600, 40.25))
+            .networkData(new SystemMonitor.NetworkData(12, 100, 12.0, 2, 3, Map.of("lobby", 12)))
+            .build();
+    }
+
+    private List<String> receive(int count) throws IOException, InterruptedException {
+        List<String> datagrams = new ArrayList<>();
+        ByteBuffer buffer = ByteBuffer.allocate(65_536);
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (datagrams.size() < count) {
+            buffer.clear();
+            if (listener.receive(buffer) == null) {
+                if (System.nanoTime() > deadline) {
+                    fail("Received " + datagrams.size() + " of " + count + " datagram(s)");
+                }
+                Thread.sleep(5);
+                continue;
+            }
+            buffer.flip();
+            datagrams.add(StandardCharsets.UTF_8.decode(buffer).toString());
+        }
+        return datagrams;
+    }
+
+    private static List<String> lines(List<String> datagrams) {
+        List<String> lines = new ArrayList<>();
+        for (String datagram : datagrams) {
+            lines.addAll(Arrays.asList(datagram.split("\n")));
+        }
+        return lines;
+    }
+}
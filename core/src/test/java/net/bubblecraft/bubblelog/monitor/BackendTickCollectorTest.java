@@ -0,0 +1,114 @@
+package net.bubblecraft.bubblelog.monitor;
+
+import net.bubblecraft.bubblelog.config.ConfigManager;
+import net.bubblecraft.bubblelog.platform.ProxyPlatform;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BackendTickCollectorTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BackendTickCollectorTest.class);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void reportsTickTimesBeyondSixHundredMilliseconds() {
+        BackendTickCollector collector = collector();
+        // A 2.5 s lag spike, which the 16-bit format of version 1 clamped to 655.35 ms
+        collector.accept("lobby", message(2, 19.5, 48.0, 45.0, 900.25, 1800.5, 2500.0, 1520, 880, 12));
+
+        List<BackendTickCollector.BackendTick> ticks = collector.collect();
+        assertEquals(1, ticks.size());
+        BackendTickCollector.BackendTick tick = ticks.get(0);
+        assertEquals(19.5, tick.getTps());
+        assertEquals(48.0, tick.getMsptAvg());
+        assertEquals(1800.5, tick.getMsptP99());
+        assertEquals(2500.0, tick.getMsptMax());
+        assertEquals(1520, tick.getEntities());
+        assertEquals(880, tick.getChunks());
+        assertEquals(12, tick.getPlayers());
+    }
+
+    @Test
+    void rejectsOtherVersions() {
+        BackendTickCollector collector = collector();
+        byte[] data = message(2, 20.0, 5.0, 5.0, 6.0, 7.0, 8.0, 10, 10, 1);
+        data[0] = 1;
+        collector.accept("lobby", data);
+
+        assertTrue(collector.collect().isEmpty());
+    }
+
+    private BackendTickCollector collector() {
+        return new BackendTickCollector(new StubPlatform(), new ConfigManager(directory, LOGGER), LOGGER);
+    }
+
+    // One sample in the current wire format
+    private static byte[] message(int version, double tps, double avg, double p50, double p95, double p99, double max,
+                                  long entities, long chunks, int players) {
+        ByteBuffer buffer = ByteBuffer.allocate(BackendTickCollector.HEADER_SIZE + BackendTickCollector.SAMPLE_SIZE);
+        buffer.put((byte) version).put((byte) 1).put((byte) 5);
+        buffer.putShort((short) Math.round(tps * 100));
+        for (double mspt : new double[] {avg, p50, p95, p99, max}) {
+            buffer.putInt((int) Math.round(mspt * 100));
+        }
+        buffer.putInt((int) entities).putInt((int) chunks).putShort((short) players);
+        return buffer.array();
+    }
+
+    private static final class StubPlatform implements ProxyPlatform {
+        private final List<Backend> backends = List.of(new Backend() {
+            @Override
+            public String getName() {
+                return "lobby";
+            }
+
+            @Override
+            public InetSocketAddress getAddress() {
+                return InetSocketAddress.createUnresolved("localhost", 25566);
+            }
+
+            @Override
+            public int getPlayerCount() {
+                return 0;
+            }
+
+            @Override
+            public CompletableFuture<?> ping() {
+                return CompletableFuture.completedFuture(null);
+            }
+        });
+
+        @Override
+        public int getPlayerCount() {
+            return 0;
+        }
+
+        @Override
+        public int getMaxPlayers() {
+            return 100;
+        }
+
+        @Override
+        public InetSocketAddress getBoundAddress() {
+            return null;
+        }
+
+        @Override
+        public List<? extends Backend> getBackends() {
+            return backends;
+        }
+    }
+}
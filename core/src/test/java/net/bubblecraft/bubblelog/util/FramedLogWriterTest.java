@@ -0,0 +1,89 @@
+package net.bubblecraft.bubblelog.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FramedLogWriterTest {
+
+    @TempDir
+    Path directory;
+
+    private final FramedLogWriter writer = new FramedLogWriter("test log", LoggerFactory.getLogger(FramedLogWriterTest.class),
+        () -> FramedLogWriter.FsyncPolicy.INTERVAL, () -> 3_600_000);
+
+    @Test
+    void syncsPreviousFileWhenSwitching() throws IOException {
+        Path first = directory.resolve("first.log");
+        Path second = directory.resolve("second.log");
+        writer.append(first, "one");
+        writer.sync();
+        writer.append(first, "two");
+        long syncsBefore = writer.getSyncs();
+
+        writer.append(second, "three");
+
+        assertEquals(syncsBefore + 1, writer.getSyncs());
+        assertEquals(FramedLogWriter.frame("three").length, writer.getUnsyncedBytes());
+        writer.close();
+    }
+
+    @Test
+    void syncsPendingRecordAfterInterval() throws IOException, InterruptedException {
+        FramedLogWriter interval = new FramedLogWriter("test log", LoggerFactory.getLogger(FramedLogWriterTest.class),
+            () -> FramedLogWriter.FsyncPolicy.INTERVAL, () -> 50);
+        Path log = directory.resolve("usage.log");
+        interval.append(log, "one");
+        interval.append(log, "two");
+
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (interval.getUnsyncedBytes() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(0, interval.getUnsyncedBytes());
+        assertEquals(1, interval.getSyncs());
+        interval.close();
+    }
+
+    @Test
+    void rotatesUnderTheWriter() throws IOException {
+        Path log = directory.resolve("alerts.log");
+        Path archive = directory.resolve("alerts-archive.log");
+        writer.append(log, "old");
+        FileTime modified = Files.getLastModifiedTime(log);
+
+        assertTrue(writer.rotate(log, archive, modified));
+        writer.append(log, "new");
+        writer.close();
+
+        assertEquals(List.of(line("old")), Files.readAllLines(archive));
+        assertEquals(List.of(line("new")), Files.readAllLines(log));
+    }
+
+    @Test
+    void skipsRotationWhenWrittenSinceCheck() throws IOException {
+        Path log = directory.resolve("alerts.log");
+        Path archive = directory.resolve("alerts-archive.log");
+        writer.append(log, "old");
+        FileTime checked = FileTime.fromMillis(Files.getLastModifiedTime(log).toMillis() - 60_000);
+
+        assertFalse(writer.rotate(log, archive, checked));
+        assertFalse(Files.exists(archive));
+        writer.close();
+    }
+
+    private static String line(String record) {
+        return new String(FramedLogWriter.frame(record)).stripTrailing();
+    }
+}
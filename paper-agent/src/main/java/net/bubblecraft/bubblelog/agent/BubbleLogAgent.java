@@ -0,0 +1,83 @@
+package net.bubblecraft.bubblelog.agent;
+
+import com.destroystokyo.paper.event.server.ServerTickEndEvent;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.util.Iterator;
+
+/**
+ * Companion plugin for Paper backends. Samples TPS, tick time percentiles, entities and
+ * loaded chunks every few seconds and sends them to BubbleLog on the Velocity proxy in
+ * small binary batches over the {@code bubblelog:ticks} plugin channel.
+ *
+ * Plugin messages to the proxy travel through a player's connection, so each batch goes
+ * through one online player and nothing is sent while the server is empty. The proxy
+ * swallows the messages; they never reach the client.
+ */
+public final class BubbleLogAgent extends JavaPlugin implements Listener {
+
+    static final String CHANNEL = "bubblelog:ticks";
+
+    private TickSampler sampler;
+    private TickBatch batch;
+
+    @Override
+    public void onEnable() {
+        saveDefaultConfig();
+        int interval = clamp(getConfig().getInt("sample-interval", 5), "sample-interval");
+        int batchSize = clamp(getConfig().getInt("batch-size", 6), "batch-size");
+
+        sampler = new TickSampler(interval);
+        batch = new TickBatch(batchSize, interval);
+
+        getServer().getMessenger().registerOutgoingPluginChannel(this, CHANNEL);
+        getServer().getPluginManager().registerEvents(this, this);
+        getServer().getScheduler().runTaskTimer(this, this::sample, interval * 20L, interval * 20L);
+
+        getLogger().info("Reporting tick health to the proxy every " + interval * batchSize + " seconds");
+    }
+
+    @Override
+    public void onDisable() {
+        getServer().getMessenger().unregisterOutgoingPluginChannel(this, CHANNEL);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onTickEnd(ServerTickEndEvent event) {
+        sampler.record(event.getTickDuration());
+    }
+
+    private void sample() {
+        sampler.sample();
+        long entities = 0;
+        long chunks = 0;
+        for (World world : getServer().getWorlds()) {
+            entities += world.getEntityCount();
+            chunks += world.getChunkCount();
+        }
+        batch.add(sampler, entities, chunks, getServer().getOnlinePlayers().size());
+
+        if (!batch.isFull()) {
+            return;
+        }
+        Iterator<? extends Player> players = getServer().getOnlinePlayers().iterator();
+        if (players.hasNext()) {
+            players.next().sendPluginMessage(this, CHANNEL, batch.drain());
+        }
+    }
+
+    // Both settings travel as one unsigned byte
+    private int clamp(int value, String key) {
+        if (value >= 1 && value <= 255) {
+            return value;
+        }
+        int clamped = Math.max(1, Math.min(255, value));
+        getLogger().warning(key + " must be between 1 and 255 - using " + clamped);
+        return clamped;
+    }
+}
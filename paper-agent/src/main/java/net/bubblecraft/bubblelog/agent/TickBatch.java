@@ -0,0 +1,82 @@
+package net.bubblecraft.bubblelog.agent;
+
+import java.util.Arrays;
+
+/**
+ * Samples waiting to be sent, already encoded in the wire format the proxy's
+ * {@code BackendTickCollector} reads (big-endian):
+ * <pre>
+ * header  u8 version (2), u8 sample count, u8 seconds between samples
+ * sample  u16 TPS x100, u32 MSPT avg, u32 p50, u32 p95, u32 p99, u32 max (all 0.01 ms),
+ *         u32 entities, u32 loaded chunks, u16 players          - 32 bytes, oldest first
+ * </pre>
+ * Values that don't fit are saturated. When the batch is full and can't be sent the
+ * oldest sample makes room.
+ */
+final class TickBatch {
+
+    static final int VERSION = 2;
+    static final int HEADER_SIZE = 3;
+    static final int SAMPLE_SIZE = 32;
+
+    private final byte[] buffer;
+    private final int capacity;
+    private int count;
+
+    TickBatch(int capacity, int intervalSeconds) {
+        this.capacity = capacity;
+        this.buffer = new byte[HEADER_SIZE + capacity * SAMPLE_SIZE];
+        buffer[0] = VERSION;
+        buffer[2] = (byte) intervalSeconds;
+    }
+
+    void add(TickSampler sampler, long entities, long chunks, int players) {
+        if (count == capacity) {
+            System.arraycopy(buffer, HEADER_SIZE + SAMPLE_SIZE, buffer, HEADER_SIZE, (capacity - 1) * SAMPLE_SIZE);
+            count--;
+        }
+        int offset = HEADER_SIZE + count * SAMPLE_SIZE;
+        writeShort(offset, hundredths(sampler.getTps()));
+        writeInt(offset + 2, hundredths(sampler.getAverage()));
+        writeInt(offset + 6, hundredths(sampler.getP50()));
+        writeInt(offset + 10, hundredths(sampler.getP95()));
+        writeInt(offset + 14, hundredths(sampler.getP99()));
+        writeInt(offset + 18, hundredths(sampler.getMax()));
+        writeInt(offset + 22, entities);
+        writeInt(offset + 26, chunks);
+        writeShort(offset + 30, players);
+        count++;
+    }
+
+    boolean isFull() {
+        return count == capacity;
+    }
+
+    /**
+     * @return the message for the samples so far; the batch is empty afterwards
+     */
+    byte[] drain() {
+        buffer[1] = (byte) count;
+        byte[] message = Arrays.copyOf(buffer, HEADER_SIZE + count * SAMPLE_SIZE);
+        count = 0;
+        return message;
+    }
+
+    private static long hundredths(double value) {
+        return Math.round(value * 100);
+    }
+
+    private void writeShort(int offset, long value) {
+        int clamped = (int) Math.max(0, Math.min(0xffff, value));
+        buffer[offset] = (byte) (clamped >>> 8);
+        buffer[offset + 1] = (byte) clamped;
+    }
+
+    private void writeInt(int offset, long value) {
+        long clamped = Math.max(0, Math.min(0xffffffffL, value));
+        buffer[offset] = (byte) (clamped >>> 24);
+        buffer[offset + 1] = (byte) (clamped >>> 16);
+        buffer[offset + 2] = (byte) (clamped >>> 8);
+        buffer[offset + 3] = (byte) clamped;
+    }
+}
@@ -0,0 +1,81 @@
+package net.bubblecraft.bubblelog.agent;
+
+import java.util.Arrays;
+
+/**
+ * Collects the duration of every tick between two samples and boils them down to TPS and
+ * tick time percentiles. Durations go into a preallocated array that only grows when a
+ * sample interval holds more ticks than expected.
+ *
+ * Only used from the server thread.
+ */
+final class TickSampler {
+
+    private double[] durations;
+    private double[] sorted;
+    private int ticks;
+    private long startNanos = System.nanoTime();
+
+    // Results of the last sample()
+    private double tps;
+    private double average;
+    private double p50;
+    private double p95;
+    private double p99;
+    private double max;
+
+    TickSampler(int intervalSeconds) {
+        // Room for a full interval at 20 TPS plus catch-up ticks
+        this.durations = new double[intervalSeconds * 20 + 64];
+        this.sorted = new double[durations.length];
+    }
+
+    void record(double millis) {
+        if (ticks == durations.length) {
+            durations = Arrays.copyOf(durations, ticks * 2);
+            sorted = new double[durations.length];
+        }
+        durations[ticks++] = millis;
+    }
+
+    /**
+     * Computes the figures for the ticks since the previous call and starts a new interval
+     */
+    void sample() {
+        long now = System.nanoTime();
+        long elapsed = Math.max(1, now - startNanos);
+        startNanos = now;
+
+        // Ticks running ahead to catch up after a lag spike would otherwise show TPS above 20
+        tps = Math.min(20, ticks * 1_000_000_000.0 / elapsed);
+        if (ticks == 0) {
+            average = p50 = p95 = p99 = max = 0;
+            return;
+        }
+        double sum = 0;
+        for (int i = 0; i < ticks; i++) {
+            sum += durations[i];
+        }
+        average = sum / ticks;
+        System.arraycopy(durations, 0, sorted, 0, ticks);
+        Arrays.sort(sorted, 0, ticks);
+        p50 = percentile(0.50);
+        p95 = percentile(0.95);
+        p99 = percentile(0.99);
+        max = sorted[ticks - 1];
+        ticks = 0;
+    }
+
+    // Nearest rank
+    private double percentile(double quantile) {
+        int rank = (int) Math.ceil(quantile * ticks);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    double getTps() { return tps; }
+    double getAverage() { return average; }
+    double getP50() { return p50; }
+    double getP95() { return p95; }
+    double getP99() { return p99; }
+    double getMax() { return max; }
+}
@@ -0,0 +1,540 @@
+package net.bubblecraft.bubblelog;
+
+import com.google.inject.Inject;
+import com.velocitypowered.api.command.CommandMeta;
+import com.velocitypowered.api.event.Subscribe;
+import com.velocitypowered.api.event.proxy.ProxyInitializeEvent;
+import com.velocitypowered.api.event.proxy.ProxyShutdownEvent;
+import com.velocitypowered.api.plugin.Plugin;
+import com.velocitypowered.api.plugin.annotation.DataDirectory;
+import com.velocitypowered.api.proxy.ProxyServer;
+import net.bubblecraft.bubblelog.config.ConfigManager;
+import net.bubblecraft.bubblelog.monitor.BackendTickCollector;
+import net.bubblecraft.bubblelog.monitor.LogCompressor;
+import net.bubblecraft.bubblelog.monitor.SystemMonitor;
+import net.bubblecraft.bubblelog.alert.AlertManager;
+import net.bubblecraft.bubblelog.alert.StatusReporter;
+import net.bubblecraft.bubblelog.command.BubbleLogCommand;
+import net.bubblecraft.bubblelog.export.DashboardServer;
+import net.bubblecraft.bubblelog.export.LineProtocolExporter;
+import net.bubblecraft.bubblelog.export.PrometheusExporter;
+import net.bubblecraft.bubblelog.export.StatsdExporter;
+import net.bubblecraft.bubblelog.jmx.ControlBean;
+import net.bubblecraft.bubblelog.jmx.JmxRegistry;
+import net.bubblecraft.bubblelog.jmx.MetricsBean;
+import net.bubblecraft.bubblelog.monitor.ThreadProfiler;
+import net.bubblecraft.bubblelog.storage.HistoryQueryService;
+import net.bubblecraft.bubblelog.storage.LogImporter;
+import net.bubblecraft.bubblelog.storage.MetricStore;
+import net.bubblecraft.bubblelog.velocity.BackendTickListener;
+import net.bubblecraft.bubblelog.velocity.VelocityProxyPlatform;
+import org.slf4j.Logger;
+
+import java.nio.file.Path;
+import com.velocitypowered.api.scheduler.ScheduledTask;
+import java.util.concurrent.TimeUnit;
+
+@Plugin(
+    id = "bubblelog",
+    name = "BubbleLog",
+    version = "2.0.2",
+    description = "Advanced system monitoring for Velocity with hosting-friendly design",
+    authors = {"BubbleCraft"}
+)
+public class BubbleLog {
+    
+    private final ProxyServer server;
+    private final Logger logger;
+    private final Path dataDirectory;
+    private ConfigManager configManager;
+    private SystemMonitor systemMonitor;
+    private AlertManager alertManager;
+    private ScheduledTask monitoringTask;
+    private StatusReporter statusReporter;
+    private ScheduledTask statusReportTask;
+    private MetricStore metricStore;
+    private HistoryQueryService historyQueryService;
+    private LogImporter logImporter;
+    private LogCompressor logCompressor;
+    private PrometheusExporter prometheusExporter;
+    private StatsdExporter statsdExporter;
+    private LineProtocolExporter lineProtocolExporter;
+    private ThreadProfiler threadProfiler;
+    private JmxRegistry jmxRegistry;
+    private DashboardServer dashboardServer;
+    
+    @Inject
+    public BubbleLog(ProxyServer server, Logger logger, @DataDirectory Path dataDirectory) {
+        this.server = server;
+        this.logger = logger;
+        this.dataDirectory = dataDirectory;
+    }
+    
+    @Subscribe
+    public void onProxyInitialization(ProxyInitializeEvent event) {
+        logger.info("BubbleLog is starting up...");
+        
+        try {
+            // Initialize configuration
+            configManager = new ConfigManager(dataDirectory, logger);
+            configManager.loadConfig();
+            
+            logger.info("Configuration loaded successfully");
+            
+        } catch (Exception e) {
+            logger.error("Failed to load configuration - using defaults", e);
+            // Create a minimal config manager with defaults
+            configManager = new ConfigManager(dataDirectory, logger);
+        }
+        
+        try {
+            // Initialize alert manager
+            alertManager = new AlertManager(dataDirectory, logger, configManager);
+            
+            // Initialize system monitor with proxy server reference
+            systemMonitor = new SystemMonitor(dataDirectory, logger, configManager, alertManager, new VelocityProxyPlatform(server));
+            
+            // Aggregate every tick for the periodic Discord status report
+            statusReporter = new StatusReporter(logger, configManager, alertManager);
+            systemMonitor.addSnapshotListener(statusReporter);
+            
+            // Gzip finished usage and alert logs in the background
+            logCompressor = new LogCompressor(dataDirectory.resolve("logs"), alertManager.getAlertWriter(),
+                configManager, logger);
+            logCompressor.start();
+            
+            threadProfiler = new ThreadProfiler(dataDirectory.resolve("profiles"), logger);
+            
+            if (configManager.isHistoryEnabled()) {
+                metricStore = new MetricStore(dataDirectory.resolve("history"), logger, configManager);
+                metricStore.start();
+                systemMonitor.addSnapshotListener(metricStore);
+                historyQueryService = new HistoryQueryService(metricStore, logger);
+                logImporter = new LogImporter(metricStore, dataDirectory.resolve("logs"),
+                    dataDirectory.resolve("history").resolve("import-state.txt"), configManager, logger);
+            }
+            
+            logger.info("System components initialized successfully");
+            
+        } catch (Exception e) {
+            logger.error("Failed to initialize system components", e);
+            // Try to initialize without alerting
+            try {
+                systemMonitor = new SystemMonitor(dataDirectory, logger, configManager, null, new VelocityProxyPlatform(server));
+                logger.warn("System monitor initialized without alerting functionality");
+            } catch (Exception e2) {
+                logger.error("Critical failure - could not initialize system monitor", e2);
+                return; // Don't start monitoring if we can't initialize
+            }
+        }
+        
+        try {
+            // Start monitoring task
+            startMonitoring();
+            startStatusReports();
+            startExporters();
+            
+            // Register commands
+            registerCommands();
+            registerBackendTickChannel();
+            
+            logger.info("BubbleLog has been enabled successfully!");
+            logger.info("Monitoring interval: {} seconds", configManager.getMonitoringInterval());
+            logger.info("Log file: {}", configManager.getLogFileName());
+            if (configManager.isPerformanceAlertsEnabled()) {
+                logger.info("Performance alerts: ENABLED");
+            } else {
+                logger.info("Performance alerts: DISABLED");
+            }
+            
+        } catch (Exception e) {
+            logger.error("Failed to start monitoring - plugin will remain inactive", e);
+        }
+    }
+    
+    @Subscribe
+    public void onProxyShutdown(ProxyShutdownEvent event) {
+        logger.info("BubbleLog is shutting down...");
+        
+        try {
+            if (monitoringTask != null) {
+                monitoringTask.cancel();
+                logger.debug("Monitoring task cancelled");
+            }
+        } catch (Exception e) {
+            logger.warn("Error cancelling monitoring task", e);
+        }
+        
+        try {
+            if (statusReportTask != null) {
+                statusReportTask.cancel();
+                logger.debug("Status report task cancelled");
+            }
+        } catch (Exception e) {
+            logger.warn("Error cancelling status report task", e);
+        }
+        
+        try {
+            if (systemMonitor != null) {
+                systemMonitor.shutdown();
+                logger.debug("System monitor shutdown completed");
+            }
+        } catch (Exception e) {
+            logger.warn("Error shutting down system monitor", e);
+        }
+        
+        try {
+            if (prometheusExporter != null) {
+                prometheusExporter.shutdown();
+            }
+        } catch (Exception e) {
+            logger.warn("Error stopping Prometheus endpoint", e);
+        }
+        
+        try {
+            if (statsdExporter != null) {
+                systemMonitor.removeSnapshotListener(statsdExporter);
+                statsdExporter.shutdown();
+            }
+        } catch (Exception e) {
+            logger.warn("Error stopping StatsD export", e);
+        }
+        
+        try {
+            if (lineProtocolExporter != null) {
+                systemMonitor.removeSnapshotListener(lineProtocolExporter);
+                lineProtocolExporter.shutdown();
+            }
+        } catch (Exception e) {
+            logger.warn("Error stopping line protocol export", e);
+        }
+        
+        try {
+            if (dashboardServer != null) {
+                systemMonitor.removeSnapshotListener(dashboardServer);
+                dashboardServer.shutdown();
+            }
+        } catch (Exception e) {
+            logger.warn("Error stopping dashboard", e);
+        }
+        
+        try {
+            if (jmxRegistry != null) {
+                jmxRegistry.unregister();
+            }
+            if (threadProfiler != null) {
+                threadProfiler.cancel();
+            }
+        } catch (Exception e) {
+            logger.warn("Error unregistering JMX MBeans", e);
+        }
+        
+        try {
+            if (logCompressor != null) {
+                logCompressor.shutdown();
+            }
+        } catch (Exception e) {
+            logger.warn("Error shutting down log compressor", e);
+        }
+        
+        try {
+            if (logImporter != null) {
+                logImporter.cancel();
+            }
+            if (historyQueryService != null) {
+                historyQueryService.shutdown();
+            }
+            if (metricStore != null) {
+                metricStore.close();
+                logger.debug("Metric history closed");
+            }
+        } catch (Exception e) {
+            logger.warn("Error closing metric history", e);
+        }
+        
+        try {
+            if (alertManager != null) {
+                alertManager.shutdown();
+                logger.debug("Alert manager shutdown completed");
+            }
+        } catch (Exception e) {
+            logger.warn("Error shutting down alert manager", e);
+        }
+        
+        logger.info("BubbleLog has been disabled.");
+    }
+    
+    private void startMonitoring() {
+        try {
+            int interval = configManager.getMonitoringInterval();
+            
+            // Validate interval (minimum 5 seconds to avoid performance issues on shared hosting)
+            if (interval <= 0) {
+                logger.warn("Invalid monitoring interval: {}, using default of 30 seconds", interval);
+                interval = 30;
+            } else if (interval < 5) {
+                logger.warn("Monitoring interval {} is too low for shared hosting, using minimum of 5 seconds", interval);
+                interval = 5;
+            }
+            
+            final int finalInterval = interval;
+            
+            // Use async task to avoid blocking the main thread (important for shared hosting)
+            monitoringTask = server.getScheduler().buildTask(this, () -> {
+                try {
+                    // Run monitoring in async to prevent blocking proxy
+                    if (systemMonitor != null) {
+                        // Wrap in try-catch to ensure one failure doesn't stop monitoring
+                        server.getScheduler().buildTask(this, () -> {
+                            try {
+                                systemMonitor.logSystemUsage();
+                            } catch (Exception e) {
+                                logger.warn("Error during async system monitoring - monitoring will continue", e);
+                            }
+                        }).schedule();
+                    }
+                } catch (Exception e) {
+                    logger.warn("Error scheduling monitoring task - monitoring will continue", e);
+                    // Don't let individual monitoring errors stop the scheduler
+                }
+            })
+                .repeat(finalInterval, TimeUnit.SECONDS)
+                .schedule();
+            
+            logger.info("System monitoring started with interval of {} seconds (async mode)", finalInterval);
+            
+        } catch (Exception e) {
+            logger.error("Failed to start monitoring task", e);
+            throw e; // Re-throw to be handled by caller
+        }
+    }
+    
+    private void startStatusReports() {
+        if (statusReporter == null) {
+            return;
+        }
+        
+        // The interval is read once at startup; the enabled flag is re-checked on every run
+        // so reports can be switched on and off with a reload
+        int interval = configManager.getDiscordStatusReportInterval();
+        if (interval < 60) {
+            logger.warn("Status report interval {} is too low, using minimum of 60 seconds", interval);
+            interval = 60;
+        }
+        
+        statusReportTask = server.getScheduler().buildTask(this, () -> {
+            try {
+                statusReporter.sendReport();
+            } catch (Exception e) {
+                logger.warn("Error sending status report", e);
+            }
+        })
+            .delay(interval, TimeUnit.SECONDS)
+            .repeat(interval, TimeUnit.SECONDS)
+            .schedule();
+        
+        if (configManager.isDiscordStatusReportsEnabled()) {
+            logger.info("Discord status reports scheduled every {} seconds", interval);
+        }
+    }
+    
+    private void startExporters() {
+        if (configManager.isPrometheusEnabled()) {
+            try {
+                prometheusExporter = new PrometheusExporter(configManager, logger, systemMonitor, alertManager);
+                systemMonitor.addSnapshotListener(prometheusExporter);
+                prometheusExporter.start();
+            } catch (Exception e) {
+                // Usually the port is taken; monitoring carries on without the endpoint
+                logger.warn("Failed to start Prometheus endpoint on {}:{}", configManager.getPrometheusBindAddress(),
+                    configManager.getPrometheusPort(), e);
+                if (prometheusExporter != null) {
+                    systemMonitor.removeSnapshotListener(prometheusExporter);
+                    prometheusExporter.shutdown();
+                    prometheusExporter = null;
+                }
+            }
+        }
+        if (configManager.isStatsdEnabled()) {
+            try {
+                statsdExporter = new StatsdExporter(configManager, logger);
+                statsdExporter.start();
+                systemMonitor.addSnapshotListener(statsdExporter);
+            } catch (Exception e) {
+                logger.warn("Failed to start StatsD export to {}:{}", configManager.getStatsdHost(),
+                    configManager.getStatsdPort(), e);
+                statsdExporter.shutdown();
+                statsdExporter = null;
+            }
+        }
+        if (configManager.isLineProtocolEnabled()) {
+            try {
+                lineProtocolExporter = new LineProtocolExporter(configManager, logger, dataDirectory.resolve("outbox"));
+                lineProtocolExporter.start();
+                systemMonitor.addSnapshotListener(lineProtocolExporter);
+            } catch (Exception e) {
+                logger.warn("Failed to start line protocol export to {}", configManager.getLineProtocolUrl(), e);
+                lineProtocolExporter.shutdown();
+                lineProtocolExporter = null;
+            }
+        }
+        if (configManager.isDashboardEnabled()) {
+            try {
+                dashboardServer = new DashboardServer(configManager, logger);
+                dashboardServer.start();
+                systemMonitor.addSnapshotListener(dashboardServer);
+            } catch (Exception e) {
+                logger.warn("Failed to start dashboard on {}:{}", configManager.getDashboardBindAddress(),
+                    configManager.getDashboardPort(), e);
+                dashboardServer = null;
+            }
+        }
+        if (configManager.isJmxEnabled()) {
+            try {
+                jmxRegistry = new JmxRegistry(logger)
+                    .add(JmxRegistry.METRICS, new MetricsBean(systemMonitor))
+                    .add(JmxRegistry.CONTROL, threadProfiler == null ? null : new ControlBean(configManager,
+                        threadProfiler, historyQueryService, dataDirectory.resolve("dumps"), logger))
+                    .add(JmxRegistry.ALERTS, alertManager == null ? null : alertManager.getJmxSink());
+                jmxRegistry.register();
+            } catch (Exception e) {
+                logger.warn("Failed to register JMX MBeans", e);
+                jmxRegistry.unregister();
+                jmxRegistry = null;
+            }
+        }
+    }
+    
+    private void registerCommands() {
+        try {
+            // Register the main BubbleLog command
+            BubbleLogCommand bubbleLogCommand = new BubbleLogCommand(this, logger);
+            
+            CommandMeta commandMeta = server.getCommandManager()
+                .metaBuilder("bubblelog")
+                .aliases("bl", "log")
+                .plugin(this)
+                .build();
+            
+            server.getCommandManager().register(commandMeta, bubbleLogCommand);
+            
+            logger.info("Commands registered successfully");
+            
+        } catch (Exception e) {
+            logger.error("Failed to register commands", e);
+        }
+    }
+    
+    private void registerBackendTickChannel() {
+        BackendTickCollector collector = systemMonitor.getBackendTickCollector();
+        if (collector == null) {
+            return;
+        }
+        try {
+            // Reports from the BubbleLogAgent plugin on the backends
+            server.getChannelRegistrar().register(BackendTickListener.CHANNEL);
+            server.getEventManager().register(this, new BackendTickListener(collector));
+            logger.debug("Listening for backend tick reports on {}", BackendTickCollector.CHANNEL);
+        } catch (Exception e) {
+            logger.warn("Failed to register the backend tick channel - backend TPS will be missing", e);
+        }
+    }
+    
+    public ProxyServer getServer() {
+        return server;
+    }
+    
+    public Logger getLogger() {
+        return logger;
+    }
+    
+    public Path getDataDirectory() {
+        return dataDirectory;
+    }
+    
+    public ConfigManager getConfigManager() {
+        return configManager;
+    }
+    
+    public AlertManager getAlertManager() {
+        return alertManager;
+    }
+    
+    public SystemMonitor getSystemMonitor() {
+        return systemMonitor;
+    }
+    
+    public StatusReporter getStatusReporter() {
+        return statusReporter;
+    }
+    
+    /**
+     * @return the metric history store, or {@code null} if history is disabled
+     */
+    public MetricStore getMetricStore() {
+        return metricStore;
+    }
+    
+    /**
+     * @return the background history query runner, or {@code null} if history is disabled
+     */
+    public HistoryQueryService getHistoryQueryService() {
+        return historyQueryService;
+    }
+    
+    /**
+     * @return the usage log importer, or {@code null} if history is disabled
+     */
+    public LogImporter getLogImporter() {
+        return logImporter;
+    }
+    
+    /**
+     * @return the background log compressor, or {@code null} if initialization failed
+     */
+    public LogCompressor getLogCompressor() {
+        return logCompressor;
+    }
+    
+    /**
+     * @return the Prometheus endpoint, or {@code null} if it is disabled or failed to bind
+     */
+    public PrometheusExporter getPrometheusExporter() {
+        return prometheusExporter;
+    }
+    
+    /**
+     * @return the StatsD exporter, or {@code null} if it is disabled or failed to start
+     */
+    public StatsdExporter getStatsdExporter() {
+        return statsdExporter;
+    }
+    
+    /**
+     * @return the line protocol exporter, or {@code null} if it is disabled or failed to start
+     */
+    public LineProtocolExporter getLineProtocolExporter() {
+        return lineProtocolExporter;
+    }
+    
+    /**
+     * @return the live dashboard, or {@code null} if it is disabled or failed to bind
+     */
+    public DashboardServer getDashboardServer() {
+        return dashboardServer;
+    }
+    
+    /**
+     * @return the sampling profiler, or {@code null} if initialization failed
+     */
+    public ThreadProfiler getThreadProfiler() {
+        return threadProfiler;
+    }
+    
+    /**
+     * @return the registered JMX MBeans, or {@code null} if JMX is disabled or registration failed
+     */
+    public JmxRegistry getJmxRegistry() {
+        return jmxRegistry;
+    }
+}
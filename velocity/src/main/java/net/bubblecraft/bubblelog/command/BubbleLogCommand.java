@@ -6,18 +6,43 @@ import com.velocitypowered.api.proxy.Player;
 import net.bubblecraft.bubblelog.BubbleLog;
 import net.bubblecraft.bubblelog.config.ConfigManager;
 import net.bubblecraft.bubblelog.alert.AlertManager;
+import net.bubblecraft.bubblelog.alert.WebhookDispatcher;
+import net.bubblecraft.bubblelog.alert.sink.AlertSink;
+import net.bubblecraft.bubblelog.alert.sink.SinkMetrics;
+import net.bubblecraft.bubblelog.alert.sink.WebhookAlertSink;
+import net.bubblecraft.bubblelog.export.DashboardServer;
+import net.bubblecraft.bubblelog.export.LineProtocolExporter;
+import net.bubblecraft.bubblelog.export.PrometheusExporter;
+import net.bubblecraft.bubblelog.export.StatsdExporter;
+import net.bubblecraft.bubblelog.jmx.JmxRegistry;
+import net.bubblecraft.bubblelog.monitor.LogCompressor;
 import net.bubblecraft.bubblelog.monitor.SystemMonitor;
+import net.bubblecraft.bubblelog.storage.HistoryQueryService;
+import net.bubblecraft.bubblelog.storage.LogImporter;
+import net.bubblecraft.bubblelog.storage.MetricStore;
+import net.bubblecraft.bubblelog.util.FramedLogWriter;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
 import net.kyori.adventure.text.format.TextDecoration;
 import org.slf4j.Logger;
 
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 public class BubbleLogCommand implements SimpleCommand {
     
+    private static final DateTimeFormatter HISTORY_TIME_FORMAT =
+        DateTimeFormatter.ofPattern("MM-dd HH:mm").withZone(ZoneId.systemDefault());
+    private static final long DEFAULT_HISTORY_RANGE = 24 * 3600;
+    private static final int DEFAULT_HISTORY_BUCKETS = 12;
+    private static final int MAX_HISTORY_BUCKETS = 60;
+    private static final long IMPORT_PROGRESS_INTERVAL_NANOS = 5_000_000_000L;
+    
     private final BubbleLog plugin;
     private final Logger logger;
     
@@ -56,6 +81,8 @@ public class BubbleLogCommand implements SimpleCommand {
             case "status" -> handleStatus(source);
             case "info" -> handleInfo(source);
             case "env", "environment" -> handleEnvironment(source);
+            case "history" -> handleHistory(source, args);
+            case "import" -> handleImport(source, args);
             default -> {
                 source.sendMessage(Component.text("Unknown command. Use /bubblelog help for usage.", NamedTextColor.RED));
                 sendHelp(source);
@@ -190,6 +217,163 @@ public class BubbleLogCommand implements SimpleCommand {
         }
     }
     
+    private void handleHistory(CommandSource source, String[] args) {
+        HistoryQueryService history = plugin.getHistoryQueryService();
+        if (history == null) {
+            source.sendMessage(Component.text("❌ Metric history is disabled (history.enabled in config)", NamedTextColor.RED));
+            return;
+        }
+        
+        if (args.length < 2) {
+            history.listSeries().thenAccept(series -> {
+                source.sendMessage(Component.text("📈 Stored metrics:", NamedTextColor.AQUA, TextDecoration.BOLD));
+                source.sendMessage(Component.text("  " + (series.isEmpty() ? "(none yet)" : String.join(", ", series)), NamedTextColor.GRAY));
+                source.sendMessage(Component.text("Usage: /bubblelog history <metric> [range, e.g. 6h or 7d] [buckets]", NamedTextColor.YELLOW));
+            });
+            return;
+        }
+        
+        String series = args[1].toLowerCase();
+        String rangeLabel = args.length >= 3 ? args[2] : "24h";
+        long range = DEFAULT_HISTORY_RANGE;
+        int buckets = DEFAULT_HISTORY_BUCKETS;
+        try {
+            if (args.length >= 3) {
+                range = parseDuration(args[2]);
+            }
+            if (args.length >= 4) {
+                buckets = Math.max(1, Math.min(MAX_HISTORY_BUCKETS, Integer.parseInt(args[3])));
+            }
+        } catch (IllegalArgumentException e) {
+            source.sendMessage(Component.text("❌ Invalid range or bucket count. Examples: 30m, 6h, 7d", NamedTextColor.RED));
+            return;
+        }
+        
+        long to = Instant.now().getEpochSecond();
+        long from = to - range + 1;
+        source.sendMessage(Component.text("📈 " + series + " over the last " + rangeLabel + ":",
+            NamedTextColor.AQUA, TextDecoration.BOLD));
+        
+        // Buckets are sent as the query produces them
+        history.query(series, from, to, buckets, bucket -> source.sendMessage(Component.text(
+            "  " + HISTORY_TIME_FORMAT.format(Instant.ofEpochSecond(bucket.getStart()))
+                + "  avg " + "%.2f".formatted(bucket.getAverage())
+                + " · p95 " + "%.2f".formatted(bucket.getP95())
+                + " · min " + "%.2f".formatted(bucket.getMin())
+                + " · max " + "%.2f".formatted(bucket.getMax())
+                + " (" + bucket.getCount() + ")", NamedTextColor.GRAY)))
+            .thenAccept(stats -> {
+                if (stats.getPoints() == 0) {
+                    source.sendMessage(Component.text("No data for '" + series + "' in that range. Use /bubblelog history to list metrics.", NamedTextColor.YELLOW));
+                } else {
+                    String resolution = stats.getResolution().equals("raw") ? "raw samples" : stats.getResolution() + " rollups";
+                    source.sendMessage(Component.text("✅ " + stats.getPoints() + " samples from " + stats.getRecords()
+                        + " " + resolution + " in " + "%.1f".formatted(stats.getElapsedMillis()) + " ms", NamedTextColor.GREEN));
+                }
+            })
+            .exceptionally(throwable -> {
+                Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+                    ? throwable.getCause() : throwable;
+                if (cause instanceof IllegalArgumentException) {
+                    source.sendMessage(Component.text("❌ Unknown metric '" + series + "'. Use /bubblelog history to list metrics.", NamedTextColor.RED));
+                } else {
+                    source.sendMessage(Component.text("❌ History query failed: " + cause.getMessage(), NamedTextColor.RED));
+                }
+                return null;
+            });
+    }
+    
+    private void handleImport(CommandSource source, String[] args) {
+        LogImporter importer = plugin.getLogImporter();
+        if (importer == null) {
+            source.sendMessage(Component.text("❌ Metric history is disabled (history.enabled in config)", NamedTextColor.RED));
+            return;
+        }
+        
+        String action = args.length >= 2 ? args[1].toLowerCase() : "start";
+        switch (action) {
+            case "status" -> {
+                LogImporter.ImportProgress progress = importer.getProgress();
+                if (progress == null) {
+                    source.sendMessage(Component.text("No import has run since startup", NamedTextColor.YELLOW));
+                } else {
+                    sendImportProgress(source, progress, importer.isRunning());
+                }
+            }
+            case "cancel" -> {
+                if (importer.isRunning()) {
+                    importer.cancel();
+                    source.sendMessage(Component.text("⏹️ Import will stop after the current file; run it again to resume", NamedTextColor.YELLOW));
+                } else {
+                    source.sendMessage(Component.text("No import is running", NamedTextColor.YELLOW));
+                }
+            }
+            case "start" -> {
+                int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+                long[] lastReport = {System.nanoTime()};
+                CompletableFuture<LogImporter.ImportProgress> run = importer.start(threads, progress -> {
+                    long now = System.nanoTime();
+                    if (!progress.isFinished() && now - lastReport[0] >= IMPORT_PROGRESS_INTERVAL_NANOS) {
+                        lastReport[0] = now;
+                        sendImportProgress(source, progress, true);
+                    }
+                });
+                if (run == null) {
+                    source.sendMessage(Component.text("❌ An import is already running (/bubblelog import status)", NamedTextColor.RED));
+                    return;
+                }
+                source.sendMessage(Component.text("📥 Importing usage logs into history on " + threads + " thread(s)...", NamedTextColor.YELLOW));
+                run.thenAccept(progress -> sendImportProgress(source, progress, false))
+                    .exceptionally(throwable -> {
+                        source.sendMessage(Component.text("❌ Import failed: " + throwable.getMessage(), NamedTextColor.RED));
+                        return null;
+                    });
+            }
+            default -> source.sendMessage(Component.text("Usage: /bubblelog import [status|cancel]", NamedTextColor.YELLOW));
+        }
+    }
+    
+    private void sendImportProgress(CommandSource source, LogImporter.ImportProgress progress, boolean running) {
+        String files = (progress.getFilesSkipped() + progress.getFilesDone()) + "/" + progress.getFilesTotal() + " files";
+        String rate = "%,d lines/s".formatted(Math.round(progress.getLinesPerSecond()));
+        if (running) {
+            source.sendMessage(Component.text("  ⏳ " + files + ", " + "%,d".formatted(progress.getLines()) + " lines, "
+                + rate, NamedTextColor.GRAY));
+            return;
+        }
+        
+        String outcome = progress.isCancelled() ? "⏹️ Import cancelled: " : "✅ Import finished: ";
+        source.sendMessage(Component.text(outcome + files + " (" + progress.getFilesSkipped() + " already imported), "
+            + "%,d".formatted(progress.getLines()) + " lines in " + "%.1f".formatted(progress.getElapsedSeconds()) + " s, " + rate,
+            progress.isCancelled() ? NamedTextColor.YELLOW : NamedTextColor.GREEN));
+        source.sendMessage(Component.text("  " + "%,d".formatted(progress.getPointsWritten()) + " points written to "
+            + progress.getSegmentsWritten() + " day segment(s)"
+            + (progress.getMalformedLines() > 0 ? ", " + progress.getMalformedLines() + " unreadable line(s) skipped" : ""),
+            NamedTextColor.GRAY));
+    }
+    
+    // "30m", "6h", "7d" or plain seconds
+    private static long parseDuration(String text) {
+        String value = text.trim().toLowerCase();
+        if (value.isEmpty()) {
+            throw new IllegalArgumentException("empty duration");
+        }
+        char unit = value.charAt(value.length() - 1);
+        long multiplier = switch (unit) {
+            case 's' -> 1;
+            case 'm' -> 60;
+            case 'h' -> 3600;
+            case 'd' -> 86400;
+            default -> 0;
+        };
+        long amount = Long.parseLong(multiplier == 0 ? value : value.substring(0, value.length() - 1));
+        long seconds = amount * (multiplier == 0 ? 1 : multiplier);
+        if (seconds <= 0) {
+            throw new IllegalArgumentException("duration must be positive");
+        }
+        return seconds;
+    }
+    
     private void handleTestWebhook(CommandSource source) {
         source.sendMessage(Component.text("🧪 Testing Discord webhook...", NamedTextColor.YELLOW));
         
@@ -285,6 +469,73 @@ public class BubbleLogCommand implements SimpleCommand {
             source.sendMessage(createStatusLine("Network", configManager.isNetworkMonitoringEnabled()));
             source.sendMessage(createStatusLine("JVM", configManager.isJvmMonitoringEnabled()));
             source.sendMessage(createStatusLine("Connection Quality", configManager.isConnectionQualityMonitoringEnabled()));
+            source.sendMessage(createStatusLine("History", plugin.getMetricStore() != null));
+            MetricStore metricStore = plugin.getMetricStore();
+            if (metricStore != null && metricStore.getPointsWritten() > 0) {
+                source.sendMessage(Component.text("  History: " + metricStore.getPointsWritten() + " points, "
+                    + "%.2f".formatted((double) metricStore.getBytesWritten() / metricStore.getPointsWritten())
+                    + " bytes/point on disk this session, " + formatBytes(metricStore.getRollupBytesWritten())
+                    + " of rollups", NamedTextColor.GRAY));
+            }
+            source.sendMessage(createStatusLine("Log Compression", configManager.isLogCompressionEnabled()));
+            LogCompressor logCompressor = plugin.getLogCompressor();
+            if (logCompressor != null && logCompressor.getFilesCompressed() > 0) {
+                source.sendMessage(Component.text("  Compressed " + logCompressor.getFilesCompressed() + " log file(s) this session, "
+                    + formatBytes(logCompressor.getBytesSaved()) + " saved", NamedTextColor.GRAY));
+            }
+            source.sendMessage(Component.text("  💾 Log writes: fsync " + configManager.getLogFsyncPolicy().name().toLowerCase(),
+                NamedTextColor.GRAY));
+            SystemMonitor systemMonitor = plugin.getSystemMonitor();
+            if (systemMonitor != null) {
+                sendWriterStatus(source, "Usage log", systemMonitor.getLogWriter());
+            }
+            AlertManager alertManager = plugin.getAlertManager();
+            if (alertManager != null) {
+                sendWriterStatus(source, "Alert log", alertManager.getAlertWriter());
+            }
+            source.sendMessage(createStatusLine("Prometheus Endpoint", plugin.getPrometheusExporter() != null));
+            PrometheusExporter prometheusExporter = plugin.getPrometheusExporter();
+            if (prometheusExporter != null) {
+                source.sendMessage(Component.text("  Serving http://" + configManager.getPrometheusBindAddress() + ":"
+                    + configManager.getPrometheusPort() + configManager.getPrometheusPath() + ", "
+                    + prometheusExporter.getScrapes() + " scrape(s) this session", NamedTextColor.GRAY));
+            }
+            source.sendMessage(createStatusLine("StatsD Export", plugin.getStatsdExporter() != null));
+            StatsdExporter statsdExporter = plugin.getStatsdExporter();
+            if (statsdExporter != null) {
+                source.sendMessage(Component.text("  " + statsdExporter.getDatagramsSent() + " datagram(s) sent, "
+                    + statsdExporter.getDatagramsDropped() + " dropped (" + statsdExporter.getLinesDropped() + " metric lines), last tick "
+                    + "%.1f".formatted(statsdExporter.getLastSendNanos() / 1000.0) + "µs", NamedTextColor.GRAY));
+            }
+            source.sendMessage(createStatusLine("Line Protocol Export", plugin.getLineProtocolExporter() != null));
+            LineProtocolExporter lineProtocolExporter = plugin.getLineProtocolExporter();
+            if (lineProtocolExporter != null) {
+                StringBuilder line = new StringBuilder("  ")
+                    .append(lineProtocolExporter.getLinesSent()).append(" line(s) sent in ")
+                    .append(lineProtocolExporter.getRequestsSent()).append(" request(s), ")
+                    .append(lineProtocolExporter.getLinesSpilled()).append(" spilled, ")
+                    .append(lineProtocolExporter.getLinesDropped()).append(" dropped, ")
+                    .append(formatBytes(lineProtocolExporter.getQueuedBytes())).append(" queued, ")
+                    .append(formatBytes(lineProtocolExporter.getSpilledBytes())).append(" on disk");
+                if (lineProtocolExporter.getLastLagMillis() >= 0) {
+                    line.append(", lag ").append("%.1f".formatted(lineProtocolExporter.getLastLagMillis() / 1000.0)).append("s");
+                }
+                source.sendMessage(Component.text(line.toString(),
+                    lineProtocolExporter.isEndpointDown() ? NamedTextColor.YELLOW : NamedTextColor.GRAY));
+            }
+            source.sendMessage(createStatusLine("Live Dashboard", plugin.getDashboardServer() != null));
+            DashboardServer dashboardServer = plugin.getDashboardServer();
+            if (dashboardServer != null) {
+                source.sendMessage(Component.text("  " + dashboardServer.getClients() + " client(s) connected, "
+                    + dashboardServer.getEventsSent() + " sample(s) pushed, "
+                    + dashboardServer.getSlowClientsDropped() + " slow client(s) dropped", NamedTextColor.GRAY));
+            }
+            source.sendMessage(createStatusLine("JMX MBeans", plugin.getJmxRegistry() != null));
+            JmxRegistry jmxRegistry = plugin.getJmxRegistry();
+            if (jmxRegistry != null) {
+                source.sendMessage(Component.text("  " + jmxRegistry.getRegistered().size()
+                    + " MBean(s) under net.bubblecraft.bubblelog", NamedTextColor.GRAY));
+            }
             
             source.sendMessage(Component.text(""));
             
@@ -294,7 +545,31 @@ public class BubbleLogCommand implements SimpleCommand {
             source.sendMessage(createStatusLine("Discord Webhook", configManager.isDiscordWebhookEnabled()));
             source.sendMessage(createStatusLine("Discord Status Reports", configManager.isDiscordStatusReportsEnabled()));
             source.sendMessage(createStatusLine("Slack Webhook", configManager.isSlackWebhookEnabled()));
-            
+
+            if (alertManager != null) {
+                for (AlertSink sink : alertManager.getSinks()) {
+                    if (!sink.isEnabled() && sink.getMetrics().getSent() == 0) {
+                        continue;
+                    }
+                    SinkMetrics metrics = sink.getMetrics();
+                    StringBuilder line = new StringBuilder("  ").append(sink.getName()).append(" delivery: ")
+                        .append(metrics.getSent()).append(" sent, ")
+                        .append(metrics.getDropped()).append(" dropped, ")
+                        .append(metrics.getFailed()).append(" failed, ")
+                        .append(sink.getQueuedCount()).append(" queued");
+                    if (sink instanceof WebhookAlertSink webhookSink) {
+                        WebhookDispatcher dispatcher = webhookSink.getDispatcher();
+                        line.append(", ").append(dispatcher.getRetryCount()).append(" retried, ")
+                            .append(dispatcher.getOutboxPendingCount()).append(" in outbox");
+                    }
+                    long p95 = metrics.getLatencyQuantileMillis(0.95);
+                    if (p95 >= 0) {
+                        line.append(", p95 ≤").append(p95).append("ms");
+                    }
+                    source.sendMessage(Component.text(line.toString(), NamedTextColor.GRAY));
+                }
+            }
+
             source.sendMessage(Component.text(""));
             
             // Configuration details
@@ -346,6 +621,10 @@ public class BubbleLogCommand implements SimpleCommand {
             .append(Component.text(" - Send test alert", NamedTextColor.GRAY)));
         source.sendMessage(Component.text("/bubblelog status", NamedTextColor.GREEN)
             .append(Component.text(" - Show monitoring status", NamedTextColor.GRAY)));
+        source.sendMessage(Component.text("/bubblelog history [metric] [range] [buckets]", NamedTextColor.GREEN)
+            .append(Component.text(" - Query stored metric history", NamedTextColor.GRAY)));
+        source.sendMessage(Component.text("/bubblelog import [status|cancel]", NamedTextColor.GREEN)
+            .append(Component.text(" - Import existing usage logs into history", NamedTextColor.GRAY)));
         source.sendMessage(Component.text("/bubblelog env", NamedTextColor.GREEN)
             .append(Component.text(" - Show environment capabilities", NamedTextColor.GRAY)));
         source.sendMessage(Component.text("/bubblelog info", NamedTextColor.GREEN)
@@ -402,6 +681,26 @@ public class BubbleLogCommand implements SimpleCommand {
         source.sendMessage(Component.text("  ⏱️ Interval: " + config.getMonitoringInterval() + " seconds", NamedTextColor.GRAY));
     }
     
+    private void sendWriterStatus(CommandSource source, String name, FramedLogWriter writer) {
+        StringBuilder line = new StringBuilder("    " + name + ": " + writer.getRecordsWritten() + " records, "
+            + writer.getSyncs() + " syncs, " + formatBytes(writer.getUnsyncedBytes()) + " unsynced");
+        if (writer.getLastGapSeconds() >= 0) {
+            line.append(", unlogged for ").append(writer.getLastGapSeconds()).append("s before restart");
+        }
+        boolean repaired = writer.getTailsRepaired() > 0;
+        if (repaired) {
+            line.append(", ").append(writer.getRecordsDropped()).append(" damaged record(s) (")
+                .append(formatBytes(writer.getBytesTruncated())).append(") removed after a crash");
+        }
+        source.sendMessage(Component.text(line.toString(), repaired ? NamedTextColor.YELLOW : NamedTextColor.GRAY));
+    }
+    
+    private String formatBytes(long bytes) {
+        if (bytes < 1024) return bytes + " B";
+        if (bytes < 1024 * 1024) return "%.2f KB".formatted(bytes / 1024.0);
+        return "%.2f MB".formatted(bytes / (1024.0 * 1024));
+    }
+    
     private Component createStatusLine(String name, boolean enabled) {
         return Component.text("  " + (enabled ? "✅" : "❌") + " " + name, 
             enabled ? NamedTextColor.GREEN : NamedTextColor.RED);
@@ -417,12 +716,30 @@ public class BubbleLogCommand implements SimpleCommand {
         String[] args = invocation.arguments();
         
         if (args.length == 0) {
-            return List.of("reload", "validate", "test", "status", "env", "info", "help");
+            return List.of("reload", "validate", "test", "status", "history", "import", "env", "info", "help");
         }
         
         if (args.length == 1) {
             String partial = args[0].toLowerCase();
-            return List.of("reload", "validate", "test", "status", "env", "info", "help").stream()
+            return List.of("reload", "validate", "test", "status", "history", "import", "env", "info", "help").stream()
+                .filter(cmd -> cmd.startsWith(partial))
+                .toList();
+        }
+        
+        if (args.length == 2 && args[0].equalsIgnoreCase("history")) {
+            MetricStore metricStore = plugin.getMetricStore();
+            if (metricStore == null) {
+                return List.of();
+            }
+            String partial = args[1].toLowerCase();
+            return metricStore.getSeriesNames().stream()
+                .filter(series -> series.startsWith(partial))
+                .toList();
+        }
+        
+        if (args.length == 2 && args[0].equalsIgnoreCase("import")) {
+            String partial = args[1].toLowerCase();
+            return List.of("status", "cancel").stream()
                 .filter(cmd -> cmd.startsWith(partial))
                 .toList();
         }
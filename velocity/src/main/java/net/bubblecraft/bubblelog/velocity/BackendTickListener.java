@@ -0,0 +1,34 @@
+package net.bubblecraft.bubblelog.velocity;
+
+import com.velocitypowered.api.event.Subscribe;
+import com.velocitypowered.api.event.connection.PluginMessageEvent;
+import com.velocitypowered.api.proxy.ServerConnection;
+import com.velocitypowered.api.proxy.messages.MinecraftChannelIdentifier;
+import net.bubblecraft.bubblelog.monitor.BackendTickCollector;
+
+/**
+ * Hands tick reports from the BubbleLogAgent plugin on the backends to the {@link BackendTickCollector}.
+ * Messages on the channel are never forwarded; those sent by clients are dropped.
+ */
+public class BackendTickListener {
+
+    public static final MinecraftChannelIdentifier CHANNEL = MinecraftChannelIdentifier.from(BackendTickCollector.CHANNEL);
+
+    private final BackendTickCollector collector;
+
+    public BackendTickListener(BackendTickCollector collector) {
+        this.collector = collector;
+    }
+
+    @Subscribe
+    public void onPluginMessage(PluginMessageEvent event) {
+        if (!CHANNEL.equals(event.getIdentifier())) {
+            return;
+        }
+        // Never forwarded, even while disabled
+        event.setResult(PluginMessageEvent.ForwardResult.handled());
+        if (event.getSource() instanceof ServerConnection connection) {
+            collector.accept(connection.getServerInfo().getName(), event.getData());
+        }
+    }
+}
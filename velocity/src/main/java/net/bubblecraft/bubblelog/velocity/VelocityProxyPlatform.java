@@ -0,0 +1,84 @@
+package net.bubblecraft.bubblelog.velocity;
+
+import com.velocitypowered.api.proxy.ProxyServer;
+import com.velocitypowered.api.proxy.server.RegisteredServer;
+import net.bubblecraft.bubblelog.platform.ProxyPlatform;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link ProxyPlatform} backed by the Velocity proxy
+ */
+public class VelocityProxyPlatform implements ProxyPlatform {
+
+    private final ProxyServer server;
+    // One wrapper per registered server, so collectors get the same instance on every call
+    private final Map<RegisteredServer, VelocityBackend> backends = new ConcurrentHashMap<>();
+
+    public VelocityProxyPlatform(ProxyServer server) {
+        this.server = server;
+    }
+
+    @Override
+    public int getPlayerCount() {
+        return server.getPlayerCount();
+    }
+
+    @Override
+    public int getMaxPlayers() {
+        return server.getConfiguration().getShowMaxPlayers();
+    }
+
+    @Override
+    public InetSocketAddress getBoundAddress() {
+        return server.getBoundAddress();
+    }
+
+    @Override
+    public List<? extends Backend> getBackends() {
+        Collection<RegisteredServer> registered = server.getAllServers();
+        List<VelocityBackend> current = new ArrayList<>(registered.size());
+        for (RegisteredServer registeredServer : registered) {
+            current.add(backends.computeIfAbsent(registeredServer, VelocityBackend::new));
+        }
+        // Servers that were unregistered
+        if (backends.size() > current.size()) {
+            backends.keySet().retainAll(registered);
+        }
+        return current;
+    }
+
+    private static final class VelocityBackend implements Backend {
+        private final RegisteredServer server;
+
+        private VelocityBackend(RegisteredServer server) {
+            this.server = server;
+        }
+
+        @Override
+        public String getName() {
+            return server.getServerInfo().getName();
+        }
+
+        @Override
+        public InetSocketAddress getAddress() {
+            return server.getServerInfo().getAddress();
+        }
+
+        @Override
+        public int getPlayerCount() {
+            return server.getPlayersConnected().size();
+        }
+
+        @Override
+        public CompletableFuture<?> ping() {
+            return server.ping();
+        }
+    }
+}